@@ -8,6 +8,7 @@ import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import it.niedermann.nextcloud.deck.database.DatabaseMaintenanceWorker;
 import it.niedermann.nextcloud.deck.repository.PreferencesRepository;
 import it.niedermann.nextcloud.deck.util.CustomAppGlideModule;
 
@@ -27,6 +28,8 @@ public class DeckApplication extends Application {
         repo.isDebugModeEnabled().thenAcceptAsync(DeckLog::enablePersistentLogs, executor);
 
         super.onCreate();
+
+        DatabaseMaintenanceWorker.schedule(this);
     }
 
     @Override
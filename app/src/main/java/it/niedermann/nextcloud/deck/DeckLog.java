@@ -19,6 +19,7 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
+import it.niedermann.nextcloud.deck.remote.api.RequestMetrics;
 import it.niedermann.nextcloud.deck.util.MimeTypeUtil;
 
 public class DeckLog {
@@ -131,13 +132,15 @@ public class DeckLog {
     }
 
     /**
-     * Writes the current log to a temporary file and starts a share intent.
+     * Writes the current log together with the {@link RequestMetrics} to a temporary file and starts a share intent.
      */
     public static void shareLogAsFile(@NonNull Context context) throws IOException {
         Toast.makeText(context, R.string.copying_logs_to_file, Toast.LENGTH_LONG).show();
         final File logFile = new File(context.getCacheDir().getAbsolutePath() + "/log.txt");
         final FileWriter writer = new FileWriter(logFile);
         writer.write(DeckLog.getDebugLog());
+        writer.write("\n\n");
+        writer.write(RequestMetrics.getInstance().getReport());
         writer.close();
         context.startActivity(new Intent(Intent.ACTION_SEND)
                 .putExtra(Intent.EXTRA_TITLE, context.getString(R.string.log_file))
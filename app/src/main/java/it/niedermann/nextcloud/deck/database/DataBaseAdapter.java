@@ -1,9 +1,11 @@
 package it.niedermann.nextcloud.deck.database;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 import android.appwidget.AppWidgetManager;
 import android.content.Context;
@@ -23,6 +25,7 @@ import androidx.annotation.WorkerThread;
 import androidx.core.content.ContextCompat;
 import androidx.lifecycle.LiveData;
 import androidx.preference.PreferenceManager;
+import androidx.room.InvalidationTracker;
 import androidx.sqlite.db.SimpleSQLiteQuery;
 
 import com.nextcloud.android.sso.helper.SingleAccountHelper;
@@ -30,8 +33,10 @@ import com.nextcloud.android.sso.helper.SingleAccountHelper;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -42,11 +47,13 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 import it.niedermann.android.reactivelivedata.ReactiveLiveData;
 import it.niedermann.android.sharedpreferences.SharedPreferenceLongLiveData;
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.R;
+import it.niedermann.nextcloud.deck.database.dao.CardDao;
 import it.niedermann.nextcloud.deck.model.AccessControl;
 import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.Attachment;
@@ -57,11 +64,13 @@ import it.niedermann.nextcloud.deck.model.JoinCardWithLabel;
 import it.niedermann.nextcloud.deck.model.JoinCardWithUser;
 import it.niedermann.nextcloud.deck.model.Label;
 import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.SyncCheckpoint;
 import it.niedermann.nextcloud.deck.model.User;
 import it.niedermann.nextcloud.deck.model.appwidgets.StackWidgetModel;
 import it.niedermann.nextcloud.deck.model.enums.DBStatus;
 import it.niedermann.nextcloud.deck.model.enums.EDoneType;
 import it.niedermann.nextcloud.deck.model.enums.EDueType;
+import it.niedermann.nextcloud.deck.model.enums.ESyncCheckpointType;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullCardWithProjects;
@@ -69,6 +78,7 @@ import it.niedermann.nextcloud.deck.model.full.FullSingleCardWidgetModel;
 import it.niedermann.nextcloud.deck.model.full.FullStack;
 import it.niedermann.nextcloud.deck.model.interfaces.AbstractRemoteEntity;
 import it.niedermann.nextcloud.deck.model.interfaces.IRemoteEntity;
+import it.niedermann.nextcloud.deck.model.internal.CardPageKey;
 import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
 import it.niedermann.nextcloud.deck.model.ocs.Activity;
 import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
@@ -91,12 +101,18 @@ import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetUser;
 import it.niedermann.nextcloud.deck.model.widget.filter.dto.FilterWidgetCard;
 import it.niedermann.nextcloud.deck.model.widget.singlecard.SingleCardWidgetModel;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
+import it.niedermann.nextcloud.deck.ui.main.search.BoardSearchResults;
 import it.niedermann.nextcloud.deck.ui.upcomingcards.UpcomingCardsAdapterItem;
 import it.niedermann.nextcloud.deck.ui.widget.singlecard.SingleCardWidget;
 import it.niedermann.nextcloud.deck.util.ExecutorServiceProvider;
 import okhttp3.Headers;
 
 public class DataBaseAdapter {
+    /**
+     * SQLite versions before 3.32 do not allow more than 999 host parameters per statement
+     */
+    private static final int MAX_SQL_PARAMETERS = 900;
+
     @NonNull
     private final DeckDatabase db;
     @NonNull
@@ -134,6 +150,33 @@ public class DataBaseAdapter {
         return context;
     }
 
+    /**
+     * Runs all given database operations in a single transaction, so they are committed at once.
+     */
+    @WorkerThread
+    public void runInTransaction(@NonNull Runnable runnable) {
+        db.runInTransaction(runnable);
+    }
+
+    /**
+     * @return when the given board or stack has been synchronized completely or <code>null</code> if there is no checkpoint since {@param notBefore}
+     */
+    @Nullable
+    @WorkerThread
+    public Instant getSyncCheckpointCompletedAtSince(long accountId, @NonNull ESyncCheckpointType type, long localId, @NonNull Instant notBefore) {
+        return db.getSyncCheckpointDao().getCompletedAtSince(accountId, type, localId, notBefore);
+    }
+
+    @WorkerThread
+    public void saveSyncCheckpoint(long accountId, @NonNull ESyncCheckpointType type, long localId) {
+        db.getSyncCheckpointDao().upsert(new SyncCheckpoint(accountId, type, localId, Instant.now()));
+    }
+
+    @WorkerThread
+    public void deleteSyncCheckpoints(long accountId) {
+        db.getSyncCheckpointDao().deleteByAccountId(accountId);
+    }
+
     private <T extends AbstractRemoteEntity> void markAsEditedIfNeeded(T entity, boolean setStatus) {
         if (!setStatus) return;
         entity.setLastModifiedLocal(Instant.now());
@@ -179,6 +222,14 @@ public class DataBaseAdapter {
         return db.getStackDao().getStackByLocalIdDirectly(localStackId);
     }
 
+    public Stack getStackByRemoteIdDirectly(long accountId, long localBoardId, long remoteId) {
+        return db.getStackDao().getStackByRemoteIdDirectly(accountId, localBoardId, remoteId);
+    }
+
+    public Stack getFirstRemoteStackForBoardDirectly(long accountId, long localBoardId) {
+        return db.getStackDao().getFirstRemoteStackForBoardDirectly(accountId, localBoardId);
+    }
+
     public FullStack getFullStackByLocalIdDirectly(final long localStackId) {
         return db.getStackDao().getFullStackByLocalIdDirectly(localStackId);
     }
@@ -210,23 +261,8 @@ public class DataBaseAdapter {
 
     public void filterRelationsForCard(@Nullable FullCard card) {
         if (card != null) {
-            if (card.getLabels() != null && !card.getLabels().isEmpty()) {
-                List<Long> filteredIDs = db.getJoinCardWithLabelDao().filterDeleted(card.getLocalId(), getLocalIDs(card.getLabels()));
-                card.setLabels(db.getLabelDao().getLabelsByIdsDirectly(filteredIDs));
-            }
-            if (card.getAssignedUsers() != null && !card.getAssignedUsers().isEmpty()) {
-                List<Long> filteredIDs = db.getJoinCardWithUserDao().filterDeleted(card.getLocalId(), getLocalIDs(card.getAssignedUsers()));
-                card.setAssignedUsers(db.getUserDao().getUsersByIdsDirectly(filteredIDs));
-            }
-        }
-    }
-
-    private <T> List<Long> getLocalIDs(@NonNull List<? extends AbstractRemoteEntity> remoteEntityList) {
-        ArrayList<Long> ids = new ArrayList<>(remoteEntityList.size());
-        for (AbstractRemoteEntity entity : remoteEntityList) {
-            ids.add(entity.getLocalId());
+            filterRelationsForCard(singletonList(card));
         }
-        return ids;
     }
 
     public void readRelationsForACL(@Nullable List<AccessControl> acl) {
@@ -245,13 +281,66 @@ public class DataBaseAdapter {
         }
     }
 
-    private void filterRelationsForCard(@Nullable Collection<FullCard> card) {
-        if (card == null) {
+    /**
+     * Removes locally deleted labels and assigned users from the given cards.
+     * The not deleted joins are fetched in batches for all cards at once instead of querying them card by card.
+     */
+    private void filterRelationsForCard(@Nullable Collection<FullCard> cards) {
+        if (cards == null || cards.isEmpty()) {
             return;
         }
-        for (FullCard c : card) {
-            filterRelationsForCard(c);
+
+        final var cardIdsWithLabels = new ArrayList<Long>();
+        final var cardIdsWithUsers = new ArrayList<Long>();
+        for (final var card : cards) {
+            if (card.getLabels() != null && !card.getLabels().isEmpty()) {
+                cardIdsWithLabels.add(card.getLocalId());
+            }
+            if (card.getAssignedUsers() != null && !card.getAssignedUsers().isEmpty()) {
+                cardIdsWithUsers.add(card.getLocalId());
+            }
         }
+
+        final Map<Long, Set<Long>> labelIdsByCardId = new HashMap<>();
+        for (final var chunk : chunked(cardIdsWithLabels)) {
+            for (final var join : db.getJoinCardWithLabelDao().getNotDeletedJoinsForCardsDirectly(chunk)) {
+                labelIdsByCardId.computeIfAbsent(join.getCardId(), key -> new HashSet<>()).add(join.getLabelId());
+            }
+        }
+
+        final Map<Long, Set<Long>> userIdsByCardId = new HashMap<>();
+        for (final var chunk : chunked(cardIdsWithUsers)) {
+            for (final var join : db.getJoinCardWithUserDao().getNotDeletedJoinsForCardsDirectly(chunk)) {
+                userIdsByCardId.computeIfAbsent(join.getCardId(), key -> new HashSet<>()).add(join.getUserId());
+            }
+        }
+
+        for (final var card : cards) {
+            if (card.getLabels() != null && !card.getLabels().isEmpty()) {
+                final var labelIds = labelIdsByCardId.getOrDefault(card.getLocalId(), emptySet());
+                card.setLabels(card.getLabels().stream()
+                        .filter(label -> label.getStatus() != DBStatus.LOCAL_DELETED.getId() && labelIds.contains(label.getLocalId()))
+                        .sorted(Comparator.comparing(Label::getTitle, Comparator.nullsFirst(Comparator.naturalOrder())))
+                        .collect(toList()));
+            }
+            if (card.getAssignedUsers() != null && !card.getAssignedUsers().isEmpty()) {
+                final var userIds = userIdsByCardId.getOrDefault(card.getLocalId(), emptySet());
+                card.setAssignedUsers(card.getAssignedUsers().stream()
+                        .filter(user -> user.getStatus() != DBStatus.LOCAL_DELETED.getId() && userIds.contains(user.getLocalId()))
+                        .collect(toList()));
+            }
+        }
+    }
+
+    /**
+     * Splits the given IDs to stay below the maximum number of SQLite host parameters
+     */
+    private static <T> List<List<T>> chunked(@NonNull List<T> ids) {
+        final var chunks = new ArrayList<List<T>>((ids.size() / MAX_SQL_PARAMETERS) + 1);
+        for (int i = 0; i < ids.size(); i += MAX_SQL_PARAMETERS) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + MAX_SQL_PARAMETERS)));
+        }
+        return chunks;
     }
 
     @WorkerThread
@@ -269,6 +358,31 @@ public class DataBaseAdapter {
 
     }
 
+    /**
+     * Keyset paginated variant of {@link #getFullCardsForStack(long, long, FilterInformation)} which only emits the next {@param pageSize} cards after {@param after},
+     * so the relations are only loaded for the cards of this page.
+     */
+    public LiveData<List<FullCard>> getFullCardsForStackPage(long accountId, long localStackId, @Nullable FilterInformation filter, @NonNull CardPageKey after, int pageSize) {
+        return new ReactiveLiveData<>(
+                FilterInformation.hasActiveFilter(filter)
+                        ? db.getCardDao().getFilteredFullCardsForStack(getPagedQueryForFilter(filter, accountId, localStackId, after, true, pageSize))
+                        : db.getCardDao().getFullCardsForStackPage(accountId, localStackId, after.getOrder(), after.getCreatedAt(), after.getLocalId(), pageSize))
+                .tap(this::filterRelationsForCard, executor)
+                .distinctUntilChanged();
+    }
+
+    /**
+     * Keyset paginated variant of {@link #getFullCardsForStack(long, long, FilterInformation)} which emits all cards up to and including {@param upTo}.
+     */
+    public LiveData<List<FullCard>> getFullCardsForStackUpTo(long accountId, long localStackId, @Nullable FilterInformation filter, @NonNull CardPageKey upTo) {
+        return new ReactiveLiveData<>(
+                FilterInformation.hasActiveFilter(filter)
+                        ? db.getCardDao().getFilteredFullCardsForStack(getPagedQueryForFilter(filter, accountId, localStackId, upTo, false, null))
+                        : db.getCardDao().getFullCardsForStackUpTo(accountId, localStackId, upTo.getOrder(), upTo.getCreatedAt(), upTo.getLocalId()))
+                .tap(this::filterRelationsForCard, executor)
+                .distinctUntilChanged();
+    }
+
     private void fillSqlWithEntityListValues(StringBuilder query, Collection<Object> args, @NonNull List<? extends IRemoteEntity> entities) {
         List<Long> idList = entities.stream().map(IRemoteEntity::getLocalId).collect(toList());
         fillSqlWithListValues(query, args, idList);
@@ -284,6 +398,16 @@ public class DataBaseAdapter {
         }
     }
 
+    /**
+     * @return the first {@param limit} cards of the given stack in the same order as {@link #getFullCardsForStack(long, long, FilterInformation)} without any filter
+     */
+    @WorkerThread
+    public List<FullCard> getFirstFullCardsForStackDirectly(long accountId, long localStackId, int limit) {
+        final var cards = db.getCardDao().getFirstFullCardsForStackDirectly(accountId, localStackId, limit);
+        filterRelationsForCard(cards);
+        return cards;
+    }
+
     @WorkerThread
     public List<FullCard> getFullCardsForStackDirectly(long accountId, long localStackId, @Nullable FilterInformation filter) {
         return FilterInformation.hasActiveFilter(filter)
@@ -299,14 +423,47 @@ public class DataBaseAdapter {
     @AnyThread
     private SimpleSQLiteQuery getQueryForFilter(@NonNull FilterInformation filter, @NonNull List<Long> accountIds, @NonNull List<Long> localStackIds) {
         final Collection<Object> args = new ArrayList<>();
-        StringBuilder query = new StringBuilder("SELECT * FROM card c WHERE 1=1 ");
+        final var query = new StringBuilder("SELECT * FROM card c WHERE 1=1 ");
+        appendFilterConditions(query, args, filter, accountIds, localStackIds);
+        query.append(" and status<>3 order by accountId asc, stackId asc, `order`, createdAt asc;");
+        return new SimpleSQLiteQuery(query.toString(), args.toArray());
+    }
+
+    /**
+     * @param after <code>true</code> to select cards sorting after the {@param key}, <code>false</code> to select all cards up to and including the {@param key}
+     * @param limit maximum number of cards or <code>null</code> for all
+     */
+    @AnyThread
+    private SimpleSQLiteQuery getPagedQueryForFilter(@NonNull FilterInformation filter, long accountId, long localStackId, @NonNull CardPageKey key, boolean after, @Nullable Integer limit) {
+        final Collection<Object> args = new ArrayList<>();
+        final var query = new StringBuilder("SELECT * FROM card c WHERE 1=1 ");
+        appendFilterConditions(query, args, filter, singletonList(accountId), singletonList(localStackId));
+        final String direction = after ? ">" : "<";
+        final String createdAt = "IFNULL(c.createdAt, " + CardPageKey.NULL_CREATED_AT + ")";
+        query.append(" and status<>3 and c.`order` ").append(direction).append("= ? and (c.`order` ").append(direction).append(" ? or ").append(createdAt).append(' ').append(direction)
+                .append(" ? or (").append(createdAt).append(" = ? and c.localId ").append(after ? ">" : "<=").append(" ?))");
+        args.add(key.getOrder());
+        args.add(key.getOrder());
+        args.add(key.getCreatedAt());
+        args.add(key.getCreatedAt());
+        args.add(key.getLocalId());
+        query.append(" order by c.`order`, c.createdAt, c.localId");
+        if (limit != null) {
+            query.append(" LIMIT ?");
+            args.add(limit);
+        }
+        return new SimpleSQLiteQuery(query.toString(), args.toArray());
+    }
+
+    @AnyThread
+    private void appendFilterConditions(@NonNull StringBuilder query, @NonNull Collection<Object> args, @NonNull FilterInformation filter, @NonNull List<Long> accountIds, @NonNull List<Long> localStackIds) {
         if (!accountIds.isEmpty()) {
-            query.append("and accountId in (");
+            query.append("and c.accountId in (");
             fillSqlWithListValues(query, args, accountIds);
             query.append(") ");
         }
         if (!localStackIds.isEmpty()) {
-            query.append("and stackId in (");
+            query.append("and c.stackId in (");
             fillSqlWithListValues(query, args, localStackIds);
             query.append(") ");
         }
@@ -342,12 +499,12 @@ public class DataBaseAdapter {
             fillSqlWithEntityListValues(query, args, filter.getProjects());
             query.append(") and j.status<>3) ");
             if (filter.isNoAssignedProject()) {
-                query.append("or not exists(select 1 from joincardwithproject j where c.localId = cardId and j.status<>3)) ");
+                query.append("or ").append(CardDao.CONDITION_NO_ASSIGNED_PROJECT).append(") ");
             } else {
                 query.append(") ");
             }
         } else if (filter.isNoAssignedProject()) {
-            query.append("and not exists(select 1 from joincardwithproject j where c.localId = cardId and j.status<>3) ");
+            query.append("and ").append(CardDao.CONDITION_NO_ASSIGNED_PROJECT).append(" ");
         }
 
         if (filter.getDueType() != EDueType.NO_FILTER) {
@@ -384,8 +541,6 @@ public class DataBaseAdapter {
         if (filter.getArchiveStatus() != FilterInformation.EArchiveStatus.ALL) {
             query.append(" and c.archived = ").append(filter.getArchiveStatus() == FilterInformation.EArchiveStatus.ARCHIVED ? 1 : 0);
         }
-        query.append(" and status<>3 order by accountId asc, stackId asc, `order`, createdAt asc;");
-        return new SimpleSQLiteQuery(query.toString(), args.toArray());
     }
 
     @WorkerThread
@@ -399,22 +554,63 @@ public class DataBaseAdapter {
         final long newId = db.getUserDao().insert(user);
         final Account account = db.getAccountDao().getAccountByIdDirectly(accountId);
         if (account.getUserName().equals(user.getUid())) {
-            for (FilterWidget widget : getFilterWidgetsByType(EWidgetType.UPCOMING_WIDGET)) {
-                for (FilterWidgetAccount widgetAccount : widget.getAccounts()) {
-                    if (widgetAccount.getAccountId() == accountId && widgetAccount.getUsers().isEmpty()) {
-                        FilterWidgetUser u = new FilterWidgetUser();
-                        u.setFilterAccountId(widgetAccount.getId());
-                        u.setUserId(newId);
-                        widgetAccount.getUsers().add(u);
-                        updateFilterWidgetDirectly(widget);
-                    }
-                }
-            }
+            addToUpcomingWidgets(accountId, newId);
         }
         notifyFilterWidgetsAboutChangedEntity(FilterWidget.EChangedEntityType.USER, newId);
         return newId;
     }
 
+    /**
+     * Inserts all given {@link User}s which are not yet known by their {@link User#getUid()} in one transaction.
+     *
+     * @return the local IDs of the inserted {@link User}s
+     */
+    @WorkerThread
+    public List<Long> createUsersIfNotExistingDirectly(long accountId, @NonNull Collection<User> users) {
+        if (users.isEmpty()) {
+            return emptyList();
+        }
+        final Account account = db.getAccountDao().getAccountByIdDirectly(accountId);
+        final List<Long> newIds = new ArrayList<>(users.size());
+        db.runInTransaction(() -> {
+            final Set<String> existingUids = new HashSet<>();
+            for (final var chunk : chunked(users.stream().map(User::getUid).collect(toList()))) {
+                existingUids.addAll(db.getUserDao().getExistingUidsDirectly(accountId, chunk));
+            }
+            for (final var user : users) {
+                if (!existingUids.add(user.getUid())) {
+                    continue;
+                }
+                user.setAccountId(accountId);
+                final long newId = db.getUserDao().insert(user);
+                if (account.getUserName().equals(user.getUid())) {
+                    addToUpcomingWidgets(accountId, newId);
+                }
+                newIds.add(newId);
+            }
+        });
+        notifyFilterWidgetsAboutChangedEntities(FilterWidget.EChangedEntityType.USER, newIds);
+        return newIds;
+    }
+
+    /**
+     * Adds the {@link User} of the {@link Account} to all upcoming widgets which do not yet filter for any {@link User} of this {@link Account}.
+     */
+    @WorkerThread
+    private void addToUpcomingWidgets(long accountId, long localUserId) {
+        for (FilterWidget widget : getFilterWidgetsByType(EWidgetType.UPCOMING_WIDGET)) {
+            for (FilterWidgetAccount widgetAccount : widget.getAccounts()) {
+                if (widgetAccount.getAccountId() == accountId && widgetAccount.getUsers().isEmpty()) {
+                    FilterWidgetUser u = new FilterWidgetUser();
+                    u.setFilterAccountId(widgetAccount.getId());
+                    u.setUserId(localUserId);
+                    widgetAccount.getUsers().add(u);
+                    updateFilterWidgetDirectly(widget);
+                }
+            }
+        }
+    }
+
     @WorkerThread
     public void updateUser(long accountId, User user, boolean setStatus) {
         markAsEditedIfNeeded(user, setStatus);
@@ -463,8 +659,9 @@ public class DataBaseAdapter {
         }
     }
 
-    public void deleteJoinedLabelsForCard(long localCardId) {
-        db.getJoinCardWithLabelDao().deleteByCardId(localCardId);
+    @WorkerThread
+    public List<JoinCardWithLabel> getAllJoinCardWithLabelsForCardDirectly(long localCardId) {
+        return db.getJoinCardWithLabelDao().getAllJoinsForCardDirectly(localCardId);
     }
 
     public void deleteJoinedLabelForCard(long localCardId, long localLabelId) {
@@ -508,8 +705,9 @@ public class DataBaseAdapter {
         }
     }
 
-    public void deleteJoinedUsersForCard(long localCardId) {
-        db.getJoinCardWithUserDao().deleteByCardId(localCardId);
+    @WorkerThread
+    public List<JoinCardWithUser> getAllJoinCardWithUsersForCardDirectly(long localCardId) {
+        return db.getJoinCardWithUserDao().getAllJoinsForCardDirectly(localCardId);
     }
 
     public void createJoinBoardWithLabel(long localBoardId, long localLabelId) {
@@ -527,6 +725,17 @@ public class DataBaseAdapter {
         db.getUserInGroupDao().deleteByGroupId(localGroupUserId);
     }
 
+    public void removeUsersFromGroup(long localGroupUserId, @NonNull List<Long> localGroupMemberIds) {
+        for (final var chunk : chunked(localGroupMemberIds)) {
+            db.getUserInGroupDao().deleteMembersOfGroup(localGroupUserId, chunk);
+        }
+    }
+
+    @WorkerThread
+    public List<Long> getGroupMemberIdsDirectly(long localGroupUserId) {
+        return db.getUserInGroupDao().getMemberIdsOfGroupDirectly(localGroupUserId);
+    }
+
     public void deleteBoardMembershipsOfBoard(Long localBoardId) {
         db.getUserInBoardDao().deleteByBoardId(localBoardId);
     }
@@ -793,6 +1002,35 @@ public class DataBaseAdapter {
         notifyFilterWidgetsAboutChangedEntity(FilterWidget.EChangedEntityType.STACK, originalStackLocalId);
     }
 
+    /**
+     * Updates all given {@link Card}s within one transaction, so observers and widgets get notified only once.
+     */
+    @WorkerThread
+    public void updateCardsDirectly(@NonNull Collection<Card> cards) {
+        if (cards.isEmpty()) {
+            return;
+        }
+        final Set<Long> originalStackLocalIds = new HashSet<>();
+        db.runInTransaction(() -> {
+            for (final var card : cards) {
+                originalStackLocalIds.add(db.getCardDao().getLocalStackIdByLocalCardId(card.getLocalId()));
+                db.getCardDao().update(card);
+            }
+        });
+        widgetNotifierExecutor.submit(() -> {
+            for (final var card : cards) {
+                if (db.getSingleCardWidgetModelDao().containsCardLocalId(card.getLocalId())) {
+                    DeckLog.info("Notifying", SingleCardWidget.class.getSimpleName(), "about card changes for", card.getTitle());
+                    SingleCardWidget.notifyDatasetChanged(context);
+                    break;
+                }
+            }
+        });
+        for (final var stackLocalId : originalStackLocalIds) {
+            notifyFilterWidgetsAboutChangedEntity(FilterWidget.EChangedEntityType.STACK, stackLocalId);
+        }
+    }
+
     @WorkerThread
     public long createAccessControl(long accountId, @NonNull AccessControl entity) {
         entity.setAccountId(accountId);
@@ -892,12 +1130,13 @@ public class DataBaseAdapter {
     private Map<Stack, List<FullCard>> mapToStacksForCardSearch(List<FullCard> matches, int limitPerStack) {
         Map<Stack, List<FullCard>> result = new HashMap<>();
         if (matches != null && !matches.isEmpty()) {
+            final var stacks = getStacksOfCardsDirectly(matches);
             // results are sorted by stack -> jackpot:
             Stack lastStack = null;
             for (FullCard card : matches) {
                 // find right bucket
                 if (lastStack == null || !Objects.equals(lastStack.getLocalId(), card.getCard().getStackId())) {
-                    lastStack = db.getStackDao().getStackByLocalIdDirectly(card.getCard().getStackId());
+                    lastStack = stacks.get(card.getCard().getStackId());
                 }
                 // check if bucket exists
                 List<FullCard> fullCards = result.computeIfAbsent(lastStack, k -> new ArrayList<>());
@@ -911,6 +1150,86 @@ public class DataBaseAdapter {
         return result;
     }
 
+    /**
+     * Search {@link FullCard}s of all {@link Account}s and {@link Board}s which contain the term in {@link Card#getTitle()} or {@link Card#getDescription()}.
+     *
+     * @param limitPerBoard maximum number of {@link FullCard}s which are kept per {@link Board}. One more match is loaded to tell whether
+     *                      the {@link BoardSearchResults} are truncated.
+     * @return one entry per {@link Board}, sorted by the rank of the best matching {@link FullCard} of each {@link Board}
+     */
+    @WorkerThread
+    public List<BoardSearchResults> searchCardsInAllBoardsDirectly(@NonNull String term, int limitPerBoard) {
+        final String sqlSearchTerm = term.trim();
+        if (sqlSearchTerm.isEmpty()) {
+            throw new IllegalArgumentException("empty search term");
+        }
+
+        final String likeTerm = "%" + sqlSearchTerm + "%";
+        final var localBoardIds = new ArrayList<>(new LinkedHashSet<>(db.getCardDao().getLocalBoardIdsOfMatchingCardsDirectly(likeTerm)));
+        if (localBoardIds.isEmpty()) {
+            return emptyList();
+        }
+
+        final var boards = db.getBoardDao().getFullBoardsByLocalIdsDirectly(localBoardIds)
+                .stream()
+                .collect(toMap(FullBoard::getLocalId, Function.identity()));
+        final Map<Long, Account> accounts = new HashMap<>();
+        final List<BoardSearchResults> result = new ArrayList<>(localBoardIds.size());
+        for (final long localBoardId : localBoardIds) {
+            final var fullBoard = boards.get(localBoardId);
+            if (fullBoard == null) {
+                continue;
+            }
+            final var matches = db.getCardDao().searchCardsInBoardDirectly(localBoardId, likeTerm, limitPerBoard + 1);
+            final var stacks = getStacksOfCardsDirectly(matches);
+            final var boardResults = new BoardSearchResults(accounts.computeIfAbsent(fullBoard.getAccountId(), db.getAccountDao()::getAccountByIdDirectly), fullBoard);
+            for (final var fullCard : matches) {
+                final var stack = stacks.get(fullCard.getCard().getStackId());
+                if (stack != null) {
+                    boardResults.add(stack, fullCard, limitPerBoard);
+                }
+            }
+            if (boardResults.getMatchCount() > 0) {
+                result.add(boardResults);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Notifies the <code>listener</code> on a background thread whenever {@link Card}s, {@link Stack}s or {@link Board}s changed, until
+     * it gets passed to {@link #removeSearchInvalidationListener(InvalidationTracker.Observer)}.
+     *
+     * @return the handle to stop listening
+     */
+    @WorkerThread
+    @NonNull
+    public InvalidationTracker.Observer addSearchInvalidationListener(@NonNull Runnable listener) {
+        final var observer = new InvalidationTracker.Observer(new String[]{"Card", "Stack", "Board"}) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> tables) {
+                listener.run();
+            }
+        };
+        db.getInvalidationTracker().addObserver(observer);
+        return observer;
+    }
+
+    @WorkerThread
+    public void removeSearchInvalidationListener(@NonNull InvalidationTracker.Observer observer) {
+        db.getInvalidationTracker().removeObserver(observer);
+    }
+
+    /**
+     * @return all {@link Stack}s the given {@link FullCard}s belong to, fetched at once and mapped by their {@link Stack#getLocalId()}
+     */
+    @WorkerThread
+    private Map<Long, Stack> getStacksOfCardsDirectly(@NonNull Collection<FullCard> fullCards) {
+        return db.getStackDao().getStacksByLocalIdsDirectly(fullCards.stream().map(fullCard -> fullCard.getCard().getStackId()).distinct().collect(toList()))
+                .stream()
+                .collect(toMap(Stack::getLocalId, Function.identity()));
+    }
+
     public LiveData<List<User>> findProposalsForUsersToAssign(final long accountId, long boardId, long notAssignedToLocalCardId, final int topX) {
         return new ReactiveLiveData<>(db.getUserDao().findProposalsForUsersToAssign(accountId, boardId, notAssignedToLocalCardId, topX))
                 .distinctUntilChanged();
@@ -1021,6 +1340,14 @@ public class DataBaseAdapter {
         return db.getBoardDao().getLocallyChangedBoardsDirectly(accountId);
     }
 
+    /**
+     * @return local IDs of all {@link Board}s of which the {@link Board} itself, a {@link Stack} or a {@link Card} has been modified after <code>since</code>
+     */
+    @WorkerThread
+    public List<Long> getLocalIdsOfBoardsChangedSinceDirectly(long accountId, @NonNull Instant since) {
+        return db.getBoardDao().getLocalIdsOfBoardsChangedSinceDirectly(accountId, since);
+    }
+
     public List<FullBoard> getAllFullBoards(long accountId) {
         return db.getBoardDao().getAllFullBoards(accountId);
     }
@@ -1185,6 +1512,11 @@ public class DataBaseAdapter {
         return db.getMentionDao().insert(mention);
     }
 
+    @WorkerThread
+    public List<Mention> getMentionsForCommentIdDirectly(long commentID) {
+        return db.getMentionDao().getMentionsForCommentIdDirectly(commentID);
+    }
+
     @WorkerThread
     public List<DeckComment> getCommentByLocalCardIdDirectly(Long localCardId) {
         return db.getCommentDao().getCommentByLocalCardIdDirectly(localCardId);
@@ -1251,6 +1583,14 @@ public class DataBaseAdapter {
         return db.getCommentDao().getLocalCommentIdForRemoteIdDirectly(accountId, remoteCommentId);
     }
 
+    /**
+     * @return the remote ID of the newest synchronized comment of the given card or <code>null</code> if there is none yet
+     */
+    @Nullable
+    public Long getHighestRemoteCommentIdForLocalCardIdDirectly(long localCardId) {
+        return db.getCommentDao().getHighestRemoteCommentIdForLocalCardIdDirectly(localCardId);
+    }
+
 
     // -------------------
     // Widgets
@@ -1298,6 +1638,7 @@ public class DataBaseAdapter {
     public int createFilterWidgetDirectly(@NonNull FilterWidget filterWidget) {
         db.getFilterWidgetDao().insert(filterWidget);
         insertFilterWidgetDecendants(filterWidget);
+        FilterWidgetSnapshots.forDatabase(db).remove(filterWidget.getId());
         return filterWidget.getId();
     }
 
@@ -1335,6 +1676,7 @@ public class DataBaseAdapter {
 
     public void deleteFilterWidgetDirectly(Integer filterWidgetId) {
         db.getFilterWidgetDao().delete(filterWidgetId);
+        FilterWidgetSnapshots.forDatabase(db).remove(filterWidgetId);
     }
 
     public void updateFilterWidgetDirectly(FilterWidget filterWidget) {
@@ -1342,6 +1684,7 @@ public class DataBaseAdapter {
         db.getFilterWidgetAccountDao().deleteByFilterWidgetId(filterWidget.getId());
         db.getFilterWidgetDao().update(filterWidget);
         insertFilterWidgetDecendants(filterWidget);
+        FilterWidgetSnapshots.forDatabase(db).remove(filterWidget.getId());
     }
 
     public FilterWidget getFilterWidgetByIdDirectly(Integer filterWidgetId) {
@@ -1391,104 +1734,113 @@ public class DataBaseAdapter {
         return result;
     }
 
+    /**
+     * @return the cards of the given {@link FilterWidget}, ready to be rendered without any further access to the database
+     */
+    @WorkerThread
     public List<FilterWidgetCard> getCardsForFilterWidget(@NonNull Integer filterWidgetId) {
-        final FilterWidget filterWidget = getFilterWidgetByIdDirectly(filterWidgetId);
-        final FilterInformation filter = new FilterInformation();
-        final Set<FullCard> cardsResult = new HashSet<>();
-        if (filterWidget.getDueType() != null) {
-            filter.setDueType(filterWidget.getDueType());
-        } else filter.setDueType(EDueType.NO_FILTER);
+        return FilterWidgetSnapshots.forDatabase(db).getCards(filterWidgetId, () -> compileFilterWidgetQuery(getFilterWidgetByIdDirectly(filterWidgetId)));
+    }
 
+    /**
+     * Compiles the whole configuration of the given {@link FilterWidget} into one single statement. Each configured {@link Account}
+     * and {@link Board} becomes an alternative of the <code>WHERE</code> clause with its own labels, users and projects.
+     */
+    @AnyThread
+    private FilterWidgetSnapshots.CompiledQuery compileFilterWidgetQuery(@NonNull FilterWidget filterWidget) {
+        final var dueType = filterWidget.getDueType() == null ? EDueType.NO_FILTER : filterWidget.getDueType();
+        final boolean upcoming = filterWidget.getWidgetType() == EWidgetType.UPCOMING_WIDGET;
+        final String sharedBoard = "exists(select 1 from AccessControl ac where ac.boardId = b.localId and ac.status<>3)";
+        final Collection<Object> args = new ArrayList<>();
+        final var query = new StringBuilder("SELECT c.localId, c.accountId, s.boardId, c.stackId, c.title FROM card c " +
+                "join stack s on s.localId = c.stackId " +
+                "join board b on b.localId = s.boardId " +
+                "WHERE c.status<>3 and (");
+        if (upcoming) {
+            query.append("(");
+        }
+        query.append("(");
         if (filterWidget.getAccounts().isEmpty()) {
-            cardsResult.addAll(db.getCardDao().getFilteredFullCardsForStackDirectly(getQueryForFilter(filter, emptyList(), emptyList())));
+            final var filter = new FilterInformation();
+            filter.setDueType(dueType);
+            appendFilterWidgetAlternative(query, args, filter, emptyList(), emptyList(), null);
         } else {
+            boolean first = true;
             for (FilterWidgetAccount account : filterWidget.getAccounts()) {
+                final var accountIds = singletonList(account.getAccountId());
+                final var filter = new FilterInformation();
+                filter.setDueType(dueType);
                 filter.setNoAssignedUser(account.isIncludeNoUser());
-                final List<User> users = new ArrayList<>();
-                if (!account.getUsers().isEmpty()) {
-                    for (FilterWidgetUser user : account.getUsers()) {
-                        User u = new User();
-                        u.setLocalId(user.getUserId());
-                        users.add(u);
-                    }
-                }
-                filter.setUsers(users);
+                filter.setUsers(account.getUsers().stream().map(filterWidgetUser -> {
+                    final var user = new User();
+                    user.setLocalId(filterWidgetUser.getUserId());
+                    return user;
+                }).collect(toList()));
                 filter.setNoAssignedProject(account.isIncludeNoProject());
-                final List<OcsProject> projects = new ArrayList<>();
-                if (!account.getProjects().isEmpty()) {
-                    for (FilterWidgetProject project : account.getProjects()) {
-                        OcsProject u = new OcsProject();
-                        u.setLocalId(project.getProjectId());
-                        projects.add(u);
+                filter.setProjects(account.getProjects().stream().map(filterWidgetProject -> {
+                    final var project = new OcsProject();
+                    project.setLocalId(filterWidgetProject.getProjectId());
+                    return project;
+                }).collect(toList()));
+                if (account.getBoards().isEmpty()) {
+                    if (!first) {
+                        query.append(" or ");
                     }
+                    first = false;
+                    appendFilterWidgetAlternative(query, args, filter, accountIds, emptyList(), null);
+                    continue;
                 }
-                filter.setProjects(projects);
-                if (!account.getBoards().isEmpty()) {
-                    for (FilterWidgetBoard board : account.getBoards()) {
-                        filter.setNoAssignedLabel(board.isIncludeNoLabel());
-                        final List<Long> stacks = new ArrayList<>();
-                        for (FilterWidgetLabel label : board.getLabels()) {
-                            Label l = new Label();
-                            l.setLocalId(label.getLabelId());
-                            filter.addLabel(l);
-                        }
-                        if (board.getStacks().isEmpty()) {
-                            stacks.addAll(db.getStackDao().getLocalStackIdsByLocalBoardIdDirectly(board.getBoardId()));
-                        } else {
-                            stacks.addAll(board.getStacks().stream().map(FilterWidgetStack::getStackId).collect(toList()));
-                        }
-                        cardsResult.addAll(db.getCardDao().getFilteredFullCardsForStackDirectly(getQueryForFilter(filter, singletonList(account.getAccountId()), stacks)));
+                for (FilterWidgetBoard board : account.getBoards()) {
+                    final var boardFilter = new FilterInformation(filter);
+                    boardFilter.setNoAssignedLabel(board.isIncludeNoLabel());
+                    boardFilter.setLabels(board.getLabels().stream().map(filterWidgetLabel -> {
+                        final var label = new Label();
+                        label.setLocalId(filterWidgetLabel.getLabelId());
+                        return label;
+                    }).collect(toList()));
+                    if (!first) {
+                        query.append(" or ");
+                    }
+                    first = false;
+                    if (board.getStacks().isEmpty()) {
+                        appendFilterWidgetAlternative(query, args, boardFilter, accountIds, emptyList(), board.getBoardId());
+                    } else {
+                        appendFilterWidgetAlternative(query, args, boardFilter, accountIds, board.getStacks().stream().map(FilterWidgetStack::getStackId).collect(toList()), null);
                     }
-                } else {
-                    cardsResult.addAll(db.getCardDao().getFilteredFullCardsForStackDirectly(getQueryForFilter(filter, singletonList(account.getAccountId()), emptyList())));
                 }
             }
         }
-
-        handleWidgetTypeExtras(filterWidget, cardsResult);
-
-        filterRelationsForCard(cardsResult);
-
-        final List<FilterWidgetCard> result = new ArrayList<>(cardsResult.size());
-        final Map<Long, Board> boardCache = new HashMap<>();
-        final Map<Long, Stack> stackCache = new HashMap<>();
-        for (FullCard fullCard : cardsResult) {
-            final Long stackId = fullCard.getCard().getStackId();
-            Stack stack = stackCache.get(stackId);
-            if (stack == null) {
-                stack = db.getStackDao().getStackByLocalIdDirectly(stackId);
-                stackCache.put(stackId, stack);
-            }
-
-            Board board = boardCache.get(stack.getBoardId());
-            if (board == null) {
-                board = db.getBoardDao().getBoardByLocalIdDirectly(stackId);
-                boardCache.put(stackId, board);
+        query.append(")");
+        if (upcoming) {
+            // https://github.com/stefan-niedermann/nextcloud-deck/issues/819 "no due" cards are only shown if they are on a shared board
+            // https://github.com/stefan-niedermann/nextcloud-deck/issues/822 exclude archived cards and boards
+            query.append(" and (c.dueDate is not null or ").append(sharedBoard).append(") and c.archived = 0 and b.archived = 0)");
+            // https://github.com/stefan-niedermann/nextcloud-deck/issues/800 all cards within non-shared boards need to be included
+            query.append(" or (c.dueDate is not null and c.archived = 0 and b.archived = 0 and not ").append(sharedBoard);
+            if (!filterWidget.getAccounts().isEmpty()) {
+                query.append(" and c.accountId in (");
+                fillSqlWithListValues(query, args, filterWidget.getAccounts().stream().map(FilterWidgetAccount::getAccountId).collect(toList()));
+                query.append(")");
             }
-            result.add(new FilterWidgetCard(fullCard, stack, board));
+            query.append(")");
         }
-        return result;
+        query.append(") order by c.`order`, c.accountId, c.stackId, c.createdAt");
+        final boolean timeDependent = dueType != EDueType.NO_FILTER && dueType != EDueType.NO_DUE;
+        return new FilterWidgetSnapshots.CompiledQuery(new SimpleSQLiteQuery(query.toString(), args.toArray()), timeDependent);
     }
 
-    private void handleWidgetTypeExtras(FilterWidget filterWidget, Collection<FullCard> cardsResult) {
-        if (filterWidget.getWidgetType() == EWidgetType.UPCOMING_WIDGET) {
-            // https://github.com/stefan-niedermann/nextcloud-deck/issues/819 "no due" cards are only shown if they are on a shared board
-            cardsResult.removeIf(fullCard -> fullCard.getCard().getDueDate() == null && !db.getStackDao().isStackOnSharedBoardDirectly(fullCard.getCard().getStackId()));
-            List<Long> accountIds = null;
-            if (!filterWidget.getAccounts().isEmpty()) {
-                accountIds = filterWidget.getAccounts().stream().map(FilterWidgetAccount::getAccountId).collect(toList());
-            }
-            // https://github.com/stefan-niedermann/nextcloud-deck/issues/822 exclude archived cards and boards
-            final List<Long> archivedStacks = db.getStackDao().getLocalStackIdsInArchivedBoardsByAccountIdsDirectly(accountIds);
-            for (Long archivedStack : archivedStacks) {
-                final List<FullCard> archivedCards = cardsResult.stream()
-                        .filter(c -> c.getCard().isArchived() || archivedStack.equals(c.getCard().getStackId()))
-                        .collect(toList());
-                cardsResult.removeAll(archivedCards);
-            }
-            // https://github.com/stefan-niedermann/nextcloud-deck/issues/800 all cards within non-shared boards need to be included
-            cardsResult.addAll(db.getCardDao().getFullCardsForNonSharedBoardsWithDueDateForUpcomingCardsWidgetDirectly(accountIds));
+    /**
+     * @param localBoardId if not <code>null</code>, restricts the alternative to all stacks of this board
+     */
+    @AnyThread
+    private void appendFilterWidgetAlternative(@NonNull StringBuilder query, @NonNull Collection<Object> args, @NonNull FilterInformation filter, @NonNull List<Long> accountIds, @NonNull List<Long> localStackIds, @Nullable Long localBoardId) {
+        query.append("(1=1 ");
+        appendFilterConditions(query, args, filter, accountIds, localStackIds);
+        if (localBoardId != null) {
+            query.append("and s.boardId = ? ");
+            args.add(localBoardId);
         }
+        query.append(")");
     }
 
     public List<FilterWidget> getFilterWidgetsByType(EWidgetType type) {
@@ -1590,6 +1942,25 @@ public class DataBaseAdapter {
         });
     }
 
+    /**
+     * Same as {@link #notifyFilterWidgetsAboutChangedEntity(FilterWidget.EChangedEntityType, Long)}, but notifies each widget type only once.
+     */
+    private void notifyFilterWidgetsAboutChangedEntities(@NonNull FilterWidget.EChangedEntityType type, @NonNull Collection<Long> entityIds) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        widgetNotifierExecutor.submit(() -> {
+            final Set<EWidgetType> widgetTypesToNotify = new HashSet<>();
+            for (final var entityId : entityIds) {
+                widgetTypesToNotify.addAll(db.getFilterWidgetDao().getChangedListTypesByEntity(type.toString(), entityId));
+            }
+            for (EWidgetType t : widgetTypesToNotify) {
+                DeckLog.info("Notifying", t.getWidgetClass().getSimpleName(), "about", entityIds.size(), "changed entities of type", type.name());
+                context.sendBroadcast(new Intent(context, t.getWidgetClass()).setAction(AppWidgetManager.ACTION_APPWIDGET_UPDATE));
+            }
+        });
+    }
+
     private void notifyAllWidgets() {
         widgetNotifierExecutor.submit(() -> SingleCardWidget.notifyDatasetChanged(context));
         /// FIXME StackWidget.notifyDatasetChanged(context);
@@ -0,0 +1,153 @@
+package it.niedermann.nextcloud.deck.database;
+
+import android.database.SQLException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+
+/**
+ * Keeps the database of long living installations small and its query planner statistics up to date.
+ * <p>
+ * Entities which have been deleted on the server stay in the database as tombstones. They are purged once they are older than
+ * {@link #TOMBSTONE_RETENTION_MILLIS} and have no pending local changes. Deleted boards are kept as long as the server lists them. Freed pages are handed back to the file system afterwards.
+ */
+public class DatabaseMaintenance {
+
+    static final long TOMBSTONE_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(30);
+    private static final long AUTO_VACUUM_INCREMENTAL = 2;
+
+    @NonNull
+    private final DeckDatabase db;
+
+    public DatabaseMaintenance(@NonNull DeckDatabase db) {
+        this.db = db;
+    }
+
+    @WorkerThread
+    @NonNull
+    public Report run(@NonNull Instant now) {
+        final long start = System.nanoTime();
+        final var sqlite = db.getOpenHelper().getWritableDatabase();
+        final var report = new Report();
+        report.sizeBeforeBytes = getSizeBytes(sqlite);
+        report.freePagesBefore = queryLong(sqlite, "PRAGMA freelist_count");
+
+        db.runInTransaction(() -> {
+            final var dao = db.getMaintenanceDao();
+            final long deletedBefore = now.toEpochMilli() - TOMBSTONE_RETENTION_MILLIS;
+            // Cards and their relations of purged stacks are removed by cascading foreign keys
+            report.purgedTombstones = dao.deleteStackTombstonesDirectly(deletedBefore)
+                    + dao.deleteCardTombstonesDirectly(deletedBefore);
+            // Foreign keys prevent orphans nowadays, but databases migrated from older schemas might still contain some
+            report.removedOrphans = dao.deleteOrphanedJoinCardWithLabelDirectly()
+                    + dao.deleteOrphanedJoinCardWithUserDirectly()
+                    + dao.deleteOrphanedJoinCardWithProjectDirectly()
+                    + dao.deleteOrphanedMentionsDirectly()
+                    + dao.deleteOrphanedActivitiesDirectly();
+        });
+
+        sqlite.execSQL("ANALYZE");
+        try {
+            vacuum(sqlite);
+        } catch (SQLException e) {
+            // Fails if other connections are busy, will be tried again next time
+            DeckLog.warn("Could not vacuum database:", e.getMessage());
+        }
+
+        report.sizeAfterBytes = getSizeBytes(sqlite);
+        report.freePagesAfter = queryLong(sqlite, "PRAGMA freelist_count");
+        report.duration = Duration.ofNanos(System.nanoTime() - start);
+        DeckLog.info("Database maintenance finished:", report);
+        return report;
+    }
+
+    private static void vacuum(@NonNull SupportSQLiteDatabase sqlite) {
+        if (queryLong(sqlite, "PRAGMA auto_vacuum") == AUTO_VACUUM_INCREMENTAL) {
+            try (final var cursor = sqlite.query("PRAGMA incremental_vacuum")) {
+                // Each step frees one page
+                //noinspection StatementWithEmptyBody
+                while (cursor.moveToNext()) {
+                }
+            }
+        } else {
+            // Changing the auto vacuum mode of an existing database only takes effect after one full vacuum
+            DeckLog.info("Switching database to incremental auto vacuum");
+            sqlite.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            sqlite.execSQL("VACUUM");
+        }
+        try (final var cursor = sqlite.query("PRAGMA wal_checkpoint(TRUNCATE)")) {
+            cursor.moveToFirst();
+        }
+    }
+
+    private static long getSizeBytes(@NonNull SupportSQLiteDatabase sqlite) {
+        return queryLong(sqlite, "PRAGMA page_count") * queryLong(sqlite, "PRAGMA page_size");
+    }
+
+    private static long queryLong(@NonNull SupportSQLiteDatabase sqlite, @NonNull String sql) {
+        try (final var cursor = sqlite.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    public static class Report {
+        private long sizeBeforeBytes;
+        private long sizeAfterBytes;
+        private long freePagesBefore;
+        private long freePagesAfter;
+        private int purgedTombstones;
+        private int removedOrphans;
+        @NonNull
+        private Duration duration = Duration.ZERO;
+
+        public long getSizeBeforeBytes() {
+            return sizeBeforeBytes;
+        }
+
+        public long getSizeAfterBytes() {
+            return sizeAfterBytes;
+        }
+
+        public long getFreePagesBefore() {
+            return freePagesBefore;
+        }
+
+        public long getFreePagesAfter() {
+            return freePagesAfter;
+        }
+
+        public int getPurgedTombstones() {
+            return purgedTombstones;
+        }
+
+        public int getRemovedOrphans() {
+            return removedOrphans;
+        }
+
+        @NonNull
+        public Duration getDuration() {
+            return duration;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Report{" +
+                    "sizeBeforeBytes=" + sizeBeforeBytes +
+                    ", sizeAfterBytes=" + sizeAfterBytes +
+                    ", freePagesBefore=" + freePagesBefore +
+                    ", freePagesAfter=" + freePagesAfter +
+                    ", purgedTombstones=" + purgedTombstones +
+                    ", removedOrphans=" + removedOrphans +
+                    ", duration=" + duration.toMillis() + "ms" +
+                    '}';
+        }
+    }
+}
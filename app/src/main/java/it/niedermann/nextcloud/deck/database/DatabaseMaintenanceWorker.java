@@ -0,0 +1,68 @@
+package it.niedermann.nextcloud.deck.database;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+
+/**
+ * Runs the {@link DatabaseMaintenance} once a day while the device is idle and charging, so vacuuming never competes with the user.
+ */
+public class DatabaseMaintenanceWorker extends Worker {
+
+    private static final String WORKER_TAG = "it.niedermann.nextcloud.deck.database_maintenance";
+    private static final Constraints constraints = new Constraints.Builder()
+            .setRequiresCharging(true)
+            .setRequiresDeviceIdle(true)
+            .build();
+
+    public static final String KEY_SIZE_BEFORE_BYTES = "sizeBeforeBytes";
+    public static final String KEY_SIZE_AFTER_BYTES = "sizeAfterBytes";
+    public static final String KEY_PURGED_TOMBSTONES = "purgedTombstones";
+    public static final String KEY_REMOVED_ORPHANS = "removedOrphans";
+    public static final String KEY_DURATION_MILLIS = "durationMillis";
+
+    public DatabaseMaintenanceWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            final var report = new DatabaseMaintenance(DeckDatabase.getInstance(getApplicationContext())).run(Instant.now());
+            return Result.success(new Data.Builder()
+                    .putLong(KEY_SIZE_BEFORE_BYTES, report.getSizeBeforeBytes())
+                    .putLong(KEY_SIZE_AFTER_BYTES, report.getSizeAfterBytes())
+                    .putInt(KEY_PURGED_TOMBSTONES, report.getPurgedTombstones())
+                    .putInt(KEY_REMOVED_ORPHANS, report.getRemovedOrphans())
+                    .putLong(KEY_DURATION_MILLIS, report.getDuration().toMillis())
+                    .build());
+        } catch (Exception e) {
+            DeckLog.logError(e);
+            return Result.failure();
+        }
+    }
+
+    /**
+     * Registers the periodic maintenance unless it has already been registered.
+     */
+    public static void schedule(@NonNull Context context) {
+        final var work = new PeriodicWorkRequest.Builder(DatabaseMaintenanceWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(constraints)
+                .addTag(WORKER_TAG)
+                .build();
+        WorkManager.getInstance(context.getApplicationContext()).enqueueUniquePeriodicWork(WORKER_TAG, ExistingPeriodicWorkPolicy.KEEP, work);
+    }
+}
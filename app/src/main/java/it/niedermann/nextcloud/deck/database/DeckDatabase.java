@@ -7,6 +7,7 @@ import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import it.niedermann.nextcloud.deck.DeckLog;
@@ -25,9 +26,11 @@ import it.niedermann.nextcloud.deck.database.dao.JoinBoardWithUserDao;
 import it.niedermann.nextcloud.deck.database.dao.JoinCardWithLabelDao;
 import it.niedermann.nextcloud.deck.database.dao.JoinCardWithUserDao;
 import it.niedermann.nextcloud.deck.database.dao.LabelDao;
+import it.niedermann.nextcloud.deck.database.dao.MaintenanceDao;
 import it.niedermann.nextcloud.deck.database.dao.MentionDao;
 import it.niedermann.nextcloud.deck.database.dao.PermissionDao;
 import it.niedermann.nextcloud.deck.database.dao.StackDao;
+import it.niedermann.nextcloud.deck.database.dao.SyncCheckpointDao;
 import it.niedermann.nextcloud.deck.database.dao.UserDao;
 import it.niedermann.nextcloud.deck.database.dao.UserInBoardDao;
 import it.niedermann.nextcloud.deck.database.dao.UserInGroupDao;
@@ -66,6 +69,9 @@ import it.niedermann.nextcloud.deck.database.migration.Migration_29_30;
 import it.niedermann.nextcloud.deck.database.migration.Migration_30_31;
 import it.niedermann.nextcloud.deck.database.migration.Migration_31_32;
 import it.niedermann.nextcloud.deck.database.migration.Migration_32_33;
+import it.niedermann.nextcloud.deck.database.migration.Migration_33_34;
+import it.niedermann.nextcloud.deck.database.migration.Migration_34_35;
+import it.niedermann.nextcloud.deck.database.migration.Migration_35_36;
 import it.niedermann.nextcloud.deck.database.migration.Migration_8_9;
 import it.niedermann.nextcloud.deck.database.migration.Migration_9_10;
 import it.niedermann.nextcloud.deck.model.AccessControl;
@@ -81,6 +87,7 @@ import it.niedermann.nextcloud.deck.model.JoinCardWithUser;
 import it.niedermann.nextcloud.deck.model.Label;
 import it.niedermann.nextcloud.deck.model.Permission;
 import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.SyncCheckpoint;
 import it.niedermann.nextcloud.deck.model.User;
 import it.niedermann.nextcloud.deck.model.ocs.Activity;
 import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
@@ -134,9 +141,10 @@ import it.niedermann.nextcloud.deck.remote.api.LastSyncUtil;
                 FilterWidgetUser.class,
                 FilterWidgetProject.class,
                 FilterWidgetSort.class,
+                SyncCheckpoint.class,
         },
         exportSchema = false,
-        version = 33
+        version = 36
 )
 @TypeConverters({DateTypeConverter.class, EnumConverter.class})
 public abstract class DeckDatabase extends RoomDatabase {
@@ -151,6 +159,12 @@ public abstract class DeckDatabase extends RoomDatabase {
             DeckLog.info("Database", DECK_DB_NAME, "created.");
             LastSyncUtil.resetAll();
         }
+
+        @Override
+        public void onDestructiveMigration(@NonNull SupportSQLiteDatabase db) {
+            super.onDestructiveMigration(db);
+            DeckLog.error("Database", DECK_DB_NAME, "has been recreated because no migration path to version", db.getVersion(), "was available. Everything needs to be synchronized again.");
+        }
     };
 
     public static synchronized DeckDatabase getInstance(Context context) {
@@ -165,36 +179,49 @@ public abstract class DeckDatabase extends RoomDatabase {
                 context,
                 DeckDatabase.class,
                 DECK_DB_NAME)
-                .addMigrations(new Migration_8_9())
-                .addMigrations(new Migration_9_10())
-                .addMigrations(new Migration_10_11())
-                .addMigrations(new Migration_11_12())
-                .addMigrations(new Migration_12_13())
-                .addMigrations(new Migration_13_14())
-                .addMigrations(new Migration_14_15(context))
-                .addMigrations(new Migration_15_16())
-                .addMigrations(new Migration_16_17())
-                .addMigrations(new Migration_17_18())
-                .addMigrations(new Migration_18_19())
-                .addMigrations(new Migration_19_20())
-                .addMigrations(new Migration_20_21())
-                .addMigrations(new Migration_21_22(context))
-                .addMigrations(new Migration_22_23())
-                .addMigrations(new Migration_23_24(context))
-                .addMigrations(new Migration_24_25())
-                .addMigrations(new Migration_25_26())
-                .addMigrations(new Migration_26_27())
-                .addMigrations(new Migration_27_28())
-                .addMigrations(new Migration_28_29())
-                .addMigrations(new Migration_29_30(context))
-                .addMigrations(new Migration_30_31())
-                .addMigrations(new Migration_31_32(context))
-                .addMigrations(new Migration_32_33())
+                .addMigrations(getMigrations(context))
                 .fallbackToDestructiveMigration()
                 .addCallback(ON_CREATE_CALLBACK)
                 .build();
     }
 
+    /**
+     * @return the whole chain of {@link Migration}s up to the current version
+     */
+    @NonNull
+    public static Migration[] getMigrations(@NonNull Context context) {
+        return new Migration[]{
+                new Migration_8_9(),
+                new Migration_9_10(),
+                new Migration_10_11(),
+                new Migration_11_12(),
+                new Migration_12_13(),
+                new Migration_13_14(),
+                new Migration_14_15(context),
+                new Migration_15_16(),
+                new Migration_16_17(),
+                new Migration_17_18(),
+                new Migration_18_19(),
+                new Migration_19_20(),
+                new Migration_20_21(),
+                new Migration_21_22(context),
+                new Migration_22_23(),
+                new Migration_23_24(context),
+                new Migration_24_25(),
+                new Migration_25_26(),
+                new Migration_26_27(),
+                new Migration_27_28(),
+                new Migration_28_29(),
+                new Migration_29_30(context),
+                new Migration_30_31(),
+                new Migration_31_32(context),
+                new Migration_32_33(),
+                new Migration_33_34(),
+                new Migration_34_35(),
+                new Migration_35_36()
+        };
+    }
+
     public abstract AccountDao getAccountDao();
 
     public abstract AccessControlDao getAccessControlDao();
@@ -257,4 +284,8 @@ public abstract class DeckDatabase extends RoomDatabase {
 
     public abstract FilterWidgetSortDao getFilterWidgetSortDao();
 
+    public abstract MaintenanceDao getMaintenanceDao();
+
+    public abstract SyncCheckpointDao getSyncCheckpointDao();
+
 }
\ No newline at end of file
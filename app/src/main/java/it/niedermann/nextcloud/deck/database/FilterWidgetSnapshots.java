@@ -0,0 +1,141 @@
+package it.niedermann.nextcloud.deck.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.room.InvalidationTracker;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidget;
+import it.niedermann.nextcloud.deck.model.widget.filter.dto.FilterWidgetCard;
+
+/**
+ * Keeps the rendered rows of each {@link FilterWidget} together with the single SQL statement its configuration has been compiled to.
+ * <p>
+ * Widget hosts ask for the rows much more often than the underlying data changes. A snapshot is therefore only queried again after
+ * one of the tables it depends on has been modified, or if its result depends on the current time. The {@link Account}s of the rows
+ * are resolved once, so rendering a row never needs to access the database.
+ */
+class FilterWidgetSnapshots {
+
+    private static final String TABLE_ACCOUNT = "Account";
+    private static final String[] OBSERVED_TABLES = {
+            TABLE_ACCOUNT, "Board", "Stack", "Card", "AccessControl", "JoinCardWithLabel", "JoinCardWithUser", "JoinCardWithProject"
+    };
+    private static final Map<DeckDatabase, FilterWidgetSnapshots> INSTANCES = new WeakHashMap<>();
+
+    @NonNull
+    private final DeckDatabase db;
+    @NonNull
+    private final Map<Integer, Snapshot> snapshots = new ConcurrentHashMap<>();
+    @NonNull
+    private final InvalidationTracker.Observer observer = new InvalidationTracker.Observer(OBSERVED_TABLES) {
+        @Override
+        public void onInvalidated(@NonNull Set<String> tables) {
+            final boolean accountsChanged = tables.stream().anyMatch(TABLE_ACCOUNT::equalsIgnoreCase);
+            for (final var snapshot : snapshots.values()) {
+                snapshot.invalidate(accountsChanged);
+            }
+        }
+    };
+
+    private FilterWidgetSnapshots(@NonNull DeckDatabase db) {
+        this.db = db;
+        db.getInvalidationTracker().addObserver(observer);
+    }
+
+    @NonNull
+    static synchronized FilterWidgetSnapshots forDatabase(@NonNull DeckDatabase db) {
+        return INSTANCES.computeIfAbsent(db, FilterWidgetSnapshots::new);
+    }
+
+    /**
+     * @param compiler compiles the configuration of the {@link FilterWidget}, only called if there is no compiled statement yet
+     */
+    @WorkerThread
+    @NonNull
+    List<FilterWidgetCard> getCards(int appWidgetId, @NonNull Supplier<CompiledQuery> compiler) {
+        // Invalidations are dispatched asynchronously, make sure all writes which happened until now are taken into account
+        db.getInvalidationTracker().refreshVersionsSync();
+        final var snapshot = snapshots.computeIfAbsent(appWidgetId, id -> new Snapshot());
+        synchronized (snapshot) {
+            if (snapshot.query == null) {
+                snapshot.query = compiler.get();
+                DeckLog.verbose("Compiled", FilterWidget.class.getSimpleName(), appWidgetId, ":", snapshot.query.query.getSql());
+            }
+            if (snapshot.cards != null && !snapshot.dirty && !snapshot.query.timeDependent) {
+                return snapshot.cards;
+            }
+            // Reset before querying so modifications which happen in the meantime are not lost
+            snapshot.dirty = false;
+            if (snapshot.accountsDirty) {
+                snapshot.accountsDirty = false;
+                snapshot.accounts.clear();
+            }
+            final var result = db.getCardDao().getFilterWidgetCardsDirectly(snapshot.query.query);
+            final List<FilterWidgetCard> cards = new ArrayList<>(result.size());
+            for (final var card : result) {
+                final var account = snapshot.accounts.computeIfAbsent(card.getAccountId(), accountId -> db.getAccountDao().getAccountByIdDirectly(accountId));
+                if (account == null) {
+                    // Account has been removed while querying
+                    continue;
+                }
+                card.setAccount(account);
+                cards.add(card);
+            }
+            snapshot.cards = Collections.unmodifiableList(cards);
+            return snapshot.cards;
+        }
+    }
+
+    /**
+     * Must be called whenever the configuration of a {@link FilterWidget} changes, so it gets compiled again.
+     */
+    void remove(int appWidgetId) {
+        snapshots.remove(appWidgetId);
+    }
+
+    static class CompiledQuery {
+        @NonNull
+        private final SimpleSQLiteQuery query;
+        private final boolean timeDependent;
+
+        /**
+         * @param timeDependent whether the result might change without any modification of the database, for example when filtering by due date
+         */
+        CompiledQuery(@NonNull SimpleSQLiteQuery query, boolean timeDependent) {
+            this.query = query;
+            this.timeDependent = timeDependent;
+        }
+    }
+
+    private static class Snapshot {
+        @Nullable
+        private CompiledQuery query;
+        @Nullable
+        private List<FilterWidgetCard> cards;
+        @NonNull
+        private final Map<Long, Account> accounts = new HashMap<>();
+        private volatile boolean dirty = true;
+        private volatile boolean accountsDirty = false;
+
+        private void invalidate(boolean accountsChanged) {
+            if (accountsChanged) {
+                accountsDirty = true;
+            }
+            dirty = true;
+        }
+    }
+}
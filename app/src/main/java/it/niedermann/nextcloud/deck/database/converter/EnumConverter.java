@@ -7,6 +7,7 @@ import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.model.enums.EAttachmentType;
 import it.niedermann.nextcloud.deck.model.enums.EDueType;
 import it.niedermann.nextcloud.deck.model.enums.ESortCriteria;
+import it.niedermann.nextcloud.deck.model.enums.ESyncCheckpointType;
 import it.niedermann.nextcloud.deck.model.widget.filter.EWidgetType;
 
 public class EnumConverter {
@@ -64,4 +65,17 @@ public class EnumConverter {
     public static String fromEAttachmentType(@Nullable EAttachmentType value) {
         return value == null ? null : value.getValue();
     }
+
+    // #### ESyncCheckpointType
+    @TypeConverter
+    @Nullable
+    public static ESyncCheckpointType toSyncCheckpointTypeEnum(@Nullable Integer value) {
+        return value == null ? null : ESyncCheckpointType.findById(value);
+    }
+
+    @TypeConverter
+    @Nullable
+    public static Integer fromSyncCheckpointTypeEnum(@Nullable ESyncCheckpointType value) {
+        return value == null ? null : value.getId();
+    }
 }
@@ -5,6 +5,7 @@ import androidx.room.Dao;
 import androidx.room.Query;
 import androidx.room.Transaction;
 
+import java.time.Instant;
 import java.util.List;
 
 import it.niedermann.nextcloud.deck.model.Board;
@@ -42,6 +43,15 @@ public interface BoardDao extends GenericDao<Board> {
     @Query("SELECT * FROM board WHERE accountId = :accountId and localId = :localId")
     FullBoard getFullBoardByLocalIdDirectly(long accountId, long localId);
 
+    @Query("SELECT b.localId FROM board b WHERE b.accountId = :accountId and (b.lastModified > :since " +
+            "or exists (select 1 from stack s where s.boardId = b.localId and s.lastModified > :since) " +
+            "or exists (select 1 from card c inner join stack s on c.stackId = s.localId where s.boardId = b.localId and c.lastModified > :since))")
+    List<Long> getLocalIdsOfBoardsChangedSinceDirectly(long accountId, Instant since);
+
+    @Transaction
+    @Query("SELECT * FROM board WHERE localId IN (:localBoardIds)")
+    List<FullBoard> getFullBoardsByLocalIdsDirectly(List<Long> localBoardIds);
+
     @Transaction
     @Query("SELECT * FROM board WHERE accountId = :accountId and (status<>1 or id is null or lastModified <> lastModifiedLocal)")
     List<FullBoard> getLocallyChangedBoardsDirectly(long accountId);
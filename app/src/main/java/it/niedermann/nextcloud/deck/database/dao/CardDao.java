@@ -12,6 +12,8 @@ import java.util.List;
 import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullCardWithProjects;
+import it.niedermann.nextcloud.deck.model.internal.CardPageKey;
+import it.niedermann.nextcloud.deck.model.widget.filter.dto.FilterWidgetCard;
 
 @Dao
 public interface CardDao extends GenericDao<Card> {
@@ -37,6 +39,51 @@ public interface CardDao extends GenericDao<Card> {
             ")" +
             "ORDER BY c.dueDate asc";
 
+    // v not deleted!
+    String QUERY_FULL_CARDS_FOR_STACK = "SELECT * FROM card WHERE accountId = :accountId AND archived = 0 AND stackId = :localStackId and status<>3 order by `order`, createdAt asc";
+
+    /**
+     * Sort order of the keyset pagination. The index on <code>(stackId, archived, order, createdAt)</code> implicitly ends with the <code>localId</code>, so no temporary B-tree is needed.
+     */
+    String ORDER_CARDS_FOR_STACK_PAGE = "order by `order`, createdAt, localId";
+
+    /**
+     * <code>createdAt</code> as used by {@link CardPageKey}, which sorts <code>NULL</code> first just like {@link #ORDER_CARDS_FOR_STACK_PAGE}
+     */
+    String KEY_CREATED_AT = "IFNULL(createdAt, " + CardPageKey.NULL_CREATED_AT + ")";
+
+    String QUERY_FULL_CARDS_FOR_STACK_PAGE = "SELECT * FROM card WHERE accountId = :accountId AND archived = 0 AND stackId = :localStackId and status<>3 " +
+            "and `order` >= :order and (`order` > :order or " + KEY_CREATED_AT + " > :createdAt or (" + KEY_CREATED_AT + " = :createdAt and localId > :localId)) " +
+            ORDER_CARDS_FOR_STACK_PAGE + " LIMIT :limit";
+
+    String QUERY_FULL_CARDS_FOR_STACK_UP_TO = "SELECT * FROM card WHERE accountId = :accountId AND archived = 0 AND stackId = :localStackId and status<>3 " +
+            "and `order` <= :order and (`order` < :order or " + KEY_CREATED_AT + " < :createdAt or (" + KEY_CREATED_AT + " = :createdAt and localId <= :localId)) " +
+            ORDER_CARDS_FOR_STACK_PAGE;
+
+    /**
+     * Condition of filtered raw queries on <code>card c</code> for cards without any project
+     */
+    String CONDITION_NO_ASSIGNED_PROJECT = "not exists(select 1 from joincardwithproject j where c.localId = cardId and j.status<>3)";
+
+    /**
+     * Cards of not deleted and not archived boards which contain <code>:term</code> in their title or description
+     */
+    String JOIN_SEARCHABLE_CARDS = "FROM card c " +
+            "inner join Stack s on c.stackId = s.localId " +
+            "inner join Board b on s.boardId = b.localId " +
+            "WHERE (c.title like :term or c.description like :term) " +
+            "and c.status <> 3 " +
+            "and s.status <> 3 " +
+            "and b.status <> 3 " +
+            "and c.archived = 0 " +
+            "and b.archived = 0 ";
+
+    /**
+     * Cards matching the term in their title rank before cards only matching in their description, more recently modified cards rank
+     * before others.
+     */
+    String ORDER_SEARCH_RANK = "order by c.title like :term desc, c.lastModified desc ";
+
     @Query("SELECT * FROM card WHERE stackId = :localStackId order by `order`, createdAt asc")
     LiveData<List<Card>> getCardsForStack(final long localStackId);
 
@@ -55,10 +102,32 @@ public interface CardDao extends GenericDao<Card> {
     FullCard getFullCardByLocalIdDirectly(final long accountId, final long localId);
 
     @Transaction
-    // v not deleted!
-    @Query("SELECT * FROM card WHERE accountId = :accountId AND archived = 0 AND stackId = :localStackId and status<>3 order by `order`, createdAt asc")
+    @Query(QUERY_FULL_CARDS_FOR_STACK)
     LiveData<List<FullCard>> getFullCardsForStack(final long accountId, final long localStackId);
 
+    /**
+     * Keyset pagination: the next <code>:limit</code> cards of the stack after the given <code>(order, createdAt, localId)</code> key
+     *
+     * @see CardPageKey
+     */
+    @Transaction
+    @Query(QUERY_FULL_CARDS_FOR_STACK_PAGE)
+    LiveData<List<FullCard>> getFullCardsForStackPage(final long accountId, final long localStackId, final int order, final long createdAt, final long localId, final int limit);
+
+    /**
+     * Keyset pagination: all cards of the stack up to and including the given <code>(order, createdAt, localId)</code> key
+     *
+     * @see CardPageKey
+     */
+    @Transaction
+    @Query(QUERY_FULL_CARDS_FOR_STACK_UP_TO)
+    LiveData<List<FullCard>> getFullCardsForStackUpTo(final long accountId, final long localStackId, final int order, final long createdAt, final long localId);
+
+    @Transaction
+    @Query("SELECT * FROM card WHERE accountId = :accountId AND archived = 0 AND stackId = :localStackId and status<>3 " +
+            ORDER_CARDS_FOR_STACK_PAGE + " LIMIT :limit")
+    List<FullCard> getFirstFullCardsForStackDirectly(final long accountId, final long localStackId, final int limit);
+
     @Transaction
     @RawQuery(observedEntities = Card.class)
     LiveData<List<FullCard>> getFilteredFullCardsForStack(SupportSQLiteQuery query);
@@ -67,6 +136,9 @@ public interface CardDao extends GenericDao<Card> {
     @RawQuery(observedEntities = Card.class)
     List<FullCard> getFilteredFullCardsForStackDirectly(SupportSQLiteQuery query);
 
+    @RawQuery
+    List<FilterWidgetCard> getFilterWidgetCardsDirectly(SupportSQLiteQuery query);
+
     @Transaction
     @Query("SELECT * FROM card WHERE accountId = :accountId AND stackId = :localStackId order by `order`, createdAt asc")
     List<FullCard> getFullCardsForStackDirectly(final long accountId, final long localStackId);
@@ -109,17 +181,6 @@ public interface CardDao extends GenericDao<Card> {
     @Query("SELECT c.stackId FROM card c WHERE  localId = :localCardId")
     Long getLocalStackIdByLocalCardId(Long localCardId);
 
-    @Transaction
-    @Query("SELECT * FROM card c WHERE " +
-            "exists(select 1 from Stack s join Board b on s.boardId = b.localId where s.localId = c.stackId " +
-            "and b.archived = 0 " +
-            "and not exists(select 1 from AccessControl ac where ac.boardId = b.localId and status <> 3)) " +
-            "and dueDate is not null " +
-            "and (coalesce(:accountIds, null) is null or accountId in (:accountIds)) " +
-            "and status <> 3 " +
-            "and archived = 0")
-    List<FullCard> getFullCardsForNonSharedBoardsWithDueDateForUpcomingCardsWidgetDirectly(List<Long> accountIds);
-
     @Transaction
     @Query(QUERY_UPCOMING_CARDS)
     LiveData<List<FullCard>> getUpcomingCards();
@@ -140,6 +201,25 @@ public interface CardDao extends GenericDao<Card> {
             "and c.archived = 0 " +
             "order by s.`order`, c.`order`")
     LiveData<List<FullCard>> searchCard(long accountId, long localBoardId, String term);
+
+    /**
+     * Searches all accounts and boards.
+     *
+     * @return the local board id of each matching card, ranked like {@link #searchCardsInBoardDirectly(long, String, int)}. The first
+     * occurrence of each board therefore reflects the rank of its best matching card.
+     */
+    @Query("SELECT s.boardId " + JOIN_SEARCHABLE_CARDS + ORDER_SEARCH_RANK)
+    List<Long> getLocalBoardIdsOfMatchingCardsDirectly(String term);
+
+    /**
+     * @return the <code>limit</code> best ranked matches of one board
+     */
+    @Transaction
+    @Query("SELECT c.* " + JOIN_SEARCHABLE_CARDS +
+            "and s.boardId = :localBoardId " +
+            ORDER_SEARCH_RANK +
+            "LIMIT :limit")
+    List<FullCard> searchCardsInBoardDirectly(long localBoardId, String term, int limit);
     @Query("SELECT s.localId FROM card s")
     List<Long>  getAllIDs();
 }
\ No newline at end of file
@@ -42,6 +42,9 @@ public interface CommentDao extends GenericDao<DeckComment> {
     @Query("SELECT id FROM DeckComment where localId = :localId")
     Long getRemoteCommentIdForLocalIdDirectly(Long localId);
 
+    @Query("SELECT MAX(id) FROM DeckComment where objectId = :localCardId and id is not null")
+    Long getHighestRemoteCommentIdForLocalCardIdDirectly(long localCardId);
+
     @Query("SELECT localId FROM DeckComment where id = :remoteId and accountId = :accountId")
     Long getLocalCommentIdForRemoteIdDirectly(long accountId, Long remoteId);
 }
\ No newline at end of file
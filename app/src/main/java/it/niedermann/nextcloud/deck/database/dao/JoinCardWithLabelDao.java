@@ -9,7 +9,11 @@ import it.niedermann.nextcloud.deck.model.JoinCardWithLabel;
 
 @Dao
 public interface JoinCardWithLabelDao extends GenericDao<JoinCardWithLabel> {
-    @Query("DELETE FROM joincardwithlabel WHERE  cardId = :localCardId and status == 1") // only if UP_TO_DATE
+
+    String QUERY_DELETE_BY_CARD_ID = "DELETE FROM joincardwithlabel WHERE  cardId = :localCardId and status == 1"; // only if UP_TO_DATE
+    String QUERY_NOT_DELETED_JOINS_FOR_CARDS = "select * from joincardwithlabel WHERE cardId IN (:localCardIds) and status <> 3"; // not LOCAL_DELETED
+
+    @Query(QUERY_DELETE_BY_CARD_ID)
     void deleteByCardId(long localCardId);
 
     @Query("DELETE FROM joincardwithlabel WHERE cardId = :localCardId and labelId = :labelId")
@@ -18,8 +22,11 @@ public interface JoinCardWithLabelDao extends GenericDao<JoinCardWithLabel> {
     @Query("Update joincardwithlabel set status = :status WHERE cardId = :localCardId and labelId = :localLabelId")
     void setDbStatus(long localCardId, long localLabelId, int status);
 
-    @Query("select labelId from joincardwithlabel WHERE cardId = :localCardId and labelId IN (:localLabelIds) and status <> 3") // not LOCAL_DELETED
-    List<Long> filterDeleted(long localCardId, List<Long> localLabelIds);
+    @Query(QUERY_NOT_DELETED_JOINS_FOR_CARDS)
+    List<JoinCardWithLabel> getNotDeletedJoinsForCardsDirectly(List<Long> localCardIds);
+
+    @Query("select * from joincardwithlabel WHERE cardId = :localCardId")
+    List<JoinCardWithLabel> getAllJoinsForCardDirectly(long localCardId);
 
     @Query("select * from joincardwithlabel WHERE cardId = :localCardId and labelId = :localLabelId")
     JoinCardWithLabel getJoin(Long localLabelId, Long localCardId);
@@ -9,7 +9,11 @@ import it.niedermann.nextcloud.deck.model.JoinCardWithUser;
 
 @Dao
 public interface JoinCardWithUserDao extends GenericDao<JoinCardWithUser> {
-    @Query("DELETE FROM joincardwithuser WHERE cardId = :localId and status=1") // 1 = UP_TO_DATE
+
+    String QUERY_DELETE_BY_CARD_ID = "DELETE FROM joincardwithuser WHERE cardId = :localId and status=1"; // 1 = UP_TO_DATE
+    String QUERY_NOT_DELETED_JOINS_FOR_CARDS = "select * FROM joincardwithuser WHERE cardId IN (:localCardIds) and status <> 3"; // not LOCAL_DELETED
+
+    @Query(QUERY_DELETE_BY_CARD_ID)
     void deleteByCardId(long localId);
 
     @Query("Update joincardwithuser set status = :status WHERE cardId = :localCardId and userId = :localUserId")
@@ -18,9 +22,15 @@ public interface JoinCardWithUserDao extends GenericDao<JoinCardWithUser> {
     @Query("DELETE FROM joincardwithuser WHERE cardId = :localCardId and userId = :localUserId")
     void deleteByCardIdAndUserIdPhysically(long localCardId, long localUserId);
 
+    @Query("select * FROM joincardwithuser WHERE cardId = :localCardId")
+    List<JoinCardWithUser> getAllJoinsForCardDirectly(long localCardId);
+
     @Query("select * FROM joincardwithuser WHERE cardId = :localCardId and userId = :localUserId")
     JoinCardWithUser getJoin(Long localUserId, Long localCardId);
 
+    @Query(QUERY_NOT_DELETED_JOINS_FOR_CARDS)
+    List<JoinCardWithUser> getNotDeletedJoinsForCardsDirectly(List<Long> localCardIds);
+
     @Query("select u.localId as userId, c.id as cardId, j.status from joincardwithuser j " +
             "inner join card c on j.cardId = c.localId " +
             "inner join user u on j.userId = u.localId " +
@@ -38,7 +48,4 @@ public interface JoinCardWithUserDao extends GenericDao<JoinCardWithUser> {
             "where cardId = (select c.localId from card c where c.accountId = :accountId and c.id = :remoteCardId) " +
             "and userId = (select u.localId from user u where u.accountId = :accountId and u.uid = :userUid)")
     void deleteJoinedUserForCardPhysicallyByRemoteIDs(Long accountId, Long remoteCardId, String userUid);
-
-    @Query("select userId from joincardwithuser WHERE cardId = :localCardId and userId IN (:assignedUserIDs) and status <> 3") // not LOCAL_DELETED
-    List<Long> filterDeleted(long localCardId, List<Long> assignedUserIDs);
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package it.niedermann.nextcloud.deck.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+/**
+ * Housekeeping which is not related to a single entity.
+ * Tombstones are only purged if they have been deleted on the server and have no pending local changes (<code>status = 1</code>).
+ * Boards are never purged, because the server keeps listing deleted boards until they are deleted permanently and the next synchronization would create them again.
+ */
+@Dao
+public interface MaintenanceDao {
+
+    @Query("DELETE FROM stack WHERE status = 1 and deletedAt > 0 and deletedAt < :deletedBefore")
+    int deleteStackTombstonesDirectly(long deletedBefore);
+
+    @Query("DELETE FROM card WHERE status = 1 and deletedAt > 0 and deletedAt < :deletedBefore")
+    int deleteCardTombstonesDirectly(long deletedBefore);
+
+    @Query("DELETE FROM JoinCardWithLabel WHERE cardId not in (select localId from card) or labelId not in (select localId from label)")
+    int deleteOrphanedJoinCardWithLabelDirectly();
+
+    @Query("DELETE FROM JoinCardWithUser WHERE cardId not in (select localId from card) or userId not in (select localId from user)")
+    int deleteOrphanedJoinCardWithUserDirectly();
+
+    @Query("DELETE FROM JoinCardWithProject WHERE cardId not in (select localId from card) or projectId not in (select localId from OcsProject)")
+    int deleteOrphanedJoinCardWithProjectDirectly();
+
+    @Query("DELETE FROM Mention WHERE commentId not in (select localId from DeckComment)")
+    int deleteOrphanedMentionsDirectly();
+
+    @Query("DELETE FROM Activity WHERE cardId not in (select localId from card)")
+    int deleteOrphanedActivitiesDirectly();
+}
@@ -19,9 +19,18 @@ public interface StackDao extends GenericDao<Stack> {
     @Query("SELECT * FROM stack WHERE accountId = :accountId and boardId = :localBoardId and id = :remoteId")
     LiveData<Stack> getStackByRemoteId(final long accountId, final long localBoardId, final long remoteId);
 
+    @Query("SELECT * FROM stack WHERE accountId = :accountId and boardId = :localBoardId and id = :remoteId")
+    Stack getStackByRemoteIdDirectly(final long accountId, final long localBoardId, final long remoteId);
+
+    @Query("SELECT * FROM stack WHERE accountId = :accountId AND boardId = :localBoardId and id is not null and status<>3 order by `order` asc LIMIT 1")
+    Stack getFirstRemoteStackForBoardDirectly(final long accountId, final long localBoardId);
+
     @Query("SELECT * FROM stack WHERE localId = :localStackId")
     Stack getStackByLocalIdDirectly(final long localStackId);
 
+    @Query("SELECT * FROM stack WHERE localId IN (:localStackIds)")
+    List<Stack> getStacksByLocalIdsDirectly(final List<Long> localStackIds);
+
     @Transaction
     @Query("SELECT * FROM stack WHERE localId = :localStackId")
     FullStack getFullStackByLocalIdDirectly(final long localStackId);
@@ -62,12 +71,6 @@ public interface StackDao extends GenericDao<Stack> {
     @Query("SELECT coalesce(MAX(`order`), -1) FROM stack s WHERE boardId = :localBoardId")
     Integer getHighestStackOrderInBoard(long localBoardId);
 
-    @Query("SELECT exists(select 1 from Stack s join Board b on s.boardId = b.localId where s.localId = :localStackId and exists(select 1 from AccessControl ac where ac.boardId = b.localId and status <> 3))")
-    boolean isStackOnSharedBoardDirectly(Long localStackId);
-
-    @Query("SELECT s.localId FROM stack s join Board b on s.boardId = b.localId where b.archived <> 0 and b.accountId in (:accountIds)")
-    List<Long> getLocalStackIdsInArchivedBoardsByAccountIdsDirectly(List<Long> accountIds);
-
     @Query("SELECT s.localId FROM stack s")
     List<Long>  getAllIDs();
 }
\ No newline at end of file
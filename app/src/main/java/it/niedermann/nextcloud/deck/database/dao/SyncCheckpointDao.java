@@ -0,0 +1,26 @@
+package it.niedermann.nextcloud.deck.database.dao;
+
+import androidx.annotation.Nullable;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.time.Instant;
+
+import it.niedermann.nextcloud.deck.model.SyncCheckpoint;
+import it.niedermann.nextcloud.deck.model.enums.ESyncCheckpointType;
+
+@Dao
+public interface SyncCheckpointDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(SyncCheckpoint checkpoint);
+
+    @Nullable
+    @Query("SELECT completedAt FROM SyncCheckpoint WHERE accountId = :accountId AND type = :type AND localId = :localId AND completedAt >= :notBefore")
+    Instant getCompletedAtSince(long accountId, ESyncCheckpointType type, long localId, Instant notBefore);
+
+    @Query("DELETE FROM SyncCheckpoint WHERE accountId = :accountId")
+    void deleteByAccountId(long accountId);
+}
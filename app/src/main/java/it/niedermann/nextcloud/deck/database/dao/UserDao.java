@@ -60,6 +60,9 @@ public interface UserDao extends GenericDao<User> {
     @Query("SELECT * FROM user WHERE accountId = :accountId and uid = :uid")
     User getUserByUidDirectly(final long accountId, final String uid);
 
+    @Query("SELECT uid FROM user WHERE accountId = :accountId and uid IN (:uids)")
+    List<String> getExistingUidsDirectly(final long accountId, final List<String> uids);
+
     @Query("SELECT * FROM user WHERE localId IN (:assignedUserIDs) and status <> 3") // not LOCAL_DELETED
     List<User> getUsersByIdDirectly(List<Long> assignedUserIDs);
 
@@ -3,10 +3,19 @@ package it.niedermann.nextcloud.deck.database.dao;
 import androidx.room.Dao;
 import androidx.room.Query;
 
+import java.util.Collection;
+import java.util.List;
+
 import it.niedermann.nextcloud.deck.model.relations.UserInGroup;
 
 @Dao
 public interface UserInGroupDao extends GenericDao<UserInGroup> {
     @Query("DELETE FROM useringroup WHERE groupId = :localId")
     void deleteByGroupId(long localId);
+
+    @Query("DELETE FROM useringroup WHERE groupId = :localGroupId and memberId IN (:localMemberIds)")
+    void deleteMembersOfGroup(long localGroupId, Collection<Long> localMemberIds);
+
+    @Query("SELECT memberId FROM useringroup WHERE groupId = :localGroupId")
+    List<Long> getMemberIdsOfGroupDirectly(long localGroupId);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package it.niedermann.nextcloud.deck.database.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Adds composite indices for the stack, upcoming cards and relation queries
+ */
+public class Migration_33_34 extends Migration {
+
+    public Migration_33_34() {
+        super(33, 34);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("DROP INDEX IF EXISTS `index_Card_stackId`");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_Card_stackId_archived_order_createdAt` ON `Card` (`stackId`, `archived`, `order`, `createdAt`)");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_Card_dueDate_done` ON `Card` (`dueDate`, `done`)");
+
+        database.execSQL("DROP INDEX IF EXISTS `index_JoinCardWithLabel_cardId`");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_JoinCardWithLabel_cardId_status` ON `JoinCardWithLabel` (`cardId`, `status`)");
+        database.execSQL("DROP INDEX IF EXISTS `index_JoinCardWithUser_cardId`");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_JoinCardWithUser_cardId_status` ON `JoinCardWithUser` (`cardId`, `status`)");
+        database.execSQL("DROP INDEX IF EXISTS `index_JoinCardWithProject_cardId`");
+        database.execSQL("CREATE INDEX IF NOT EXISTS `index_JoinCardWithProject_cardId_status` ON `JoinCardWithProject` (`cardId`, `status`)");
+
+        database.execSQL("ANALYZE");
+    }
+}
@@ -0,0 +1,30 @@
+package it.niedermann.nextcloud.deck.database.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Adds a hash of the synchronized content to all remote entities, so unchanged entities can be skipped while synchronizing
+ */
+public class Migration_34_35 extends Migration {
+
+    public Migration_34_35() {
+        super(34, 35);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("ALTER TABLE `AccessControl` ADD COLUMN `contentHash` INTEGER");
+        database.execSQL("ALTER TABLE `Activity` ADD COLUMN `contentHash` INTEGER");
+        database.execSQL("ALTER TABLE `Attachment` ADD COLUMN `contentHash` INTEGER");
+        database.execSQL("ALTER TABLE `Board` ADD COLUMN `contentHash` INTEGER");
+        database.execSQL("ALTER TABLE `Card` ADD COLUMN `contentHash` INTEGER");
+        database.execSQL("ALTER TABLE `DeckComment` ADD COLUMN `contentHash` INTEGER");
+        database.execSQL("ALTER TABLE `Label` ADD COLUMN `contentHash` INTEGER");
+        database.execSQL("ALTER TABLE `OcsProject` ADD COLUMN `contentHash` INTEGER");
+        database.execSQL("ALTER TABLE `OcsProjectResource` ADD COLUMN `contentHash` INTEGER");
+        database.execSQL("ALTER TABLE `Stack` ADD COLUMN `contentHash` INTEGER");
+        database.execSQL("ALTER TABLE `User` ADD COLUMN `contentHash` INTEGER");
+    }
+}
@@ -0,0 +1,20 @@
+package it.niedermann.nextcloud.deck.database.migration;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Adds checkpoints for boards and stacks which have been synchronized completely, so an interrupted full synchronization can be resumed
+ */
+public class Migration_35_36 extends Migration {
+
+    public Migration_35_36() {
+        super(35, 36);
+    }
+
+    @Override
+    public void migrate(@NonNull SupportSQLiteDatabase database) {
+        database.execSQL("CREATE TABLE IF NOT EXISTS `SyncCheckpoint` (`accountId` INTEGER NOT NULL, `type` INTEGER NOT NULL, `localId` INTEGER NOT NULL, `completedAt` INTEGER NOT NULL, PRIMARY KEY(`accountId`, `type`, `localId`), FOREIGN KEY(`accountId`) REFERENCES `Account`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+    }
+}
@@ -28,6 +28,7 @@ public class OfflineException extends IllegalStateException {
         CONNECTION_REFUSED("Connection refused", R.string.error_dialog_tip_offline_connection_refused),
         CONNECTION_TIMEOUT("Connection timeout", R.string.error_dialog_tip_offline_connection_timeout),
         CONNECTION_REJECTED("Connection rejected", R.string.error_dialog_tip_connection_rejected),
+        SERVER_UNAVAILABLE("Server unavailable", R.string.error_dialog_tip_server_unavailable),
         ;
 
         private final String key;
@@ -19,7 +19,8 @@ import it.niedermann.nextcloud.deck.model.interfaces.AbstractRemoteEntity;
 @Entity(inheritSuperIndices = true,
         indices = {
                 @Index(value = "accountId", name = "card_accID"),
-                @Index("stackId")
+                @Index({"stackId", "archived", "order", "createdAt"}),
+                @Index({"dueDate", "done"})
         },
         foreignKeys = {
                 @ForeignKey(
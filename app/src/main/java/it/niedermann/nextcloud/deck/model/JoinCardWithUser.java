@@ -8,7 +8,7 @@ import it.niedermann.nextcloud.deck.model.interfaces.AbstractJoinEntity;
 
 @Entity(
         primaryKeys = {"userId", "cardId"},
-        indices = {@Index("cardId"), @Index("userId")},
+        indices = {@Index({"cardId", "status"}), @Index("userId")},
         foreignKeys = {
                 @ForeignKey(entity = User.class,
                         parentColumns = "localId",
@@ -0,0 +1,95 @@
+package it.niedermann.nextcloud.deck.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import it.niedermann.nextcloud.deck.model.enums.ESyncCheckpointType;
+
+/**
+ * Remembers that a board or stack has been synchronized completely while a full synchronization of its account was running,
+ * so an interrupted synchronization can continue where it stopped.
+ */
+@Entity(
+        primaryKeys = {"accountId", "type", "localId"},
+        foreignKeys = {
+                @ForeignKey(entity = Account.class,
+                        parentColumns = "id",
+                        childColumns = "accountId", onDelete = ForeignKey.CASCADE)
+        })
+public class SyncCheckpoint {
+    private long accountId;
+    @NonNull
+    private ESyncCheckpointType type;
+    private long localId;
+    @NonNull
+    private Instant completedAt;
+
+    public SyncCheckpoint(long accountId, @NonNull ESyncCheckpointType type, long localId, @NonNull Instant completedAt) {
+        this.accountId = accountId;
+        this.type = type;
+        this.localId = localId;
+        this.completedAt = completedAt;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(long accountId) {
+        this.accountId = accountId;
+    }
+
+    @NonNull
+    public ESyncCheckpointType getType() {
+        return type;
+    }
+
+    public void setType(@NonNull ESyncCheckpointType type) {
+        this.type = type;
+    }
+
+    public long getLocalId() {
+        return localId;
+    }
+
+    public void setLocalId(long localId) {
+        this.localId = localId;
+    }
+
+    @NonNull
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(@NonNull Instant completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SyncCheckpoint that = (SyncCheckpoint) o;
+        return accountId == that.accountId && localId == that.localId && type == that.type && completedAt.equals(that.completedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(accountId, type, localId, completedAt);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "SyncCheckpoint{" +
+                "accountId=" + accountId +
+                ", type=" + type +
+                ", localId=" + localId +
+                ", completedAt=" + completedAt +
+                '}';
+    }
+}
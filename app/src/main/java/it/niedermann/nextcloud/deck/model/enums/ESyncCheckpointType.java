@@ -0,0 +1,34 @@
+package it.niedermann.nextcloud.deck.model.enums;
+
+/**
+ * Kind of subtree of a full synchronization which has been completed, see {@link it.niedermann.nextcloud.deck.model.SyncCheckpoint}
+ */
+public enum ESyncCheckpointType {
+    /**
+     * All stacks and cards of a board
+     */
+    BOARD(1),
+    /**
+     * All cards of a stack
+     */
+    STACK(2);
+
+    private final int id;
+
+    ESyncCheckpointType(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public static ESyncCheckpointType findById(int id) {
+        for (ESyncCheckpointType s : ESyncCheckpointType.values()) {
+            if (s.getId() == id) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("unknown " + ESyncCheckpointType.class.getSimpleName() + " key: " + id);
+    }
+}
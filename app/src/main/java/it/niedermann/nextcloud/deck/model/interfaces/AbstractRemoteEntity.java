@@ -42,6 +42,8 @@ public abstract class AbstractRemoteEntity implements IRemoteEntity {
 
     protected String etag;
 
+    protected Long contentHash;
+
     public AbstractRemoteEntity() {
     }
 
@@ -150,6 +152,16 @@ public abstract class AbstractRemoteEntity implements IRemoteEntity {
         this.etag = etag;
     }
 
+    @Override
+    public Long getContentHash() {
+        return contentHash;
+    }
+
+    @Override
+    public void setContentHash(Long contentHash) {
+        this.contentHash = contentHash;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -76,6 +76,17 @@ public interface IRemoteEntity {
         getEntity().setEtag(etag);
     }
 
+    /**
+     * @return a hash over the fields of this entity as they have been delivered by the server the last time, or <code>null</code> if unknown
+     */
+    default Long getContentHash() {
+        return getEntity().getContentHash();
+    }
+
+    default void setContentHash(Long contentHash) {
+        getEntity().setContentHash(contentHash);
+    }
+
     default <T> List<T> copyList(List<T> listToCopy) {
         if (listToCopy == null) {
             return null;
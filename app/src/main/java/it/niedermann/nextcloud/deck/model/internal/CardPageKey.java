@@ -0,0 +1,75 @@
+package it.niedermann.nextcloud.deck.model.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+import it.niedermann.nextcloud.deck.model.Card;
+
+/**
+ * Keyset position of a {@link Card} within a stack, following the sort order <code>(order, createdAt, localId)</code>.
+ * <code>localId</code> makes the key unique.
+ */
+public class CardPageKey {
+
+    /**
+     * Not yet created cards sort first, just like <code>NULL</code> values do in SQLite
+     */
+    public static final long NULL_CREATED_AT = Long.MIN_VALUE;
+
+    /**
+     * Sorts before every {@link Card}
+     */
+    public static final CardPageKey FIRST = new CardPageKey(Integer.MIN_VALUE, NULL_CREATED_AT, Long.MIN_VALUE);
+
+    private final int order;
+    private final long createdAt;
+    private final long localId;
+
+    public CardPageKey(int order, long createdAt, long localId) {
+        this.order = order;
+        this.createdAt = createdAt;
+        this.localId = localId;
+    }
+
+    @NonNull
+    public static CardPageKey of(@NonNull Card card) {
+        return new CardPageKey(card.getOrder(), card.getCreatedAt() == null ? NULL_CREATED_AT : card.getCreatedAt().toEpochMilli(), card.getLocalId());
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getLocalId() {
+        return localId;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CardPageKey that = (CardPageKey) o;
+        return order == that.order && createdAt == that.createdAt && localId == that.localId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(order, createdAt, localId);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "CardPageKey{" +
+                "order=" + order +
+                ", createdAt=" + createdAt +
+                ", localId=" + localId +
+                '}';
+    }
+}
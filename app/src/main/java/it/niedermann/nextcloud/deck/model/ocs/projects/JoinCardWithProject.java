@@ -10,7 +10,7 @@ import it.niedermann.nextcloud.deck.model.interfaces.AbstractJoinEntity;
 
 @Entity(
         primaryKeys = {"projectId", "cardId"},
-        indices = {@Index("cardId"), @Index("projectId")},
+        indices = {@Index({"cardId", "status"}), @Index("projectId")},
         foreignKeys = {
             @ForeignKey(entity = OcsProject.class,
                 parentColumns = "localId",
@@ -5,6 +5,10 @@ import java.util.Objects;
 public class OcsUser {
     String id;
     String displayName;
+    /**
+     * Only known for search results, the server also matches search terms against it
+     */
+    String email;
 
     public OcsUser() {
 
@@ -31,6 +35,14 @@ public class OcsUser {
         this.displayName = displayName;
     }
 
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -39,13 +51,15 @@ public class OcsUser {
         OcsUser ocsUser = (OcsUser) o;
 
         if (!Objects.equals(id, ocsUser.id)) return false;
-        return Objects.equals(displayName, ocsUser.displayName);
+        if (!Objects.equals(displayName, ocsUser.displayName)) return false;
+        return Objects.equals(email, ocsUser.email);
     }
 
     @Override
     public int hashCode() {
         int result = id != null ? id.hashCode() : 0;
         result = 31 * result + (displayName != null ? displayName.hashCode() : 0);
+        result = 31 * result + (email != null ? email.hashCode() : 0);
         return result;
     }
 }
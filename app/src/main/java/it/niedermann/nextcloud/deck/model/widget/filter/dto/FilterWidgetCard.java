@@ -1,45 +1,82 @@
 package it.niedermann.nextcloud.deck.model.widget.filter.dto;
 
-import it.niedermann.nextcloud.deck.model.Board;
-import it.niedermann.nextcloud.deck.model.Stack;
-import it.niedermann.nextcloud.deck.model.full.FullCard;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Ignore;
 
+import it.niedermann.nextcloud.deck.model.Account;
+
+/**
+ * Everything which is necessary to render one row of a filter widget without accessing the database.
+ */
 public class FilterWidgetCard {
-    private FullCard card;
-    private Stack stack;
-    private Board board;
+    private long localId;
+    private long accountId;
+    private long boardId;
+    private long stackId;
+    @Nullable
+    private String title;
+    @Ignore
+    @Nullable
+    private Account account;
 
     public FilterWidgetCard() {
         // Default constructor
     }
 
-    public FilterWidgetCard(FullCard card, Stack stack, Board board) {
-        this.card = card;
-        this.stack = stack;
-        this.board = board;
+    public long getLocalId() {
+        return localId;
+    }
+
+    public void setLocalId(long localId) {
+        this.localId = localId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(long accountId) {
+        this.accountId = accountId;
+    }
+
+    /**
+     * @return the local ID of the board
+     */
+    public long getBoardId() {
+        return boardId;
+    }
+
+    public void setBoardId(long boardId) {
+        this.boardId = boardId;
     }
 
-    public FullCard getCard() {
-        return card;
+    /**
+     * @return the local ID of the stack
+     */
+    public long getStackId() {
+        return stackId;
     }
 
-    public void setCard(FullCard card) {
-        this.card = card;
+    public void setStackId(long stackId) {
+        this.stackId = stackId;
     }
 
-    public Stack getStack() {
-        return stack;
+    @Nullable
+    public String getTitle() {
+        return title;
     }
 
-    public void setStack(Stack stack) {
-        this.stack = stack;
+    public void setTitle(@Nullable String title) {
+        this.title = title;
     }
 
-    public Board getBoard() {
-        return board;
+    @Nullable
+    public Account getAccount() {
+        return account;
     }
 
-    public void setBoard(Board board) {
-        this.board = board;
+    public void setAccount(@NonNull Account account) {
+        this.account = account;
     }
 }
@@ -0,0 +1,152 @@
+package it.niedermann.nextcloud.deck.remote;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.model.Account;
+
+/**
+ * Decides per {@link Account} whether a background synchronization is due and whether network heavy parts of it should be deferred.
+ * <p>
+ * {@link Account}s without any remote changes get synchronized less often, up to {@link #MAX_BACKOFF_FACTOR} times the configured
+ * interval. As soon as a change shows up, the {@link Account} gets synchronized with every run again.
+ * Boards which changed within the maximum backoff are considered active, they keep being synchronized with every run while their {@link Account} is backed off.
+ */
+public class AdaptiveSyncPolicy {
+
+    private static final String PREFERENCES = "it.niedermann.nextcloud.deck.adaptive_sync";
+    private static final String KEY_IDLE_STREAK = "idleStreak_";
+    private static final String KEY_NEXT_DUE = "nextDue_";
+    private static final String KEY_LAST_HEAVY_SYNC = "lastHeavySync_";
+    private static final String KEY_BOARD_LAST_CHANGE = "boardLastChange_";
+
+    private static final int MAX_BACKOFF_EXPONENT = 3;
+    static final int MAX_BACKOFF_FACTOR = 1 << MAX_BACKOFF_EXPONENT;
+    /**
+     * Heavy work is done at least once within this period, no matter of the network or battery state
+     */
+    static final long MAX_HEAVY_WORK_DEFERRAL_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    @NonNull
+    private final SharedPreferences preferences;
+    private final long baseIntervalMillis;
+
+    public AdaptiveSyncPolicy(@NonNull Context context, long baseIntervalMillis) {
+        this(context.getApplicationContext().getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE), baseIntervalMillis);
+    }
+
+    AdaptiveSyncPolicy(@NonNull SharedPreferences preferences, long baseIntervalMillis) {
+        this.preferences = preferences;
+        this.baseIntervalMillis = baseIntervalMillis;
+    }
+
+    /**
+     * Periodic work does not run exactly on time, therefore {@link Account}s which become due within a quarter of the base interval
+     * are considered due already.
+     */
+    public boolean isDue(long accountId, long now) {
+        return now + baseIntervalMillis / 4 >= preferences.getLong(KEY_NEXT_DUE + accountId, 0L);
+    }
+
+    /**
+     * Network heavy work gets deferred on metered networks while not charging, but never longer than
+     * {@link #MAX_HEAVY_WORK_DEFERRAL_MILLIS}.
+     */
+    public boolean shouldDeferHeavyWork(long accountId, boolean unmetered, boolean charging, long now) {
+        if (unmetered || charging) {
+            return false;
+        }
+        return now - preferences.getLong(KEY_LAST_HEAVY_SYNC + accountId, 0L) < MAX_HEAVY_WORK_DEFERRAL_MILLIS;
+    }
+
+    /**
+     * @param changedLocalBoardIds boards which have been changed since the previous synchronization
+     */
+    public void recordResult(long accountId, @NonNull Collection<Long> changedLocalBoardIds, boolean heavyWorkDone, long now) {
+        final int idleStreak = changedLocalBoardIds.isEmpty() ? preferences.getInt(KEY_IDLE_STREAK + accountId, 0) + 1 : 0;
+        final long interval = getInterval(idleStreak);
+        final var editor = preferences.edit()
+                .putInt(KEY_IDLE_STREAK + accountId, idleStreak)
+                .putLong(KEY_NEXT_DUE + accountId, now + interval);
+        if (heavyWorkDone) {
+            editor.putLong(KEY_LAST_HEAVY_SYNC + accountId, now);
+        }
+        removeInactiveBoards(editor, accountId, now);
+        for (final var localBoardId : changedLocalBoardIds) {
+            editor.putLong(getBoardLastChangeKey(accountId, localBoardId), now);
+        }
+        editor.apply();
+        DeckLog.info("Account", accountId, "had", changedLocalBoardIds.size(), "changed boards, next background synchronization in", TimeUnit.MILLISECONDS.toMinutes(interval), "minutes");
+    }
+
+    /**
+     * Records the synchronization of a single active board of an {@link Account} which is not due.
+     * A change makes the whole {@link Account} due again.
+     */
+    public void recordBoardResult(long accountId, long localBoardId, boolean changed, long now) {
+        if (changed) {
+            preferences.edit()
+                    .putLong(getBoardLastChangeKey(accountId, localBoardId), now)
+                    .remove(KEY_IDLE_STREAK + accountId)
+                    .remove(KEY_NEXT_DUE + accountId)
+                    .apply();
+            DeckLog.info("Active board", localBoardId, "of account", accountId, "changed, the account is due again");
+        } else {
+            DeckLog.verbose("Active board", localBoardId, "of account", accountId, "did not change");
+        }
+    }
+
+    /**
+     * @return the local IDs of the boards of the given {@link Account} which changed within the maximum backoff
+     */
+    @NonNull
+    public Set<Long> getActiveBoards(long accountId, long now) {
+        final var prefix = getBoardLastChangeKey(accountId, null);
+        final long activeSince = now - getInterval(MAX_BACKOFF_EXPONENT);
+        final Set<Long> activeBoards = new HashSet<>();
+        for (final var entry : preferences.getAll().entrySet()) {
+            if (entry.getKey().startsWith(prefix) && entry.getValue() instanceof Long && (Long) entry.getValue() >= activeSince) {
+                activeBoards.add(Long.parseLong(entry.getKey().substring(prefix.length())));
+            }
+        }
+        return activeBoards;
+    }
+
+    private void removeInactiveBoards(@NonNull SharedPreferences.Editor editor, long accountId, long now) {
+        final var prefix = getBoardLastChangeKey(accountId, null);
+        final long activeSince = now - getInterval(MAX_BACKOFF_EXPONENT);
+        for (final var entry : preferences.getAll().entrySet()) {
+            if (entry.getKey().startsWith(prefix) && (!(entry.getValue() instanceof Long) || (Long) entry.getValue() < activeSince)) {
+                editor.remove(entry.getKey());
+            }
+        }
+    }
+
+    @NonNull
+    private static String getBoardLastChangeKey(long accountId, @Nullable Long localBoardId) {
+        return KEY_BOARD_LAST_CHANGE + accountId + "_" + (localBoardId == null ? "" : localBoardId);
+    }
+
+    /**
+     * Makes the given {@link Account} due immediately, for example after a failed synchronization.
+     */
+    public void reset(long accountId) {
+        preferences.edit()
+                .remove(KEY_IDLE_STREAK + accountId)
+                .remove(KEY_NEXT_DUE + accountId)
+                .apply();
+    }
+
+    long getInterval(int idleStreak) {
+        return baseIntervalMillis * (1L << Math.min(idleStreak, MAX_BACKOFF_EXPONENT));
+    }
+}
@@ -0,0 +1,254 @@
+package it.niedermann.nextcloud.deck.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToLongFunction;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import okhttp3.Headers;
+
+/**
+ * Synchronizes multiple {@link Account}s with a bounded number of concurrent synchronizations.
+ * <p>
+ * The prioritized {@link Account} starts first, all others follow in the order of their last successful synchronization so that
+ * an {@link Account} which keeps failing can not starve the others. An {@link Account} is never synchronized twice at the same time.
+ * {@link Account}s which did not finish within the given deadline are reported as failed without waiting any longer for them,
+ * their lease expires with the deadline so they can be synchronized again by the next run.
+ */
+public class SyncScheduler {
+
+    /**
+     * {@link Account}s which are currently being synchronized by any {@link SyncScheduler}
+     */
+    private static final Map<Long, Lease> RUNNING_ACCOUNT_LEASES = new ConcurrentHashMap<>();
+
+    @NonNull
+    private final AccountSynchronizer synchronizer;
+    @NonNull
+    private final ToLongFunction<Account> lastSyncProvider;
+    private final int maxConcurrentAccounts;
+
+    /**
+     * @param lastSyncProvider provides the epoch millis of the last successful synchronization of an {@link Account}
+     */
+    public SyncScheduler(@NonNull AccountSynchronizer synchronizer, @NonNull ToLongFunction<Account> lastSyncProvider, int maxConcurrentAccounts) {
+        if (maxConcurrentAccounts < 1) {
+            throw new IllegalArgumentException("maxConcurrentAccounts must be at least 1 but was " + maxConcurrentAccounts);
+        }
+        this.synchronizer = synchronizer;
+        this.lastSyncProvider = lastSyncProvider;
+        this.maxConcurrentAccounts = maxConcurrentAccounts;
+    }
+
+    /**
+     * Blocks until all {@link Account}s have been synchronized or the deadline has been reached.
+     *
+     * @param priorityAccountId the {@link Account} which gets synchronized first, usually the one the user opened last
+     * @return one {@link AccountSyncResult} per given {@link Account} in the order they have been scheduled
+     */
+    @WorkerThread
+    public Map<Long, AccountSyncResult> synchronize(@NonNull Collection<Account> accounts, @Nullable Long priorityAccountId, long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        final var queue = prioritize(accounts, priorityAccountId);
+        final Map<Long, AccountSyncResult> results = new ConcurrentHashMap<>();
+        final var slots = new Semaphore(maxConcurrentAccounts);
+        final var latch = new CountDownLatch(queue.size());
+        final Map<Long, Lease> leases = new HashMap<>();
+
+        for (final var account : queue) {
+            final long accountId = account.getId();
+            if (!slots.tryAcquire(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                DeckLog.warn("Deadline reached before synchronization of", account.getName(), "could start");
+                break;
+            }
+            final var lease = new Lease(deadline);
+            if (!acquire(accountId, lease)) {
+                DeckLog.info("Skipping", account.getName(), "because it is already being synchronized");
+                results.put(accountId, AccountSyncResult.skipped(accountId));
+                slots.release();
+                latch.countDown();
+                continue;
+            }
+            leases.put(accountId, lease);
+
+            final long start = System.currentTimeMillis();
+            final var finished = new AtomicBoolean(false);
+            final var callback = new ResponseCallback<Boolean>(account) {
+                @Override
+                public void onResponse(Boolean response, Headers headers) {
+                    finish(AccountSyncResult.of(accountId, Boolean.TRUE.equals(response), System.currentTimeMillis() - start, null));
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    super.onError(throwable);
+                    finish(AccountSyncResult.of(accountId, false, System.currentTimeMillis() - start, throwable));
+                }
+
+                private void finish(@NonNull AccountSyncResult result) {
+                    // Callbacks might get invoked more than once, only the first one counts
+                    if (finished.compareAndSet(false, true)) {
+                        results.put(accountId, result);
+                        RUNNING_ACCOUNT_LEASES.remove(accountId, lease);
+                        slots.release();
+                        latch.countDown();
+                    }
+                }
+            };
+
+            try {
+                synchronizer.synchronize(account, callback);
+            } catch (Throwable t) {
+                callback.onError(t);
+            }
+        }
+
+        if (!latch.await(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+            DeckLog.warn("Deadline reached, not waiting any longer for", latch.getCount(), "synchronizations");
+        }
+
+        final Map<Long, AccountSyncResult> orderedResults = new LinkedHashMap<>();
+        for (final var account : queue) {
+            final var result = results.get(account.getId());
+            if (result == null) {
+                final var lease = leases.get(account.getId());
+                if (lease != null) {
+                    // Do not block the next run, the callback will not release a lease which has already been released
+                    RUNNING_ACCOUNT_LEASES.remove(account.getId(), lease);
+                }
+                orderedResults.put(account.getId(), AccountSyncResult.timedOut(account.getId()));
+            } else {
+                orderedResults.put(account.getId(), result);
+            }
+        }
+        return orderedResults;
+    }
+
+    /**
+     * @return <code>true</code> if the {@param lease} has been acquired, <code>false</code> if the {@link Account} is held by another lease which did not yet expire
+     */
+    private static boolean acquire(long accountId, @NonNull Lease lease) {
+        final long now = System.currentTimeMillis();
+        return RUNNING_ACCOUNT_LEASES.compute(accountId, (id, current) -> current == null || current.expiresAt <= now ? lease : current) == lease;
+    }
+
+    @VisibleForTesting
+    static boolean isRunning(long accountId) {
+        final var lease = RUNNING_ACCOUNT_LEASES.get(accountId);
+        return lease != null && lease.expiresAt > System.currentTimeMillis();
+    }
+
+    @NonNull
+    private List<Account> prioritize(@NonNull Collection<Account> accounts, @Nullable Long priorityAccountId) {
+        final var queue = new ArrayList<>(accounts);
+        queue.sort(Comparator
+                .comparing((Account account) -> !Objects.equals(account.getId(), priorityAccountId))
+                .thenComparingLong(lastSyncProvider));
+        return queue;
+    }
+
+    private static class Lease {
+        private final long expiresAt;
+
+        private Lease(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public interface AccountSynchronizer {
+        /**
+         * Must eventually call the given <code>callback</code> exactly once
+         */
+        void synchronize(@NonNull Account account, @NonNull ResponseCallback<Boolean> callback) throws Exception;
+    }
+
+    public static class AccountSyncResult {
+
+        private final long accountId;
+        private final boolean success;
+        private final boolean skipped;
+        private final long durationMillis;
+        @Nullable
+        private final Throwable error;
+
+        private AccountSyncResult(long accountId, boolean success, boolean skipped, long durationMillis, @Nullable Throwable error) {
+            this.accountId = accountId;
+            this.success = success;
+            this.skipped = skipped;
+            this.durationMillis = durationMillis;
+            this.error = error;
+        }
+
+        @NonNull
+        private static AccountSyncResult of(long accountId, boolean success, long durationMillis, @Nullable Throwable error) {
+            return new AccountSyncResult(accountId, success, false, durationMillis, error);
+        }
+
+        @NonNull
+        private static AccountSyncResult skipped(long accountId) {
+            return new AccountSyncResult(accountId, true, true, 0, null);
+        }
+
+        @NonNull
+        private static AccountSyncResult timedOut(long accountId) {
+            return new AccountSyncResult(accountId, false, false, -1, null);
+        }
+
+        public long getAccountId() {
+            return accountId;
+        }
+
+        /**
+         * @return <code>true</code> if the synchronization succeeded or has been skipped because another one was already running
+         */
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public boolean isSkipped() {
+            return skipped;
+        }
+
+        /**
+         * @return the duration of the synchronization or <code>-1</code> if it did not finish in time
+         */
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        @Nullable
+        public Throwable getError() {
+            return error;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "AccountSyncResult{" +
+                    "accountId=" + accountId +
+                    ", success=" + success +
+                    ", skipped=" + skipped +
+                    ", durationMillis=" + durationMillis +
+                    ", error=" + error +
+                    '}';
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package it.niedermann.nextcloud.deck.remote;
 
+import static java.util.stream.Collectors.toList;
+
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.BatteryManager;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 import androidx.preference.PreferenceManager;
+import androidx.lifecycle.LiveData;
 import androidx.work.Constraints;
+import androidx.work.Data;
 import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.ExistingWorkPolicy;
 import androidx.work.ListenableWorker;
 import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
 import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
 import androidx.work.Worker;
@@ -17,15 +25,26 @@ import androidx.work.WorkerParameters;
 
 import com.nextcloud.android.sso.exceptions.NextcloudFilesAppAccountNotFoundException;
 
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import it.niedermann.android.reactivelivedata.ReactiveLiveData;
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.R;
 import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.remote.api.CircuitBreaker;
+import it.niedermann.nextcloud.deck.remote.api.LastSyncUtil;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.remote.helpers.util.ConnectivityUtil;
 import it.niedermann.nextcloud.deck.repository.BaseRepository;
 import it.niedermann.nextcloud.deck.repository.SyncRepository;
 import okhttp3.Headers;
@@ -37,61 +56,234 @@ public class SyncWorker extends Worker {
             .setRequiredNetworkType(NetworkType.CONNECTED)
             .build();
 
+    private static final int MAX_CONCURRENT_ACCOUNTS = 2;
+    /**
+     * WorkManager stops workers after 10 minutes, results of {@link Account}s which did not finish until then are treated as failed
+     */
+    private static final long SYNC_TIMEOUT_MINUTES = 9;
+    /**
+     * Part of {@link #SYNC_TIMEOUT_MINUTES} which may be used to synchronize active boards of {@link Account}s which are not due
+     */
+    private static final long ACTIVE_BOARDS_TIMEOUT_MINUTES = 2;
+    private static final int MAX_RETRIES = 3;
+    private static final String KEY_IMPORTED_ACCOUNT_ID = "importedAccountId";
+    private static final long NO_ACCOUNT_ID = -1L;
+
     private final BaseRepository baseRepository;
+    private final SharedPreferences sharedPreferences;
     private final SharedPreferences.Editor editor;
 
     public SyncWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
         super(context, workerParams);
         this.baseRepository = new BaseRepository(context);
-        this.editor = PreferenceManager.getDefaultSharedPreferences(getApplicationContext()).edit();
+        this.sharedPreferences = PreferenceManager.getDefaultSharedPreferences(getApplicationContext());
+        this.editor = sharedPreferences.edit();
     }
 
     @NonNull
     @Override
     public Result doWork() {
+        final long importedAccountId = getInputData().getLong(KEY_IMPORTED_ACCOUNT_ID, NO_ACCOUNT_ID);
+        if (importedAccountId != NO_ACCOUNT_ID) {
+            return completeImport(getApplicationContext(), importedAccountId);
+        }
+
         DeckLog.info("Starting background synchronization");
         editor.putLong(getApplicationContext().getString(R.string.shared_preference_last_background_sync), System.currentTimeMillis());
         editor.apply();
 
         try {
             return synchronizeEverything(getApplicationContext(), baseRepository.readAccountsDirectly());
-        } catch (NextcloudFilesAppAccountNotFoundException e) {
-            return Result.failure();
         } finally {
             DeckLog.info("Finishing background synchronization.");
         }
     }
 
+    /**
+     * Downloads everything which has been deferred while importing the given {@link Account}, see {@link #scheduleImportCompletion(Context, long)}.
+     */
     @WorkerThread
-    private ListenableWorker.Result synchronizeEverything(@NonNull Context context, @NonNull List<Account> accounts) throws NextcloudFilesAppAccountNotFoundException {
-        if (accounts.isEmpty()) {
+    private ListenableWorker.Result completeImport(@NonNull Context context, long accountId) {
+        final var account = baseRepository.readAccountDirectly(accountId);
+        if (account == null) {
+            DeckLog.info("Account", accountId, "has been removed before its import has been completed");
+            return Result.success();
+        }
+        if (LastSyncUtil.getLastHeavySync(accountId) > 0) {
+            DeckLog.info("Import of", account.getName(), "has already been completed by another synchronization");
             return Result.success();
         }
-        final var success = new AtomicBoolean(true);
-        final var latch = new CountDownLatch(accounts.size());
 
+        DeckLog.info("Completing import of", account.getName());
+        final var scheduler = new SyncScheduler(
+                (acc, callback) -> new SyncRepository(context, acc).synchronize(callback, false, true),
+                acc -> 0L,
+                1);
+        final SyncScheduler.AccountSyncResult result;
         try {
-            for (Account account : accounts) {
-                new SyncRepository(context, account).synchronize(new ResponseCallback<>(account) {
+            result = scheduler.synchronize(List.of(account), accountId, SYNC_TIMEOUT_MINUTES, TimeUnit.MINUTES).get(accountId);
+        } catch (InterruptedException e) {
+            DeckLog.logError(e);
+            return Result.retry();
+        }
+
+        DeckLog.info("Completing import of", account.getName(), result);
+        if (result != null && result.isSuccess() && !result.isSkipped()) {
+            return Result.success();
+        } else if (getRunAttemptCount() < MAX_RETRIES) {
+            return Result.retry();
+        } else {
+            DeckLog.warn("Giving up completing the import of", account.getName(), "after", MAX_RETRIES, "retries, the next synchronization will catch up");
+            return Result.failure();
+        }
+    }
+
+    /**
+     * Retries only synchronize the {@link Account}s which failed in the previous attempt.
+     * Otherwise only {@link Account}s which are due according to the {@link AdaptiveSyncPolicy} get synchronized completely,
+     * of all other {@link Account}s only the active boards get synchronized.
+     */
+    @WorkerThread
+    private ListenableWorker.Result synchronizeEverything(@NonNull Context context, @NonNull List<Account> accounts) {
+        final long now = System.currentTimeMillis();
+        final long deadline = now + TimeUnit.MINUTES.toMillis(SYNC_TIMEOUT_MINUTES);
+        final var policy = new AdaptiveSyncPolicy(context, getIntervalMillis(context, sharedPreferences.getString(context.getString(R.string.pref_key_background_sync), context.getString(R.string.pref_value_background_15_minutes))));
+        final var failedAccountIdsKey = context.getString(R.string.shared_preference_background_sync_failed_accounts);
+        final var previouslyFailedAccountIds = sharedPreferences.getStringSet(failedAccountIdsKey, Collections.emptySet());
+        final boolean retry = getRunAttemptCount() > 0 && !previouslyFailedAccountIds.isEmpty();
+        final var availableAccounts = accounts.stream()
+                .filter(account -> {
+                    if (CircuitBreaker.forAccount(account.getName()).isPaused()) {
+                        DeckLog.info("Skipping background synchronization of", account.getName(), "because its server failed repeatedly");
+                        return false;
+                    }
+                    return true;
+                })
+                .collect(toList());
+        final var accountsToSync = (retry
+                ? availableAccounts.stream().filter(account -> previouslyFailedAccountIds.contains(String.valueOf(account.getId())))
+                : availableAccounts.stream().filter(account -> policy.isDue(account.getId(), now)))
+                .collect(toList());
+        DeckLog.info(accountsToSync.size(), "of", accounts.size(), "accounts are due for background synchronization");
+
+        if (!retry) {
+            try {
+                synchronizeActiveBoards(context, policy, availableAccounts.stream().filter(account -> !accountsToSync.contains(account)).collect(toList()), now);
+            } catch (InterruptedException e) {
+                DeckLog.logError(e);
+                return Result.failure();
+            }
+        }
+
+        if (accountsToSync.isEmpty()) {
+            editor.remove(failedAccountIdsKey).apply();
+            return Result.success();
+        }
+
+        final boolean unmetered = new ConnectivityUtil(context).isUnmetered();
+        final boolean charging = isCharging(context);
+        final Map<Long, Instant> previousLastSyncDates = new HashMap<>();
+        final Map<Long, Boolean> deferredHeavyWork = new HashMap<>();
+        for (final var account : accountsToSync) {
+            previousLastSyncDates.put(account.getId(), LastSyncUtil.getLastSyncDate(account.getId()));
+            deferredHeavyWork.put(account.getId(), policy.shouldDeferHeavyWork(account.getId(), unmetered, charging, now));
+        }
+
+        final var scheduler = new SyncScheduler(
+                (account, callback) -> new SyncRepository(context, account).synchronize(callback, Boolean.TRUE.equals(deferredHeavyWork.get(account.getId())), true),
+                account -> LastSyncUtil.getLastSync(account.getId()),
+                MAX_CONCURRENT_ACCOUNTS);
+
+        final Map<Long, SyncScheduler.AccountSyncResult> results;
+        try {
+            results = scheduler.synchronize(accountsToSync, getCurrentAccountId(), Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            DeckLog.logError(e);
+            return Result.failure();
+        }
+
+        final Set<String> failedAccountIds = new HashSet<>();
+        for (final var result : results.values()) {
+            DeckLog.info("Background synchronization of account", result.getAccountId(), result.isSuccess() ? "succeeded" : "failed", "after", result.getDurationMillis(), "ms");
+            if (!result.isSuccess()) {
+                failedAccountIds.add(String.valueOf(result.getAccountId()));
+                policy.reset(result.getAccountId());
+            } else if (!result.isSkipped()) {
+                final long accountId = result.getAccountId();
+                final var changedBoards = baseRepository.getLocalIdsOfBoardsChangedSinceDirectly(accountId, previousLastSyncDates.get(accountId));
+                DeckLog.verbose("Boards of account", accountId, "changed since", previousLastSyncDates.get(accountId), ":", changedBoards);
+                policy.recordResult(accountId, changedBoards, !Boolean.TRUE.equals(deferredHeavyWork.get(accountId)), System.currentTimeMillis());
+            }
+        }
+
+        if (failedAccountIds.isEmpty()) {
+            editor.remove(failedAccountIdsKey).apply();
+            return Result.success();
+        } else if (getRunAttemptCount() < MAX_RETRIES) {
+            editor.putStringSet(failedAccountIdsKey, failedAccountIds).apply();
+            return Result.retry();
+        } else {
+            DeckLog.warn("Giving up background synchronization of", failedAccountIds.size(), "accounts after", MAX_RETRIES, "retries");
+            editor.remove(failedAccountIdsKey).apply();
+            return Result.failure();
+        }
+    }
+
+    /**
+     * Synchronizes the active boards of {@link Account}s which are backed off one after another, so busy boards stay fresh while idle ones do not cause traffic.
+     */
+    @WorkerThread
+    private void synchronizeActiveBoards(@NonNull Context context, @NonNull AdaptiveSyncPolicy policy, @NonNull List<Account> accounts, long now) throws InterruptedException {
+        final long deadline = now + TimeUnit.MINUTES.toMillis(ACTIVE_BOARDS_TIMEOUT_MINUTES);
+        for (final var account : accounts) {
+            final var activeBoards = policy.getActiveBoards(account.getId(), now);
+            if (activeBoards.isEmpty()) {
+                continue;
+            }
+            DeckLog.info("Account", account.getName(), "is not due, synchronizing its", activeBoards.size(), "active boards");
+            final SyncRepository syncRepository;
+            try {
+                syncRepository = new SyncRepository(context, account);
+            } catch (NextcloudFilesAppAccountNotFoundException e) {
+                DeckLog.logError(e);
+                continue;
+            }
+            final var lastSync = LastSyncUtil.getLastSyncDate(account.getId());
+            for (final long localBoardId : activeBoards) {
+                final var latch = new CountDownLatch(1);
+                final var success = new AtomicBoolean(false);
+                syncRepository.synchronizeBoard(localBoardId, new ResponseCallback<>(account) {
                     @Override
                     public void onResponse(Boolean response, Headers headers) {
-                        success.set(success.get() && Boolean.TRUE.equals(response));
+                        success.set(true);
                         latch.countDown();
                     }
 
                     @Override
                     public void onError(Throwable throwable) {
-                        success.set(false);
                         super.onError(throwable);
                         latch.countDown();
                     }
                 });
+                if (!latch.await(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                    DeckLog.warn("Deadline reached while synchronizing active board", localBoardId, "of", account.getName());
+                    return;
+                }
+                if (success.get()) {
+                    final boolean changed = baseRepository.getLocalIdsOfBoardsChangedSinceDirectly(account.getId(), lastSync).contains(localBoardId);
+                    policy.recordBoardResult(account.getId(), localBoardId, changed, System.currentTimeMillis());
+                }
             }
-            latch.await();
-            return success.get() ? Result.success() : Result.failure();
-        } catch (InterruptedException e) {
-            DeckLog.logError(e);
-            return Result.failure();
+        }
+    }
+
+    @Nullable
+    private Long getCurrentAccountId() {
+        try {
+            return baseRepository.getCurrentAccountId().get();
+        } catch (ExecutionException | InterruptedException e) {
+            DeckLog.verbose("No current account to prioritize:", e.getMessage());
+            return null;
         }
     }
 
@@ -100,30 +292,65 @@ public class SyncWorker extends Worker {
         update(context, sharedPreferences.getString(context.getString(R.string.pref_key_background_sync), context.getString(R.string.pref_value_background_15_minutes)));
     }
 
-    public static void update(@NonNull Context context, String preferenceValue) {
-        deregister(context);
-        int repeatInterval = -1;
-        TimeUnit unit = null;
+    private static boolean isCharging(@NonNull Context context) {
+        final var batteryManager = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+        return batteryManager != null && batteryManager.isCharging();
+    }
+
+    /**
+     * @return the repeat interval of the given background synchronization setting or <code>-1</code> if it is not a valid time frame
+     */
+    private static long getIntervalMillis(@NonNull Context context, String preferenceValue) {
         if (context.getString(R.string.pref_value_background_15_minutes).equals(preferenceValue)) {
-            repeatInterval = 15;
-            unit = TimeUnit.MINUTES;
+            return TimeUnit.MINUTES.toMillis(15);
         } else if (context.getString(R.string.pref_value_background_1_hour).equals(preferenceValue)) {
-            repeatInterval = 1;
-            unit = TimeUnit.HOURS;
+            return TimeUnit.HOURS.toMillis(1);
         } else if (context.getString(R.string.pref_value_background_6_hours).equals(preferenceValue)) {
-            repeatInterval = 6;
-            unit = TimeUnit.HOURS;
+            return TimeUnit.HOURS.toMillis(6);
         }
-        if (unit == null) {
+        return -1;
+    }
+
+    public static void update(@NonNull Context context, String preferenceValue) {
+        deregister(context);
+        final long repeatInterval = getIntervalMillis(context, preferenceValue);
+        if (repeatInterval < 0) {
             DeckLog.info("Do not register a new", SyncWorker.class.getSimpleName(), "because setting", preferenceValue, "is not a valid time frame");
         } else {
-            final PeriodicWorkRequest work = new PeriodicWorkRequest.Builder(SyncWorker.class, repeatInterval, unit)
+            final PeriodicWorkRequest work = new PeriodicWorkRequest.Builder(SyncWorker.class, repeatInterval, TimeUnit.MILLISECONDS)
                     .setConstraints(constraints).build();
-            DeckLog.info("Registering", SyncWorker.class.getSimpleName(), "running each", repeatInterval, unit);
+            DeckLog.info("Registering", SyncWorker.class.getSimpleName(), "running each", TimeUnit.MILLISECONDS.toMinutes(repeatInterval), "minutes");
             WorkManager.getInstance(context.getApplicationContext()).enqueueUniquePeriodicWork(SyncWorker.WORKER_TAG, ExistingPeriodicWorkPolicy.REPLACE, work);
         }
     }
 
+    /**
+     * A freshly imported {@link Account} is usable as soon as its boards, stacks and cards have been downloaded.
+     * Everything which has been deferred during the import gets downloaded by this work afterwards.
+     */
+    public static void scheduleImportCompletion(@NonNull Context context, long accountId) {
+        final var work = new OneTimeWorkRequest.Builder(SyncWorker.class)
+                .setConstraints(constraints)
+                .setInputData(new Data.Builder().putLong(KEY_IMPORTED_ACCOUNT_ID, accountId).build())
+                .build();
+        DeckLog.info("Scheduling completion of import for account", accountId);
+        WorkManager.getInstance(context.getApplicationContext()).enqueueUniqueWork(getImportWorkName(accountId), ExistingWorkPolicy.KEEP, work);
+    }
+
+    /**
+     * @return whether the deferred parts of the import of the given {@link Account} are still being downloaded
+     */
+    public static LiveData<Boolean> isImportPending(@NonNull Context context, long accountId) {
+        return new ReactiveLiveData<>(WorkManager.getInstance(context.getApplicationContext()).getWorkInfosForUniqueWorkLiveData(getImportWorkName(accountId)))
+                .map(workInfos -> workInfos.stream().anyMatch(workInfo -> !workInfo.getState().isFinished()))
+                .distinctUntilChanged();
+    }
+
+    @NonNull
+    private static String getImportWorkName(long accountId) {
+        return WORKER_TAG + ".import." + accountId;
+    }
+
     private static void deregister(@NonNull Context context) {
         DeckLog.info("Deregistering all", SyncWorker.class.getSimpleName(), "with tag", WORKER_TAG);
         WorkManager.getInstance(context.getApplicationContext()).cancelAllWorkByTag(WORKER_TAG);
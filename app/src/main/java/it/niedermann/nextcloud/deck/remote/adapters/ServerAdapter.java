@@ -281,8 +281,12 @@ public class ServerAdapter {
         this.requestHelper.request(() -> provider.getDeckAPI().restoreAttachment(remoteBoardId, remoteStackId, remoteCardId, remoteAttachmentId), responseCallback);
     }
 
-    public void getCommentsForRemoteCardId(Long remoteCardId, @NonNull ResponseCallback<OcsComment> responseCallback) {
-        this.requestHelper.request(() -> provider.getNextcloudAPI().getCommentsForCard(remoteCardId), responseCallback);
+    /**
+     * @param limit  maximum amount of comments in the response, the newest ones are returned first
+     * @param offset amount of newest comments to skip
+     */
+    public void getCommentsForRemoteCardId(Long remoteCardId, int limit, int offset, @NonNull ResponseCallback<OcsComment> responseCallback) {
+        this.requestHelper.request(() -> provider.getNextcloudAPI().getCommentsForCard(remoteCardId, limit, offset), responseCallback);
     }
 
     public void createCommentForCard(DeckComment comment, @NonNull ResponseCallback<OcsComment> responseCallback) {
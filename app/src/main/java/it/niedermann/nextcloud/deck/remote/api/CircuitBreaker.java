@@ -0,0 +1,108 @@
+package it.niedermann.nextcloud.deck.remote.api;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+
+/**
+ * Stops sending requests to the server of an account after it failed {@link #FAILURE_THRESHOLD} times in a row with transient errors.
+ * <p>
+ * Once the cool down has passed, a single request is let through to probe the server. If the server answers, requests flow again,
+ * otherwise the cool down doubles up to {@link #MAX_COOL_DOWN_MILLIS}.
+ */
+public class CircuitBreaker {
+
+    private static final Map<String, CircuitBreaker> INSTANCES = new ConcurrentHashMap<>();
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long MIN_COOL_DOWN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long MAX_COOL_DOWN_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+    }
+
+    @NonNull
+    private final LongSupplier clockMillis;
+    @NonNull
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAtMillis;
+    private long coolDownMillis = MIN_COOL_DOWN_MILLIS;
+
+    @VisibleForTesting
+    CircuitBreaker(@NonNull LongSupplier clockMillis) {
+        this.clockMillis = clockMillis;
+    }
+
+    @NonNull
+    public static CircuitBreaker forAccount(@NonNull String accountName) {
+        return INSTANCES.computeIfAbsent(accountName, name -> new CircuitBreaker(System::currentTimeMillis));
+    }
+
+    /**
+     * @return whether a request may be sent now. After the cool down only the first caller gets <code>true</code> until the probe finished.
+     */
+    @AnyThread
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        final long now = clockMillis.getAsLong();
+        if (now - openedAtMillis < coolDownMillis) {
+            return false;
+        }
+        state = State.HALF_OPEN;
+        openedAtMillis = now;
+        return true;
+    }
+
+    /**
+     * @return whether synchronizations should not even be started because the server is known to be unhealthy
+     */
+    @AnyThread
+    public synchronized boolean isPaused() {
+        return state != State.CLOSED && clockMillis.getAsLong() - openedAtMillis < coolDownMillis;
+    }
+
+    /**
+     * The server answered, even if it rejected the request.
+     */
+    @AnyThread
+    public synchronized void onServerResponded() {
+        if (state != State.CLOSED) {
+            DeckLog.info("Server is healthy again, closing circuit");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        coolDownMillis = MIN_COOL_DOWN_MILLIS;
+    }
+
+    /**
+     * The request failed in a way which indicates an unhealthy server, see {@link RetryPolicy#isTransient(Throwable)}.
+     */
+    @AnyThread
+    public synchronized void onTransientFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN) {
+            coolDownMillis = Math.min(coolDownMillis * 2, MAX_COOL_DOWN_MILLIS);
+            open();
+        } else if (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD) {
+            open();
+        }
+    }
+
+    private void open() {
+        DeckLog.warn("Server failed", consecutiveFailures, "times in a row, pausing requests for", coolDownMillis, "ms");
+        state = State.OPEN;
+        openedAtMillis = clockMillis.getAsLong();
+    }
+}
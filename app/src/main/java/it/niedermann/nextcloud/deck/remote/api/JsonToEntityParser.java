@@ -109,6 +109,13 @@ public class JsonToEntityParser {
                                 singleUserElement.get("value").getAsJsonObject()
                                         .get("shareWith").getAsString()
                         );
+                        // The server falls back to the user ID if no email address is set
+                        if (singleUserElement.has("shareWithDisplayNameUnique") && !singleUserElement.get("shareWithDisplayNameUnique").isJsonNull()) {
+                            final String unique = singleUserElement.get("shareWithDisplayNameUnique").getAsString();
+                            if (!unique.equals(user.getId())) {
+                                user.setEmail(unique);
+                            }
+                        }
                         ocsUserList.addUser(user);
                     }
                 }
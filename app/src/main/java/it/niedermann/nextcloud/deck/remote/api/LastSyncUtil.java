@@ -12,6 +12,8 @@ import it.niedermann.nextcloud.deck.R;
 public class LastSyncUtil {
 
     private static final String LAST_SYNC_KEY = "lS_";
+    private static final String LAST_FULL_COMMENT_SYNC_KEY = "lFCS_";
+    private static final String LAST_HEAVY_SYNC_KEY = "lHS_";
     private static LastSyncUtil INSTANCE;
     private final SharedPreferences lastSyncPref;
 
@@ -33,11 +35,51 @@ public class LastSyncUtil {
     }
 
     public static void setLastSyncDate(long accountId, Instant value) {
-        INSTANCE.lastSyncPref.edit().putLong(getSyncKeyForAccount(accountId), value.toEpochMilli()).apply();
+        setLastSyncDate(accountId, value, true);
+    }
+
+    /**
+     * @param heavyWorkDone whether comments and projects have been synchronized as well. If not, the date of the last synchronization which did so is kept
+     *                      as {@link #getLastHeavySyncDate(long)}.
+     */
+    public static void setLastSyncDate(long accountId, Instant value, boolean heavyWorkDone) {
+        final var editor = INSTANCE.lastSyncPref.edit().putLong(getSyncKeyForAccount(accountId), value.toEpochMilli());
+        if (heavyWorkDone) {
+            editor.putLong(getHeavySyncKeyForAccount(accountId), value.toEpochMilli());
+        } else if (!INSTANCE.lastSyncPref.contains(getHeavySyncKeyForAccount(accountId))) {
+            editor.putLong(getHeavySyncKeyForAccount(accountId), getLastSync(accountId));
+        }
+        editor.apply();
+    }
+
+    /**
+     * @return the last synchronization date of a synchronization which did not defer comments and projects
+     */
+    public static long getLastHeavySync(long accountId) {
+        return INSTANCE.lastSyncPref.getLong(getHeavySyncKeyForAccount(accountId), getLastSync(accountId));
+    }
+
+    public static Instant getLastHeavySyncDate(long accountId) {
+        return Instant.ofEpochMilli(getLastHeavySync(accountId));
     }
 
     public static void resetLastSyncDate(long accountId) {
-        INSTANCE.lastSyncPref.edit().remove(getSyncKeyForAccount(accountId)).apply();
+        INSTANCE.lastSyncPref.edit()
+                .remove(getSyncKeyForAccount(accountId))
+                .remove(getFullCommentSyncKeyForAccount(accountId))
+                .remove(getHeavySyncKeyForAccount(accountId))
+                .apply();
+    }
+
+    /**
+     * @return when all pages of all comment threads have been fetched the last time, because comments are otherwise synchronized incrementally
+     */
+    public static Instant getLastFullCommentSyncDate(long accountId) {
+        return Instant.ofEpochMilli(INSTANCE.lastSyncPref.getLong(getFullCommentSyncKeyForAccount(accountId), 0L));
+    }
+
+    public static void setLastFullCommentSyncDate(long accountId, Instant value) {
+        INSTANCE.lastSyncPref.edit().putLong(getFullCommentSyncKeyForAccount(accountId), value.toEpochMilli()).apply();
     }
 
     public static void init(Context applicationContext) {
@@ -48,6 +90,14 @@ public class LastSyncUtil {
         return LAST_SYNC_KEY + accountId;
     }
 
+    private static String getFullCommentSyncKeyForAccount(long accountId) {
+        return LAST_FULL_COMMENT_SYNC_KEY + accountId;
+    }
+
+    private static String getHeavySyncKeyForAccount(long accountId) {
+        return LAST_HEAVY_SYNC_KEY + accountId;
+    }
+
     public static void resetAll() {
         INSTANCE.lastSyncPref.edit().clear().apply();
     }
@@ -68,7 +68,7 @@ public interface NextcloudServerAPI {
             "Content-Type: application/json;charset=utf-8"
     })
     @GET("apps/deck/api/v1.0/cards/{cardId}/comments")
-    Call<OcsComment> getCommentsForCard(@Path("cardId") long cardId);
+    Call<OcsComment> getCommentsForCard(@Path("cardId") long cardId, @Query("limit") int limit, @Query("offset") int offset);
 
     @Headers({
             "Accept: application/json",
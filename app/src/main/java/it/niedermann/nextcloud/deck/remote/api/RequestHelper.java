@@ -3,9 +3,11 @@ package it.niedermann.nextcloud.deck.remote.api;
 import android.content.Context;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import it.niedermann.nextcloud.deck.DeckLog;
@@ -26,12 +28,29 @@ public class RequestHelper {
     @NonNull
     private final ConnectivityUtil connectivityUtil;
 
+    @NonNull
+    private final RequestTracer requestTracer;
+
+    @NonNull
+    private final RetryPolicy retryPolicy;
+
     public RequestHelper(
             @NonNull ApiProvider apiProvider,
             @NonNull ConnectivityUtil connectivityUtil
+    ) {
+        this(apiProvider, connectivityUtil, RequestMetrics.getInstance(), new RetryPolicy());
+    }
+
+    public RequestHelper(
+            @NonNull ApiProvider apiProvider,
+            @NonNull ConnectivityUtil connectivityUtil,
+            @NonNull RequestTracer requestTracer,
+            @NonNull RetryPolicy retryPolicy
     ) {
         this.apiProvider = apiProvider;
         this.connectivityUtil = connectivityUtil;
+        this.requestTracer = requestTracer;
+        this.retryPolicy = retryPolicy;
     }
 
     public <T> void request(@NonNull final Supplier<Call<T>> callProvider,
@@ -45,29 +64,76 @@ public class RequestHelper {
             this.apiProvider.initSsoApi(callback::onError);
         }
 
-        final var cb = new ResponseConsumer<>(this.apiProvider.getContext(), callback);
-        ExecutorServiceProvider.getLinkedBlockingQueueExecutor().submit(() -> callProvider.get().enqueue(cb));
+        final var circuitBreaker = CircuitBreaker.forAccount(callback.getAccount().getName());
+        if (!circuitBreaker.allowRequest()) {
+            callback.onError(new OfflineException(OfflineException.Reason.SERVER_UNAVAILABLE));
+            return;
+        }
+
+        final var trace = requestTracer.onEnqueued(callback.getAccount().getName());
+        final var cb = new ResponseConsumer<>(this.apiProvider.getContext(), callProvider, callback, trace, retryPolicy, circuitBreaker);
+        ExecutorServiceProvider.getLinkedBlockingQueueExecutor().submit(cb::send);
     }
 
+    /**
+     * Sends transient failures of idempotent requests again, so the caller only gets notified about the final result.
+     * This way a synchronization continues where it failed instead of failing as a whole.
+     */
     private static class ResponseConsumer<T> implements Callback<T> {
         @NonNull
         private final Context context;
         @NonNull
+        private final Supplier<Call<T>> callProvider;
+        @NonNull
         private final ResponseCallback<T> callback;
-
-        private ResponseConsumer(@NonNull Context context, @NonNull ResponseCallback<T> callback) {
+        @NonNull
+        private final RequestTracer.Trace trace;
+        @NonNull
+        private final RetryPolicy retryPolicy;
+        @NonNull
+        private final CircuitBreaker circuitBreaker;
+        private volatile int retries = 0;
+
+        private ResponseConsumer(@NonNull Context context,
+                                 @NonNull Supplier<Call<T>> callProvider,
+                                 @NonNull ResponseCallback<T> callback,
+                                 @NonNull RequestTracer.Trace trace,
+                                 @NonNull RetryPolicy retryPolicy,
+                                 @NonNull CircuitBreaker circuitBreaker) {
             this.context = context;
+            this.callProvider = callProvider;
             this.callback = callback;
+            this.trace = trace;
+            this.retryPolicy = retryPolicy;
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        private void send() {
+            final Call<T> call;
+            try {
+                call = callProvider.get();
+            } catch (RuntimeException e) {
+                trace.onFailure(e);
+                throw e;
+            }
+            trace.onDispatched(call.request());
+            call.enqueue(this);
         }
 
         @Override
         public void onResponse(@NonNull Call<T> call, Response<T> response) {
             if (response.isSuccessful()) {
+                circuitBreaker.onServerResponded();
+                trace.onResponse(response.code(), getTimeToFirstByteMillis(response.raw()), getResponseBytes(response.raw()));
                 T responseObject = response.body();
                 callback.fillAccountIDs(responseObject);
                 callback.onResponse(responseObject, response.headers());
             } else {
-                onFailure(call, new NextcloudHttpRequestFailedException(context, response.code(), buildCause(response)));
+                final var error = new NextcloudHttpRequestFailedException(context, response.code(), buildCause(response));
+                if (!retry(call, error, getRetryAfterMillis(response))) {
+                    trace.onResponse(response.code(), getTimeToFirstByteMillis(response.raw()), getResponseBytes(response.raw()));
+                    fail(error);
+                }
             }
         }
 
@@ -89,8 +155,78 @@ public class RequestHelper {
                     "[" + responseBody + "]");
         }
 
+        /**
+         * @return <code>-1</code> if the underlying call did not record when the request has been sent
+         */
+        private static long getTimeToFirstByteMillis(@NonNull okhttp3.Response raw) {
+            final long sentAt = raw.sentRequestAtMillis();
+            final long receivedAt = raw.receivedResponseAtMillis();
+            return sentAt > 0 && receivedAt >= sentAt ? receivedAt - sentAt : -1;
+        }
+
+        /**
+         * @return <code>-1</code> if the server did not announce the length of the response
+         */
+        private static long getResponseBytes(@NonNull okhttp3.Response raw) {
+            final var body = raw.body();
+            if (body != null && body.contentLength() >= 0) {
+                return body.contentLength();
+            }
+            final var contentLength = raw.header("Content-Length");
+            try {
+                return contentLength == null ? -1 : Long.parseLong(contentLength);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        /**
+         * @return the delay requested by the server via the <code>Retry-After</code> header in seconds, if any
+         */
+        @Nullable
+        private static Long getRetryAfterMillis(@NonNull Response<?> response) {
+            final var retryAfter = response.headers().get("Retry-After");
+            if (retryAfter == null) {
+                return null;
+            }
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException e) {
+                // HTTP dates are not supported
+                return null;
+            }
+        }
+
         @Override
         public void onFailure(@NonNull Call<T> call, @NonNull Throwable t) {
+            if (!retry(call, t, null)) {
+                trace.onFailure(t);
+                fail(t);
+            }
+        }
+
+        /**
+         * @return whether the request will be sent again
+         */
+        private boolean retry(@NonNull Call<T> call, @NonNull Throwable t, @Nullable Long retryAfterMillis) {
+            if (RetryPolicy.isTransient(t)) {
+                circuitBreaker.onTransientFailure();
+            } else if (t instanceof NextcloudHttpRequestFailedException) {
+                circuitBreaker.onServerResponded();
+            }
+            final var request = call.request();
+            if (!retryPolicy.shouldRetry(request.method(), t, retries) || !circuitBreaker.allowRequest()) {
+                return false;
+            }
+            final long delayMillis = retryPolicy.getDelayMillis(retries, retryAfterMillis);
+            retries++;
+            trace.onRetry();
+            DeckLog.info("Retrying", request.method(), request.url().encodedPath(), "in", delayMillis, "ms, attempt", retries, "- Cause:", t.getMessage());
+            ExecutorServiceProvider.submitDelayed(this::send, delayMillis);
+            return true;
+        }
+
+        private void fail(@NonNull Throwable t) {
             DeckLog.logError(t);
             callback.onError(ServerCommunicationErrorHandler.translateError(t));
         }
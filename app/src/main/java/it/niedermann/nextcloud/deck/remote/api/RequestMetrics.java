@@ -0,0 +1,427 @@
+package it.niedermann.nextcloud.deck.remote.api;
+
+import static java.util.stream.Collectors.toList;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import okhttp3.Request;
+
+/**
+ * Collects timings of all requests in memory, grouped by endpoint and by account.
+ * <p>
+ * Percentiles are calculated over the last {@link #RESERVOIR_SIZE} requests of each endpoint. The {@link #SLOWEST_REQUESTS_SIZE}
+ * slowest requests of the last {@link #SLOWEST_REQUESTS_WINDOW_MILLIS} are kept with their account and status.
+ */
+public class RequestMetrics implements RequestTracer {
+
+    private static final RequestMetrics INSTANCE = new RequestMetrics(() -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+    private static final int RESERVOIR_SIZE = 256;
+    private static final int SLOWEST_REQUESTS_SIZE = 20;
+    private static final long SLOWEST_REQUESTS_WINDOW_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long SLOW_REQUEST_THRESHOLD_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final String UNKNOWN = "unknown";
+    /**
+     * Numeric path segments are IDs of boards, stacks, cards, … which would split the statistics of one endpoint
+     */
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    @NonNull
+    private final LongSupplier clockMillis;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, EndpointStats> endpoints = new HashMap<>();
+    private final Map<String, AccountStats> accounts = new HashMap<>();
+    private final PriorityQueue<SlowRequest> slowestRequests = new PriorityQueue<>(Comparator.comparingLong(SlowRequest::getDurationMillis));
+
+    @VisibleForTesting
+    RequestMetrics(@NonNull LongSupplier clockMillis) {
+        this.clockMillis = clockMillis;
+    }
+
+    @NonNull
+    public static RequestMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    @NonNull
+    @Override
+    public Trace onEnqueued(@Nullable String accountName) {
+        return new MetricsTrace(accountName == null ? UNKNOWN : accountName, clockMillis.getAsLong());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return statistics of all endpoints, the one with the highest total duration first
+     */
+    @NonNull
+    @AnyThread
+    public synchronized List<EndpointStats> getEndpointStats() {
+        return endpoints.values().stream()
+                .map(EndpointStats::copy)
+                .sorted(Comparator.comparingLong(EndpointStats::getTotalDurationMillis).reversed())
+                .collect(toList());
+    }
+
+    /**
+     * @return statistics of all accounts, the one with the highest total duration first
+     */
+    @NonNull
+    @AnyThread
+    public synchronized List<AccountStats> getAccountStats() {
+        return accounts.values().stream()
+                .map(AccountStats::copy)
+                .sorted(Comparator.comparingLong(AccountStats::getTotalDurationMillis).reversed())
+                .collect(toList());
+    }
+
+    /**
+     * @return the slowest requests of the last hour, the slowest one first
+     */
+    @NonNull
+    @AnyThread
+    public synchronized List<SlowRequest> getSlowestRequests() {
+        evictExpiredSlowRequests();
+        return slowestRequests.stream()
+                .sorted(Comparator.comparingLong(SlowRequest::getDurationMillis).reversed())
+                .collect(toList());
+    }
+
+    @AnyThread
+    public synchronized void reset() {
+        endpoints.clear();
+        accounts.clear();
+        slowestRequests.clear();
+    }
+
+    /**
+     * @return a human readable summary of all collected metrics, meant to be attached to the debug log
+     */
+    @NonNull
+    @AnyThread
+    public String getReport() {
+        final var report = new StringBuilder("Requests in flight: ").append(getInFlight()).append("\n\n");
+        report.append("Endpoints (count, errors, retries, p50 / p95 / p99 ms, avg queue ms, avg TTFB ms, bytes):\n");
+        for (final var stats : getEndpointStats()) {
+            report.append(String.format(Locale.ROOT, "%s: %d, %d, %d, %d / %d / %d, %d, %d, %d\n",
+                    stats.getEndpoint(), stats.getCount(), stats.getErrors(), stats.getRetries(),
+                    stats.getPercentile(50), stats.getPercentile(95), stats.getPercentile(99),
+                    stats.getAverageQueueMillis(), stats.getAverageTimeToFirstByteMillis(), stats.getResponseBytes()));
+        }
+        report.append("\nAccounts (count, total ms):\n");
+        for (final var stats : getAccountStats()) {
+            report.append(stats.getAccountName()).append(": ").append(stats.getCount()).append(", ").append(stats.getTotalDurationMillis()).append("\n");
+        }
+        report.append("\nSlowest requests of the last hour:\n");
+        for (final var request : getSlowestRequests()) {
+            report.append(request).append("\n");
+        }
+        return report.toString();
+    }
+
+    @NonNull
+    static String normalizeEndpoint(@NonNull Request request) {
+        return request.method() + " " + ID_SEGMENT.matcher(request.url().encodedPath()).replaceAll("/{id}");
+    }
+
+    private synchronized void record(@NonNull String accountName, @NonNull String endpoint, @NonNull String url, int statusCode, boolean failed,
+                                     int retries, long queueMillis, long durationMillis, long timeToFirstByteMillis, long responseBytes) {
+        final var stats = endpoints.computeIfAbsent(endpoint, EndpointStats::new);
+        stats.add(failed, retries, queueMillis, durationMillis, timeToFirstByteMillis, responseBytes);
+        accounts.computeIfAbsent(accountName, AccountStats::new).add(durationMillis);
+
+        evictExpiredSlowRequests();
+        final var slowRequest = new SlowRequest(accountName, url, statusCode, durationMillis, clockMillis.getAsLong());
+        if (slowestRequests.size() < SLOWEST_REQUESTS_SIZE) {
+            slowestRequests.add(slowRequest);
+        } else if (slowestRequests.peek() != null && slowestRequests.peek().getDurationMillis() < durationMillis) {
+            slowestRequests.poll();
+            slowestRequests.add(slowRequest);
+        }
+
+        if (durationMillis >= SLOW_REQUEST_THRESHOLD_MILLIS) {
+            DeckLog.warn("Slow request:", slowRequest);
+        }
+    }
+
+    private void evictExpiredSlowRequests() {
+        final long oldest = clockMillis.getAsLong() - SLOWEST_REQUESTS_WINDOW_MILLIS;
+        slowestRequests.removeIf(request -> request.getFinishedAtMillis() < oldest);
+    }
+
+    private class MetricsTrace implements Trace {
+
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private final AtomicInteger retries = new AtomicInteger();
+        @NonNull
+        private final String accountName;
+        private final long enqueuedAtMillis;
+        private volatile long dispatchedAtMillis = -1;
+        @NonNull
+        private volatile String endpoint = UNKNOWN;
+        @NonNull
+        private volatile String url = UNKNOWN;
+
+        private MetricsTrace(@NonNull String accountName, long enqueuedAtMillis) {
+            this.accountName = accountName;
+            this.enqueuedAtMillis = enqueuedAtMillis;
+        }
+
+        @Override
+        public void onDispatched(@NonNull Request request) {
+            if (finished.get()) {
+                return;
+            }
+            // Retries are dispatched again, the duration includes all attempts
+            if (dispatchedAtMillis < 0) {
+                inFlight.incrementAndGet();
+                dispatchedAtMillis = clockMillis.getAsLong();
+            }
+            endpoint = normalizeEndpoint(request);
+            url = request.url().encodedPath();
+        }
+
+        @Override
+        public void onRetry() {
+            retries.incrementAndGet();
+        }
+
+        @Override
+        public void onResponse(int statusCode, long timeToFirstByteMillis, long responseBytes) {
+            finish(statusCode, statusCode >= 400, timeToFirstByteMillis, responseBytes);
+        }
+
+        @Override
+        public void onFailure(@NonNull Throwable throwable) {
+            finish(-1, true, -1, -1);
+        }
+
+        private void finish(int statusCode, boolean failed, long timeToFirstByteMillis, long responseBytes) {
+            if (finished.getAndSet(true)) {
+                return;
+            }
+            final long now = clockMillis.getAsLong();
+            final long queueMillis;
+            final long durationMillis;
+            if (dispatchedAtMillis < 0) {
+                queueMillis = now - enqueuedAtMillis;
+                durationMillis = 0;
+            } else {
+                inFlight.decrementAndGet();
+                queueMillis = dispatchedAtMillis - enqueuedAtMillis;
+                durationMillis = now - dispatchedAtMillis;
+            }
+            record(accountName, endpoint, url, statusCode, failed, retries.get(), queueMillis, durationMillis, timeToFirstByteMillis, responseBytes);
+        }
+    }
+
+    public static class EndpointStats {
+        @NonNull
+        private final String endpoint;
+        private final long[] reservoir;
+        private int count;
+        private int errors;
+        private int retries;
+        private long totalDurationMillis;
+        private long totalQueueMillis;
+        private long totalTimeToFirstByteMillis;
+        private int timeToFirstByteCount;
+        private long responseBytes;
+
+        private EndpointStats(@NonNull String endpoint) {
+            this(endpoint, new long[RESERVOIR_SIZE]);
+        }
+
+        private EndpointStats(@NonNull String endpoint, @NonNull long[] reservoir) {
+            this.endpoint = endpoint;
+            this.reservoir = reservoir;
+        }
+
+        private void add(boolean failed, int retries, long queueMillis, long durationMillis, long timeToFirstByteMillis, long responseBytes) {
+            reservoir[count % reservoir.length] = durationMillis;
+            count++;
+            if (failed) {
+                errors++;
+            }
+            this.retries += retries;
+            totalDurationMillis += durationMillis;
+            totalQueueMillis += queueMillis;
+            if (timeToFirstByteMillis >= 0) {
+                totalTimeToFirstByteMillis += timeToFirstByteMillis;
+                timeToFirstByteCount++;
+            }
+            if (responseBytes > 0) {
+                this.responseBytes += responseBytes;
+            }
+        }
+
+        @NonNull
+        private EndpointStats copy() {
+            final var copy = new EndpointStats(endpoint, reservoir.clone());
+            copy.count = count;
+            copy.errors = errors;
+            copy.retries = retries;
+            copy.totalDurationMillis = totalDurationMillis;
+            copy.totalQueueMillis = totalQueueMillis;
+            copy.totalTimeToFirstByteMillis = totalTimeToFirstByteMillis;
+            copy.timeToFirstByteCount = timeToFirstByteCount;
+            copy.responseBytes = responseBytes;
+            return copy;
+        }
+
+        /**
+         * @param percentile between <code>0</code> and <code>100</code>
+         * @return the duration in milliseconds below which the given percentage of the recent requests finished
+         */
+        public long getPercentile(int percentile) {
+            final int size = Math.min(count, reservoir.length);
+            if (size == 0) {
+                return 0;
+            }
+            final var sorted = Arrays.copyOf(reservoir, size);
+            Arrays.sort(sorted);
+            final int rank = (int) Math.ceil(percentile / 100d * size);
+            return sorted[Math.max(0, Math.min(size, rank) - 1)];
+        }
+
+        @NonNull
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getErrors() {
+            return errors;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public long getTotalDurationMillis() {
+            return totalDurationMillis;
+        }
+
+        public long getAverageQueueMillis() {
+            return count == 0 ? 0 : totalQueueMillis / count;
+        }
+
+        /**
+         * @return <code>-1</code> if the time to first byte is not known for any request
+         */
+        public long getAverageTimeToFirstByteMillis() {
+            return timeToFirstByteCount == 0 ? -1 : totalTimeToFirstByteMillis / timeToFirstByteCount;
+        }
+
+        public long getResponseBytes() {
+            return responseBytes;
+        }
+    }
+
+    public static class AccountStats {
+        @NonNull
+        private final String accountName;
+        private int count;
+        private long totalDurationMillis;
+
+        private AccountStats(@NonNull String accountName) {
+            this.accountName = accountName;
+        }
+
+        private void add(long durationMillis) {
+            count++;
+            totalDurationMillis += durationMillis;
+        }
+
+        @NonNull
+        private AccountStats copy() {
+            final var copy = new AccountStats(accountName);
+            copy.count = count;
+            copy.totalDurationMillis = totalDurationMillis;
+            return copy;
+        }
+
+        @NonNull
+        public String getAccountName() {
+            return accountName;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getTotalDurationMillis() {
+            return totalDurationMillis;
+        }
+    }
+
+    public static class SlowRequest {
+        @NonNull
+        private final String accountName;
+        @NonNull
+        private final String url;
+        private final int statusCode;
+        private final long durationMillis;
+        private final long finishedAtMillis;
+
+        private SlowRequest(@NonNull String accountName, @NonNull String url, int statusCode, long durationMillis, long finishedAtMillis) {
+            this.accountName = accountName;
+            this.url = url;
+            this.statusCode = statusCode;
+            this.durationMillis = durationMillis;
+            this.finishedAtMillis = finishedAtMillis;
+        }
+
+        @NonNull
+        public String getAccountName() {
+            return accountName;
+        }
+
+        @NonNull
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * @return <code>-1</code> if the request failed without a response
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public long getFinishedAtMillis() {
+            return finishedAtMillis;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return durationMillis + " ms [HTTP " + statusCode + "] " + url + " (" + accountName + ")";
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package it.niedermann.nextcloud.deck.remote.api;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import okhttp3.Request;
+
+/**
+ * Gets notified about the lifecycle of each request issued by the {@link RequestHelper}.
+ */
+public interface RequestTracer {
+
+    /**
+     * Called as soon as a request has been handed to the {@link RequestHelper}, before it waits for a free thread.
+     */
+    @NonNull
+    Trace onEnqueued(@Nullable String accountName);
+
+    interface Trace {
+
+        /**
+         * The request left the queue and is about to be sent.
+         */
+        void onDispatched(@NonNull Request request);
+
+        /**
+         * The request is about to be sent again after a failed attempt.
+         */
+        void onRetry();
+
+        /**
+         * @param timeToFirstByteMillis <code>-1</code> if unknown
+         * @param responseBytes         <code>-1</code> if unknown
+         */
+        void onResponse(int statusCode, long timeToFirstByteMillis, long responseBytes);
+
+        /**
+         * The request failed without a response or with an unsuccessful status code.
+         * Only the first call of either {@link #onResponse(int, long, long)} or this method is recorded.
+         */
+        void onFailure(@NonNull Throwable throwable);
+    }
+}
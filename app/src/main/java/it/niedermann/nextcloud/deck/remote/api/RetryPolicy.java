@@ -0,0 +1,75 @@
+package it.niedermann.nextcloud.deck.remote.api;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
+
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.exceptions.OfflineException;
+import it.niedermann.nextcloud.deck.util.ExponentialBackoff;
+
+/**
+ * Decides whether a failed request gets sent again and how long to wait before.
+ * <p>
+ * Only idempotent requests are retried, because a request which failed without a response might have been processed by the server nevertheless.
+ */
+public class RetryPolicy {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD");
+    private static final Set<Integer> TRANSIENT_STATUS_CODES = Set.of(408, 429, 500, 502, 503, 504);
+    private static final long MAX_RETRY_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final int maxRetries;
+    @NonNull
+    private final ExponentialBackoff backoff;
+
+    public RetryPolicy() {
+        this(3, new ExponentialBackoff(1_000, 30_000));
+    }
+
+    public RetryPolicy(int maxRetries, @NonNull ExponentialBackoff backoff) {
+        this.maxRetries = maxRetries;
+        this.backoff = backoff;
+    }
+
+    /**
+     * @param retries how often the request has already been retried
+     */
+    public boolean shouldRetry(@NonNull String method, @NonNull Throwable throwable, int retries) {
+        return retries < maxRetries && IDEMPOTENT_METHODS.contains(method) && isTransient(throwable);
+    }
+
+    /**
+     * @param retries          how often the request has already been retried
+     * @param retryAfterMillis as requested by the server, if any
+     */
+    public long getDelayMillis(int retries, @Nullable Long retryAfterMillis) {
+        final long delayMillis = backoff.getDelayMillis(retries);
+        return retryAfterMillis == null
+                ? delayMillis
+                : Math.max(delayMillis, Math.min(retryAfterMillis, MAX_RETRY_AFTER_MILLIS));
+    }
+
+    /**
+     * @return whether the request might succeed when sent again later, for example because the server is in maintenance mode or timed out
+     */
+    public static boolean isTransient(@NonNull Throwable throwable) {
+        if (throwable instanceof NextcloudHttpRequestFailedException e) {
+            return TRANSIENT_STATUS_CODES.contains(e.getStatusCode());
+        }
+        if (ServerCommunicationErrorHandler.translateError(throwable) instanceof OfflineException o) {
+            return OfflineException.Reason.CONNECTION_TIMEOUT.equals(o.getReason());
+        }
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            // Includes SocketTimeoutException
+            if (cause instanceof InterruptedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+package it.niedermann.nextcloud.deck.remote.helpers;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.ocs.Capabilities;
+
+/**
+ * Remembers when the {@link Capabilities} of an {@link Account} have been validated against the server the last time.
+ * <p>
+ * The {@link Capabilities} themselves are persisted in the {@link Account}, together with their ETag. As long as they are younger than
+ * {@link #TTL_MILLIS} they are considered fresh and no request is necessary at all. Stale {@link Capabilities} can still be used to
+ * start a synchronization while they are revalidated in parallel, as long as the server was neither in maintenance mode nor running an
+ * unsupported Deck version the last time.
+ */
+public class CapabilitiesCache {
+
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final Map<Long, CapabilitiesCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private long validatedAt = 0L;
+
+    private CapabilitiesCache() {
+        // Use forAccount
+    }
+
+    @NonNull
+    public static CapabilitiesCache forAccount(long accountId) {
+        return INSTANCES.computeIfAbsent(accountId, id -> new CapabilitiesCache());
+    }
+
+    @AnyThread
+    public synchronized boolean isFresh() {
+        return System.currentTimeMillis() - validatedAt < TTL_MILLIS;
+    }
+
+    /**
+     * @return whether a synchronization can be started based on the persisted {@link Capabilities} of the given {@link Account}
+     */
+    public static boolean isUsable(@NonNull Account account) {
+        return !account.isMaintenanceEnabled() && account.getServerDeckVersionAsObject().isSupported();
+    }
+
+    @AnyThread
+    public synchronized void markValidated() {
+        validatedAt = System.currentTimeMillis();
+    }
+
+    @AnyThread
+    public synchronized void invalidate() {
+        validatedAt = 0L;
+    }
+
+    /**
+     * @return the {@link Capabilities} as they have been persisted in the given {@link Account}
+     */
+    @NonNull
+    public static Capabilities fromAccount(@NonNull Account account) {
+        final var capabilities = new Capabilities();
+        capabilities.setMaintenanceEnabled(account.isMaintenanceEnabled());
+        capabilities.setDeckVersion(account.getServerDeckVersionAsObject());
+        capabilities.setColor(account.getColor());
+        capabilities.setTextColor(account.getTextColor());
+        return capabilities;
+    }
+}
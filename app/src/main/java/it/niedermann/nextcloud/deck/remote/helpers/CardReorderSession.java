@@ -0,0 +1,189 @@
+package it.niedermann.nextcloud.deck.remote.helpers;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.database.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.enums.DBStatus;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import okhttp3.Headers;
+
+/**
+ * Coalesces drag and drop reorderings of {@link Card}s and propagates them using the dedicated reorder endpoint.
+ * <p>
+ * Each drop is expected to be applied locally already. The server gets notified as soon as no further drop happened for
+ * {@link #DEBOUNCE_MILLIS}, sending only the moved {@link Card}s one after another in the order they have been dropped.
+ * {@link Card}s which can not be reordered on the server yet (e.g. because they have not been created there yet) keep their
+ * local status and are picked up by the next regular synchronization.
+ */
+public class CardReorderSession {
+
+    private static final long DEBOUNCE_MILLIS = 750;
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor();
+
+    @NonNull
+    private final ServerAdapter serverAdapter;
+    @NonNull
+    private final DataBaseAdapter dataBaseAdapter;
+    @NonNull
+    private final ExecutorService executor;
+    @NonNull
+    private final Account account;
+    private final Map<Long, PendingMove> pendingMoves = new LinkedHashMap<>();
+    @Nullable
+    private ScheduledFuture<?> scheduledFlush;
+
+    public CardReorderSession(@NonNull ServerAdapter serverAdapter, @NonNull DataBaseAdapter dataBaseAdapter, @NonNull ExecutorService executor, @NonNull Account account) {
+        this.serverAdapter = serverAdapter;
+        this.dataBaseAdapter = dataBaseAdapter;
+        this.executor = executor;
+        this.account = account;
+    }
+
+    /**
+     * @param movedCard           the {@link Card} after the reordering has been applied locally
+     * @param statusBeforeReorder the {@link DBStatus} of the {@link Card} before the reordering has been applied locally
+     * @param position            the index of the {@link Card} within its new stack
+     */
+    @AnyThread
+    public synchronized void enqueue(@NonNull Card movedCard, @NonNull DBStatus statusBeforeReorder, int position) {
+        // Only the last drop of a card is relevant, but it needs to be replayed after all drops which happened before it
+        final var previous = pendingMoves.remove(movedCard.getLocalId());
+        pendingMoves.put(movedCard.getLocalId(), new PendingMove(movedCard.getLocalId(), position,
+                previous == null ? statusBeforeReorder : previous.statusBeforeReorder, movedCard.getLastModifiedLocal()));
+
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+        }
+        scheduledFlush = SCHEDULER.schedule(() -> executor.submit(this::flush), DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @WorkerThread
+    private void flush() {
+        final List<PendingMove> moves;
+        synchronized (this) {
+            moves = new ArrayList<>(pendingMoves.values());
+            pendingMoves.clear();
+            scheduledFlush = null;
+        }
+        if (moves.isEmpty()) {
+            return;
+        }
+        if (!serverAdapter.hasInternetConnection()) {
+            DeckLog.info("Offline, postponing reordering of", moves.size(), "cards to next synchronization");
+            return;
+        }
+        DeckLog.verbose("Propagating reordering of", moves.size(), "cards");
+        propagate(moves.iterator());
+    }
+
+    /**
+     * Reorders one {@link Card} after the other, because each reordering shifts the position of the following ones on the server.
+     */
+    @WorkerThread
+    private void propagate(@NonNull Iterator<PendingMove> moves) {
+        if (!moves.hasNext()) {
+            return;
+        }
+        final var move = moves.next();
+        final var card = dataBaseAdapter.getCardByLocalIdDirectly(account.getId(), move.cardLocalId);
+        final var stack = card == null ? null : dataBaseAdapter.getStackByLocalIdDirectly(card.getStackId());
+        final var board = stack == null ? null : dataBaseAdapter.getBoardByLocalIdDirectly(stack.getBoardId());
+        if (card == null || card.getId() == null || card.getStatusEnum() == DBStatus.LOCAL_DELETED
+                || stack.getId() == null || board == null || board.getId() == null) {
+            DeckLog.verbose("Card with local ID", move.cardLocalId, "can not be reordered on the server yet, leaving it to the next synchronization");
+            propagate(moves);
+            return;
+        }
+
+        // The stack ID is part of the path as well as the body, both need to point to the target stack
+        serverAdapter.reorder(board.getId(), stack.getId(), card.getId(), stack.getId(), move.position, new ResponseCallback<>(account) {
+            @Override
+            public void onResponse(List<FullCard> response, Headers headers) {
+                executor.submit(() -> {
+                    applyServerOrder(card, move, response);
+                    propagate(moves);
+                });
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                super.onError(throwable);
+                executor.submit(() -> propagate(moves));
+            }
+        });
+    }
+
+    /**
+     * Takes over the order of all {@link Card}s of the stack as calculated by the server and clears their local status
+     * as long as they have not been changed in any other way meanwhile.
+     */
+    @WorkerThread
+    private void applyServerOrder(@NonNull Card movedCard, @NonNull PendingMove move, @Nullable List<FullCard> cardsOfStack) {
+        if (cardsOfStack == null) {
+            return;
+        }
+        final List<Card> changedCards = new ArrayList<>(cardsOfStack.size());
+        for (final var remote : cardsOfStack) {
+            if (remote == null || remote.getCard() == null || remote.getCard().getId() == null) {
+                continue;
+            }
+            final var local = dataBaseAdapter.getCardByRemoteIdDirectly(account.getId(), remote.getCard().getId());
+            if (local == null) {
+                continue;
+            }
+            final boolean clearStatus = Objects.equals(local.getLocalId(), movedCard.getLocalId())
+                    ? isOnlyReordered(move.statusBeforeReorder) && Objects.equals(local.getLastModifiedLocal(), move.lastModifiedLocal)
+                    : isOnlyReordered(local.getStatusEnum());
+            if (clearStatus) {
+                local.setOrder(remote.getCard().getOrder());
+                local.setStatusEnum(DBStatus.UP_TO_DATE);
+                changedCards.add(local);
+            }
+        }
+        dataBaseAdapter.updateCardsDirectly(changedCards);
+    }
+
+    /**
+     * {@link DBStatus#LOCAL_MOVED} is not considered, because the pending move to another stack would never be pushed if the status got cleared.
+     */
+    private static boolean isOnlyReordered(@NonNull DBStatus status) {
+        return status == DBStatus.UP_TO_DATE || status == DBStatus.LOCAL_EDITED_SILENT;
+    }
+
+    private static class PendingMove {
+        private final long cardLocalId;
+        private final int position;
+        @NonNull
+        private final DBStatus statusBeforeReorder;
+        @Nullable
+        private final Instant lastModifiedLocal;
+
+        private PendingMove(long cardLocalId, int position, @NonNull DBStatus statusBeforeReorder, @Nullable Instant lastModifiedLocal) {
+            this.cardLocalId = cardLocalId;
+            this.position = position;
+            this.statusBeforeReorder = statusBeforeReorder;
+            this.lastModifiedLocal = lastModifiedLocal;
+        }
+    }
+}
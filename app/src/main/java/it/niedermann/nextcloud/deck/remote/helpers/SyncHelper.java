@@ -12,13 +12,17 @@ import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
 
 import java.net.HttpURLConnection;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.database.DataBaseAdapter;
 import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.enums.DBStatus;
+import it.niedermann.nextcloud.deck.model.enums.ESyncCheckpointType;
 import it.niedermann.nextcloud.deck.model.interfaces.IRemoteEntity;
 import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
@@ -28,6 +32,11 @@ import it.niedermann.nextcloud.deck.util.ExecutorServiceProvider;
 import okhttp3.Headers;
 
 public class SyncHelper {
+    /**
+     * Boards and stacks which have been synchronized completely within this window are not fetched again when resuming an interrupted synchronization
+     */
+    private static final long CHECKPOINT_FRESHNESS_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
     @NonNull
     private final ServerAdapter serverAdapter;
     @NonNull
@@ -35,6 +44,14 @@ public class SyncHelper {
     @Nullable
     private final Instant lastSync;
     private final boolean etagsEnabled;
+    private boolean heavyWorkDeferred = false;
+    private boolean fullCommentSync = false;
+    @Nullable
+    private Instant checkpointsFreshSince = null;
+    /**
+     * Completion time of the oldest checkpoint whose subtree has been skipped by this synchronization
+     */
+    private final AtomicReference<Instant> oldestResumedCheckpoint = new AtomicReference<>();
 
     private Account account;
     private long accountId;
@@ -67,10 +84,19 @@ public class SyncHelper {
                             continue;
                         }
                         entityFromServer.setAccountId(accountId);
+                        // Must be calculated before the entity gets modified while writing it
+                        final Long contentHash = provider.getContentHash(entityFromServer);
+                        if (contentHash != null) {
+                            entityFromServer.setContentHash(contentHash);
+                        }
 
                         T existingEntity = provider.getSingleFromDB(dataBaseAdapter, accountId, entityFromServer);
 
                         if (existingEntity == null) {
+                            if (heavyWorkDeferred) {
+                                // Comments and projects will be skipped, without an ETag the next not deferred synchronization will descend into it
+                                entityFromServer.setEtag(null);
+                            }
                             try {
                                 ExecutorServiceProvider.awaitExecution(() -> provider.createInDB(dataBaseAdapter, accountId, entityFromServer));
                             } catch (SQLiteConstraintException e) {
@@ -89,7 +115,18 @@ public class SyncHelper {
                                     DeckLog.log("[" + provider.getClass().getSimpleName() + "] ETags do match! skipping " + existingEntity.getClass().getSimpleName() + " with localId: " + existingEntity.getLocalId());
                                     continue;
                                 }
-                                provider.updateInDB(dataBaseAdapter, accountId, applyUpdatesFromRemote(provider, existingEntity, entityFromServer, accountId), false);
+                                if (contentHash != null && contentHash.equals(existingEntity.getContentHash())) {
+                                    // Children might have changed nevertheless, therefore only skip writing this entity
+                                    DeckLog.verbose("[" + provider.getClass().getSimpleName() + "] Content did not change, skip writing", existingEntity.getClass().getSimpleName(), "with localId:", existingEntity.getLocalId());
+                                } else {
+                                    final T update = applyUpdatesFromRemote(provider, existingEntity, entityFromServer, accountId);
+                                    if (heavyWorkDeferred || provider.isResumedFromCheckpoint(SyncHelper.this, existingEntity)) {
+                                        // Children will be skipped (completely or their comments and projects), so keep the old ETag and hash to make the next synchronization descend again
+                                        update.setEtag(existingEntity.getEtag());
+                                        update.setContentHash(null);
+                                    }
+                                    provider.updateInDB(dataBaseAdapter, accountId, update, false);
+                                }
                             }
                         }
                         existingEntity = provider.getSingleFromDB(dataBaseAdapter, accountId, entityFromServer);
@@ -122,6 +159,7 @@ public class SyncHelper {
                         }
                     }
 
+                    provider.onEntitiesSynced(SyncHelper.this);
                     provider.handleDeletes(serverAdapter, dataBaseAdapter, accountId, response);
 
                     provider.doneGoingDeeper(responseCallback, true);
@@ -199,6 +237,10 @@ public class SyncHelper {
             @Override
             public void onResponse(T response, Headers headers) {
                 response.setAccountId(this.account.getId());
+                final Long contentHash = provider.getContentHash(response);
+                if (contentHash != null) {
+                    response.setContentHash(contentHash);
+                }
                 T update = applyUpdatesFromRemote(provider, entity, response, accountId);
                 update.setId(response.getId());
                 update.setStatus(DBStatus.UP_TO_DATE.getId());
@@ -221,9 +263,21 @@ public class SyncHelper {
     }
 
     public void fixRelations(@NonNull IRelationshipProvider relationshipProvider) {
-        // this is OK, since the delete only affects records with status UP_TO_DATE
-        relationshipProvider.deleteAllExisting(dataBaseAdapter, accountId);
-        relationshipProvider.insertAllNecessary(dataBaseAdapter, accountId);
+        relationshipProvider.applyDelta(dataBaseAdapter, accountId);
+    }
+
+    /**
+     * Applies the deltas of all given relations in one transaction instead of committing each of them on its own.
+     */
+    public void fixRelations(@NonNull Collection<? extends IRelationshipProvider> relationshipProviders) {
+        if (relationshipProviders.isEmpty()) {
+            return;
+        }
+        dataBaseAdapter.runInTransaction(() -> {
+            for (final var relationshipProvider : relationshipProviders) {
+                relationshipProvider.applyDelta(dataBaseAdapter, accountId);
+            }
+        });
     }
 
     private <T extends IRemoteEntity> T applyUpdatesFromRemote(@NonNull AbstractSyncDataProvider<T> provider, @NonNull T localEntity, @NonNull T remoteEntity, @NonNull Long accountId) {
@@ -242,6 +296,77 @@ public class SyncHelper {
         return this;
     }
 
+    /**
+     * @param deferred whether network heavy parts which require one request per card, like comments and projects, should be left to a later synchronization
+     */
+    public SyncHelper setHeavyWorkDeferred(boolean deferred) {
+        this.heavyWorkDeferred = deferred;
+        return this;
+    }
+
+    public boolean isHeavyWorkDeferred() {
+        return heavyWorkDeferred;
+    }
+
+    /**
+     * @param fullCommentSync whether all pages of each comment thread should be fetched. Otherwise only comments newer than the newest known one are fetched,
+     *                        which misses edits and deletions of older comments in threads exceeding one page.
+     */
+    public SyncHelper setFullCommentSync(boolean fullCommentSync) {
+        this.fullCommentSync = fullCommentSync;
+        return this;
+    }
+
+    public boolean isFullCommentSync() {
+        return fullCommentSync;
+    }
+
+    /**
+     * @param resumable whether completed boards and stacks should be checkpointed, so they can be skipped if this synchronization gets interrupted and is started again
+     */
+    public SyncHelper setResumable(boolean resumable) {
+        // Fixed once per synchronization, so a checkpoint can not expire between storing an entity and going deeper
+        this.checkpointsFreshSince = resumable ? Instant.now().minusMillis(CHECKPOINT_FRESHNESS_MILLIS) : null;
+        return this;
+    }
+
+    /**
+     * @return whether the given board or stack has been synchronized completely by a recent, interrupted synchronization and can be skipped
+     */
+    public boolean isCheckpointFresh(@NonNull ESyncCheckpointType type, long localId) {
+        if (checkpointsFreshSince == null) {
+            return false;
+        }
+        final var completedAt = dataBaseAdapter.getSyncCheckpointCompletedAtSince(accountId, type, localId, checkpointsFreshSince);
+        if (completedAt == null) {
+            return false;
+        }
+        oldestResumedCheckpoint.accumulateAndGet(completedAt, (oldest, next) -> oldest == null || next.isBefore(oldest) ? next : oldest);
+        return true;
+    }
+
+    /**
+     * Changes of skipped subtrees which happened after their checkpoint have not been fetched, so the next synchronization must ask the server
+     * for everything modified since the oldest skipped checkpoint instead of since the end of this synchronization.
+     *
+     * @return the date which should be used as last synchronization date after this synchronization completed at {@param completedAt}
+     */
+    @NonNull
+    public Instant getNextLastSyncDate(@NonNull Instant completedAt) {
+        final var oldest = oldestResumedCheckpoint.get();
+        return oldest == null || completedAt.isBefore(oldest) ? completedAt : oldest;
+    }
+
+    /**
+     * Remembers that the given board or stack has been synchronized completely.
+     * Nothing is remembered if heavy work is deferred, because the subtree is not complete then.
+     */
+    public void saveCheckpoint(@NonNull ESyncCheckpointType type, long localId) {
+        if (checkpointsFreshSince != null && !heavyWorkDeferred) {
+            dataBaseAdapter.saveSyncCheckpoint(accountId, type, localId);
+        }
+    }
+
     public interface Factory {
         SyncHelper create(@NonNull ServerAdapter serverAdapter, @NonNull DataBaseAdapter dataBaseAdapter, @Nullable Instant lastSync);
     }
@@ -0,0 +1,211 @@
+package it.niedermann.nextcloud.deck.remote.helpers;
+
+import static java.util.stream.Collectors.toList;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.enums.DBStatus;
+import it.niedermann.nextcloud.deck.model.ocs.user.OcsUser;
+import it.niedermann.nextcloud.deck.model.ocs.user.OcsUserList;
+import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import okhttp3.Headers;
+
+/**
+ * Remembers the results of remote user directory requests of one {@link Account} for {@link #TTL_MILLIS}.
+ * <p>
+ * The server matches a search term anywhere in the user ID, display name or email address. If a shorter term has been searched before and the server
+ * returned all of its matches, the results for any longer term containing it can be derived locally without another request.
+ * Concurrent requests for the same search term or user ID share one request.
+ */
+public class UserDirectoryCache {
+
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    /**
+     * The sharees endpoint returns at most this many users, see <code>perPage</code> of {@link it.niedermann.nextcloud.deck.remote.api.NextcloudServerAPI#searchUser(String)}
+     */
+    private static final int SERVER_PAGE_SIZE = 20;
+    private static final Map<Long, UserDirectoryCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Map<String, SearchResult> searchResults = new HashMap<>();
+    private final Map<String, CompletableFuture<List<OcsUser>>> pendingSearches = new HashMap<>();
+    private final Map<String, CompletableFuture<OcsUser>> pendingLookups = new HashMap<>();
+
+    private UserDirectoryCache() {
+        // Use forAccount
+    }
+
+    @NonNull
+    public static UserDirectoryCache forAccount(long accountId) {
+        return INSTANCES.computeIfAbsent(accountId, id -> new UserDirectoryCache());
+    }
+
+    /**
+     * Forgets everything about the given {@link Account}, must be called when it gets removed
+     */
+    @AnyThread
+    public static void remove(long accountId) {
+        INSTANCES.remove(accountId);
+    }
+
+    /**
+     * @return whether {@link #search(ServerAdapter, Account, String)} would be answered without a request to the server
+     */
+    @AnyThread
+    public synchronized boolean isCached(@NonNull String term) {
+        return findCached(normalize(term)) != null;
+    }
+
+    /**
+     * @return all users matching the <code>term</code>
+     */
+    @AnyThread
+    public CompletableFuture<List<OcsUser>> search(@NonNull ServerAdapter serverAdapter, @NonNull Account account, @NonNull String term) {
+        final var key = normalize(term);
+        final var future = new CompletableFuture<List<OcsUser>>();
+        synchronized (this) {
+            final var cached = findCached(key);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            final var pending = pendingSearches.get(key);
+            if (pending != null) {
+                return pending;
+            }
+            pendingSearches.put(key, future);
+        }
+
+        serverAdapter.searchUser(term, new ResponseCallback<>(account) {
+            @Override
+            public void onResponse(OcsUserList response, Headers headers) {
+                final List<OcsUser> users = response == null ? Collections.emptyList() : response.getUsers();
+                synchronized (UserDirectoryCache.this) {
+                    searchResults.put(key, new SearchResult(users, users.size() < SERVER_PAGE_SIZE));
+                    pendingSearches.remove(key);
+                }
+                future.complete(users);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                super.onError(throwable);
+                synchronized (UserDirectoryCache.this) {
+                    pendingSearches.remove(key);
+                }
+                future.completeExceptionally(throwable);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Fetches a single user by its <code>uid</code>, concurrent lookups of the same <code>uid</code> share one request.
+     */
+    @AnyThread
+    public CompletableFuture<OcsUser> lookup(@NonNull ServerAdapter serverAdapter, @NonNull Account account, @NonNull String uid) {
+        final var future = new CompletableFuture<OcsUser>();
+        synchronized (this) {
+            final var pending = pendingLookups.get(uid);
+            if (pending != null) {
+                return pending;
+            }
+            pendingLookups.put(uid, future);
+        }
+
+        serverAdapter.getSingleUserData(uid, new ResponseCallback<>(account) {
+            @Override
+            public void onResponse(OcsUser response, Headers headers) {
+                synchronized (UserDirectoryCache.this) {
+                    pendingLookups.remove(uid);
+                }
+                future.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                super.onError(throwable);
+                synchronized (UserDirectoryCache.this) {
+                    pendingLookups.remove(uid);
+                }
+                future.completeExceptionally(throwable);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Must be called while holding the lock of this instance. Drops expired results on the way.
+     *
+     * @return the cached result for exactly this <code>key</code> or derived from a complete result of a shorter key, <code>null</code> if neither is available
+     */
+    @Nullable
+    private List<OcsUser> findCached(@NonNull String key) {
+        final long now = System.currentTimeMillis();
+        List<OcsUser> derived = null;
+        final Iterator<Map.Entry<String, SearchResult>> iterator = searchResults.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final var entry = iterator.next();
+            final var result = entry.getValue();
+            if (now - result.fetchedAt > TTL_MILLIS) {
+                iterator.remove();
+            } else if (entry.getKey().equals(key)) {
+                return result.users;
+            } else if (derived == null && result.complete && key.contains(entry.getKey())) {
+                derived = result.users.stream()
+                        .filter(user -> matches(user, key))
+                        .collect(toList());
+            }
+        }
+        return derived;
+    }
+
+    private static boolean matches(@NonNull OcsUser user, @NonNull String key) {
+        return (user.getId() != null && normalize(user.getId()).contains(key))
+                || (user.getDisplayName() != null && normalize(user.getDisplayName()).contains(key))
+                || (user.getEmail() != null && normalize(user.getEmail()).contains(key));
+    }
+
+    @NonNull
+    private static String normalize(@NonNull String term) {
+        return term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @NonNull
+    public static User toUser(@NonNull OcsUser ocsUser) {
+        final var user = new User();
+        user.setStatus(DBStatus.UP_TO_DATE.getId());
+        user.setPrimaryKey(ocsUser.getId());
+        user.setUid(ocsUser.getId());
+        user.setDisplayname(ocsUser.getDisplayName());
+        return user;
+    }
+
+    private static class SearchResult {
+        @NonNull
+        private final List<OcsUser> users;
+        /**
+         * <code>false</code> if the server might have more matches than it returned
+         */
+        private final boolean complete;
+        private final long fetchedAt = System.currentTimeMillis();
+
+        private SearchResult(@NonNull List<OcsUser> users, boolean complete) {
+            this.users = users;
+            this.complete = complete;
+        }
+    }
+}
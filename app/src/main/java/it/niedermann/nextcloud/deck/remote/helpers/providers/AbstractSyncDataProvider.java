@@ -1,5 +1,6 @@
 package it.niedermann.nextcloud.deck.remote.helpers.providers;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.nextcloud.android.sso.api.EmptyResponse;
@@ -23,6 +24,7 @@ public abstract class AbstractSyncDataProvider<T extends IRemoteEntity> {
     protected final AbstractSyncDataProvider<?> parent;
     protected final List<AbstractSyncDataProvider<?>> children = new ArrayList<>();
     protected boolean stillGoingDeeper = false;
+    private volatile boolean failed = false;
 
     public AbstractSyncDataProvider(@Nullable AbstractSyncDataProvider<?> parent) {
         this.parent = parent;
@@ -34,6 +36,13 @@ public abstract class AbstractSyncDataProvider<T extends IRemoteEntity> {
         }
     }
 
+    /**
+     * Called once all entities of a response have been written and went deeper, before deletes are handled.
+     */
+    public void onEntitiesSynced(SyncHelper syncHelper) {
+        // do nothing as a default.
+    }
+
     public void handleDeletes(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<T> entitiesFromServer) {
         // do nothing as a default.
     }
@@ -85,6 +94,25 @@ public abstract class AbstractSyncDataProvider<T extends IRemoteEntity> {
         getAllFromServer(serverAdapter, accountId, responder, lastSync);
     }
 
+    /**
+     * @return a hash over all fields of the given entity which are delivered by the server and are written by {@link #updateInDB(DataBaseAdapter, long, IRemoteEntity, boolean)}.
+     * If it matches the hash stored for the existing entity, writing it will be skipped.
+     * <code>null</code> if changes can not be detected reliably, so the entity will always be written.
+     */
+    @Nullable
+    public Long getContentHash(@NonNull T entityFromServer) {
+        return null;
+    }
+
+    /**
+     * @return whether {@link #goDeeper(SyncHelper, IRemoteEntity, IRemoteEntity, ResponseCallback)} will skip the children of the given entity, because they
+     * have already been synchronized completely by a recent, interrupted synchronization. The ETag of the entity must not be stored then, otherwise the next
+     * synchronization would not descend into children which changed after the checkpoint.
+     */
+    public boolean isResumedFromCheckpoint(@NonNull SyncHelper syncHelper, @NonNull T existingEntity) {
+        return false;
+    }
+
     public abstract T getSingleFromDB(DataBaseAdapter dataBaseAdapter, long accountId, T entity);
 
     public abstract long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, T b);
@@ -142,11 +170,21 @@ public abstract class AbstractSyncDataProvider<T extends IRemoteEntity> {
     }
 
     public void onError(ResponseCallback<Boolean> responseCallback) {
+        for (AbstractSyncDataProvider<?> provider = this; provider != null; provider = provider.parent) {
+            provider.failed = true;
+        }
         if (parent != null) {
             parent.childDone(this, responseCallback, false);
         }
     }
 
+    /**
+     * @return whether this provider or one of its descendants failed, so its subtree has not been synchronized completely
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+
     public T applyUpdatesFromRemote(T localEntity, T remoteEntity, Long accountId) {
         return remoteEntity;
     }
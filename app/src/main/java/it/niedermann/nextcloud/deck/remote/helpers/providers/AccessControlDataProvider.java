@@ -1,12 +1,18 @@
 package it.niedermann.nextcloud.deck.remote.helpers.providers;
 
+import static java.util.stream.Collectors.toList;
+
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.nextcloud.android.sso.api.EmptyResponse;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.database.DataBaseAdapter;
@@ -19,7 +25,9 @@ import it.niedermann.nextcloud.deck.model.ocs.user.OcsUser;
 import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.remote.helpers.UserDirectoryCache;
 import it.niedermann.nextcloud.deck.remote.helpers.util.AsyncUtil;
+import it.niedermann.nextcloud.deck.remote.helpers.util.ContentHash;
 import okhttp3.Headers;
 
 public class AccessControlDataProvider extends AbstractSyncDataProvider<AccessControl> {
@@ -62,47 +70,27 @@ public class AccessControlDataProvider extends AbstractSyncDataProvider<AccessCo
         responder.onResponse(acl, IResponseCallback.EMPTY_HEADERS);
     }
 
+    /**
+     * Fetches all unknown group members in parallel and stores them at once
+     */
     private void ensureGroupMembersInDB(Account account, DataBaseAdapter dataBaseAdapter, ServerAdapter serverAdapter, GroupMemberUIDs response) {
-        CountDownLatch memberLatch = new CountDownLatch(response.getUids().size());
+        final var cache = UserDirectoryCache.forAccount(account.getId());
+        final List<CompletableFuture<OcsUser>> lookups = new ArrayList<>();
         for (String uid : response.getUids()) {
-            User user = dataBaseAdapter.getUserByUidDirectly(account.getId(), uid);
-            if (user == null) {
+            if (dataBaseAdapter.getUserByUidDirectly(account.getId(), uid) == null) {
                 // unknown user. fetch!
-                serverAdapter.getSingleUserData(uid, new ResponseCallback<>(account) {
-                    @Override
-                    public void onResponse(OcsUser response, Headers headers) {
-                        DeckLog.log(response);
-                        User user = new User();
-                        user.setUid(response.getId());
-                        user.setPrimaryKey(response.getId());
-                        user.setDisplayname(response.getDisplayName());
-                        try {
-                            dataBaseAdapter.createUser(getAccount().getId(), user);
-                        } catch (Exception e) {
-                            try {
-                                // retry... if still nothing: skip.
-                                Thread.sleep(500);
-                                dataBaseAdapter.createUser(getAccount().getId(), user);
-                            } catch (Exception ex) {
-                                throw new RuntimeException(ex);
-                            }
-                        }
-                        memberLatch.countDown();
-                    }
-
-                    @Override
-                    public void onError(Throwable throwable) {
-                        super.onError(throwable);
-                        memberLatch.countDown();
-                    }
-                });
-            } else memberLatch.countDown();
+                lookups.add(cache.lookup(serverAdapter, account, uid).exceptionally(throwable -> null));
+            }
         }
-        try {
-            memberLatch.await();
-        } catch (InterruptedException e) {
-            DeckLog.logError(e);
+        final List<User> users = new ArrayList<>(lookups.size());
+        for (final var lookup : lookups) {
+            final var ocsUser = lookup.join();
+            if (ocsUser != null) {
+                DeckLog.log(ocsUser);
+                users.add(UserDirectoryCache.toUser(ocsUser));
+            }
         }
+        dataBaseAdapter.createUsersIfNotExistingDirectly(account.getId(), users);
     }
 
     @Override
@@ -110,6 +98,25 @@ public class AccessControlDataProvider extends AbstractSyncDataProvider<AccessCo
         return dataBaseAdapter.getAccessControlByRemoteIdDirectly(accountId, entity.getEntity().getId());
     }
 
+    @Override
+    public Long getContentHash(@NonNull AccessControl entityFromServer) {
+        final var groupMembers = entityFromServer.getGroupMemberUIDs();
+        return new ContentHash()
+                .add(entityFromServer.getId())
+                .add(entityFromServer.getEtag())
+                .add(entityFromServer.getLastModified())
+                .add(entityFromServer.getType())
+                .add(entityFromServer.getBoardId())
+                .add(entityFromServer.isOwner())
+                .add(entityFromServer.isPermissionEdit())
+                .add(entityFromServer.isPermissionShare())
+                .add(entityFromServer.isPermissionManage())
+                .addUser(entityFromServer.getUser())
+                // The server does not guarantee any order of the group members
+                .add(groupMembers == null || groupMembers.getUids() == null ? null : groupMembers.getUids().stream().sorted().collect(toList()))
+                .get();
+    }
+
     @Override
     public long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, AccessControl entity) {
         prepareUser(dataBaseAdapter, accountId, entity);
@@ -123,14 +130,26 @@ public class AccessControlDataProvider extends AbstractSyncDataProvider<AccessCo
         if (!TYPE_GROUP.equals(entity.getType())) {
             return;
         }
-        dataBaseAdapter.deleteGroupMembershipsOfGroup(entity.getUser().getLocalId());
-        if (entity.getGroupMemberUIDs() == null) {
-            return;
+        final long localGroupId = entity.getUser().getLocalId();
+        final Set<Long> memberIds = new HashSet<>();
+        if (entity.getGroupMemberUIDs() != null) {
+            for (String groupMemberUID : entity.getGroupMemberUIDs().getUids()) {
+                User member = dataBaseAdapter.getUserByUidDirectly(entity.getAccountId(), groupMemberUID);
+                if (member != null) {
+                    memberIds.add(member.getLocalId());
+                }
+            }
+        }
+
+        final Set<Long> existingMemberIds = new HashSet<>(dataBaseAdapter.getGroupMemberIdsDirectly(localGroupId));
+        final List<Long> removedMemberIds = new ArrayList<>(existingMemberIds);
+        removedMemberIds.removeAll(memberIds);
+        if (!removedMemberIds.isEmpty()) {
+            dataBaseAdapter.removeUsersFromGroup(localGroupId, removedMemberIds);
         }
-        for (String groupMemberUID : entity.getGroupMemberUIDs().getUids()) {
-            User member = dataBaseAdapter.getUserByUidDirectly(entity.getAccountId(), groupMemberUID);
-            if (member != null) {
-                dataBaseAdapter.addUserToGroup(entity.getUserId(), member.getLocalId());
+        for (Long memberId : memberIds) {
+            if (!existingMemberIds.contains(memberId)) {
+                dataBaseAdapter.addUserToGroup(localGroupId, memberId);
             }
         }
     }
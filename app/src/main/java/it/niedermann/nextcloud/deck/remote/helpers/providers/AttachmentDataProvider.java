@@ -3,6 +3,8 @@ package it.niedermann.nextcloud.deck.remote.helpers.providers;
 import android.annotation.SuppressLint;
 import android.net.Uri;
 
+import androidx.annotation.NonNull;
+
 import com.nextcloud.android.sso.api.EmptyResponse;
 
 import java.io.File;
@@ -22,6 +24,7 @@ import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.remote.helpers.util.ContentHash;
 import okhttp3.Headers;
 
 public class AttachmentDataProvider extends AbstractSyncDataProvider<Attachment> {
@@ -62,6 +65,28 @@ public class AttachmentDataProvider extends AbstractSyncDataProvider<Attachment>
         return dataBaseAdapter.getAttachmentByRemoteIdDirectly(accountId, entity.getId());
     }
 
+    @Override
+    public Long getContentHash(@NonNull Attachment entityFromServer) {
+        return new ContentHash()
+                .add(entityFromServer.getId())
+                .add(entityFromServer.getEtag())
+                .add(entityFromServer.getLastModified())
+                .add(entityFromServer.getCardId())
+                .add(entityFromServer.getType())
+                .add(entityFromServer.getData())
+                .add(entityFromServer.getCreatedAt())
+                .add(entityFromServer.getCreatedBy())
+                .add(entityFromServer.getDeletedAt())
+                .add(entityFromServer.getFilesize())
+                .add(entityFromServer.getMimetype())
+                .add(entityFromServer.getDirname())
+                .add(entityFromServer.getBasename())
+                .add(entityFromServer.getExtension())
+                .add(entityFromServer.getFilename())
+                .add(entityFromServer.getFileId())
+                .get();
+    }
+
     @Override
     public long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, Attachment attachment) {
         attachment.setCardId(card.getLocalId());
@@ -3,6 +3,7 @@ package it.niedermann.nextcloud.deck.remote.helpers.providers;
 import android.annotation.SuppressLint;
 import android.util.Pair;
 
+import androidx.annotation.NonNull;
 import androidx.lifecycle.MutableLiveData;
 
 import com.nextcloud.android.sso.api.EmptyResponse;
@@ -20,6 +21,7 @@ import it.niedermann.nextcloud.deck.model.AccessControl;
 import it.niedermann.nextcloud.deck.model.Board;
 import it.niedermann.nextcloud.deck.model.Label;
 import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.enums.ESyncCheckpointType;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.full.FullStack;
 import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
@@ -27,6 +29,7 @@ import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
 import it.niedermann.nextcloud.deck.remote.helpers.SyncHelper;
 import it.niedermann.nextcloud.deck.remote.helpers.util.AsyncUtil;
+import it.niedermann.nextcloud.deck.remote.helpers.util.ContentHash;
 import okhttp3.Headers;
 
 public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
@@ -38,6 +41,7 @@ public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
     private MutableLiveData<Pair<Integer, Integer>> progress = null;
 
     private ResponseCallback<Boolean> stepByStepCallback;
+    private SyncHelper syncHelper;
 
     public BoardDataProvider() {
         super(null);
@@ -96,6 +100,9 @@ public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
     protected boolean removeChild(AbstractSyncDataProvider<?> child) {
         boolean isRemoved = super.removeChild(child);
         if (isRemoved && child.getClass() == StackDataProvider.class) {
+            if (syncHelper != null && !child.hasFailed()) {
+                syncHelper.saveCheckpoint(ESyncCheckpointType.BOARD, ((StackDataProvider) child).getBoard().getLocalId());
+            }
             progressDone++;
             updateProgress();
         }
@@ -107,6 +114,35 @@ public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
         return dataBaseAdapter.getFullBoardByRemoteIdDirectly(accountId, entity.getEntity().getId());
     }
 
+    @Override
+    public Long getContentHash(@NonNull FullBoard entityFromServer) {
+        final var board = entityFromServer.getBoard();
+        final var hash = new ContentHash()
+                .add(board.getId())
+                .add(board.getEtag())
+                .add(board.getLastModified())
+                .add(board.getTitle())
+                .add(board.getColor())
+                .add(board.isArchived())
+                .add(board.getShared())
+                .add(board.getDeletedAt())
+                .add(board.isPermissionRead())
+                .add(board.isPermissionEdit())
+                .add(board.isPermissionManage())
+                .add(board.isPermissionShare())
+                .addUser(entityFromServer.getOwner())
+                .addUsers(entityFromServer.getUsers());
+        // Default labels are merged while updating the board
+        final var labels = entityFromServer.getLabels();
+        hash.add(labels == null ? null : labels.size());
+        if (labels != null) {
+            for (final var label : labels) {
+                hash.add(label.getId()).add(label.getTitle());
+            }
+        }
+        return hash.get();
+    }
+
     @Override
     public long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, FullBoard entity) {
         handleOwner(dataBaseAdapter, accountId, entity);
@@ -177,14 +213,22 @@ public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
     }
 
 
+    @Override
+    public boolean isResumedFromCheckpoint(@NonNull SyncHelper syncHelper, @NonNull FullBoard existingEntity) {
+        return syncHelper.isCheckpointFresh(ESyncCheckpointType.BOARD, existingEntity.getLocalId());
+    }
+
     @Override
     public void goDeeper(SyncHelper syncHelper, FullBoard existingEntity, FullBoard entityFromServer, ResponseCallback<Boolean> callback) {
+        this.syncHelper = syncHelper;
         if (!isParallel) {
             stepByStepCallback = callback;
         }
+        boolean wentDeeper = false;
         List<Label> labels = entityFromServer.getLabels();
         if (labels != null && !labels.isEmpty()) {
             syncHelper.doSyncFor(new LabelDataProvider(this, existingEntity.getBoard(), labels));
+            wentDeeper = true;
         }
 
         List<AccessControl> acl = entityFromServer.getParticipants();
@@ -193,10 +237,24 @@ public class BoardDataProvider extends AbstractSyncDataProvider<FullBoard> {
                 ac.setBoardId(existingEntity.getLocalId());
             }
             syncHelper.doSyncFor(new AccessControlDataProvider(this, existingEntity, acl));
+            wentDeeper = true;
         }
 
         if (entityFromServer.getStacks() != null && !entityFromServer.getStacks().isEmpty()) {
-            syncHelper.doSyncFor(new StackDataProvider(this, existingEntity));
+            if (isResumedFromCheckpoint(syncHelper, existingEntity)) {
+                // Labels and access control are part of the board response, so only the stacks and cards are worth skipping
+                DeckLog.verbose("Skipping stacks of board", existingEntity.getLocalId(), "which have been synchronized completely before the last synchronization got interrupted");
+                progressDone++;
+                updateProgress();
+            } else {
+                syncHelper.doSyncFor(new StackDataProvider(this, existingEntity));
+                wentDeeper = true;
+            }
+        }
+
+        if (!isParallel && !wentDeeper) {
+            // Nothing will report back, so the next board would never be started
+            callback.onResponse(false, IResponseCallback.EMPTY_HEADERS);
         }
     }
 
@@ -2,6 +2,8 @@ package it.niedermann.nextcloud.deck.remote.helpers.providers;
 
 import android.annotation.SuppressLint;
 
+import androidx.annotation.NonNull;
+
 import com.nextcloud.android.sso.api.EmptyResponse;
 import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
 
@@ -34,6 +36,7 @@ import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
 import it.niedermann.nextcloud.deck.remote.helpers.SyncHelper;
+import it.niedermann.nextcloud.deck.remote.helpers.util.ContentHash;
 import okhttp3.Headers;
 
 public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
@@ -43,6 +46,10 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
     private static final Set<JoinCardWithLabel> LABEL_JOINS_IN_SYNC = Collections.synchronizedSet(new HashSet<>());
     protected Board board;
     protected FullStack stack;
+    /**
+     * Relations of the cards of this stack, applied at once after all cards have been synced
+     */
+    private final List<IRelationshipProvider> pendingRelations = Collections.synchronizedList(new ArrayList<>());
 
     public CardDataProvider(AbstractSyncDataProvider<?> parent, Board board, FullStack stack) {
         super(parent);
@@ -96,6 +103,32 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
         return dataBaseAdapter.getFullCardByRemoteIdDirectly(accountId, entity.getEntity().getId());
     }
 
+    @Override
+    public Long getContentHash(@NonNull FullCard entityFromServer) {
+        final var card = entityFromServer.getCard();
+        final var hash = new ContentHash()
+                .add(card.getId())
+                .add(card.getEtag())
+                .add(card.getLastModified())
+                .add(card.getTitle())
+                .add(card.getDescription())
+                .add(card.getStackId())
+                .add(card.getType())
+                .add(card.getCreatedAt())
+                .add(card.getDeletedAt())
+                .add(card.getDone())
+                .add(card.getAttachmentCount())
+                .add(card.getOrder())
+                .add(card.isArchived())
+                .add(card.getDueDate())
+                .add(card.isNotified())
+                .add(card.getOverdue())
+                .add(card.getCommentsUnread());
+        // The owner is written while updating the card
+        final var owner = entityFromServer.getOwner();
+        return hash.addUser(owner == null || owner.isEmpty() ? null : owner.get(0)).get();
+    }
+
     @Override
     public long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, FullCard entity) {
         fixRelations(dataBaseAdapter, accountId, entity);
@@ -156,26 +189,41 @@ public class CardDataProvider extends AbstractSyncDataProvider<FullCard> {
         List<Attachment> attachments = entityFromServer.getAttachments();
         existingEntity.setAttachments(attachments);
 
-        syncHelper.fixRelations(new CardLabelRelationshipProvider(existingEntity.getCard(), existingEntity.getLabels()));
+        pendingRelations.add(new CardLabelRelationshipProvider(existingEntity.getCard(), existingEntity.getLabels()));
         if (assignedUsers != null && !assignedUsers.isEmpty()) {
             syncHelper.doSyncFor(new UserDataProvider(this, board, stack, existingEntity, existingEntity.getAssignedUsers()));
         }
 
-        syncHelper.fixRelations(new CardUserRelationshipProvider(existingEntity.getCard(), existingEntity.getAssignedUsers()));
+        pendingRelations.add(new CardUserRelationshipProvider(existingEntity.getCard(), existingEntity.getAssignedUsers()));
         if (attachments == null) {
             attachments = new ArrayList<>();
         }
         syncHelper.doSyncFor(new AttachmentDataProvider(this, board, stack.getStack(), existingEntity, attachments));
 
+        if (syncHelper.isHeavyWorkDeferred()) {
+            DeckLog.verbose("Comments and projects - Heavy work is deferred, DONT SYNC");
+            return;
+        }
+
         if (callback.getAccount().getServerDeckVersionAsObject().supportsComments()) {
             DeckLog.verbose("Comments - Version is OK, SYNC");
-            syncHelper.doSyncFor(new DeckCommentsDataProvider(this, existingEntity.getCard()));
+            syncHelper.doSyncFor(new DeckCommentsDataProvider(this, existingEntity.getCard(), !syncHelper.isFullCommentSync()));
         } else {
             DeckLog.verbose("Comments - Version is too low, DONT SYNC");
         }
         syncHelper.doSyncFor(new OcsProjectDataProvider(this, existingEntity.getCard()));
     }
 
+    @Override
+    public void onEntitiesSynced(SyncHelper syncHelper) {
+        final List<IRelationshipProvider> relations;
+        synchronized (pendingRelations) {
+            relations = new ArrayList<>(pendingRelations);
+            pendingRelations.clear();
+        }
+        syncHelper.fixRelations(relations);
+    }
+
     @Override
     public void createOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullCard> responder, FullCard entity) {
         if (stack.getId() == null) {
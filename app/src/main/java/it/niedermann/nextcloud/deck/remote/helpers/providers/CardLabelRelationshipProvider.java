@@ -1,6 +1,12 @@
 package it.niedermann.nextcloud.deck.remote.helpers.providers;
 
+import static java.util.stream.Collectors.toMap;
+
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 import it.niedermann.nextcloud.deck.database.DataBaseAdapter;
 import it.niedermann.nextcloud.deck.model.Card;
@@ -19,25 +25,34 @@ public class CardLabelRelationshipProvider implements IRelationshipProvider {
     }
 
     @Override
-    public void insertAllNecessary(DataBaseAdapter dataBaseAdapter, long accountId) {
-        if (labels== null){
+    public void applyDelta(DataBaseAdapter dataBaseAdapter, long accountId) {
+        Card card = dataBaseAdapter.getCardByRemoteIdDirectly(accountId, this.card.getId());
+        if (card == null) {
             return;
         }
-        Card card = dataBaseAdapter.getCardByRemoteIdDirectly(accountId, this.card.getId());
-        for (Label label : labels) {
-            Label existingLabel = dataBaseAdapter.getLabelByRemoteIdDirectly(accountId, label.getId());
-            if (existingLabel != null) { // maybe not synced yet, skipping this time. next sync will be able to push it up
-                JoinCardWithLabel existingJoin = dataBaseAdapter.getJoinCardWithLabel(existingLabel.getLocalId(), card.getLocalId());
-                if (existingJoin == null){
-                    dataBaseAdapter.createJoinCardWithLabel(existingLabel.getLocalId(), card.getLocalId(), DBStatus.UP_TO_DATE);
+        final Set<Long> labelIdsFromServer = new HashSet<>();
+        if (labels != null) {
+            for (Label label : labels) {
+                Label existingLabel = dataBaseAdapter.getLabelByRemoteIdDirectly(accountId, label.getId());
+                if (existingLabel != null) { // maybe not synced yet, skipping this time. next sync will be able to push it up
+                    labelIdsFromServer.add(existingLabel.getLocalId());
                 }
             }
         }
-    }
 
-    @Override
-    public void deleteAllExisting(DataBaseAdapter dataBaseAdapter, long accountId) {
-        Card card = dataBaseAdapter.getCardByRemoteIdDirectly(accountId, this.card.getId());
-        dataBaseAdapter.deleteJoinedLabelsForCard(card.getLocalId());
+        final Map<Long, JoinCardWithLabel> existingJoins = dataBaseAdapter.getAllJoinCardWithLabelsForCardDirectly(card.getLocalId())
+                .stream()
+                .collect(toMap(JoinCardWithLabel::getLabelId, Function.identity()));
+
+        for (JoinCardWithLabel existingJoin : existingJoins.values()) {
+            if (existingJoin.getStatusEnum() == DBStatus.UP_TO_DATE && !labelIdsFromServer.contains(existingJoin.getLabelId())) {
+                dataBaseAdapter.deleteJoinedLabelForCardPhysically(card.getLocalId(), existingJoin.getLabelId());
+            }
+        }
+        for (Long labelId : labelIdsFromServer) {
+            if (!existingJoins.containsKey(labelId)) {
+                dataBaseAdapter.createJoinCardWithLabel(labelId, card.getLocalId(), DBStatus.UP_TO_DATE);
+            }
+        }
     }
 }
@@ -1,11 +1,18 @@
 package it.niedermann.nextcloud.deck.remote.helpers.providers;
 
+import static java.util.stream.Collectors.toMap;
+
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 import it.niedermann.nextcloud.deck.database.DataBaseAdapter;
 import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.JoinCardWithUser;
 import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.enums.DBStatus;
 
 public class CardUserRelationshipProvider implements IRelationshipProvider {
 
@@ -18,23 +25,34 @@ public class CardUserRelationshipProvider implements IRelationshipProvider {
     }
 
     @Override
-    public void insertAllNecessary(DataBaseAdapter dataBaseAdapter, long accountId) {
-        if (users == null){
+    public void applyDelta(DataBaseAdapter dataBaseAdapter, long accountId) {
+        Card card = dataBaseAdapter.getCardByRemoteIdDirectly(accountId, this.card.getId());
+        if (card == null) {
             return;
         }
-        Card card = dataBaseAdapter.getCardByRemoteIdDirectly(accountId, this.card.getId());
-        for (User user : users){
-            User existingUser = dataBaseAdapter.getUserByUidDirectly(accountId, user.getUid());
-            JoinCardWithUser existingJoin = dataBaseAdapter.getJoinCardWithUser(existingUser.getLocalId(), card.getLocalId());
-            if (existingJoin == null) {
-                dataBaseAdapter.createJoinCardWithUser(existingUser.getLocalId(), card.getLocalId());
+        final Set<Long> userIdsFromServer = new HashSet<>();
+        if (users != null) {
+            for (User user : users) {
+                User existingUser = dataBaseAdapter.getUserByUidDirectly(accountId, user.getUid());
+                if (existingUser != null) {
+                    userIdsFromServer.add(existingUser.getLocalId());
+                }
             }
         }
-    }
 
-    @Override
-    public void deleteAllExisting(DataBaseAdapter dataBaseAdapter, long accountId) {
-        Card card = dataBaseAdapter.getCardByRemoteIdDirectly(accountId, this.card.getId());
-        dataBaseAdapter.deleteJoinedUsersForCard(card.getLocalId());
+        final Map<Long, JoinCardWithUser> existingJoins = dataBaseAdapter.getAllJoinCardWithUsersForCardDirectly(card.getLocalId())
+                .stream()
+                .collect(toMap(JoinCardWithUser::getUserId, Function.identity()));
+
+        for (JoinCardWithUser existingJoin : existingJoins.values()) {
+            if (existingJoin.getStatusEnum() == DBStatus.UP_TO_DATE && !userIdsFromServer.contains(existingJoin.getUserId())) {
+                dataBaseAdapter.deleteJoinedUserForCardPhysically(card.getLocalId(), existingJoin.getUserId());
+            }
+        }
+        for (Long userId : userIdsFromServer) {
+            if (!existingJoins.containsKey(userId)) {
+                dataBaseAdapter.createJoinCardWithUser(userId, card.getLocalId(), DBStatus.UP_TO_DATE);
+            }
+        }
     }
 }
@@ -2,13 +2,20 @@ package it.niedermann.nextcloud.deck.remote.helpers.providers;
 
 import android.annotation.SuppressLint;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import com.nextcloud.android.sso.api.EmptyResponse;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.stream.Collectors;
 
@@ -25,25 +32,66 @@ import okhttp3.Headers;
 
 public class DeckCommentsDataProvider extends AbstractSyncDataProvider<OcsComment> {
 
+    private static final int PAGE_SIZE = 50;
+
     protected Card card;
+    /**
+     * Remote ID of the oldest comment fetched from the server or <code>null</code> if the whole thread has been fetched
+     */
+    private Long oldestFetchedRemoteId = null;
+
+    /**
+     * Whether only comments newer than the newest known one should be fetched
+     */
+    private final boolean incremental;
 
     public DeckCommentsDataProvider(AbstractSyncDataProvider<?> parent, Card card) {
+        this(parent, card, false);
+    }
+
+    /**
+     * @param incremental only fetches comments newer than the newest known one. Edits and deletions of older comments are only noticed if they are part
+     *                    of the first page, so a full synchronization of all pages needs to be performed from time to time.
+     */
+    public DeckCommentsDataProvider(AbstractSyncDataProvider<?> parent, Card card, boolean incremental) {
         super(parent);
         this.card = card;
+        this.incremental = incremental;
     }
 
     @Override
-    public void getAllFromServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<List<OcsComment>> responder, Instant lastSync) {
-        serverAdapter.getCommentsForRemoteCardId(card.getId(), new ResponseCallback<>(responder.getAccount()) {
+    public void getAllFromServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<OcsComment>> responder, Instant lastSync) {
+        // Unless synchronizing incrementally the whole thread gets fetched, otherwise only the comments newer than the newest known one
+        final Long newestKnownRemoteId = incremental && lastSync != null ? dataBaseAdapter.getHighestRemoteCommentIdForLocalCardIdDirectly(card.getLocalId()) : null;
+        getPageFromServer(serverAdapter, dataBaseAdapter, accountId, responder, newestKnownRemoteId, 0, new ArrayList<>());
+    }
+
+    /**
+     * The server returns the newest comments first, so paging stops as soon as a page is not full or reaches an already known comment.
+     */
+    private void getPageFromServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<OcsComment>> responder,
+                                   Long newestKnownRemoteId, int offset, List<OcsComment> result) {
+        serverAdapter.getCommentsForRemoteCardId(card.getId(), PAGE_SIZE, offset, new ResponseCallback<>(responder.getAccount()) {
             @Override
             public void onResponse(OcsComment response, Headers headers) {
                 if (response == null) {
                     response = new OcsComment();
                 }
-                List<OcsComment> comments = response.split();
-                Collections.sort(comments, Comparator.comparing(o -> o.getSingle().getCreationDateTime()));
-                verifyCommentListIntegrity(comments);
-                responder.onResponse(comments, headers);
+                final List<OcsComment> page = response.split();
+                result.addAll(page);
+
+                final boolean reachedKnownComment = newestKnownRemoteId != null && page.stream().anyMatch(comment -> comment.getId() <= newestKnownRemoteId);
+                if (page.size() >= PAGE_SIZE && !reachedKnownComment) {
+                    getPageFromServer(serverAdapter, dataBaseAdapter, accountId, responder, newestKnownRemoteId, offset + PAGE_SIZE, result);
+                    return;
+                }
+
+                oldestFetchedRemoteId = page.size() < PAGE_SIZE
+                        ? null
+                        : result.stream().mapToLong(OcsComment::getId).min().orElse(0L);
+                result.sort(Comparator.comparing(o -> o.getSingle().getCreationDateTime()));
+                verifyCommentListIntegrity(dataBaseAdapter, accountId, result);
+                responder.onResponse(result, headers);
             }
 
             @Override
@@ -70,12 +118,17 @@ public class DeckCommentsDataProvider extends AbstractSyncDataProvider<OcsCommen
                 "all existing card-IDs: "+allCardIDs, cause);
     }
 
-    private void verifyCommentListIntegrity(List<OcsComment> comments) {
-        List<Long> knownIDs = new ArrayList<>();
+    /**
+     * Parents need to be created before their replies. They are either part of the fetched comments or, when synchronizing
+     * incrementally, might already be known locally.
+     */
+    private void verifyCommentListIntegrity(DataBaseAdapter dataBaseAdapter, long accountId, List<OcsComment> comments) {
+        final Set<Long> knownIDs = new HashSet<>(comments.size());
         for (OcsComment comment : comments) {
             DeckComment c = comment.getSingle();
             knownIDs.add(c.getId());
-            if (c.getParentId() != null && !knownIDs.contains(c.getParentId())) {
+            if (c.getParentId() != null && !knownIDs.contains(c.getParentId())
+                    && (oldestFetchedRemoteId == null || dataBaseAdapter.getLocalCommentIdForRemoteIdDirectly(accountId, c.getParentId()) == null)) {
                 DeckLog.logError(new IllegalStateException("No parent comment with ID " + c.getParentId() +
                         " found for comment " + c.toString()));
                 c.setParentId(null);
@@ -123,7 +176,27 @@ public class DeckCommentsDataProvider extends AbstractSyncDataProvider<OcsCommen
             comment.setParentId(dataBaseAdapter.getLocalCommentIdForRemoteIdDirectly(accountId, comment.getParentId()));
         }
         dataBaseAdapter.updateComment(comment, setStatus);
-        persistMentions(dataBaseAdapter, comment);
+        // Local edits store the new message without mentions, so the stored mentions have to be compared instead of the message
+        if (!hasSameMentions(dataBaseAdapter.getMentionsForCommentIdDirectly(comment.getLocalId()), comment.getMentions())) {
+            persistMentions(dataBaseAdapter, comment);
+        }
+    }
+
+    /**
+     * Mentions are compared by their content, because the stored ones have local IDs which the ones from the server are lacking
+     */
+    private static boolean hasSameMentions(@Nullable List<Mention> storedMentions, @Nullable List<Mention> mentions) {
+        return countMentions(storedMentions).equals(countMentions(mentions));
+    }
+
+    @NonNull
+    private static Map<List<String>, Long> countMentions(@Nullable List<Mention> mentions) {
+        if (mentions == null) {
+            return Collections.emptyMap();
+        }
+        return mentions.stream().collect(Collectors.groupingBy(
+                mention -> Arrays.asList(mention.getMentionId(), mention.getMentionType(), mention.getMentionDisplayName()),
+                Collectors.counting()));
     }
 
     @Override
@@ -189,7 +262,14 @@ public class DeckCommentsDataProvider extends AbstractSyncDataProvider<OcsCommen
 
     @Override
     public void handleDeletes(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<OcsComment> entitiesFromServer) {
-        List<OcsComment> deletedComments = findDelta(entitiesFromServer, new OcsComment(dataBaseAdapter.getCommentByLocalCardIdDirectly(card.getLocalId())).split());
+        List<DeckComment> localComments = dataBaseAdapter.getCommentByLocalCardIdDirectly(card.getLocalId());
+        if (oldestFetchedRemoteId != null) {
+            // Only a part of the thread has been fetched, older comments can not be judged
+            localComments = localComments.stream()
+                    .filter(comment -> comment.getId() == null || comment.getId() >= oldestFetchedRemoteId)
+                    .collect(Collectors.toList());
+        }
+        List<OcsComment> deletedComments = findDelta(entitiesFromServer, new OcsComment(localComments).split());
         for (OcsComment deletedComment : deletedComments) {
             if (deletedComment.getId() != null) {
                 // preserve new, unsynced comment.
@@ -3,7 +3,9 @@ package it.niedermann.nextcloud.deck.remote.helpers.providers;
 import it.niedermann.nextcloud.deck.database.DataBaseAdapter;
 
 public interface IRelationshipProvider {
-    void insertAllNecessary(DataBaseAdapter dataBaseAdapter, long accountId);
-
-    void deleteAllExisting(DataBaseAdapter dataBaseAdapter, long accountId);
+    /**
+     * Brings the local relations in line with the server by only adding the missing and removing the obsolete ones.
+     * Relations with pending local changes are left untouched, they will be pushed with the next up sync.
+     */
+    void applyDelta(DataBaseAdapter dataBaseAdapter, long accountId);
 }
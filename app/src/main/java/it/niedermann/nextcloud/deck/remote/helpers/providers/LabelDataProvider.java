@@ -2,6 +2,8 @@ package it.niedermann.nextcloud.deck.remote.helpers.providers;
 
 import android.annotation.SuppressLint;
 
+import androidx.annotation.NonNull;
+
 import com.nextcloud.android.sso.api.EmptyResponse;
 
 import java.time.Instant;
@@ -15,6 +17,7 @@ import it.niedermann.nextcloud.deck.model.Label;
 import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.remote.helpers.util.ContentHash;
 import okhttp3.Headers;
 
 public class LabelDataProvider extends AbstractSyncDataProvider<Label> {
@@ -43,6 +46,18 @@ public class LabelDataProvider extends AbstractSyncDataProvider<Label> {
         return dataBaseAdapter.getLabelByRemoteIdDirectly(accountId, entity.getEntity().getId());
     }
 
+    @Override
+    public Long getContentHash(@NonNull Label entityFromServer) {
+        return new ContentHash()
+                .add(entityFromServer.getId())
+                .add(entityFromServer.getEtag())
+                .add(entityFromServer.getLastModified())
+                .add(entityFromServer.getTitle())
+                .add(entityFromServer.getColor())
+                .add(entityFromServer.getBoardId())
+                .get();
+    }
+
     @Override
     public long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, Label entity) {
         Label existing = dataBaseAdapter.getLabelByBoardIdAndTitleDirectly(entity.getBoardId(), entity.getTitle());
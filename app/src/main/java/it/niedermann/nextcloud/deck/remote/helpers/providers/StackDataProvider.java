@@ -1,6 +1,8 @@
 package it.niedermann.nextcloud.deck.remote.helpers.providers;
 
 
+import androidx.annotation.NonNull;
+
 import com.nextcloud.android.sso.api.EmptyResponse;
 
 import java.time.Instant;
@@ -9,27 +11,35 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
 
+import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.database.DataBaseAdapter;
 import it.niedermann.nextcloud.deck.exceptions.DeckException;
 import it.niedermann.nextcloud.deck.model.Board;
 import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.enums.ESyncCheckpointType;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullStack;
 import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
 import it.niedermann.nextcloud.deck.remote.helpers.SyncHelper;
+import it.niedermann.nextcloud.deck.remote.helpers.util.ContentHash;
 
 public class StackDataProvider extends AbstractSyncDataProvider<FullStack> {
     private FullBoard board;
 
     private Set<Long> syncedStacks = new ConcurrentSkipListSet<>();
+    private SyncHelper syncHelper;
 
     public StackDataProvider(AbstractSyncDataProvider<?> parent, FullBoard board) {
         super(parent);
         this.board = board;
     }
 
+    FullBoard getBoard() {
+        return board;
+    }
+
     @Override
     public void getAllFromServer(ServerAdapter serverAdapter, long accountId, ResponseCallback<List<FullStack>> responder, Instant lastSync) {
         serverAdapter.getStacks(board.getId(), responder);
@@ -40,6 +50,20 @@ public class StackDataProvider extends AbstractSyncDataProvider<FullStack> {
         return dataBaseAdapter.getFullStackByRemoteIdDirectly(accountId, board.getLocalId(), entity.getEntity().getId());
     }
 
+    @Override
+    public Long getContentHash(@NonNull FullStack entityFromServer) {
+        final var stack = entityFromServer.getStack();
+        return new ContentHash()
+                .add(stack.getId())
+                .add(stack.getEtag())
+                .add(stack.getLastModified())
+                .add(stack.getTitle())
+                .add(stack.getBoardId())
+                .add(stack.getDeletedAt())
+                .add(stack.getOrder())
+                .get();
+    }
+
     @Override
     public long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, FullStack entity) {
         entity.getStack().setBoardId(board.getLocalId());
@@ -58,11 +82,20 @@ public class StackDataProvider extends AbstractSyncDataProvider<FullStack> {
         updateInDB(dataBaseAdapter, accountId, entity, false);
     }
 
+    @Override
+    public boolean isResumedFromCheckpoint(@NonNull SyncHelper syncHelper, @NonNull FullStack existingEntity) {
+        return syncHelper.isCheckpointFresh(ESyncCheckpointType.STACK, existingEntity.getLocalId());
+    }
+
     @Override
     public void goDeeper(SyncHelper syncHelper, FullStack existingEntity, FullStack entityFromServer, ResponseCallback<Boolean> callback) {
         boolean serverHasCards = entityFromServer.getCards() != null && !entityFromServer.getCards().isEmpty();
         boolean weHaveCards = existingEntity.getCards() != null && !existingEntity.getCards().isEmpty();
-        if (serverHasCards || weHaveCards) {
+        if ((serverHasCards || weHaveCards) && isResumedFromCheckpoint(syncHelper, existingEntity)) {
+            DeckLog.verbose("Skipping cards of stack", existingEntity.getLocalId(), "which have been synchronized completely before the last synchronization got interrupted");
+            childDone(this, callback, false);
+        } else if (serverHasCards || weHaveCards) {
+            this.syncHelper = syncHelper;
             existingEntity.setCards(entityFromServer.getCards());
             List<Card> cards = existingEntity.getCards();
             if (cards != null) {
@@ -76,6 +109,15 @@ public class StackDataProvider extends AbstractSyncDataProvider<FullStack> {
         }
     }
 
+    @Override
+    protected boolean removeChild(AbstractSyncDataProvider<?> child) {
+        boolean isRemoved = super.removeChild(child);
+        if (isRemoved && syncHelper != null && child.getClass() == CardDataProvider.class && !child.hasFailed()) {
+            syncHelper.saveCheckpoint(ESyncCheckpointType.STACK, ((CardDataProvider) child).stack.getLocalId());
+        }
+        return isRemoved;
+    }
+
     @Override
     public void createOnServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<FullStack> responder, FullStack entity) {
         if (board.getId() == null) {
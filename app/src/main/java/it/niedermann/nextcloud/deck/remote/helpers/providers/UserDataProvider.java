@@ -1,6 +1,8 @@
 package it.niedermann.nextcloud.deck.remote.helpers.providers;
 
 
+import androidx.annotation.NonNull;
+
 import com.nextcloud.android.sso.api.EmptyResponse;
 
 import java.time.Instant;
@@ -14,6 +16,7 @@ import it.niedermann.nextcloud.deck.model.full.FullStack;
 import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.remote.helpers.util.ContentHash;
 
 public class UserDataProvider extends AbstractSyncDataProvider<User> {
 
@@ -40,6 +43,16 @@ public class UserDataProvider extends AbstractSyncDataProvider<User> {
         return dataBaseAdapter.getUserByUidDirectly(accountId, entity.getUid());
     }
 
+    @Override
+    public Long getContentHash(@NonNull User entityFromServer) {
+        return new ContentHash()
+                .add(entityFromServer.getId())
+                .add(entityFromServer.getEtag())
+                .add(entityFromServer.getLastModified())
+                .addUser(entityFromServer)
+                .get();
+    }
+
     @Override
     public long createInDB(DataBaseAdapter dataBaseAdapter, long accountId, User entity) {
         return dataBaseAdapter.createUser(accountId, entity);
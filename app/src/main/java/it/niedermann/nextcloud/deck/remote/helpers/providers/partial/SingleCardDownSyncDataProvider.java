@@ -0,0 +1,75 @@
+package it.niedermann.nextcloud.deck.remote.helpers.providers.partial;
+
+import android.annotation.SuppressLint;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.database.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.exceptions.DeckException;
+import it.niedermann.nextcloud.deck.model.Board;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.model.full.FullStack;
+import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.remote.helpers.SyncHelper;
+import it.niedermann.nextcloud.deck.remote.helpers.providers.AbstractSyncDataProvider;
+import it.niedermann.nextcloud.deck.remote.helpers.providers.CardDataProvider;
+import okhttp3.Headers;
+
+/**
+ * Fetches exactly one {@link FullCard} instead of all cards of its stack.
+ * The stack gets resolved from the response, so this also works for cards which have been moved or are not known locally yet.
+ */
+public class SingleCardDownSyncDataProvider extends CardDataProvider {
+
+    private final long stackRemoteId;
+    private final long cardRemoteId;
+
+    /**
+     * @param stackRemoteId only used to build the request path, the server resolves the card by <code>cardRemoteId</code>
+     */
+    public SingleCardDownSyncDataProvider(AbstractSyncDataProvider<?> parent, Board board, long stackRemoteId, long cardRemoteId) {
+        super(parent, board, null);
+        this.stackRemoteId = stackRemoteId;
+        this.cardRemoteId = cardRemoteId;
+    }
+
+    @Override
+    public void getAllFromServer(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, ResponseCallback<List<FullCard>> responder, Instant lastSync) {
+        serverAdapter.getCard(board.getId(), stackRemoteId, cardRemoteId, new ResponseCallback<>(responder.getAccount()) {
+            @Override
+            public void onResponse(FullCard response, Headers headers) {
+                final var stack = dataBaseAdapter.getStackByRemoteIdDirectly(accountId, board.getLocalId(), response.getCard().getStackId());
+                if (stack == null) {
+                    responder.onError(new DeckException(DeckException.Hint.DEPENDENCY_NOT_SYNCED_YET, "Stack with remote ID " +
+                            response.getCard().getStackId() + " of Card \"" + response.getCard().getTitle() + "\" is not synced yet."));
+                    return;
+                }
+                final var fullStack = new FullStack();
+                fullStack.setStack(stack);
+                fullStack.setCards(new ArrayList<>());
+                SingleCardDownSyncDataProvider.this.stack = fullStack;
+                responder.onResponse(Collections.singletonList(response), headers);
+            }
+
+            @SuppressLint("MissingSuperCall")
+            @Override
+            public void onError(Throwable throwable) {
+                responder.onError(throwable);
+            }
+        });
+    }
+
+    @Override
+    public void handleDeletes(ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, long accountId, List<FullCard> entitiesFromServer) {
+        // Other cards of the stack have not been fetched, so nothing can be derived about them
+    }
+
+    @Override
+    public void goDeeperForUpSync(SyncHelper syncHelper, ServerAdapter serverAdapter, DataBaseAdapter dataBaseAdapter, ResponseCallback<Boolean> callback) {
+        // do nothing!
+    }
+}
@@ -35,4 +35,13 @@ public class ConnectivityUtil {
         }
         return false;
     }
+
+    /**
+     * @return <code>true</code> if the active network is neither metered nor missing
+     */
+    public boolean isUnmetered() {
+        return connectivityManager != null
+                && connectivityManager.getActiveNetworkInfo() != null
+                && !connectivityManager.isActiveNetworkMetered();
+    }
 }
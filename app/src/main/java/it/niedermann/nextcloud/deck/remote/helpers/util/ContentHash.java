@@ -0,0 +1,75 @@
+package it.niedermann.nextcloud.deck.remote.helpers.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collection;
+
+import it.niedermann.nextcloud.deck.model.User;
+
+/**
+ * Builds a 64 bit FNV-1a hash over the fields of an entity as they have been delivered by the server.
+ * The order in which fields are added matters, each field is terminated by a separator so adjacent values can not be confused.
+ */
+public class ContentHash {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final char SEPARATOR = '\u001F';
+    private static final char NULL = '\u0000';
+
+    private long hash = OFFSET_BASIS;
+
+    @NonNull
+    public ContentHash add(@Nullable Object value) {
+        if (value == null) {
+            mix(NULL);
+        } else if (value instanceof Collection<?>) {
+            final var collection = (Collection<?>) value;
+            add(collection.size());
+            for (final var element : collection) {
+                add(element);
+            }
+        } else {
+            final var string = value.toString();
+            for (int i = 0; i < string.length(); i++) {
+                mix(string.charAt(i));
+            }
+        }
+        mix(SEPARATOR);
+        return this;
+    }
+
+    @NonNull
+    public ContentHash addUser(@Nullable User user) {
+        if (user == null) {
+            return add(null);
+        }
+        return add(user.getUid())
+                .add(user.getDisplayname())
+                .add(user.getPrimaryKey());
+    }
+
+    @NonNull
+    public ContentHash addUsers(@Nullable Collection<User> users) {
+        if (users == null) {
+            return add(null);
+        }
+        add(users.size());
+        for (final var user : users) {
+            addUser(user);
+        }
+        return this;
+    }
+
+    public long get() {
+        return hash;
+    }
+
+    private void mix(char c) {
+        hash ^= (c & 0xFF);
+        hash *= PRIME;
+        hash ^= (c >>> 8);
+        hash *= PRIME;
+    }
+}
@@ -10,6 +10,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
+import androidx.room.InvalidationTracker;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -36,6 +37,7 @@ import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.full.FullCardWithProjects;
 import it.niedermann.nextcloud.deck.model.full.FullSingleCardWidgetModel;
 import it.niedermann.nextcloud.deck.model.full.FullStack;
+import it.niedermann.nextcloud.deck.model.internal.CardPageKey;
 import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
 import it.niedermann.nextcloud.deck.model.ocs.comment.full.FullDeckComment;
 import it.niedermann.nextcloud.deck.model.ocs.projects.OcsProjectResource;
@@ -44,7 +46,9 @@ import it.niedermann.nextcloud.deck.model.widget.filter.dto.FilterWidgetCard;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.remote.api.LastSyncUtil;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.remote.helpers.UserDirectoryCache;
 import it.niedermann.nextcloud.deck.remote.helpers.util.ConnectivityUtil;
+import it.niedermann.nextcloud.deck.ui.main.search.BoardSearchResults;
 import it.niedermann.nextcloud.deck.ui.upcomingcards.UpcomingCardsAdapterItem;
 import it.niedermann.nextcloud.deck.util.ExecutorServiceProvider;
 
@@ -160,6 +164,7 @@ public class BaseRepository {
             dataBaseAdapter.removeCurrentBoardId(id);
             dataBaseAdapter.deleteAccount(id);
             LastSyncUtil.resetLastSyncDate(id);
+            UserDirectoryCache.remove(id);
         });
     }
 
@@ -203,6 +208,14 @@ public class BaseRepository {
         return dataBaseAdapter.getAllAccountsDirectly();
     }
 
+    /**
+     * @see DataBaseAdapter#getLocalIdsOfBoardsChangedSinceDirectly(long, Instant)
+     */
+    @WorkerThread
+    public List<Long> getLocalIdsOfBoardsChangedSinceDirectly(long accountId, @NonNull Instant since) {
+        return dataBaseAdapter.getLocalIdsOfBoardsChangedSinceDirectly(accountId, since);
+    }
+
     /**
      * @param localProjectId LocalId of the OcsProject
      * @return all {@link OcsProjectResource}s of the Project
@@ -284,6 +297,19 @@ public class BaseRepository {
         return dataBaseAdapter.getFullCardsForStack(accountId, localStackId, filter);
     }
 
+    public LiveData<List<FullCard>> getFullCardsForStackPage(long accountId, long localStackId, @Nullable FilterInformation filter, @NonNull CardPageKey after, int pageSize) {
+        return dataBaseAdapter.getFullCardsForStackPage(accountId, localStackId, filter, after, pageSize);
+    }
+
+    public LiveData<List<FullCard>> getFullCardsForStackUpTo(long accountId, long localStackId, @Nullable FilterInformation filter, @NonNull CardPageKey upTo) {
+        return dataBaseAdapter.getFullCardsForStackUpTo(accountId, localStackId, filter, upTo);
+    }
+
+    @WorkerThread
+    public List<FullCard> getFirstFullCardsForStackDirectly(long accountId, long localStackId, int limit) {
+        return dataBaseAdapter.getFirstFullCardsForStackDirectly(accountId, localStackId, limit);
+    }
+
     @WorkerThread
     public Long getBoardLocalIdByLocalCardIdDirectly(long localCardId) {
         return dataBaseAdapter.getBoardLocalIdByLocalCardIdDirectly(localCardId);
@@ -304,6 +330,28 @@ public class BaseRepository {
         return dataBaseAdapter.searchCards(accountId, localBoardId, term, limit);
     }
 
+    /**
+     * @see DataBaseAdapter#searchCardsInAllBoardsDirectly(String, int)
+     */
+    @WorkerThread
+    public List<BoardSearchResults> searchCardsInAllBoardsDirectly(@NonNull String term, int limitPerBoard) {
+        return dataBaseAdapter.searchCardsInAllBoardsDirectly(term, limitPerBoard);
+    }
+
+    /**
+     * @see DataBaseAdapter#addSearchInvalidationListener(Runnable)
+     */
+    @WorkerThread
+    @NonNull
+    public InvalidationTracker.Observer addSearchInvalidationListener(@NonNull Runnable listener) {
+        return dataBaseAdapter.addSearchInvalidationListener(listener);
+    }
+
+    @WorkerThread
+    public void removeSearchInvalidationListener(@NonNull InvalidationTracker.Observer observer) {
+        dataBaseAdapter.removeSearchInvalidationListener(observer);
+    }
+
     // --- User search ---
 
     public LiveData<List<User>> findProposalsForUsersToAssignForACL(final long accountId, long boardId, final int topX) {
@@ -447,12 +495,10 @@ public class BaseRepository {
             }
             startingAtOrder++;
         }
-        //update the moved one first, because otherwise a bunch of livedata is fired, leading the card to dispose and reappear
+        // update all cards in one transaction, because otherwise a bunch of livedata is fired, leading the card to dispose and reappear
         cardsToReorganize.remove(movedCard);
-        dataBaseAdapter.updateCard(movedCard, false);
-        for (Card card : cardsToReorganize) {
-            dataBaseAdapter.updateCard(card, false);
-        }
+        cardsToReorganize.add(0, movedCard);
+        dataBaseAdapter.updateCardsDirectly(cardsToReorganize);
     }
 
     // -------------------
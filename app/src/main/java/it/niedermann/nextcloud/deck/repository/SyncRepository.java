@@ -2,6 +2,7 @@ package it.niedermann.nextcloud.deck.repository;
 
 import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+import static java.util.stream.Collectors.toList;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
@@ -12,7 +13,9 @@ import androidx.annotation.AnyThread;
 import androidx.annotation.ColorInt;
 import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
@@ -24,17 +27,21 @@ import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
 import com.nextcloud.android.sso.model.SingleSignOnAccount;
 
 import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.database.DataBaseAdapter;
@@ -57,14 +64,16 @@ import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
 import it.niedermann.nextcloud.deck.model.ocs.Capabilities;
 import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
 import it.niedermann.nextcloud.deck.model.ocs.comment.OcsComment;
-import it.niedermann.nextcloud.deck.model.ocs.user.OcsUserList;
 import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
 import it.niedermann.nextcloud.deck.remote.api.GsonConfig;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.remote.api.LastSyncUtil;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.remote.helpers.CapabilitiesCache;
+import it.niedermann.nextcloud.deck.remote.helpers.CardReorderSession;
 import it.niedermann.nextcloud.deck.remote.helpers.DataPropagationHelper;
 import it.niedermann.nextcloud.deck.remote.helpers.SyncHelper;
+import it.niedermann.nextcloud.deck.remote.helpers.UserDirectoryCache;
 import it.niedermann.nextcloud.deck.remote.helpers.providers.AbstractSyncDataProvider;
 import it.niedermann.nextcloud.deck.remote.helpers.providers.AccessControlDataProvider;
 import it.niedermann.nextcloud.deck.remote.helpers.providers.ActivityDataProvider;
@@ -77,8 +86,11 @@ import it.niedermann.nextcloud.deck.remote.helpers.providers.LabelDataProvider;
 import it.niedermann.nextcloud.deck.remote.helpers.providers.StackDataProvider;
 import it.niedermann.nextcloud.deck.remote.helpers.providers.partial.BoardWithAclDownSyncDataProvider;
 import it.niedermann.nextcloud.deck.remote.helpers.providers.partial.BoardWithStacksAndLabelsUpSyncDataProvider;
+import it.niedermann.nextcloud.deck.remote.helpers.providers.partial.SingleCardDownSyncDataProvider;
 import it.niedermann.nextcloud.deck.remote.helpers.util.ConnectivityUtil;
+import it.niedermann.nextcloud.deck.util.AttachmentCache;
 import okhttp3.Headers;
+import okhttp3.ResponseBody;
 
 /**
  * Extends {@link BaseRepository} by synchronization capabilities.
@@ -87,10 +99,20 @@ import okhttp3.Headers;
 @SuppressWarnings("WeakerAccess")
 public class SyncRepository extends BaseRepository {
 
+    /**
+     * Comments are synchronized incrementally, but at least once within this interval all pages of all threads are fetched to catch up with edits and
+     * deletions of older comments
+     */
+    private static final Duration FULL_COMMENT_SYNC_INTERVAL = Duration.ofDays(1);
+
     @NonNull
     private final ServerAdapter serverAdapter;
     @NonNull
     private final SyncHelper.Factory syncHelperFactory;
+    @NonNull
+    private final AttachmentCache attachmentCache;
+    @Nullable
+    private CardReorderSession reorderSession;
 
     @AnyThread
     public SyncRepository(@NonNull Context context, @NonNull Account account) throws NextcloudFilesAppAccountNotFoundException {
@@ -110,6 +132,7 @@ public class SyncRepository extends BaseRepository {
         super(context, connectivityUtil);
         this.serverAdapter = serverAdapter;
         this.syncHelperFactory = syncHelperFactory;
+        this.attachmentCache = new AttachmentCache(context);
         LastSyncUtil.init(context.getApplicationContext());
     }
 
@@ -123,6 +146,7 @@ public class SyncRepository extends BaseRepository {
         super(context, connectivityUtil, databaseAdapter, executor);
         this.serverAdapter = serverAdapter;
         this.syncHelperFactory = syncHelperFactory;
+        this.attachmentCache = new AttachmentCache(context);
         LastSyncUtil.init(context.getApplicationContext());
     }
 
@@ -133,18 +157,45 @@ public class SyncRepository extends BaseRepository {
 
     @AnyThread
     public LiveData<Pair<Integer, Integer>> synchronize(@NonNull ResponseCallback<Boolean> responseCallback) {
+        return synchronize(responseCallback, false);
+    }
+
+    /**
+     * @param deferHeavyWork skips network heavy parts like comments and projects. The next not deferred synchronization starts from the last one which
+     *                       did not defer them, so it catches up with everything which has been skipped.
+     */
+    @AnyThread
+    public LiveData<Pair<Integer, Integer>> synchronize(@NonNull ResponseCallback<Boolean> responseCallback, boolean deferHeavyWork) {
+        return synchronize(responseCallback, deferHeavyWork, false);
+    }
+
+    /**
+     * @param deferHeavyWork skips network heavy parts like comments and projects. The next not deferred synchronization starts from the last one which
+     *                       did not defer them, so it catches up with everything which has been skipped.
+     * @param resumable      checkpoints completed boards and stacks. If this synchronization gets interrupted, the next resumable one skips them
+     *                       for a while instead of fetching everything again. The checkpoints are cleared once a synchronization completed.
+     */
+    @AnyThread
+    public LiveData<Pair<Integer, Integer>> synchronize(@NonNull ResponseCallback<Boolean> responseCallback, boolean deferHeavyWork, boolean resumable) {
         final var progress$ = new MutableLiveData<Pair<Integer, Integer>>();
         final var callbackAccount = responseCallback.getAccount();
         final long callbackAccountId = callbackAccount.getId();
 
         executor.submit(() -> {
-            refreshCapabilities(new ResponseCallback<>(responseCallback.getAccount()) {
+            final var capabilitiesCallback = new ResponseCallback<Capabilities>(responseCallback.getAccount()) {
                 @Override
                 public void onResponse(Capabilities response, Headers headers) {
                     if (response != null && !response.isMaintenanceEnabled()) {
                         if (response.getDeckVersion().isSupported()) {
-                            final var lastSyncDate = LastSyncUtil.getLastSyncDate(callbackAccountId);
+                            // Cards which changed while heavy work was deferred still miss their comments and projects
+                            final var lastSyncDate = deferHeavyWork
+                                    ? LastSyncUtil.getLastSyncDate(callbackAccountId)
+                                    : LastSyncUtil.getLastHeavySyncDate(callbackAccountId);
                             final var syncHelper = syncHelperFactory.create(serverAdapter, dataBaseAdapter, lastSyncDate);
+                            syncHelper.setHeavyWorkDeferred(deferHeavyWork);
+                            syncHelper.setResumable(resumable);
+                            final boolean fullCommentSync = !deferHeavyWork && LastSyncUtil.getLastFullCommentSyncDate(callbackAccountId).isBefore(Instant.now().minus(FULL_COMMENT_SYNC_INTERVAL));
+                            syncHelper.setFullCommentSync(fullCommentSync);
 
                             final var callback = new ResponseCallback<Boolean>(callbackAccount) {
                                 @Override
@@ -152,7 +203,13 @@ public class SyncRepository extends BaseRepository {
                                     syncHelper.setResponseCallback(new ResponseCallback<>(account) {
                                         @Override
                                         public void onResponse(Boolean response, Headers headers) {
-                                            LastSyncUtil.setLastSyncDate(callbackAccountId, Instant.now());
+                                            LastSyncUtil.setLastSyncDate(callbackAccountId, syncHelper.getNextLastSyncDate(Instant.now()), !deferHeavyWork);
+                                            if (!deferHeavyWork) {
+                                                if (fullCommentSync) {
+                                                    LastSyncUtil.setLastFullCommentSyncDate(callbackAccountId, Instant.now());
+                                                }
+                                                dataBaseAdapter.deleteSyncCheckpoints(callbackAccountId);
+                                            }
                                             responseCallback.onResponse(response, headers);
                                         }
 
@@ -205,7 +262,29 @@ public class SyncRepository extends BaseRepository {
                 public void onError(Throwable throwable) {
                     responseCallback.onError(throwable);
                 }
-            });
+            };
+
+            final var capabilitiesCache = CapabilitiesCache.forAccount(callbackAccountId);
+            final var persistedAccount = dataBaseAdapter.getAccountByIdDirectly(callbackAccountId);
+            if (persistedAccount == null || !CapabilitiesCache.isUsable(persistedAccount)) {
+                refreshCapabilities(capabilitiesCallback);
+            } else {
+                callbackAccount.setServerDeckVersion(persistedAccount.getServerDeckVersion());
+                if (capabilitiesCache.isFresh()) {
+                    DeckLog.verbose("Capabilities of", persistedAccount.getName(), "are fresh, starting synchronization right away");
+                } else {
+                    DeckLog.verbose("Revalidating capabilities of", persistedAccount.getName(), "while synchronizing");
+                    refreshCapabilities(new ResponseCallback<>(persistedAccount) {
+                        @Override
+                        public void onResponse(Capabilities response, Headers headers) {
+                            if (response == null || response.isMaintenanceEnabled() || !response.getDeckVersion().isSupported()) {
+                                DeckLog.warn("Capabilities of", account.getName(), "changed during synchronization, the next synchronization will check them again");
+                            }
+                        }
+                    });
+                }
+                capabilitiesCallback.onResponse(CapabilitiesCache.fromAccount(persistedAccount), IResponseCallback.EMPTY_HEADERS);
+            }
         });
         return progress$;
     }
@@ -224,21 +303,52 @@ public class SyncRepository extends BaseRepository {
         });
     }
 
+    /**
+     * Refreshes only the given {@link Card} and its relations with a single request instead of synchronizing the whole stack.
+     */
     @AnyThread
     public void synchronizeCard(@NonNull ResponseCallback<Boolean> responseCallback, @NonNull Card card) {
         executor.submit(() -> {
-            FullStack stack = dataBaseAdapter.getFullStackByLocalIdDirectly(card.getStackId());
-            Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getStack().getBoardId());
-            try {
-                syncHelperFactory.create(serverAdapter, dataBaseAdapter, null)
-                        .setResponseCallback(responseCallback)
-                        .doSyncFor(new CardDataProvider(null, board, stack));
-            } catch (OfflineException e) {
-                responseCallback.onError(e);
+            final Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(card.getStackId());
+            final Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getBoardId());
+            if (card.getId() == null || stack.getId() == null || board.getId() == null) {
+                // Not yet known to the server, nothing to fetch
+                responseCallback.onResponse(Boolean.FALSE, IResponseCallback.EMPTY_HEADERS);
+                return;
             }
+            synchronizeCard(responseCallback, board, stack.getId(), card.getId());
         });
     }
 
+    /**
+     * Fetches a single {@link Card} by its remote ID, for example when it is referenced by a push notification.
+     * The card does not need to be known locally, but its {@link Board} and {@link Stack} do.
+     */
+    @AnyThread
+    public void synchronizeCard(@NonNull ResponseCallback<Boolean> responseCallback, long boardRemoteId, long cardRemoteId) {
+        executor.submit(() -> {
+            final long accountId = responseCallback.getAccount().getId();
+            final Board board = dataBaseAdapter.getBoardByRemoteIdDirectly(accountId, boardRemoteId);
+            final Stack stack = board == null ? null : dataBaseAdapter.getFirstRemoteStackForBoardDirectly(accountId, board.getLocalId());
+            if (stack == null) {
+                responseCallback.onError(new DeckException(DeckException.Hint.DEPENDENCY_NOT_SYNCED_YET, "Board with remote ID " + boardRemoteId + " is not synced yet."));
+                return;
+            }
+            synchronizeCard(responseCallback, board, stack.getId(), cardRemoteId);
+        });
+    }
+
+    @WorkerThread
+    private void synchronizeCard(@NonNull ResponseCallback<Boolean> responseCallback, @NonNull Board board, long stackRemoteId, long cardRemoteId) {
+        try {
+            syncHelperFactory.create(serverAdapter, dataBaseAdapter, null)
+                    .setResponseCallback(responseCallback)
+                    .doSyncFor(new SingleCardDownSyncDataProvider(null, board, stackRemoteId, cardRemoteId));
+        } catch (OfflineException e) {
+            responseCallback.onError(e);
+        }
+    }
+
 //    private <T extends AbstractRemoteEntity> T applyUpdatesFromRemote(T localEntity, T remoteEntity, Long accountId) {
 //        if (!localEntity.getId().equals(remoteEntity.getId())
 //                || !accountId.equals(localEntity.getAccountId())) {
@@ -282,17 +392,38 @@ public class SyncRepository extends BaseRepository {
         return liveData;
     }
 
+    /**
+     * Requests the {@link Capabilities} using the persisted ETag and only writes the {@link Account} back if anything changed.
+     */
     @AnyThread
     public Future<?> refreshCapabilities(@NonNull ResponseCallback<Capabilities> callback) {
         return executor.submit(() -> {
+            final var capabilitiesCache = CapabilitiesCache.forAccount(callback.getAccount().getId());
             try {
                 Account accountForEtag = dataBaseAdapter.getAccountByIdDirectly(callback.getAccount().getId());
                 serverAdapter.getCapabilities(accountForEtag.getEtag(), new ResponseCallback<>(callback.getAccount()) {
                     @Override
                     public void onResponse(Capabilities response, Headers headers) {
-                        Account acc = dataBaseAdapter.getAccountByIdDirectly(account.getId());
+                        // Read again because the account might have been changed meanwhile, e.g. by a parallel synchronization
+                        final Account acc = dataBaseAdapter.getAccountByIdDirectly(account.getId());
+                        final String previousEtag = acc.getEtag();
+                        final String previousDeckVersion = acc.getServerDeckVersion();
+                        final boolean previousMaintenanceEnabled = acc.isMaintenanceEnabled();
+                        final Integer previousColor = acc.getColor();
+                        final Integer previousTextColor = acc.getTextColor();
                         acc.applyCapabilities(response, headers.get("ETag"));
-                        dataBaseAdapter.updateAccount(acc);
+                        if (!Objects.equals(previousEtag, acc.getEtag())
+                                || !previousDeckVersion.equals(acc.getServerDeckVersion())
+                                || previousMaintenanceEnabled != acc.isMaintenanceEnabled()
+                                || !previousColor.equals(acc.getColor())
+                                || !previousTextColor.equals(acc.getTextColor())) {
+                            dataBaseAdapter.updateAccount(acc);
+                        }
+                        if (acc.isMaintenanceEnabled()) {
+                            capabilitiesCache.invalidate();
+                        } else {
+                            capabilitiesCache.markValidated();
+                        }
                         callback.getAccount().setServerDeckVersion(acc.getServerDeckVersion());
                         callback.onResponse(response, headers);
                     }
@@ -300,6 +431,7 @@ public class SyncRepository extends BaseRepository {
                     @SuppressLint("MissingSuperCall")
                     @Override
                     public void onError(Throwable throwable) {
+                        capabilitiesCache.invalidate();
                         if (throwable instanceof NextcloudHttpRequestFailedException requestFailedException) {
                             DeckLog.verbose("HTTP Status " + requestFailedException.getStatusCode());
                             if (requestFailedException.getStatusCode() == HTTP_UNAVAILABLE && requestFailedException.getCause() != null) {
@@ -315,6 +447,7 @@ public class SyncRepository extends BaseRepository {
                             } else if (requestFailedException.getStatusCode() == HTTP_NOT_MODIFIED) {
                                 DeckLog.verbose("HTTP Status", HTTP_NOT_MODIFIED + ": There haven't been any changes on the server side for this request.");
                                 // could be after maintenance. so we have to at least revert the maintenance flag
+                                capabilitiesCache.markValidated();
                                 executor.submit(() -> {
                                     final Account acc = dataBaseAdapter.getAccountByIdDirectly(account.getId());
                                     if (acc.isMaintenanceEnabled()) {
@@ -1316,39 +1449,34 @@ public class SyncRepository extends BaseRepository {
         });
     }
 
+    /**
+     * Fetches {@link User}s matching the <code>constraint</code> from the server unless they can be answered by the {@link UserDirectoryCache}
+     */
     public void triggerUserSearch(@NonNull Account account, @NonNull String constraint) {
-        executor.submit(() -> serverAdapter.searchUser(constraint, new ResponseCallback<>(account) {
-            @Override
-            public void onResponse(OcsUserList response, Headers headers) {
-                if (response == null || response.getUsers().isEmpty()) {
-                    return;
-                }
-                for (var user : response.getUsers()) {
-                    final var existingUser = dataBaseAdapter.getUserByUidDirectly(account.getId(), user.getId());
-                    if (existingUser == null) {
-                        User newUser = new User();
-                        newUser.setStatus(DBStatus.UP_TO_DATE.getId());
-                        newUser.setPrimaryKey(user.getId());
-                        newUser.setUid(user.getId());
-                        newUser.setDisplayname(user.getDisplayName());
-                        dataBaseAdapter.createUser(account.getId(), newUser);
-                    }
-                }
-            }
-
-            @Override
-            public void onError(Throwable throwable) {
-                super.onError(throwable);
-            }
-        }));
+        final var cache = UserDirectoryCache.forAccount(account.getId());
+        if (cache.isCached(constraint)) {
+            DeckLog.verbose("Users matching", constraint, "are already known");
+            return;
+        }
+        cache.search(serverAdapter, account, constraint)
+                .thenAcceptAsync(users -> dataBaseAdapter.createUsersIfNotExistingDirectly(account.getId(), users.stream()
+                        .map(UserDirectoryCache::toUser)
+                        .collect(toList())), executor)
+                .exceptionally(throwable -> {
+                    DeckLog.verbose("Searching users matching", constraint, "failed:", throwable.getMessage());
+                    return null;
+                });
     }
 
     /**
+     * Applies the reordering locally right away and propagates it coalesced with further reorderings using a {@link CardReorderSession}.
+     *
      * @see <a href="https://github.com/stefan-niedermann/nextcloud-deck/issues/360">reenable reorder</a>
      */
     @AnyThread
     public void reorder(long accountId, @NonNull FullCard movedCard, long newStackId, int newIndex) {
         executor.submit(() -> {
+            final DBStatus statusBeforeReorder = movedCard.getCard().getStatusEnum();
             // read cards of new stack
             List<FullCard> cardsOfNewStack = dataBaseAdapter.getFullCardsForStackDirectly(accountId, newStackId, null);
             int newOrder = newIndex;
@@ -1376,61 +1504,33 @@ public class SyncRepository extends BaseRepository {
                     // we need to fix the order.
                     cardsOfNewStack.remove(movedCard);
                     cardsOfNewStack.add(newIndex, movedCard);
+                    final Instant now = Instant.now();
+                    final List<Card> cardsToFix = new ArrayList<>(cardsOfNewStack.size());
                     for (int i = 0; i < cardsOfNewStack.size(); i++) {
                         Card card = cardsOfNewStack.get(i).getCard();
                         card.setOrder(i);
-                        dataBaseAdapter.updateCard(card, true);
+                        card.setStatusEnum(DBStatus.LOCAL_EDITED);
+                        card.setLastModifiedLocal(now);
+                        cardsToFix.add(card);
                     }
-
+                    dataBaseAdapter.updateCardsDirectly(cardsToFix);
                 }
             }
 
-//            if (connectivityUtil.hasInternetConnection()){
-//                // call reorder
-//                Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(movedCard.getCard().getStackId());
-//                Stack newStack = newStackId == stack.getLocalId() ? stack :  dataBaseAdapter.getStackByLocalIdDirectly(newStackId);
-//                Board board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getBoardId());
-//                Account account = dataBaseAdapter.getAccountByIdDirectly(movedCard.getCard().getAccountId());
-//                movedCard.getCard().setStackId(newStackId);
-//                movedCard.getCard().setOrder(newOrder);
-//                movedCard.setStatusEnum(DBStatus.LOCAL_MOVED);
-//                dataBaseAdapter.updateCard(movedCard.getCard(), false);
-//                serverAdapter.reorder(board.getId(), stack.getId(), movedCard.getId(), newStack.getId(), newOrder+1, new IResponseCallback<List<FullCard>>(account){
-//
-//                    @Override
-//                    public void onResponse(List<FullCard> response) {
-//                        for (FullCard fullCard : response) {
-//                            Card card = fullCard.getCard();
-//                            card.setAccountId(accountId);
-//                            card.setStackId(dataBaseAdapter.getLocalStackIdByRemoteStackIdDirectly(accountId, card.getStackId()));
-//                            card.setStatusEnum(DBStatus.UP_TO_DATE);
-//                            dataBaseAdapter.updateCard(card, false);
-//                            DeckLog.log("move: stackid "+card.getStackId());
-//                        }
-//                        movedCard.setStatusEnum(DBStatus.UP_TO_DATE);
-//                        dataBaseAdapter.updateCard(movedCard.getCard(), false);
-//                    }
-//                });
-//            } else {
             if (orderIsCorrect) {
                 reorderLocally(cardsOfNewStack, movedCard, newStackId, newOrder);
             }
-            //FIXME: remove the sync-block, when commentblock up there is activated. (waiting for deck server bugfix)
-            if (connectivityUtil.hasInternetConnection()) {
-                Stack stack = dataBaseAdapter.getStackByLocalIdDirectly(movedCard.getCard().getStackId());
-                FullBoard board = dataBaseAdapter.getFullBoardByLocalIdDirectly(accountId, stack.getBoardId());
-                Account account = dataBaseAdapter.getAccountByIdDirectly(movedCard.getCard().getAccountId());
-                syncHelperFactory.create(serverAdapter, dataBaseAdapter, Instant.now()).setResponseCallback(new ResponseCallback<>(account) {
-                    @Override
-                    public void onResponse(Boolean response, Headers headers) {
-                        // doNothing();
-                    }
-                }).doUpSyncFor(new StackDataProvider(null, board));
-            }
-//        }
+            getReorderSession(accountId).enqueue(movedCard.getCard(), statusBeforeReorder, newIndex);
         });
     }
 
+    @WorkerThread
+    private synchronized CardReorderSession getReorderSession(long accountId) {
+        if (reorderSession == null) {
+            reorderSession = new CardReorderSession(serverAdapter, dataBaseAdapter, executor, dataBaseAdapter.getAccountByIdDirectly(accountId));
+        }
+        return reorderSession;
+    }
 
     /**
      * FIXME clean up on error
@@ -1451,11 +1551,107 @@ public class SyncRepository extends BaseRepository {
             Account account = dataBaseAdapter.getAccountByIdDirectly(card.getAccountId());
             new DataPropagationHelper(serverAdapter, dataBaseAdapter, executor).createEntity(
                     new AttachmentDataProvider(null, board, stack, card, Collections.singletonList(attachment)),
-                    attachment, ResponseCallback.from(account, callback)
+                    attachment, new ResponseCallback<>(account) {
+                        @Override
+                        public void onResponse(Attachment response, Headers headers) {
+                            if (response != null && (response.getId() != null || response.getFileId() != null)) {
+                                try {
+                                    // The uploaded file is already locally available, no need to download it again
+                                    attachmentCache.put(accountId, response, file);
+                                    if (!file.delete()) {
+                                        DeckLog.warn("Could not delete temporary file", file.getAbsolutePath());
+                                    }
+                                } catch (IOException e) {
+                                    DeckLog.logError(e);
+                                }
+                            }
+                            callback.onResponse(response, headers);
+                        }
+
+                        @SuppressLint("MissingSuperCall")
+                        @Override
+                        public void onError(Throwable throwable) {
+                            // Attachments which have been stored locally get uploaded on the next synchronization and still need the file
+                            if (attachment.getLocalId() == null && !file.delete()) {
+                                DeckLog.warn("Could not delete temporary file", file.getAbsolutePath());
+                            }
+                            callback.onError(throwable);
+                        }
+                    }
             );
         });
     }
 
+    /**
+     * Serves the content of the given {@link Attachment} from the {@link AttachmentCache} and only downloads it in case the current version is not yet cached.
+     */
+    @AnyThread
+    public void downloadAttachment(long accountId, long localCardId, @NonNull Attachment attachment, @NonNull IResponseCallback<File> callback) {
+        executor.submit(() -> {
+            final var cachedFile = attachmentCache.get(accountId, attachment);
+            if (cachedFile.isPresent()) {
+                callback.onResponse(cachedFile.get(), IResponseCallback.EMPTY_HEADERS);
+                return;
+            }
+
+            final var card = dataBaseAdapter.getFullCardByLocalIdDirectly(accountId, localCardId);
+            final var stack = dataBaseAdapter.getStackByLocalIdDirectly(card.getCard().getStackId());
+            final var board = dataBaseAdapter.getBoardByLocalIdDirectly(stack.getBoardId());
+            final var account = dataBaseAdapter.getAccountByIdDirectly(accountId);
+            if (attachment.getId() == null || card.getCard().getId() == null) {
+                callback.onError(new IllegalArgumentException("Attachment has not been synchronized yet."));
+                return;
+            }
+
+            serverAdapter.downloadAttachment(board.getId(), stack.getId(), card.getCard().getId(), attachment.getId(), new ResponseCallback<>(account) {
+                @Override
+                public void onResponse(ResponseBody response, Headers headers) {
+                    try (response) {
+                        callback.onResponse(attachmentCache.put(accountId, attachment, response.byteStream()), headers);
+                    } catch (IOException e) {
+                        callback.onError(e);
+                    }
+                }
+
+                @SuppressLint("MissingSuperCall")
+                @Override
+                public void onError(Throwable throwable) {
+                    callback.onError(throwable);
+                }
+            });
+        });
+    }
+
+    /**
+     * @return whether all synchronized {@link Attachment}s of the given card are pinned in the {@link AttachmentCache}
+     */
+    @AnyThread
+    public boolean isCardAvailableOffline(@NonNull FullCard fullCard) {
+        final var attachments = fullCard.getAttachments().stream()
+                .filter(attachment -> attachment.getId() != null)
+                .collect(Collectors.toList());
+        return !attachments.isEmpty() && attachments.stream().allMatch(attachment -> attachmentCache.isPinned(fullCard.getAccountId(), attachment));
+    }
+
+    /**
+     * Pinned cards keep all their {@link Attachment}s in the {@link AttachmentCache} so they are available while being offline.
+     */
+    @AnyThread
+    public void setCardAvailableOffline(long accountId, long localCardId, boolean availableOffline) {
+        executor.submit(() -> {
+            final var attachments = dataBaseAdapter.getFullCardByLocalIdDirectly(accountId, localCardId).getAttachments();
+            for (final var attachment : attachments) {
+                attachmentCache.setPinned(accountId, attachment, availableOffline);
+                if (availableOffline) {
+                    downloadAttachment(accountId, localCardId, attachment, IResponseCallback.empty());
+                }
+            }
+            if (!availableOffline) {
+                attachmentCache.trimToSize();
+            }
+        });
+    }
+
     @AnyThread
     public LiveData<Attachment> updateAttachmentForCard(long accountId, @NonNull Attachment existing, @NonNull String mimeType, @NonNull File file) {
         final var liveData = new MutableLiveData<Attachment>();
@@ -152,11 +152,13 @@ public class ImportAccountActivity extends AppCompatActivity {
                                                         final var callback = new IResponseCallback<>() {
                                                             @Override
                                                             public void onResponse(Object response, Headers headers) {
+                                                                // Comments and projects require one request per card and get downloaded in the background afterwards
                                                                 var progress$ = syncManager.synchronize(new ResponseCallback<>(account) {
                                                                     @Override
                                                                     public void onResponse(Boolean response, Headers headers) {
                                                                         restoreWifiPref();
                                                                         SyncWorker.update(getApplicationContext());
+                                                                        SyncWorker.scheduleImportCompletion(getApplicationContext(), account.getId());
                                                                         importAccountViewModel.saveCurrentAccount(account);
                                                                         setResult(RESULT_OK);
                                                                         finish();
@@ -169,7 +171,7 @@ public class ImportAccountActivity extends AppCompatActivity {
                                                                         runOnUiThread(() -> ExceptionDialogFragment.newInstance(throwable, createdAccount).show(getSupportFragmentManager(), ExceptionDialogFragment.class.getSimpleName()));
                                                                         rollbackAccountCreation(createdAccount.getId());
                                                                     }
-                                                                });
+                                                                }, true);
 
                                                                 runOnUiThread(() -> progress$.observe(ImportAccountActivity.this, (progress) -> {
                                                                     DeckLog.log("New progress value", progress.first, progress.second);
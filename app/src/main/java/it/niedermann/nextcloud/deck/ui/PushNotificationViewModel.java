@@ -89,35 +89,64 @@ public class PushNotificationViewModel extends BaseViewModel {
                     }
                 }, card.get());
             } else {
-                syncManager.synchronize(new ResponseCallback<>(account) {
-                    @Override
-                    public void onResponse(Boolean response, Headers headers) {
-                        final var card = syncManager.getCardByRemoteIDDirectly(account.getId(), cardRemoteId);
-                        if (card.isPresent()) {
+                final var boardRemoteId = extractBoardRemoteId(bundle);
+                if (boardRemoteId.isPresent()) {
+                    // Try to fetch only the unknown card before falling back to a full synchronization
+                    syncManager.synchronizeCard(new ResponseCallback<>(account) {
+                        @Override
+                        public void onResponse(Boolean response, Headers headers) {
+                            final var card = syncManager.getCardByRemoteIDDirectly(account.getId(), cardRemoteId);
                             final var boardLocalId = extractBoardLocalId(syncManager, account.getId(), cardRemoteId);
-                            if (boardLocalId.isPresent()) {
+                            if (card.isPresent() && boardLocalId.isPresent()) {
                                 callback.onResponse(new CardInformation(account, boardLocalId.get(), card.get().getLocalId()), headers);
                             } else {
-                                DeckLog.wtf("Card with local ID", card.get().getLocalId(), "and remote ID", card.get().getId(), "is present, but could not find board for it.");
-                                publishErrorToCallback("Could not find board locally for card with remote ID" + cardRemoteId + "even after full synchronization", null, callback, bundle);
+                                synchronizeFully(syncManager, account, cardRemoteId, callback, bundle);
                             }
-                        } else {
-                            publishErrorToCallback("Could not find card with remote ID" + cardRemoteId + "even after full synchronization", null, callback, bundle);
                         }
-                    }
 
-                    @Override
-                    @SuppressLint("MissingSuperCall")
-                    public void onError(Throwable throwable) {
-                        publishErrorToCallback("Could not extract boardRemoteId", null, callback, bundle);
-                    }
-                });
+                        @SuppressLint("MissingSuperCall")
+                        @Override
+                        public void onError(Throwable throwable) {
+                            DeckLog.info("Could not fetch single card with remote ID", cardRemoteId, "- falling back to full synchronization:", throwable.getMessage());
+                            synchronizeFully(syncManager, account, cardRemoteId, callback, bundle);
+                        }
+                    }, boardRemoteId.get(), cardRemoteId);
+                } else {
+                    synchronizeFully(syncManager, account, cardRemoteId, callback, bundle);
+                }
             }
         } catch (Throwable throwable) {
             publishErrorToCallback("", throwable, callback, bundle);
         }
     }
 
+    @WorkerThread
+    private void synchronizeFully(@NonNull SyncRepository syncManager, @NonNull Account account, long cardRemoteId, @NonNull PushNotificationCallback callback, @NonNull Bundle bundle) {
+        syncManager.synchronize(new ResponseCallback<>(account) {
+            @Override
+            public void onResponse(Boolean response, Headers headers) {
+                final var card = syncManager.getCardByRemoteIDDirectly(account.getId(), cardRemoteId);
+                if (card.isPresent()) {
+                    final var boardLocalId = extractBoardLocalId(syncManager, account.getId(), cardRemoteId);
+                    if (boardLocalId.isPresent()) {
+                        callback.onResponse(new CardInformation(account, boardLocalId.get(), card.get().getLocalId()), headers);
+                    } else {
+                        DeckLog.wtf("Card with local ID", card.get().getLocalId(), "and remote ID", card.get().getId(), "is present, but could not find board for it.");
+                        publishErrorToCallback("Could not find board locally for card with remote ID" + cardRemoteId + "even after full synchronization", null, callback, bundle);
+                    }
+                } else {
+                    publishErrorToCallback("Could not find card with remote ID" + cardRemoteId + "even after full synchronization", null, callback, bundle);
+                }
+            }
+
+            @Override
+            @SuppressLint("MissingSuperCall")
+            public void onError(Throwable throwable) {
+                publishErrorToCallback("Could not extract boardRemoteId", null, callback, bundle);
+            }
+        });
+    }
+
     /**
      * If a browser fallback is possible, {@link PushNotificationCallback#fallbackToBrowser(Uri)}
      * will be invoked, otherwise {@link PushNotificationCallback#onError(Throwable)}.
@@ -193,6 +222,18 @@ public class PushNotificationViewModel extends BaseViewModel {
         }
     }
 
+    private Optional<Long> extractBoardRemoteId(@NonNull Bundle bundle) {
+        try {
+            final long[] ids = ProjectUtil.extractBoardIdAndCardIdFromUrl(bundle.getString(KEY_LINK));
+            return ids.length > 0
+                    ? Optional.of(ids[0])
+                    : Optional.empty();
+        } catch (IllegalArgumentException iae) {
+            DeckLog.warn(iae);
+            return Optional.empty();
+        }
+    }
+
     private Optional<Account> extractAccount(@NonNull Bundle bundle) {
         return Optional.ofNullable(baseRepository.readAccountDirectly(bundle.getString(KEY_ACCOUNT)));
     }
@@ -12,6 +12,7 @@ import androidx.annotation.Nullable;
 
 import com.google.android.material.card.MaterialCardView;
 
+import java.util.Collections;
 import java.util.List;
 
 import it.niedermann.nextcloud.deck.databinding.ItemCardCompactBinding;
@@ -43,10 +44,10 @@ public class CompactCardViewHolder extends AbstractCardViewHolder {
 
         final List<Label> labels = fullCard.getLabels();
         if (labels != null && labels.size() > 0) {
-            binding.labels.updateLabels(labels);
+            binding.labels.setLabels(labels);
             binding.labels.setVisibility(View.VISIBLE);
         } else {
-            binding.labels.removeAllViews();
+            binding.labels.setLabels(Collections.emptyList());
             binding.labels.setVisibility(View.GONE);
         }
     }
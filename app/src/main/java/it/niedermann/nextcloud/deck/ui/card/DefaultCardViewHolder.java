@@ -15,6 +15,7 @@ import androidx.core.content.ContextCompat;
 import com.google.android.material.card.MaterialCardView;
 import com.nextcloud.android.common.ui.theme.utils.ColorRole;
 
+import java.util.Collections;
 import java.util.stream.Stream;
 
 import it.niedermann.nextcloud.deck.R;
@@ -45,10 +46,11 @@ public class DefaultCardViewHolder extends AbstractCardViewHolder {
         final var context = itemView.getContext();
 
         if (fullCard.getAssignedUsers() != null && fullCard.getAssignedUsers().size() > 0) {
-            binding.overlappingAvatars.setAvatars(account, fullCard.getAssignedUsers());
-            binding.overlappingAvatars.setVisibility(View.VISIBLE);
+            binding.assignees.setAssignees(account, fullCard.getAssignedUsers());
+            binding.assignees.setVisibility(View.VISIBLE);
         } else {
-            binding.overlappingAvatars.setVisibility(View.GONE);
+            binding.assignees.setAssignees(account, Collections.emptyList());
+            binding.assignees.setVisibility(View.GONE);
         }
 
         setupCoverImages(account, binding.coverImages, fullCard, maxCoverImagesCount);
@@ -72,10 +74,10 @@ public class DefaultCardViewHolder extends AbstractCardViewHolder {
 
         final var labels = fullCard.getLabels();
         if (labels != null && labels.size() > 0) {
-            binding.labels.updateLabels(labels);
+            binding.labels.setLabels(labels);
             binding.labels.setVisibility(View.VISIBLE);
         } else {
-            binding.labels.removeAllViews();
+            binding.labels.setLabels(Collections.emptyList());
             binding.labels.setVisibility(View.GONE);
         }
 
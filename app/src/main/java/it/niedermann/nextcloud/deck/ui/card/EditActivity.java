@@ -160,16 +160,21 @@ public class EditActivity extends AppCompatActivity {
 
     @Override
     public boolean onCreateOptionsMenu(@NonNull Menu menu) {
-        if (viewModel.canEdit()) {
-            getMenuInflater().inflate(R.menu.card_edit_menu, menu);
-            @ColorInt final int color = ContextCompat.getColor(this, R.color.onSurface);
-            final var utils = ThemeUtils.of(color, this);
+        getMenuInflater().inflate(R.menu.card_edit_menu, menu);
+        menu.findItem(R.id.action_card_save).setVisible(viewModel.canEdit());
 
-            for (int i = 0; i < menu.size(); i++) {
-                utils.platform.colorToolbarMenuIcon(this, menu.getItem(i));
-            }
-        } else {
-            menu.clear();
+        // Offline availability does not require edit permissions, but only makes sense for synchronized attachments
+        final var fullCard = viewModel.getFullCard();
+        final boolean hasSyncedAttachments = fullCard != null && fullCard.getAttachments().stream().anyMatch(attachment -> attachment.getId() != null);
+        menu.findItem(R.id.action_card_available_offline)
+                .setVisible(hasSyncedAttachments)
+                .setChecked(hasSyncedAttachments && viewModel.isCardAvailableOffline());
+
+        @ColorInt final int color = ContextCompat.getColor(this, R.color.onSurface);
+        final var utils = ThemeUtils.of(color, this);
+
+        for (int i = 0; i < menu.size(); i++) {
+            utils.platform.colorToolbarMenuIcon(this, menu.getItem(i));
         }
         return super.onCreateOptionsMenu(menu);
     }
@@ -178,6 +183,10 @@ public class EditActivity extends AppCompatActivity {
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == R.id.action_card_save) {
             saveAndFinish();
+        } else if (item.getItemId() == R.id.action_card_available_offline) {
+            item.setChecked(!item.isChecked());
+            viewModel.setCardAvailableOffline(item.isChecked());
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
@@ -211,6 +211,18 @@ public class EditCardViewModel extends BaseViewModel {
         syncRepository.addAttachmentToCard(accountId, localCardId, mimeType, file, callback);
     }
 
+    public void downloadAttachment(long accountId, long localCardId, @NonNull Attachment attachment, @NonNull IResponseCallback<File> callback) {
+        syncRepository.downloadAttachment(accountId, localCardId, attachment, callback);
+    }
+
+    public boolean isCardAvailableOffline() {
+        return syncRepository.isCardAvailableOffline(getFullCard());
+    }
+
+    public void setCardAvailableOffline(boolean availableOffline) {
+        syncRepository.setCardAvailableOffline(account.getId(), getFullCard().getLocalId(), availableOffline);
+    }
+
     public void deleteAttachmentOfCard(long accountId, long localCardId, long localAttachmentId, @NonNull IResponseCallback<EmptyResponse> callback) {
         syncRepository.deleteAttachmentOfCard(accountId, localCardId, localAttachmentId, callback);
     }
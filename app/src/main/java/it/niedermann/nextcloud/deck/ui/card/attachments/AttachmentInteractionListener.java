@@ -2,8 +2,12 @@ package it.niedermann.nextcloud.deck.ui.card.attachments;
 
 import androidx.annotation.NonNull;
 
+import it.niedermann.nextcloud.deck.model.Attachment;
+
 public interface AttachmentInteractionListener {
     void onAttachmentClicked(int position);
 
     void onAppendToDescription(@NonNull String content);
+
+    void onOpenAttachment(@NonNull Attachment attachment);
 }
\ No newline at end of file
@@ -6,13 +6,14 @@ import static com.google.android.material.bottomsheet.BottomSheetBehavior.STATE_
 import static com.google.android.material.bottomsheet.BottomSheetBehavior.STATE_HIDDEN;
 import static java.net.HttpURLConnection.HTTP_CONFLICT;
 import static it.niedermann.nextcloud.deck.ui.card.attachments.CardAttachmentAdapter.VIEW_TYPE_IMAGE;
+import static it.niedermann.nextcloud.deck.util.AttachmentUtil.generateOpenCachedAttachmentIntent;
+import static it.niedermann.nextcloud.deck.util.AttachmentUtil.generateOpenRemoteAttachmentIntent;
 import static it.niedermann.nextcloud.deck.util.FilesUtil.copyContentUriToTempFile;
 
 import android.Manifest;
 import android.content.ActivityNotFoundException;
 import android.content.ContentResolver;
 import android.content.Intent;
-import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 import android.text.TextUtils;
@@ -25,10 +26,10 @@ import android.widget.Toast;
 import androidx.activity.OnBackPressedCallback;
 import androidx.activity.result.PickVisualMediaRequest;
 import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.AnyThread;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.SharedElementCallback;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
@@ -54,10 +55,6 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
-import id.zelory.compressor.constraint.FormatConstraint;
-import id.zelory.compressor.constraint.QualityConstraint;
-import id.zelory.compressor.constraint.ResolutionConstraint;
-import id.zelory.compressor.constraint.SizeConstraint;
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.R;
 import it.niedermann.nextcloud.deck.databinding.FragmentCardEditTabAttachmentsBinding;
@@ -75,7 +72,7 @@ import it.niedermann.nextcloud.deck.ui.exception.ExceptionDialogFragment;
 import it.niedermann.nextcloud.deck.ui.takephoto.TakePhotoActivity;
 import it.niedermann.nextcloud.deck.ui.theme.ThemeUtils;
 import it.niedermann.nextcloud.deck.ui.theme.ThemedSnackbar;
-import it.niedermann.nextcloud.deck.util.JavaCompressor;
+import it.niedermann.nextcloud.deck.util.ImageCompressor;
 import it.niedermann.nextcloud.deck.util.MimeTypeUtil;
 import it.niedermann.nextcloud.deck.util.VCardUtil;
 import okhttp3.Headers;
@@ -314,27 +311,35 @@ public class CardAttachmentsFragment extends Fragment implements AttachmentDelet
     private void uploadNewAttachmentFromUri(@NonNull Uri sourceUri) throws UploadAttachmentFailedException {
         switch (sourceUri.getScheme()) {
             case ContentResolver.SCHEME_CONTENT, ContentResolver.SCHEME_FILE -> {
-                final var mimeType = requireContext().getContentResolver().getType(sourceUri);
+                final var context = requireContext().getApplicationContext();
+                final var mimeType = context.getContentResolver().getType(sourceUri);
+                final long accountId = editViewModel.getAccount().getId();
+                final long localCardId = editViewModel.getFullCard().getLocalId();
                 DeckLog.verbose("--- found content URL", sourceUri.getPath());
                 // Separate Thread required because picked file might not yet be locally available
                 // https://github.com/stefan-niedermann/nextcloud-deck/issues/814
                 executor.submit(() -> {
                     try {
-                        final File originalFile = copyContentUriToTempFile(requireContext(), sourceUri, editViewModel.getAccount().getId(), editViewModel.getFullCard().getLocalId());
-                        requireActivity().runOnUiThread(() -> {
-                            if (compressImagesOnUpload && MimeTypeUtil.isImage(mimeType)) {
-                                try {
-                                    JavaCompressor.compress((AppCompatActivity) requireActivity(), originalFile, (status, file) -> uploadNewAttachmentFromFile(status && file != null ? file : originalFile, mimeType), new ResolutionConstraint(1920, 1920), new SizeConstraint(1_000_000, 10, 10, 10), new FormatConstraint(Bitmap.CompressFormat.JPEG), new QualityConstraint(80));
-                                } catch (Throwable t) {
-                                    DeckLog.logError(t);
-                                    uploadNewAttachmentFromFile(originalFile, mimeType);
-                                }
-                            } else {
-                                uploadNewAttachmentFromFile(originalFile, mimeType);
-                            }
-                        });
+                        final File originalFile = copyContentUriToTempFile(context, sourceUri, accountId, localCardId);
+                        if (compressImagesOnUpload && MimeTypeUtil.isImage(mimeType)) {
+                            // Each picked image gets compressed in parallel and uploaded as soon as it is ready
+                            ImageCompressor.compress(originalFile, 1920, 1920, 1_000_000, 80)
+                                    .exceptionally(throwable -> {
+                                        DeckLog.logError(throwable);
+                                        return originalFile;
+                                    })
+                                    .thenApply(file -> {
+                                        if (file != originalFile && !originalFile.delete()) {
+                                            DeckLog.warn("Could not delete original of compressed image", originalFile.getAbsolutePath());
+                                        }
+                                        return file;
+                                    })
+                                    .thenAccept(file -> uploadNewAttachmentFromFile(file, file == originalFile ? mimeType : "image/jpeg", accountId, localCardId));
+                        } else {
+                            uploadNewAttachmentFromFile(originalFile, mimeType, accountId, localCardId);
+                        }
                     } catch (IOException e) {
-                        requireActivity().runOnUiThread(() -> ExceptionDialogFragment.newInstance(e, editViewModel.getAccount()).show(getChildFragmentManager(), ExceptionDialogFragment.class.getSimpleName()));
+                        runOnUiThreadIfAdded(() -> ExceptionDialogFragment.newInstance(e, editViewModel.getAccount()).show(getChildFragmentManager(), ExceptionDialogFragment.class.getSimpleName()));
                     }
                 });
             }
@@ -343,6 +348,42 @@ public class CardAttachmentsFragment extends Fragment implements AttachmentDelet
         }
     }
 
+    private void runOnUiThreadIfAdded(@NonNull Runnable runnable) {
+        final var activity = getActivity();
+        if (activity != null) {
+            activity.runOnUiThread(() -> {
+                if (isAdded()) {
+                    runnable.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Compressing and copying may take longer than the user stays on this screen. In case this fragment has been detached meanwhile,
+     * the {@param file} gets handed over to the repository directly, which uploads it and takes care of the temporary file.
+     */
+    @AnyThread
+    private void uploadNewAttachmentFromFile(@NonNull File file, String mimeType, long accountId, long localCardId) {
+        final var activity = getActivity();
+        if (activity == null) {
+            uploadNewAttachmentFromFileDetached(file, mimeType, accountId, localCardId);
+        } else {
+            activity.runOnUiThread(() -> {
+                if (isAdded()) {
+                    uploadNewAttachmentFromFile(file, mimeType);
+                } else {
+                    uploadNewAttachmentFromFileDetached(file, mimeType, accountId, localCardId);
+                }
+            });
+        }
+    }
+
+    private void uploadNewAttachmentFromFileDetached(@NonNull File file, String mimeType, long accountId, long localCardId) {
+        DeckLog.info("Fragment has been detached while preparing", file.getName(), "- uploading it in the background");
+        editViewModel.addAttachmentToCard(accountId, localCardId, mimeType, file, IResponseCallback.empty());
+    }
+
     private void uploadNewAttachmentFromFile(@NonNull File fileToUpload, String mimeType) {
         final int color = editViewModel.getAccount().getColor();
         for (final var existingAttachment : editViewModel.getFullCard().getAttachments()) {
@@ -417,6 +458,41 @@ public class CardAttachmentsFragment extends Fragment implements AttachmentDelet
         this.clickedItemPosition = position;
     }
 
+    /**
+     * Opens the cached copy of the {@param attachment} and downloads it into the cache first if necessary.
+     * Falls back to the Nextcloud Files app or the browser if it can not be downloaded or no app can open the cached copy.
+     */
+    @Override
+    public void onOpenAttachment(@NonNull Attachment attachment) {
+        final var context = requireContext();
+        final var account = editViewModel.getAccount();
+        final var cardRemoteId = editViewModel.getFullCard().getId();
+        final var cachedIntent = generateOpenCachedAttachmentIntent(context, account, attachment);
+        if (cachedIntent.isPresent()) {
+            startActivity(cachedIntent.get());
+        } else if (attachment.getId() == null) {
+            Toast.makeText(context, R.string.attachment_does_not_yet_exist, Toast.LENGTH_LONG).show();
+        } else {
+            editViewModel.downloadAttachment(account.getId(), editViewModel.getFullCard().getLocalId(), attachment, new IResponseCallback<>() {
+                @Override
+                public void onResponse(File response, Headers headers) {
+                    runOnUiThreadIfAdded(() -> generateOpenCachedAttachmentIntent(requireContext(), account, attachment)
+                            .or(() -> generateOpenRemoteAttachmentIntent(account, requireContext(), cardRemoteId, attachment))
+                            .ifPresentOrElse(CardAttachmentsFragment.this::startActivity,
+                                    () -> Toast.makeText(requireContext(), R.string.no_matching_app_installed, Toast.LENGTH_LONG).show()));
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    IResponseCallback.super.onError(throwable);
+                    runOnUiThreadIfAdded(() -> generateOpenRemoteAttachmentIntent(account, requireContext(), cardRemoteId, attachment)
+                            .ifPresentOrElse(CardAttachmentsFragment.this::startActivity,
+                                    () -> ExceptionDialogFragment.newInstance(throwable, account).show(getChildFragmentManager(), ExceptionDialogFragment.class.getSimpleName())));
+                }
+            });
+        }
+    }
+
     @Override
     public void onAppendToDescription(@NonNull String markdown) {
         if (editViewModel.canEdit()) {
@@ -34,6 +34,7 @@ import androidx.core.graphics.drawable.DrawableCompat;
 import androidx.core.splashscreen.SplashScreen;
 import androidx.core.view.GravityCompat;
 import androidx.core.view.ViewCompat;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModelProvider;
@@ -56,6 +57,8 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import it.niedermann.android.crosstabdnd.CrossTabDragAndDrop;
@@ -131,10 +134,16 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
     protected MainViewModel mainViewModel;
     private FilterViewModel filterViewModel;
     private SearchAdapter searchAdapter;
+    /**
+     * Search results of this board are listed first
+     */
     @Nullable
-    private MutableLiveData<SearchResults> searchResults$ = null;
+    private Long searchPreferredBoardLocalId = null;
     private final Observer<SearchResults> searchResultsObserver = results -> {
-        if (results.result.isEmpty()) {
+        if (!binding.searchView.isShowing()) {
+            return;
+        }
+        if (results.isEmpty()) {
             binding.emptyContentViewSearchNoResults.setVisibility(View.VISIBLE);
             binding.emptyContentViewSearchNoTerm.setVisibility(View.GONE);
             binding.searchResults.setVisibility(View.GONE);
@@ -144,7 +153,6 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
         }
         this.searchAdapter.setItems(results);
     };
-    private final ReactiveLiveData<String> searchTerm$ = new ReactiveLiveData<>();
     private StackAdapter stackAdapter;
     private DrawerMenuInflater<MainActivity> drawerMenuInflater;
     private Menu listMenu;
@@ -167,6 +175,22 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
         }
     };
 
+    private final long createdAt = System.currentTimeMillis();
+    private boolean fullyDrawnReported = false;
+    @Nullable
+    private LiveData<Boolean> importPending$;
+    private boolean importPending = false;
+    @Nullable
+    private Long currentBoardLocalId = null;
+    /**
+     * Boards which are being or have been synchronized completely while the import of their account is pending
+     */
+    private final Set<Long> prioritizedBoardLocalIds = ConcurrentHashMap.newKeySet();
+    /**
+     * Prioritized boards which have been synchronized completely, they no longer miss any comments or projects
+     */
+    private final Set<Long> completelySyncedBoardLocalIds = ConcurrentHashMap.newKeySet();
+
     private final ActivityResultLauncher<Intent> importAccountLauncher = registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {
         if (result.getResultCode() != RESULT_OK) {
             finish();
@@ -206,13 +230,15 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
                 binding.emptyContentViewSearchNoTerm.setVisibility(View.VISIBLE);
                 binding.emptyContentViewSearchNoResults.setVisibility(View.GONE);
                 binding.searchResults.setVisibility(View.GONE);
+                mainViewModel.cancelSearch();
                 searchAdapter.setItems(new SearchResults());
             } else {
                 binding.emptyContentViewSearchNoTerm.setVisibility(View.GONE);
                 binding.searchResults.setVisibility(View.VISIBLE);
-                searchTerm$.setValue(value);
+                mainViewModel.search(value, searchPreferredBoardLocalId);
             }
         }));
+        mainViewModel.getSearchResults().observe(this, searchResultsObserver);
 
         stackAdapter = new StackAdapter(this);
         binding.viewPager.setAdapter(stackAdapter);
@@ -259,10 +285,15 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
                 listMenu,
                 stack -> mainViewModel.saveCurrentStackId(stack.getAccountId(), stack.getBoardId(), stack.getLocalId()));
 
+        if (savedInstanceState == null) {
+            StartupSnapshot.read(this).ifPresent(this::applyStartupSnapshot);
+        }
+
         final var hasAccounts$ = new ReactiveLiveData<>(mainViewModel.hasAccounts());
 
         hasAccounts$
                 .filter(hasAccounts -> !hasAccounts)
+                .tap(() -> StartupSnapshot.delete(this))
                 .observe(this, () -> importAccountLauncher.launch(ImportAccountActivity.createIntent(this)));
 
         hasAccounts$
@@ -289,6 +320,7 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
                                         applyBoard(account, args.second, args.first);
                                         @Nullable final var currentBoard = args.first;
                                         if (currentBoard == null) {
+                                            StartupSnapshot.delete(this);
                                             applyStacks(null, null, emptyList());
                                             return new MutableLiveData<>(null);
                                         } else {
@@ -297,7 +329,8 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
                                                         binding.viewPager.unregisterOnPageChangeCallback(stackChangeCallback);
                                                         boardChanged.set(true);
                                                         applyStacks(account, currentBoard.getLocalId(), stacks);
-                                                        return mainViewModel.getCurrentStackId$(account.getId(), currentBoard.getLocalId());
+                                                        return new ReactiveLiveData<>(mainViewModel.getCurrentStackId$(account.getId(), currentBoard.getLocalId()))
+                                                                .tap(currentStackId -> mainViewModel.saveStartupSnapshot(account, currentBoard.getBoard(), stacks, currentStackId));
                                                     });
 
                                         }
@@ -310,9 +343,37 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
                         applyStack(currentStackId);
                         binding.viewPager.registerOnPageChangeCallback(stackChangeCallback);
                     }
+                    StartupSnapshot.setPainted(null);
+                    if (!fullyDrawnReported) {
+                        fullyDrawnReported = true;
+                        DeckLog.info("Fully drawn", System.currentTimeMillis() - createdAt, "ms after creation");
+                        reportFullyDrawn();
+                    }
                 });
     }
 
+    /**
+     * Paints the last known board before the actual data has been loaded, see {@link StartupSnapshot}
+     */
+    private void applyStartupSnapshot(@NonNull StartupSnapshot snapshot) {
+        final var account = snapshot.getAccount();
+        final var board = snapshot.getFullBoard().getBoard();
+        final var stacks = snapshot.getStacks();
+        DeckLog.verbose("= Apply startup snapshot of", board.getTitle(), "for", account);
+
+        StartupSnapshot.setPainted(snapshot);
+        applyAccountTheme(account.getColor());
+        applyBoardTheme(board.getColor());
+        binding.toolbar.setHint(getString(R.string.search_in, board.getTitle()));
+
+        if (!stacks.isEmpty()) {
+            binding.emptyContentViewStacks.setVisibility(View.GONE);
+            stackAdapter.setStacks(account, board.getLocalId(), stacks);
+            setStackMediator(new TabLayoutMediator(binding.stackTitles, binding.viewPager, (tab, position) -> tab.setText(stacks.get(position).getTitle())));
+            applyStack(snapshot.getStackLocalId());
+        }
+    }
+
     private void applyAccount(@NonNull Account account) throws NextcloudFilesAppAccountNotFoundException {
         DeckLog.verbose("= Apply Account", account);
         mainViewModel.recreateSyncManager(account);
@@ -323,6 +384,17 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
             refreshCapabilities(account, null);
         }
 
+        if (importPending$ != null) {
+            importPending$.removeObservers(this);
+        }
+        importPending = false;
+        importPending$ = mainViewModel.isImportPending(account.getId());
+        importPending$.observe(this, pending -> {
+            importPending = pending;
+            prioritizeCurrentBoard(account);
+            updatePartiallySyncedInfoBox();
+        });
+
         Glide
                 .with(binding.toolbar.getContext())
                 .load(account.getAvatarUrl(binding.toolbar.getMenu().findItem(R.id.avatar).getIcon().getIntrinsicWidth()))
@@ -403,7 +475,11 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
         binding.toolbar.getMenu().findItem(R.id.filter_active).setVisible(false);
         binding.appBarLayout.setExpanded(true);
 
-        observeSearchTerm(account, currentBoard);
+        searchPreferredBoardLocalId = currentBoard == null ? null : currentBoard.getLocalId();
+        searchAdapter.setCurrentAccountId(account.getId());
+        currentBoardLocalId = currentBoard == null ? null : currentBoard.getLocalId();
+        prioritizeCurrentBoard(account);
+        updatePartiallySyncedInfoBox();
 
         if (currentBoard == null) {
             applyBoardTheme(account.getColor());
@@ -438,20 +514,40 @@ public class MainActivity extends AppCompatActivity implements DeleteStackListen
         binding.searchView.clearText();
     }
 
-    private void observeSearchTerm(@NonNull Account account, @Nullable FullBoard currentBoard) {
-        if (searchResults$ != null) {
-            searchResults$.removeObserver(searchResultsObserver);
-        }
-        if (currentBoard != null) {
-            searchResults$ = searchTerm$
-                    .filter(() -> binding.searchView.isShowing())
-                    .flatMap(term -> new ReactiveLiveData<>(mainViewModel.searchCards(account.getId(), currentBoard.getLocalId(), term, Integer.MAX_VALUE))
-                            .combineWith(() -> new MutableLiveData<>(term)))
-                    .map(result -> new SearchResults(account, currentBoard, result.first, result.second));
-            searchResults$.observe(this, searchResultsObserver);
+    /**
+     * While the import of the {@link Account} is pending, the board the user looks at gets synchronized completely right away.
+     */
+    private void prioritizeCurrentBoard(@NonNull Account account) {
+        final var boardLocalId = currentBoardLocalId;
+        if (importPending && boardLocalId != null && prioritizedBoardLocalIds.add(boardLocalId)) {
+            DeckLog.info("Prioritizing board", boardLocalId, "while the import of", account.getName(), "is pending");
+            mainViewModel.synchronizeBoard(account, boardLocalId, new IResponseCallback<>() {
+                @Override
+                public void onResponse(Boolean response, Headers headers) {
+                    DeckLog.verbose("Prioritized board", boardLocalId, "has been synchronized completely");
+                    completelySyncedBoardLocalIds.add(boardLocalId);
+                    runOnUiThread(() -> updatePartiallySyncedInfoBox());
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    IResponseCallback.super.onError(throwable);
+                    prioritizedBoardLocalIds.remove(boardLocalId);
+                }
+            });
         }
     }
 
+    /**
+     * The import of an {@link Account} is tracked per board: the info box is only shown as long as the current board may still miss
+     * comments or projects.
+     */
+    private void updatePartiallySyncedInfoBox() {
+        final var boardLocalId = currentBoardLocalId;
+        final boolean partiallySynced = importPending && (boardLocalId == null || !completelySyncedBoardLocalIds.contains(boardLocalId));
+        binding.infoBoxPartiallySynced.setVisibility(partiallySynced ? View.VISIBLE : View.GONE);
+    }
+
     private void applyStacks(@Nullable Account account, @Nullable Long boardId, @Nullable List<Stack> stacks) {
         DeckLog.verbose("======= Apply Stacks", stacks, "for Board", boardId);
         final boolean noStacksAvailable = stacks == null || stacks.isEmpty();
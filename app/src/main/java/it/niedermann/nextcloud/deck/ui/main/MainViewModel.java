@@ -16,8 +16,8 @@ import com.nextcloud.android.sso.exceptions.NextcloudFilesAppAccountNotFoundExce
 
 import java.io.File;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import it.niedermann.android.reactivelivedata.ReactiveLiveData;
@@ -34,9 +34,12 @@ import it.niedermann.nextcloud.deck.model.full.FullStack;
 import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
 import it.niedermann.nextcloud.deck.model.ocs.Capabilities;
 import it.niedermann.nextcloud.deck.model.ocs.comment.DeckComment;
+import it.niedermann.nextcloud.deck.remote.SyncWorker;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
 import it.niedermann.nextcloud.deck.repository.SyncRepository;
+import it.niedermann.nextcloud.deck.ui.main.search.CardSearchEngine;
+import it.niedermann.nextcloud.deck.ui.main.search.SearchResults;
 import it.niedermann.nextcloud.deck.ui.viewmodel.BaseViewModel;
 
 @SuppressWarnings("WeakerAccess")
@@ -44,9 +47,12 @@ public class MainViewModel extends BaseViewModel {
 
     @Nullable
     private SyncRepository syncRepository;
+    @NonNull
+    private final CardSearchEngine searchEngine;
 
     public MainViewModel(@NonNull Application application) {
         super(application);
+        this.searchEngine = new CardSearchEngine(baseRepository, executor);
     }
 
     public void recreateSyncManager(@NonNull Account account) throws NextcloudFilesAppAccountNotFoundException {
@@ -62,8 +68,27 @@ public class MainViewModel extends BaseViewModel {
         return new IllegalStateException("SyncManager is null");
     }
 
-    public LiveData<Map<Stack, List<FullCard>>> searchCards(long accountId, long boardId, @NonNull String term, int limit) {
-        return baseRepository.searchCards(accountId, boardId, term, limit);
+    public LiveData<SearchResults> getSearchResults() {
+        return searchEngine.getResults();
+    }
+
+    /**
+     * Searches all accounts and boards, supersedes any previous search
+     *
+     * @param preferredBoardLocalId results of this board will be listed first
+     */
+    public void search(@NonNull String term, @Nullable Long preferredBoardLocalId) {
+        searchEngine.search(term, preferredBoardLocalId);
+    }
+
+    public void cancelSearch() {
+        searchEngine.cancel();
+    }
+
+    @Override
+    protected void onCleared() {
+        searchEngine.cancel();
+        super.onCleared();
     }
 
     public void synchronize(@NonNull Account account, @NonNull IResponseCallback<Boolean> callback) {
@@ -74,6 +99,24 @@ public class MainViewModel extends BaseViewModel {
         }
     }
 
+    /**
+     * Synchronizes the given board completely, including comments and projects of its cards
+     */
+    public void synchronizeBoard(@NonNull Account account, long localBoardId, @NonNull IResponseCallback<Boolean> callback) {
+        if (syncRepository == null) {
+            callback.onError(getInvalidSyncManagerException());
+        } else {
+            syncRepository.synchronizeBoard(localBoardId, ResponseCallback.from(account, callback));
+        }
+    }
+
+    /**
+     * @see SyncWorker#isImportPending(android.content.Context, long)
+     */
+    public LiveData<Boolean> isImportPending(long accountId) {
+        return SyncWorker.isImportPending(getApplication(), accountId);
+    }
+
     public void refreshCapabilities(@NonNull ResponseCallback<Capabilities> callback) {
         if (syncRepository == null) {
             callback.onError(getInvalidSyncManagerException());
@@ -98,6 +141,18 @@ public class MainViewModel extends BaseViewModel {
         baseRepository.saveCurrentBoardId(accountId, boardId);
     }
 
+    /**
+     * Remembers the given board including the first cards of the given stack so it can be painted right away on the next start.
+     */
+    public void saveStartupSnapshot(@NonNull Account account, @NonNull Board board, @NonNull List<Stack> stacks, @Nullable Long stackLocalId) {
+        executor.submit(() -> {
+            final List<FullCard> cards = stackLocalId == null
+                    ? Collections.emptyList()
+                    : baseRepository.getFirstFullCardsForStackDirectly(account.getId(), stackLocalId, StartupSnapshot.MAX_CARDS);
+            StartupSnapshot.write(getApplication(), new StartupSnapshot(account, board, stacks, stackLocalId, cards));
+        });
+    }
+
     public void createBoard(@NonNull Account account, @NonNull Board board, @NonNull IResponseCallback<FullBoard> callback) {
         if (syncRepository == null) {
             callback.onError(getInvalidSyncManagerException());
@@ -0,0 +1,175 @@
+package it.niedermann.nextcloud.deck.ui.main;
+
+import android.content.Context;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Board;
+import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.full.FullBoard;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.remote.api.GsonUTCInstantAdapter;
+
+/**
+ * The last board which has been rendered in the {@link MainActivity}, including its stacks and the first cards of the current stack.
+ * <p>
+ * On a cold start it is painted right away, before the account has been resolved from the database and the single sign on has been
+ * initialized. The actual data replaces it as soon as it is available.
+ */
+public class StartupSnapshot {
+
+    private static final String FILE_NAME = "startup-snapshot.json";
+    /**
+     * Roughly the cards fitting on one screen
+     */
+    static final int MAX_CARDS = 20;
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Instant.class, new GsonUTCInstantAdapter())
+            .create();
+
+    /**
+     * The {@link StartupSnapshot} which is currently painted and has not yet been replaced by the actual data
+     */
+    @Nullable
+    private static volatile StartupSnapshot painted = null;
+
+    private Account account;
+    private Board board;
+    private List<Stack> stacks;
+    @Nullable
+    private Long stackLocalId;
+    private List<FullCard> cards;
+
+    @SuppressWarnings("unused")
+    private StartupSnapshot() {
+        // Used by Gson
+    }
+
+    public StartupSnapshot(@NonNull Account account, @NonNull Board board, @NonNull List<Stack> stacks, @Nullable Long stackLocalId, @NonNull List<FullCard> cards) {
+        this.account = account;
+        this.board = board;
+        this.stacks = new ArrayList<>(stacks);
+        this.stackLocalId = stackLocalId;
+        this.cards = new ArrayList<>(cards.subList(0, Math.min(cards.size(), MAX_CARDS)));
+    }
+
+    @NonNull
+    public Account getAccount() {
+        return account;
+    }
+
+    @NonNull
+    public FullBoard getFullBoard() {
+        final var fullBoard = new FullBoard();
+        fullBoard.setBoard(board);
+        return fullBoard;
+    }
+
+    @NonNull
+    public List<Stack> getStacks() {
+        return stacks == null ? Collections.emptyList() : stacks;
+    }
+
+    @Nullable
+    public Long getStackLocalId() {
+        return stackLocalId;
+    }
+
+    @NonNull
+    public List<FullCard> getCards() {
+        return cards == null ? Collections.emptyList() : cards;
+    }
+
+    /**
+     * Reads the {@link StartupSnapshot} which has been written last. It is small enough to be read while the activity is being created.
+     */
+    @NonNull
+    public static Optional<StartupSnapshot> read(@NonNull Context context) {
+        final var file = getFile(context);
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+        try (Reader reader = new FileReader(file)) {
+            final var snapshot = GSON.fromJson(reader, StartupSnapshot.class);
+            if (snapshot == null || snapshot.account == null || snapshot.board == null) {
+                return Optional.empty();
+            }
+            return Optional.of(snapshot);
+        } catch (Exception e) {
+            DeckLog.warn("Could not read", StartupSnapshot.class.getSimpleName(), ":", e.getMessage());
+            delete(context);
+            return Optional.empty();
+        }
+    }
+
+    @WorkerThread
+    public static void write(@NonNull Context context, @NonNull StartupSnapshot snapshot) {
+        final var file = getFile(context);
+        final var temp = new File(file.getParentFile(), FILE_NAME + ".part");
+        try (Writer writer = new FileWriter(temp)) {
+            GSON.toJson(snapshot, writer);
+        } catch (IOException e) {
+            DeckLog.warn("Could not write", StartupSnapshot.class.getSimpleName(), ":", e.getMessage());
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            DeckLog.warn("Could not replace", StartupSnapshot.class.getSimpleName());
+        }
+    }
+
+    @AnyThread
+    public static void delete(@NonNull Context context) {
+        painted = null;
+        //noinspection ResultOfMethodCallIgnored
+        getFile(context).delete();
+    }
+
+    @AnyThread
+    static void setPainted(@Nullable StartupSnapshot snapshot) {
+        painted = snapshot;
+    }
+
+    /**
+     * @return the {@link StartupSnapshot} if it is currently painted and contains the cards of the given stack
+     */
+    @AnyThread
+    public static Optional<StartupSnapshot> getPaintedForStack(long accountId, long stackLocalId) {
+        final var snapshot = painted;
+        if (snapshot == null
+                || !Objects.equals(snapshot.account.getId(), accountId)
+                || !Objects.equals(snapshot.stackLocalId, stackLocalId)
+                || snapshot.cards == null
+                || snapshot.cards.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(snapshot);
+    }
+
+    @NonNull
+    private static File getFile(@NonNull Context context) {
+        return new File(context.getApplicationContext().getCacheDir(), FILE_NAME);
+    }
+}
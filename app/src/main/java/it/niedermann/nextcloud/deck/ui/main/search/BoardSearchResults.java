@@ -0,0 +1,63 @@
+package it.niedermann.nextcloud.deck.ui.main.search;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.full.FullBoard;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+
+/**
+ * Matching {@link FullCard}s of one {@link FullBoard}, grouped by their {@link Stack}s and kept in the order they have been ranked.
+ */
+public class BoardSearchResults {
+
+    @NonNull
+    public final Account account;
+
+    @NonNull
+    public final FullBoard fullBoard;
+
+    @NonNull
+    public final Map<Stack, List<FullCard>> result = new HashMap<>();
+
+    private int matchCount = 0;
+
+    public BoardSearchResults(@NonNull Account account, @NonNull FullBoard fullBoard) {
+        this.account = account;
+        this.fullBoard = fullBoard;
+    }
+
+    /**
+     * @param limit maximum number of {@link FullCard}s which are kept for this {@link FullBoard}, further matches are only counted
+     */
+    public void add(@NonNull Stack stack, @NonNull FullCard fullCard, int limit) {
+        if (matchCount < limit) {
+            result.computeIfAbsent(stack, k -> new ArrayList<>()).add(fullCard);
+        }
+        matchCount++;
+    }
+
+    /**
+     * @return the number of kept {@link FullCard}s
+     */
+    public int size() {
+        return result.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * @return <code>true</code> if more {@link FullCard}s matched than have been kept
+     */
+    public boolean isTruncated() {
+        return matchCount > size();
+    }
+
+    public int getMatchCount() {
+        return matchCount;
+    }
+}
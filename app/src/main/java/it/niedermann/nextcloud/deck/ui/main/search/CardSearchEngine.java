@@ -0,0 +1,209 @@
+package it.niedermann.nextcloud.deck.ui.main.search;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.room.InvalidationTracker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.repository.BaseRepository;
+
+/**
+ * Searches {@link FullCard}s of all accounts and boards while the user is typing.
+ * <p>
+ * A search only starts after the term did not change for {@link #DEBOUNCE_MILLIS}, a new term supersedes any search which is still
+ * pending or running. Each search publishes the best {@link #TOP_K_PER_BOARD} results of each board first and up to
+ * {@link #MAX_RESULTS_PER_BOARD} results of each board afterwards. The current search gets repeated whenever cards, stacks or boards
+ * change, until it gets {@link #cancel()}ed.
+ */
+public class CardSearchEngine {
+
+    private static final long DEBOUNCE_MILLIS = 250;
+    /**
+     * Changes usually arrive in bursts while synchronizing, wait a bit longer before repeating the search
+     */
+    private static final long REFRESH_DEBOUNCE_MILLIS = 1_000;
+    private static final int TOP_K_PER_BOARD = 5;
+    /**
+     * Maximum number of {@link FullCard}s which get loaded per board for the second result
+     */
+    private static final int MAX_RESULTS_PER_BOARD = 50;
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor();
+
+    @NonNull
+    private final BaseRepository baseRepository;
+    @NonNull
+    private final ExecutorService executor;
+    private final MutableLiveData<SearchResults> results$ = new MutableLiveData<>();
+    /**
+     * Gets incremented for every new search term, results of a search with an outdated generation get dropped
+     */
+    private long generation = 0;
+    @Nullable
+    private Future<?> pendingSearch;
+    @Nullable
+    private String term;
+    @Nullable
+    private Long preferredBoardLocalId;
+    private boolean observingChanges = false;
+    @Nullable
+    private InvalidationTracker.Observer invalidationObserver;
+
+    public CardSearchEngine(@NonNull BaseRepository baseRepository, @NonNull ExecutorService executor) {
+        this.baseRepository = baseRepository;
+        this.executor = executor;
+    }
+
+    @NonNull
+    public LiveData<SearchResults> getResults() {
+        return results$;
+    }
+
+    /**
+     * @param preferredBoardLocalId results of this board will be listed first, usually the currently opened one
+     */
+    @AnyThread
+    public synchronized void search(@NonNull String term, @Nullable Long preferredBoardLocalId) {
+        supersede();
+        if (term.trim().isEmpty()) {
+            stopObservingChanges();
+            results$.postValue(new SearchResults());
+            return;
+        }
+        this.term = term;
+        this.preferredBoardLocalId = preferredBoardLocalId;
+        if (!observingChanges) {
+            observingChanges = true;
+            // Registering touches the database, which must not happen on the main thread
+            SCHEDULER.execute(this::startObservingChanges);
+        }
+        schedule(term, preferredBoardLocalId, DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * Drops the results of the current search and stops repeating it on changes. A query which is already running on the database is not
+     * interrupted, but no further queries will be started for it.
+     */
+    @AnyThread
+    public synchronized void cancel() {
+        supersede();
+        stopObservingChanges();
+    }
+
+    @AnyThread
+    private synchronized void onInvalidated() {
+        if (term != null) {
+            supersede();
+            schedule(term, preferredBoardLocalId, REFRESH_DEBOUNCE_MILLIS);
+        }
+    }
+
+    private void schedule(@NonNull String term, @Nullable Long preferredBoardLocalId, long delayMillis) {
+        final long searchGeneration = generation;
+        pendingSearch = SCHEDULER.schedule(() -> {
+            synchronized (this) {
+                if (searchGeneration == generation) {
+                    pendingSearch = executor.submit(() -> execute(searchGeneration, term, preferredBoardLocalId));
+                }
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void supersede() {
+        generation++;
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+            pendingSearch = null;
+        }
+    }
+
+    @WorkerThread
+    private void startObservingChanges() {
+        final var observer = baseRepository.addSearchInvalidationListener(this::onInvalidated);
+        synchronized (this) {
+            if (observingChanges && invalidationObserver == null) {
+                invalidationObserver = observer;
+                return;
+            }
+        }
+        // Cancelled meanwhile
+        baseRepository.removeSearchInvalidationListener(observer);
+    }
+
+    private void stopObservingChanges() {
+        term = null;
+        preferredBoardLocalId = null;
+        observingChanges = false;
+        if (invalidationObserver != null) {
+            final var observer = invalidationObserver;
+            invalidationObserver = null;
+            SCHEDULER.execute(() -> baseRepository.removeSearchInvalidationListener(observer));
+        }
+    }
+
+    @WorkerThread
+    private void execute(long searchGeneration, @NonNull String term, @Nullable Long preferredBoardLocalId) {
+        final long start = System.currentTimeMillis();
+        final var topResults = baseRepository.searchCardsInAllBoardsDirectly(term, TOP_K_PER_BOARD);
+        final long topResultsMillis = System.currentTimeMillis() - start;
+
+        final boolean complete = topResults.stream().noneMatch(BoardSearchResults::isTruncated);
+        if (!publish(searchGeneration, new SearchResults(rank(topResults, preferredBoardLocalId), term, complete))) {
+            DeckLog.verbose("Search for \"" + term + "\" got superseded after", topResultsMillis, "ms");
+            return;
+        }
+        if (complete) {
+            DeckLog.verbose("Search for \"" + term + "\" found", countCards(topResults), "cards in", topResults.size(), "boards in", topResultsMillis, "ms");
+            return;
+        }
+
+        final var allResults = baseRepository.searchCardsInAllBoardsDirectly(term, MAX_RESULTS_PER_BOARD);
+        final long allResultsMillis = System.currentTimeMillis() - start;
+        if (!publish(searchGeneration, new SearchResults(rank(allResults, preferredBoardLocalId), term, true))) {
+            DeckLog.verbose("Search for \"" + term + "\" got superseded after", allResultsMillis, "ms");
+            return;
+        }
+        DeckLog.verbose("Search for \"" + term + "\" found top", countCards(topResults), "cards in", topResultsMillis, "ms and up to " + MAX_RESULTS_PER_BOARD + " per board:",
+                countCards(allResults), "cards in", allResults.size(), "boards in", allResultsMillis, "ms");
+    }
+
+    /**
+     * @return <code>false</code> if the results have been dropped because a newer search has been started meanwhile
+     */
+    @AnyThread
+    private synchronized boolean publish(long searchGeneration, @NonNull SearchResults results) {
+        if (searchGeneration != generation) {
+            return false;
+        }
+        results$.postValue(results);
+        return true;
+    }
+
+    /**
+     * Moves the preferred board to the top, all other boards keep the order of their best matching {@link FullCard}.
+     */
+    @NonNull
+    private static List<BoardSearchResults> rank(@NonNull List<BoardSearchResults> boards, @Nullable Long preferredBoardLocalId) {
+        final var ranked = new ArrayList<>(boards);
+        ranked.sort(Comparator.comparing(board -> !Objects.equals(board.fullBoard.getLocalId(), preferredBoardLocalId)));
+        return ranked;
+    }
+
+    private static int countCards(@NonNull List<BoardSearchResults> boards) {
+        return boards.stream().mapToInt(BoardSearchResults::size).sum();
+    }
+}
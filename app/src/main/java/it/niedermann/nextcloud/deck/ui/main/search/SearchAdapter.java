@@ -10,13 +10,15 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.R;
 import it.niedermann.nextcloud.deck.databinding.ItemSearchCardBinding;
 import it.niedermann.nextcloud.deck.databinding.ItemSearchStackBinding;
-import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.Stack;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
@@ -31,13 +33,18 @@ public class SearchAdapter extends RecyclerView.Adapter<SearchViewHolder> implem
 
     @NonNull
     private CardActionListener cardActionListener;
-    @Nullable
-    private Account account;
-    @Nullable
-    private FullBoard fullBoard;
-    private final List<IRemoteEntity> items = new ArrayList<>();
+    private final List<SearchItem> items = new ArrayList<>();
+    /**
+     * Maps {@link FullCard#getLocalId()} to the {@link FullBoard} the {@link FullCard} belongs to
+     */
+    private final Map<Long, FullBoard> boardsOfCards = new HashMap<>();
     @NonNull
     private String term = "";
+    /**
+     * Search results contain cards of all accounts, but card options are only available for the current one
+     */
+    @Nullable
+    private Long currentAccountId;
 
     public SearchAdapter(@NonNull CardActionListener cardActionListener) {
         this.cardActionListener = cardActionListener;
@@ -62,42 +69,21 @@ public class SearchAdapter extends RecyclerView.Adapter<SearchViewHolder> implem
 
     @Override
     public void onBindViewHolder(@NonNull SearchViewHolder holder, int position) {
+        final var item = items.get(position);
+        final var fullBoard = item.boardResults.fullBoard;
         switch (getItemViewType(position)) {
             case TYPE_STACK: {
-                final var localId = -getItemId(position);
-                items.stream()
-                        .filter(item -> item.getClass() == Stack.class)
-                        .filter(item -> item.getLocalId() == localId)
-                        .findAny()
-                        .map(item -> (Stack) item)
-                        .ifPresent(stack -> {
-                            final var searchStackViewHolder = (SearchStackViewHolder) holder;
-                            searchStackViewHolder.bind(stack);
-
-                            if (fullBoard == null) {
-                                DeckLog.logError(new IllegalStateException("board is null"));
-                                return;
-                            }
-                            searchStackViewHolder.applyTheme(fullBoard.getBoard().getColor());
-                        });
+                final var searchStackViewHolder = (SearchStackViewHolder) holder;
+                searchStackViewHolder.bind((Stack) item.entity, item.showBoardTitle ? fullBoard.getBoard().getTitle() : null);
+                searchStackViewHolder.applyTheme(fullBoard.getBoard().getColor());
                 break;
             }
             case TYPE_CARD: {
-                if (account == null || fullBoard == null) {
-                    DeckLog.logError(new IllegalStateException("account or board is null"));
-                    break;
-                }
-                final var localId = getItemId(position);
-                items.stream()
-                        .filter(item -> item.getClass() == FullCard.class)
-                        .filter(item -> item.getLocalId() == localId)
-                        .findAny()
-                        .map(item -> (FullCard) item)
-                        .ifPresent(fullCard -> {
-                            final var searchCardViewHolder = (SearchCardViewHolder) holder;
-                            searchCardViewHolder.bind(account, fullBoard.getLocalId(), fullCard, fullBoard.getId(), R.menu.card_menu, this);
-                            searchCardViewHolder.applyTheme(fullBoard.getBoard().getColor(), term);
-                        });
+                final var searchCardViewHolder = (SearchCardViewHolder) holder;
+                final var account = item.boardResults.account;
+                searchCardViewHolder.bind(account, fullBoard.getLocalId(), (FullCard) item.entity, fullBoard.getId(),
+                        Objects.equals(account.getId(), currentAccountId), R.menu.card_menu, this);
+                searchCardViewHolder.applyTheme(fullBoard.getBoard().getColor(), term);
                 break;
             }
             default: {
@@ -116,7 +102,7 @@ public class SearchAdapter extends RecyclerView.Adapter<SearchViewHolder> implem
      */
     @Override
     public long getItemId(int position) {
-        final var item = items.get(position);
+        final var item = items.get(position).entity;
         final var clazz = item.getClass();
         if (clazz == Stack.class) {
             return -item.getLocalId();
@@ -131,19 +117,29 @@ public class SearchAdapter extends RecyclerView.Adapter<SearchViewHolder> implem
         return items.size();
     }
 
+    public void setCurrentAccountId(@Nullable Long currentAccountId) {
+        this.currentAccountId = currentAccountId;
+        notifyDataSetChanged();
+    }
+
     public void setItems(@NonNull SearchResults results) {
-        this.account = results.account;
-        this.fullBoard = results.fullBoard;
         this.term = results.term;
 
         this.items.clear();
-        results.result.entrySet()
-                .stream()
-                .sorted(Comparator.comparingLong(o -> o.getKey().getOrder()))
-                .forEach(entry -> {
-                    this.items.add(entry.getKey());
-                    this.items.addAll(entry.getValue());
-                });
+        this.boardsOfCards.clear();
+        final boolean showBoardTitles = results.boards.size() > 1;
+        for (final var boardResults : results.boards) {
+            boardResults.result.entrySet()
+                    .stream()
+                    .sorted(Comparator.comparingLong(o -> o.getKey().getOrder()))
+                    .forEach(entry -> {
+                        this.items.add(new SearchItem(entry.getKey(), boardResults, showBoardTitles));
+                        for (final var fullCard : entry.getValue()) {
+                            this.items.add(new SearchItem(fullCard, boardResults, showBoardTitles));
+                            this.boardsOfCards.put(fullCard.getLocalId(), boardResults.fullBoard);
+                        }
+                    });
+        }
 
         notifyDataSetChanged();
     }
@@ -151,6 +147,7 @@ public class SearchAdapter extends RecyclerView.Adapter<SearchViewHolder> implem
     @Override
     public boolean onCardOptionsItemSelected(@NonNull MenuItem menuItem, @NonNull FullCard fullCard) {
         final int itemId = menuItem.getItemId();
+        final var fullBoard = boardsOfCards.get(fullCard.getLocalId());
         if (itemId == R.id.share_link) {
             if (fullBoard == null) {
                 DeckLog.warn("Can not share link to card", fullCard.getCard().getTitle(), "because fullBoard is null");
@@ -182,4 +179,18 @@ public class SearchAdapter extends RecyclerView.Adapter<SearchViewHolder> implem
         }
         return true;
     }
+
+    private static class SearchItem {
+        @NonNull
+        private final IRemoteEntity entity;
+        @NonNull
+        private final BoardSearchResults boardResults;
+        private final boolean showBoardTitle;
+
+        private SearchItem(@NonNull IRemoteEntity entity, @NonNull BoardSearchResults boardResults, boolean showBoardTitle) {
+            this.entity = entity;
+            this.boardResults = boardResults;
+            this.showBoardTitle = showBoardTitle;
+        }
+    }
 }
@@ -40,7 +40,10 @@ public class SearchCardViewHolder extends SearchViewHolder {
         this.binding = binding;
     }
 
-    public void bind(@NonNull Account account, long localBoardId, @NonNull FullCard fullCard, @Nullable Long boardRemoteId, @MenuRes int optionsMenu, @NonNull CardOptionsItemSelectedListener optionsItemsSelectedListener) {
+    /**
+     * @param optionsMenuEnabled the card options operate on the current account, so they need to be disabled for cards of other accounts
+     */
+    public void bind(@NonNull Account account, long localBoardId, @NonNull FullCard fullCard, @Nullable Long boardRemoteId, boolean optionsMenuEnabled, @MenuRes int optionsMenu, @NonNull CardOptionsItemSelectedListener optionsItemsSelectedListener) {
         final var context = binding.getRoot().getContext();
         binding.getRoot().setOnClickListener(v -> context.startActivity(EditActivity.createEditCardIntent(context, account, localBoardId, fullCard.getLocalId())));
 
@@ -79,6 +82,7 @@ public class SearchCardViewHolder extends SearchViewHolder {
             binding.coverImages.setVisibility(View.GONE);
         }
 
+        binding.cardMenu.setVisibility(optionsMenuEnabled ? View.VISIBLE : View.GONE);
         binding.cardMenu.setOnClickListener(view -> {
             final var popup = new PopupMenu(context, view);
             popup.inflate(optionsMenu);
@@ -1,39 +1,37 @@
 package it.niedermann.nextcloud.deck.ui.main.search;
 
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-
-import it.niedermann.nextcloud.deck.model.Account;
-import it.niedermann.nextcloud.deck.model.Stack;
-import it.niedermann.nextcloud.deck.model.full.FullBoard;
-import it.niedermann.nextcloud.deck.model.full.FullCard;
 
 public class SearchResults {
 
-    @Nullable
-    public final Account account;
-
-    @Nullable
-    public final FullBoard fullBoard;
-
+    /**
+     * Sorted by relevance, the most relevant {@link BoardSearchResults} first
+     */
     @NonNull
-    public final Map<Stack, List<FullCard>> result;
+    public final List<BoardSearchResults> boards;
 
     @NonNull
     public final String term;
 
+    /**
+     * <code>false</code> if only the top results of each board are contained yet
+     */
+    public final boolean complete;
+
     public SearchResults() {
-        this(null, null, Collections.emptyMap(), "");
+        this(Collections.emptyList(), "", true);
     }
 
-    public SearchResults(@Nullable Account account, @Nullable FullBoard fullBoard, @NonNull Map<Stack, List<FullCard>> result, @NonNull String term) {
-        this.account = account;
-        this.fullBoard = fullBoard;
-        this.result = result;
+    public SearchResults(@NonNull List<BoardSearchResults> boards, @NonNull String term, boolean complete) {
+        this.boards = boards;
         this.term = term;
+        this.complete = complete;
+    }
+
+    public boolean isEmpty() {
+        return boards.isEmpty();
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,11 @@
 package it.niedermann.nextcloud.deck.ui.main.search;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.nextcloud.android.common.ui.theme.utils.ColorRole;
 
+import it.niedermann.nextcloud.deck.R;
 import it.niedermann.nextcloud.deck.databinding.ItemSearchStackBinding;
 import it.niedermann.nextcloud.deck.model.Stack;
 import it.niedermann.nextcloud.deck.ui.theme.ThemeUtils;
@@ -17,8 +19,15 @@ public class SearchStackViewHolder extends SearchViewHolder {
         this.binding = binding;
     }
 
-    public void bind(@NonNull Stack stack) {
-        binding.title.setText(stack.getTitle());
+    /**
+     * @param boardTitle will be shown as prefix of the {@link Stack} title if not <code>null</code>
+     */
+    public void bind(@NonNull Stack stack, @Nullable String boardTitle) {
+        if (boardTitle == null) {
+            binding.title.setText(stack.getTitle());
+        } else {
+            binding.title.setText(binding.title.getContext().getString(R.string.search_stack_in_board, boardTitle, stack.getTitle()));
+        }
     }
 
     public void applyTheme(int color) {
@@ -19,6 +19,8 @@ import it.niedermann.nextcloud.deck.R;
 import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.remote.SyncWorker;
 import it.niedermann.nextcloud.deck.ui.theme.ThemedSwitchPreference;
+import it.niedermann.nextcloud.deck.util.AttachmentCache;
+import it.niedermann.nextcloud.deck.util.ExecutorServiceProvider;
 
 public class SettingsFragment extends PreferenceFragmentCompat {
 
@@ -77,6 +79,18 @@ public class SettingsFragment extends PreferenceFragmentCompat {
             DeckLog.error("Could not find preference with key", getString(R.string.pref_key_background_sync));
         }
 
+        final var attachmentCacheSizePref = findPreference(getString(R.string.pref_key_attachment_cache_size));
+        if (attachmentCacheSizePref != null) {
+            attachmentCacheSizePref.setOnPreferenceChangeListener((Preference preference, Object newValue) -> {
+                final var attachmentCache = new AttachmentCache(requireContext());
+                final long maxBytes = Long.parseLong((String) newValue) * 1024L * 1024L;
+                ExecutorServiceProvider.getLinkedBlockingQueueExecutor().submit(() -> attachmentCache.trimToSize(maxBytes));
+                return true;
+            });
+        } else {
+            DeckLog.error("Could not find preference with key", getString(R.string.pref_key_attachment_cache_size));
+        }
+
         final var themePref = findPreference(getString(R.string.pref_key_dark_theme));
         if (themePref != null) {
             themePref.setOnPreferenceChangeListener((Preference preference, Object newValue) -> {
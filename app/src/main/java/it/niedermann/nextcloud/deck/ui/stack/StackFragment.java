@@ -38,6 +38,7 @@ import it.niedermann.nextcloud.deck.ui.card.CardAdapter;
 import it.niedermann.nextcloud.deck.ui.card.SelectCardListener;
 import it.niedermann.nextcloud.deck.ui.exception.ExceptionDialogFragment;
 import it.niedermann.nextcloud.deck.ui.filter.FilterViewModel;
+import it.niedermann.nextcloud.deck.ui.main.StartupSnapshot;
 import it.niedermann.nextcloud.deck.ui.movecard.MoveCardDialogFragment;
 import it.niedermann.nextcloud.deck.ui.movecard.MoveCardListener;
 import it.niedermann.nextcloud.deck.ui.theme.ThemeUtils;
@@ -99,6 +100,16 @@ public class StackFragment extends Fragment implements Themed, DragAndDropTab<Ca
 
         final var filterViewModel = new ViewModelProvider(activity).get(FilterViewModel.class);
 
+        binding.recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                final var layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager != null && layoutManager.findLastVisibleItemPosition() >= layoutManager.getItemCount() - (StackViewModel.PAGE_SIZE >> 1)) {
+                    stackViewModel.loadNextPage(stackId);
+                }
+            }
+        });
+
         if (onScrollListener != null) {
             binding.recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
                 @Override
@@ -127,10 +138,22 @@ public class StackFragment extends Fragment implements Themed, DragAndDropTab<Ca
         adapter = new CardAdapter(activity, this, selectCardListener);
         binding.recyclerView.setAdapter(adapter);
 
+        StartupSnapshot.getPaintedForStack(account.getId(), stackId).ifPresent(snapshot -> {
+            final var fullBoard = snapshot.getFullBoard();
+            adapter.setAccount(snapshot.getAccount());
+            adapter.setFullBoard(fullBoard);
+            adapter.setCardList(snapshot.getCards(), fullBoard.getBoard().getColor());
+            binding.emptyContentView.setVisibility(View.GONE);
+        });
+
         stackViewModel.getBoardColor$(account.getId(), boardId).observe(getViewLifecycleOwner(), this::applyTheme);
 
         new ReactiveLiveData<>(stackViewModel.getAccount(account.getId()))
-                .tap(() -> binding.loadingSpinner.show())
+                .tap(() -> {
+                    if (adapter.getItemCount() == 0) {
+                        binding.loadingSpinner.show();
+                    }
+                })
                 .tap(account -> adapter.setAccount(account))
                 .flatMap(account -> stackViewModel.getFullBoard(account.getId(), boardId))
                 .tap(fullBoard -> adapter.setFullBoard(fullBoard))
@@ -4,15 +4,21 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 import android.app.Application;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 
 import com.nextcloud.android.sso.api.EmptyResponse;
 import com.nextcloud.android.sso.exceptions.NextcloudFilesAppAccountNotFoundException;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import it.niedermann.android.reactivelivedata.ReactiveLiveData;
 import it.niedermann.nextcloud.deck.model.Account;
@@ -20,12 +26,20 @@ import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.User;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.model.internal.CardPageKey;
 import it.niedermann.nextcloud.deck.model.internal.FilterInformation;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.ui.viewmodel.SyncViewModel;
 
 public class StackViewModel extends SyncViewModel {
 
+    public static final int PAGE_SIZE = 100;
+
+    /**
+     * This {@link StackViewModel} is shared between all stacks of the current board
+     */
+    private final Map<Long, PagingState> pagingStates = new ConcurrentHashMap<>();
+
     public StackViewModel(@NonNull Application application, @NonNull Account account) throws NextcloudFilesAppAccountNotFoundException {
         super(application, account);
     }
@@ -52,11 +66,104 @@ public class StackViewModel extends SyncViewModel {
         return baseRepository.getBoardColor$(accountId, boardId);
     }
 
+    /**
+     * Emits the cards of the stack page by page using keyset pagination, so loading a further page seeks directly behind the last loaded card instead of scanning the previous ones.
+     * The first page is loaded immediately, further pages can be requested with {@link #loadNextPage(long)}.
+     */
+    @MainThread
     public LiveData<List<FullCard>> getFullCardsForStack(long accountId, long localStackId, @Nullable FilterInformation filter) {
-        return new ReactiveLiveData<>(baseRepository.getFullCardsForStack(accountId, localStackId, filter))
+        final var pagingState = new PagingState(accountId, localStackId, filter);
+        pagingStates.put(localStackId, pagingState);
+        return new ReactiveLiveData<>(pagingState.cards$)
                 .distinctUntilChanged();
     }
 
+    /**
+     * Adds the next {@link #PAGE_SIZE} cards to the given stack unless a page is still being loaded or all cards are loaded.
+     */
+    @MainThread
+    public void loadNextPage(long localStackId) {
+        final var pagingState = pagingStates.get(localStackId);
+        if (pagingState != null) {
+            pagingState.loadNextPage();
+        }
+    }
+
+    /**
+     * Observes at most two queries per stack: all cards up to the key of the last completely loaded page, and the next {@link #PAGE_SIZE} cards after that key.
+     * Both ranges are disjoint and adjacent, so moved or inserted cards can neither get lost nor be emitted twice.
+     * The queries of previous pages are released as soon as a further page gets loaded.
+     */
+    private class PagingState {
+        private final long accountId;
+        private final long localStackId;
+        @Nullable
+        private final FilterInformation filter;
+        private final MediatorLiveData<List<FullCard>> cards$ = new MediatorLiveData<>();
+        @Nullable
+        private LiveData<List<FullCard>> loaded$ = null;
+        @Nullable
+        private LiveData<List<FullCard>> nextPage$ = null;
+        /**
+         * The latest cards up to the key of the last completely loaded page, <code>null</code> until they have been loaded
+         */
+        @Nullable
+        private List<FullCard> loaded = Collections.emptyList();
+        /**
+         * The latest cards of the page after the loaded ones, <code>null</code> until they have been loaded
+         */
+        @Nullable
+        private List<FullCard> nextPage = null;
+
+        private PagingState(long accountId, long localStackId, @Nullable FilterInformation filter) {
+            this.accountId = accountId;
+            this.localStackId = localStackId;
+            this.filter = filter;
+            observeNextPage(CardPageKey.FIRST);
+        }
+
+        @MainThread
+        private void loadNextPage() {
+            if (loaded == null || nextPage == null || nextPage.size() < PAGE_SIZE) {
+                return;
+            }
+            final var upTo = CardPageKey.of(nextPage.get(nextPage.size() - 1).getCard());
+            if (loaded$ != null) {
+                cards$.removeSource(loaded$);
+            }
+            loaded = null;
+            loaded$ = baseRepository.getFullCardsForStackUpTo(accountId, localStackId, filter, upTo);
+            cards$.addSource(loaded$, cards -> {
+                loaded = cards;
+                publish();
+            });
+            observeNextPage(upTo);
+        }
+
+        @MainThread
+        private void observeNextPage(@NonNull CardPageKey after) {
+            if (nextPage$ != null) {
+                cards$.removeSource(nextPage$);
+            }
+            nextPage = null;
+            nextPage$ = baseRepository.getFullCardsForStackPage(accountId, localStackId, filter, after, PAGE_SIZE);
+            cards$.addSource(nextPage$, cards -> {
+                nextPage = cards;
+                publish();
+            });
+        }
+
+        @MainThread
+        private void publish() {
+            if (loaded != null && nextPage != null) {
+                final var cards = new ArrayList<FullCard>(loaded.size() + nextPage.size());
+                cards.addAll(loaded);
+                cards.addAll(nextPage);
+                cards$.setValue(cards);
+            }
+        }
+    }
+
     public LiveData<Boolean> currentBoardHasEditPermission(long accountId, long boardId) {
         return new ReactiveLiveData<>(baseRepository.readAccount(accountId))
                 .flatMap(account -> account.getServerDeckVersionAsObject().isSupported()
@@ -0,0 +1,388 @@
+package it.niedermann.nextcloud.deck.ui.view;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.LruCache;
+import android.util.TypedValue;
+import android.view.View;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.Px;
+import androidx.core.content.ContextCompat;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.CustomTarget;
+import com.bumptech.glide.request.transition.Transition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import it.niedermann.android.util.ColorUtil;
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.R;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Label;
+import it.niedermann.nextcloud.deck.model.User;
+
+/**
+ * Draws the {@link Label}s and the assigned {@link User}s of a card directly on the {@link Canvas}, so a card does not need one child
+ * view per {@link Label} and {@link User}.
+ * <p>
+ * {@link Label}s are drawn as pills from the start, the avatars of the assigned {@link User}s overlap each other at the end. In
+ * compact mode, {@link Label}s are drawn as small colored bars without their title.
+ */
+public class LabelAssigneeStrip extends View {
+
+    private static final float COMPACT_LABEL_WIDTH_PERCENT = 1 / 6.5f;
+    /**
+     * The same {@link Label}s show up on many cards, so the widths of their titles are shared across all instances
+     */
+    private static final LruCache<String, Float> TEXT_WIDTH_CACHE = new LruCache<>(256);
+
+    private final boolean compactMode;
+    @Px
+    private final int gutter;
+    @Px
+    private final int labelHeight;
+    private final int maxAvatarCount;
+    @Px
+    private final int avatarSize;
+    @Px
+    private final int avatarBorderSize;
+    @Px
+    private final int overlapPx;
+    @ColorInt
+    private final int defaultColor;
+    @NonNull
+    private final Drawable avatarPlaceholder;
+
+    private final Paint pillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint avatarBorderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint avatarPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final RectF avatarBounds = new RectF();
+
+    @NonNull
+    private List<Label> labels = Collections.emptyList();
+    @NonNull
+    private final List<Pill> pills = new ArrayList<>();
+    private boolean pillsDirty = true;
+
+    @NonNull
+    private List<String> avatarUrls = Collections.emptyList();
+    @NonNull
+    private Bitmap[] avatarBitmaps = new Bitmap[0];
+    @NonNull
+    private final List<CustomTarget<Bitmap>> avatarTargets = new ArrayList<>();
+    @Nullable
+    private String assigneeDescription;
+
+    public LabelAssigneeStrip(Context context) {
+        this(context, null);
+    }
+
+    public LabelAssigneeStrip(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public LabelAssigneeStrip(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        final var styles = context.obtainStyledAttributes(attrs, R.styleable.LabelAssigneeStrip, defStyleAttr, 0);
+        this.compactMode = styles.getBoolean(R.styleable.LabelAssigneeStrip_compactMode, false);
+        styles.recycle();
+
+        final var resources = getResources();
+        gutter = resources.getDimensionPixelSize(R.dimen.spacer_1hx);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 14, resources.getDisplayMetrics()));
+        final var fontMetrics = textPaint.getFontMetricsInt();
+        labelHeight = compactMode
+                ? resources.getDimensionPixelSize(R.dimen.compact_label_height)
+                : fontMetrics.descent - fontMetrics.ascent + gutter * 2;
+
+        maxAvatarCount = resources.getInteger(R.integer.max_avatar_count);
+        avatarBorderSize = resources.getDimensionPixelSize(R.dimen.avatar_size_small_overlapping_border);
+        avatarSize = resources.getDimensionPixelSize(R.dimen.avatar_size_small) + avatarBorderSize * 2;
+        overlapPx = resources.getDimensionPixelSize(R.dimen.avatar_size_small_overlapping);
+        avatarBorderPaint.setColor(ContextCompat.getColor(context, R.color.colorSurfaceContainer));
+        avatarPlaceholder = Objects.requireNonNull(ContextCompat.getDrawable(context, R.drawable.ic_person_24dp));
+        defaultColor = ContextCompat.getColor(context, R.color.defaultBrand);
+
+        setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_NO);
+    }
+
+    /**
+     * Does nothing if the given {@link Label}s are equal to the currently drawn ones, which avoids flickering on updates
+     */
+    public void setLabels(@NonNull List<Label> labels) {
+        if (this.labels.equals(labels)) {
+            return;
+        }
+        this.labels = new ArrayList<>(labels);
+        pillsDirty = true;
+        updateContentDescription();
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Does nothing if the avatars of the given {@link User}s are already drawn. Only the first few {@link User}s are drawn.
+     */
+    public void setAssignees(@NonNull Account account, @NonNull List<User> assignedUsers) {
+        final var urls = assignedUsers.stream()
+                .limit(maxAvatarCount)
+                .map(user -> account.getAvatarUrl(avatarSize, user.getUid()))
+                .collect(Collectors.toList());
+        if (avatarUrls.equals(urls)) {
+            return;
+        }
+        clearAvatars();
+        avatarUrls = urls;
+        avatarBitmaps = new Bitmap[urls.size()];
+        final int innerSize = avatarSize - avatarBorderSize * 2;
+        for (int i = 0; i < urls.size(); i++) {
+            final int index = i;
+            final var target = new CustomTarget<Bitmap>(innerSize, innerSize) {
+                @Override
+                public void onResourceReady(@NonNull Bitmap resource, @Nullable Transition<? super Bitmap> transition) {
+                    if (index < avatarBitmaps.length) {
+                        avatarBitmaps[index] = resource;
+                        invalidate();
+                    }
+                }
+
+                @Override
+                public void onLoadCleared(@Nullable Drawable placeholder) {
+                    if (index < avatarBitmaps.length) {
+                        avatarBitmaps[index] = null;
+                        invalidate();
+                    }
+                }
+            };
+            avatarTargets.add(target);
+            Glide.with(this)
+                    .asBitmap()
+                    .load(urls.get(i))
+                    .apply(RequestOptions.circleCropTransform())
+                    .into(target);
+        }
+        this.assigneeDescription = assignedUsers.stream().map(User::getDisplayname).collect(Collectors.joining(", "));
+        updateContentDescription();
+        pillsDirty = true;
+        requestLayout();
+        invalidate();
+    }
+
+    private void clearAvatars() {
+        final var requestManager = Glide.with(this);
+        for (final var target : avatarTargets) {
+            requestManager.clear(target);
+        }
+        avatarTargets.clear();
+        avatarUrls = Collections.emptyList();
+        avatarBitmaps = new Bitmap[0];
+    }
+
+    private void updateContentDescription() {
+        final var parts = new ArrayList<String>(2);
+        if (!labels.isEmpty()) {
+            parts.add(getContext().getString(R.string.share_content_labels, labels.stream().map(Label::getTitle).collect(Collectors.joining(", "))));
+        }
+        if (!TextUtils.isEmpty(assigneeDescription)) {
+            parts.add(getContext().getString(R.string.content_description_assignees, assigneeDescription));
+        }
+        setContentDescription(parts.isEmpty() ? null : TextUtils.join(", ", parts));
+        setImportantForAccessibility(parts.isEmpty() ? IMPORTANT_FOR_ACCESSIBILITY_NO : IMPORTANT_FOR_ACCESSIBILITY_YES);
+    }
+
+    @Px
+    private int getAvatarsWidth() {
+        return avatarUrls.isEmpty() ? 0 : overlapPx * (avatarUrls.size() - 1) + avatarSize;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int avatarsWidth = getAvatarsWidth();
+        int contentWidth = avatarsWidth;
+        if (!labels.isEmpty()) {
+            if (avatarsWidth > 0) {
+                contentWidth += gutter;
+            }
+            if (compactMode) {
+                contentWidth = Math.max(contentWidth, MeasureSpec.getSize(widthMeasureSpec) - getPaddingLeft() - getPaddingRight());
+            } else {
+                for (final var label : labels) {
+                    contentWidth += (int) Math.ceil(getTextWidth(label.getTitle())) + gutter * 5;
+                }
+            }
+        }
+        int contentHeight = 0;
+        if (!labels.isEmpty()) {
+            contentHeight = labelHeight;
+        }
+        if (!avatarUrls.isEmpty()) {
+            contentHeight = Math.max(contentHeight, avatarSize);
+        }
+        setMeasuredDimension(
+                resolveSize(contentWidth + getPaddingLeft() + getPaddingRight(), widthMeasureSpec),
+                resolveSize(contentHeight + getPaddingTop() + getPaddingBottom(), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        pillsDirty = true;
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        if (pillsDirty) {
+            layoutPills();
+            pillsDirty = false;
+        }
+    }
+
+    @Override
+    public void onRtlPropertiesChanged(int layoutDirection) {
+        super.onRtlPropertiesChanged(layoutDirection);
+        pillsDirty = true;
+    }
+
+    /**
+     * Calculates bounds and ellipsized titles of all {@link Label}s once per layout pass instead of once per frame.
+     * Like a non wrapping flexbox, all {@link Label}s shrink in proportion to their width if there is not enough space.
+     */
+    private void layoutPills() {
+        pills.clear();
+        if (labels.isEmpty()) {
+            return;
+        }
+        final int avatarsWidth = getAvatarsWidth();
+        final float available = getWidth() - getPaddingLeft() - getPaddingRight() - (avatarsWidth > 0 ? avatarsWidth + gutter : 0);
+        final float[] widths = new float[labels.size()];
+        float total = 0;
+        for (int i = 0; i < labels.size(); i++) {
+            widths[i] = compactMode
+                    ? (getWidth() - getPaddingLeft() - getPaddingRight()) * COMPACT_LABEL_WIDTH_PERCENT
+                    : getTextWidth(labels.get(i).getTitle()) + gutter * 4;
+            total += widths[i] + gutter;
+        }
+        final float overflow = total - available;
+        final float totalWidths = total - gutter * labels.size();
+        final float minWidth = compactMode ? 0 : gutter * 4;
+        final boolean rtl = getLayoutDirection() == LAYOUT_DIRECTION_RTL;
+        final float top = getPaddingTop() + (getHeight() - getPaddingTop() - getPaddingBottom() - labelHeight) / 2f;
+        float x = 0;
+        for (int i = 0; i < labels.size() && x < available; i++) {
+            float width = widths[i];
+            if (overflow > 0 && totalWidths > 0) {
+                width = Math.max(minWidth, width - overflow * widths[i] / totalWidths);
+            }
+            width = Math.min(width, available - x);
+            if (width <= 0) {
+                break;
+            }
+            final var pill = new Pill(labels.get(i));
+            pill.bounds.set(x, top, x + width, top + labelHeight);
+            if (rtl) {
+                pill.bounds.set(getWidth() - getPaddingRight() - pill.bounds.right, pill.bounds.top, getWidth() - getPaddingRight() - pill.bounds.left, pill.bounds.bottom);
+            } else {
+                pill.bounds.offset(getPaddingLeft(), 0);
+            }
+            if (!compactMode) {
+                pill.text = TextUtils.ellipsize(Objects.toString(labels.get(i).getTitle(), ""), textPaint, width - gutter * 4, TextUtils.TruncateAt.MIDDLE);
+            }
+            pills.add(pill);
+            x += width + gutter;
+        }
+    }
+
+    private float getTextWidth(@Nullable String text) {
+        if (text == null) {
+            return 0;
+        }
+        final String key = textPaint.getTextSize() + ":" + text;
+        Float width = TEXT_WIDTH_CACHE.get(key);
+        if (width == null) {
+            width = textPaint.measureText(text);
+            TEXT_WIDTH_CACHE.put(key, width);
+        }
+        return width;
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+
+        final var fontMetrics = textPaint.getFontMetrics();
+        for (final var pill : pills) {
+            final float radius = pill.bounds.height() / 2;
+            pillPaint.setColor(pill.backgroundColor);
+            canvas.drawRoundRect(pill.bounds, radius, radius, pillPaint);
+            if (!TextUtils.isEmpty(pill.text)) {
+                textPaint.setColor(pill.textColor);
+                final float baseline = pill.bounds.centerY() - (fontMetrics.ascent + fontMetrics.descent) / 2;
+                canvas.drawText(pill.text, 0, pill.text.length(), pill.bounds.left + gutter * 2, baseline, textPaint);
+            }
+        }
+
+        final boolean rtl = getLayoutDirection() == LAYOUT_DIRECTION_RTL;
+        final float top = getPaddingTop() + (getHeight() - getPaddingTop() - getPaddingBottom() - avatarSize) / 2f;
+        for (int i = 0; i < avatarBitmaps.length; i++) {
+            final float left = rtl
+                    ? getPaddingLeft() + i * overlapPx
+                    : getWidth() - getPaddingRight() - avatarSize - i * overlapPx;
+            avatarBounds.set(left, top, left + avatarSize, top + avatarSize);
+            canvas.drawOval(avatarBounds, avatarBorderPaint);
+            avatarBounds.inset(avatarBorderSize, avatarBorderSize);
+            final var bitmap = avatarBitmaps[i];
+            if (bitmap == null) {
+                avatarPlaceholder.setBounds((int) avatarBounds.left, (int) avatarBounds.top, (int) avatarBounds.right, (int) avatarBounds.bottom);
+                avatarPlaceholder.draw(canvas);
+            } else {
+                canvas.drawBitmap(bitmap, null, avatarBounds, avatarPaint);
+            }
+        }
+    }
+
+    private class Pill {
+        private final RectF bounds = new RectF();
+        @ColorInt
+        private final int backgroundColor;
+        @ColorInt
+        private final int textColor;
+        @Nullable
+        private CharSequence text;
+
+        private Pill(@NonNull Label label) {
+            @ColorInt int background = defaultColor;
+            @ColorInt int foreground;
+            try {
+                if (label.getColor() != null) {
+                    background = label.getColor();
+                }
+                foreground = ColorUtil.getForegroundColorForBackgroundColor(background);
+            } catch (IllegalArgumentException e) {
+                DeckLog.logError(e);
+                background = defaultColor;
+                foreground = ColorUtil.getForegroundColorForBackgroundColor(defaultColor);
+            }
+            this.backgroundColor = background;
+            this.textColor = foreground;
+        }
+    }
+}
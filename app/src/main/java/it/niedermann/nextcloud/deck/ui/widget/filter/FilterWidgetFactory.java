@@ -13,7 +13,6 @@ import java.util.List;
 
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.R;
-import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.widget.filter.dto.FilterWidgetCard;
 import it.niedermann.nextcloud.deck.repository.BaseRepository;
 
@@ -60,10 +59,10 @@ public class FilterWidgetFactory implements RemoteViewsService.RemoteViewsFactor
             return null;
         }
 
-        FullCard card = data.get(i).getCard();
+        final FilterWidgetCard card = data.get(i);
 
         widget_entry = new RemoteViews(context.getPackageName(), R.layout.widget_stack_entry);
-        widget_entry.setTextViewText(R.id.widget_entry_content_tv, card.card.getTitle());
+        widget_entry.setTextViewText(R.id.widget_entry_content_tv, card.getTitle());
 
         return widget_entry;
     }
@@ -10,10 +10,9 @@ import android.widget.RemoteViewsService;
 import androidx.annotation.NonNull;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 
 import it.niedermann.nextcloud.deck.DeckLog;
 import it.niedermann.nextcloud.deck.R;
@@ -47,7 +46,6 @@ public class StackWidgetFactory implements RemoteViewsService.RemoteViewsFactory
             final List<FilterWidgetCard> response = baseRepository.getCardsForFilterWidget(appWidgetId);
             DeckLog.verbose(StackWidget.class.getSimpleName(), "with id", appWidgetId, "fetched", response.size(), "cards from the database.");
             data.clear();
-            Collections.sort(response, Comparator.comparingLong(value -> value.getCard().getCard().getOrder()));
             data.addAll(response);
         } catch (NoSuchElementException e) {
             DeckLog.error("No", StackWidget.class.getSimpleName(), "for appWidgetId", appWidgetId, "found.");
@@ -76,9 +74,9 @@ public class StackWidgetFactory implements RemoteViewsService.RemoteViewsFactory
         final FilterWidgetCard filterWidgetCard = data.get(i);
 
         widget_entry = new RemoteViews(context.getPackageName(), R.layout.widget_stack_entry);
-        widget_entry.setTextViewText(R.id.widget_entry_content_tv, filterWidgetCard.getCard().getCard().getTitle());
+        widget_entry.setTextViewText(R.id.widget_entry_content_tv, filterWidgetCard.getTitle());
 
-        final Intent intent = EditActivity.createEditCardIntent(context,  baseRepository.readAccountDirectly(filterWidgetCard.getCard().getAccountId()), filterWidgetCard.getStack().getBoardId(), filterWidgetCard.getCard().getLocalId());
+        final Intent intent = EditActivity.createEditCardIntent(context, Objects.requireNonNull(filterWidgetCard.getAccount()), filterWidgetCard.getBoardId(), filterWidgetCard.getLocalId());
         intent.setData(Uri.parse(intent.toUri(Intent.URI_INTENT_SCHEME)));
         widget_entry.setOnClickFillInIntent(R.id.widget_stack_entry, intent);
 
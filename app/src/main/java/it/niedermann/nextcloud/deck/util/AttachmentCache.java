@@ -0,0 +1,256 @@
+package it.niedermann.nextcloud.deck.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.preference.PreferenceManager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+import it.niedermann.nextcloud.deck.R;
+import it.niedermann.nextcloud.deck.model.Attachment;
+
+/**
+ * Content addressed on-disk cache for {@link Attachment}s.
+ * <p>
+ * Entries are keyed by the remote identity of an {@link Attachment} (<code>fileId</code> or remote id) plus a hash of its
+ * <code>ETag</code>, so a changed file on the server results in a new entry while an unchanged one is never downloaded twice.
+ * The least recently used entries get evicted as soon as the configured byte budget is exceeded, except entries of pinned
+ * {@link Attachment}s which are kept for offline availability.
+ */
+public class AttachmentCache {
+
+    private static final String CACHE_DIR = "attachment-cache";
+    private static final String PINNED_PREFERENCES = "it.niedermann.nextcloud.deck.attachment_cache_pinned";
+    private static final String PINNED_KEY = "pinned";
+    private static final String TEMP_SUFFIX = ".part";
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    @NonNull
+    private final Context context;
+    @NonNull
+    private final File cacheDir;
+    @NonNull
+    private final SharedPreferences pinnedPreferences;
+
+    public AttachmentCache(@NonNull Context context) {
+        this.context = context.getApplicationContext();
+        this.cacheDir = new File(this.context.getFilesDir(), CACHE_DIR);
+        this.pinnedPreferences = this.context.getSharedPreferences(PINNED_PREFERENCES, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * @return the locally cached {@link File} of the given {@link Attachment} if it is available in the current version
+     */
+    public Optional<File> get(long accountId, @NonNull Attachment attachment) {
+        return getEntryName(accountId, attachment)
+                .map(name -> new File(cacheDir, name))
+                .filter(File::isFile)
+                .map(file -> {
+                    //noinspection ResultOfMethodCallIgnored
+                    file.setLastModified(System.currentTimeMillis());
+                    return file;
+                });
+    }
+
+    /**
+     * Stores the content of the given {@link InputStream} as the current version of the {@link Attachment} and removes outdated versions of it.
+     */
+    @WorkerThread
+    public File put(long accountId, @NonNull Attachment attachment, @NonNull InputStream inputStream) throws IOException {
+        final var name = getEntryName(accountId, attachment).orElseThrow(() -> new IllegalArgumentException("Attachment has no remote identity yet"));
+        final var temp = createTempFile(name);
+        try (final var source = Channels.newChannel(inputStream);
+             final var target = new FileOutputStream(temp).getChannel()) {
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, BYTES_PER_MEGABYTE)) > 0) {
+                position += transferred;
+            }
+        }
+        return commit(accountId, attachment, name, temp);
+    }
+
+    /**
+     * Copies the given local {@link File} (for example after uploading it) as the current version of the {@link Attachment}.
+     */
+    @WorkerThread
+    public File put(long accountId, @NonNull Attachment attachment, @NonNull File source) throws IOException {
+        final var name = getEntryName(accountId, attachment).orElseThrow(() -> new IllegalArgumentException("Attachment has no remote identity yet"));
+        final var temp = createTempFile(name);
+        try (final var in = new FileInputStream(source).getChannel();
+             final var out = new FileOutputStream(temp).getChannel()) {
+            FilesUtil.transfer(in, out);
+        }
+        return commit(accountId, attachment, name, temp);
+    }
+
+    /**
+     * Pinned {@link Attachment}s are excluded from eviction to make them available while being offline.
+     */
+    public synchronized void setPinned(long accountId, @NonNull Attachment attachment, boolean pinned) {
+        getIdentity(accountId, attachment).ifPresent(identity -> {
+            final Set<String> pins = new HashSet<>(pinnedPreferences.getStringSet(PINNED_KEY, Set.of()));
+            if (pinned ? pins.add(identity) : pins.remove(identity)) {
+                pinnedPreferences.edit().putStringSet(PINNED_KEY, pins).apply();
+            }
+        });
+    }
+
+    public boolean isPinned(long accountId, @NonNull Attachment attachment) {
+        return getIdentity(accountId, attachment)
+                .map(identity -> pinnedPreferences.getStringSet(PINNED_KEY, Set.of()).contains(identity))
+                .orElse(false);
+    }
+
+    /**
+     * Evicts least recently used, not pinned entries until the cache fits into the configured byte budget.
+     */
+    @WorkerThread
+    public synchronized void trimToSize() {
+        trimToSize(getMaxSize());
+    }
+
+    @WorkerThread
+    public synchronized void trimToSize(long maxBytes) {
+        final var entries = cacheDir.listFiles(file -> file.isFile() && !file.getName().endsWith(TEMP_SUFFIX));
+        if (entries == null) {
+            return;
+        }
+
+        long size = 0;
+        for (final var entry : entries) {
+            size += entry.length();
+        }
+
+        if (size <= maxBytes) {
+            return;
+        }
+
+        final var pins = pinnedPreferences.getStringSet(PINNED_KEY, Set.of());
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+        for (final var entry : entries) {
+            if (size <= maxBytes) {
+                break;
+            }
+            if (pins.contains(getIdentity(entry.getName()))) {
+                continue;
+            }
+            final long length = entry.length();
+            if (entry.delete()) {
+                size -= length;
+                DeckLog.verbose("Evicted", entry.getName(), "from attachment cache");
+            }
+        }
+    }
+
+    /**
+     * @return the configured byte budget of this cache
+     */
+    public long getMaxSize() {
+        final var sharedPreferences = PreferenceManager.getDefaultSharedPreferences(context);
+        final var defaultValue = context.getString(R.string.pref_value_attachment_cache_size_default);
+        try {
+            return Long.parseLong(sharedPreferences.getString(context.getString(R.string.pref_key_attachment_cache_size), defaultValue)) * BYTES_PER_MEGABYTE;
+        } catch (NumberFormatException e) {
+            return Long.parseLong(defaultValue) * BYTES_PER_MEGABYTE;
+        }
+    }
+
+    @NonNull
+    private File createTempFile(@NonNull String name) throws IOException {
+        if (!cacheDir.exists() && !FilesUtil.createTempCacheDirectory(cacheDir)) {
+            throw new IOException("Could not create attachment cache directory");
+        }
+        final var temp = new File(cacheDir, name + TEMP_SUFFIX);
+        if (temp.exists() && !temp.delete()) {
+            throw new IOException("Could not delete stale temporary file " + temp.getName());
+        }
+        return temp;
+    }
+
+    @NonNull
+    private File commit(long accountId, @NonNull Attachment attachment, @NonNull String name, @NonNull File temp) throws IOException {
+        final var target = new File(cacheDir, name);
+        if (!temp.renameTo(target)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw new IOException("Could not move " + temp.getName() + " into attachment cache");
+        }
+
+        final var identity = getIdentity(accountId, attachment).orElseThrow();
+        final var outdated = cacheDir.listFiles(file -> !file.getName().equals(name) && identity.equals(getIdentity(file.getName())));
+        if (outdated != null) {
+            for (final var file : outdated) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+
+        trimToSize();
+        return target;
+    }
+
+    /**
+     * @return <code>accountId_remoteIdentity_contentHash[.extension]</code>
+     */
+    private static Optional<String> getEntryName(long accountId, @NonNull Attachment attachment) {
+        return getIdentity(accountId, attachment).map(identity -> {
+            final var extension = attachment.getExtension();
+            return identity + "_" + getContentHash(attachment) + (TextUtils.isEmpty(extension) ? "" : "." + extension.replaceAll("[^A-Za-z0-9]", ""));
+        });
+    }
+
+    private static Optional<String> getIdentity(long accountId, @NonNull Attachment attachment) {
+        if (attachment.getFileId() != null) {
+            return Optional.of(accountId + "_f" + attachment.getFileId());
+        } else if (attachment.getId() != null) {
+            return Optional.of(accountId + "_a" + attachment.getId());
+        }
+        return Optional.empty();
+    }
+
+    @Nullable
+    private static String getIdentity(@NonNull String entryName) {
+        final int separator = entryName.lastIndexOf('_');
+        return separator < 0 ? null : entryName.substring(0, separator);
+    }
+
+    /**
+     * Falls back to modification date and file size in case the server did not provide an <code>ETag</code>.
+     */
+    @NonNull
+    private static String getContentHash(@NonNull Attachment attachment) {
+        final var source = TextUtils.isEmpty(attachment.getEtag())
+                ? attachment.getLastModified() + "/" + attachment.getFilesize()
+                : attachment.getEtag();
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            final var hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(source.hashCode());
+        }
+    }
+}
@@ -10,12 +10,14 @@ import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.Px;
+import androidx.core.content.FileProvider;
 
 import com.nextcloud.android.sso.helper.VersionCheckHelper;
 import com.nextcloud.android.sso.model.FilesAppType;
 
 import java.util.Optional;
 
+import it.niedermann.nextcloud.deck.BuildConfig;
 import it.niedermann.nextcloud.deck.R;
 import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.Attachment;
@@ -95,14 +97,29 @@ public class AttachmentUtil {
      * @return an optional {@link Intent} to open the {@param attachment} in the Nextcloud Files app with a fallback to the web browser.
      */
     @NonNull
-    public static Optional<Intent> generateOpenAttachmentIntent(@NonNull Account account,
-                                                                @NonNull Context context,
-                                                                @Nullable Long cardRemoteId,
-                                                                @NonNull Attachment attachment) {
+    public static Optional<Intent> generateOpenRemoteAttachmentIntent(@NonNull Account account,
+                                                                      @NonNull Context context,
+                                                                      @Nullable Long cardRemoteId,
+                                                                      @NonNull Attachment attachment) {
         return generateOpenAttachmentInNextcloudFilesIntent(context, account, attachment)
                 .or(() -> generateOpenAttachmentInBrowserIntent(context.getPackageManager(), account, cardRemoteId, attachment));
     }
 
+    /**
+     * @return an optional {@link Intent} to open the {@param attachment} from the local {@link AttachmentCache} if it is cached and an app can handle it.
+     */
+    @NonNull
+    public static Optional<Intent> generateOpenCachedAttachmentIntent(@NonNull Context context,
+                                                                      @NonNull Account account,
+                                                                      @NonNull Attachment attachment) {
+        final var packageManager = context.getPackageManager();
+        return new AttachmentCache(context).get(account.getId(), attachment)
+                .map(file -> new Intent(Intent.ACTION_VIEW)
+                        .setDataAndType(FileProvider.getUriForFile(context, BuildConfig.APPLICATION_ID + ".provider", file), attachment.getMimetype())
+                        .addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION))
+                .filter(intent -> packageManager.resolveActivity(intent, 0) != null);
+    }
+
     @NonNull
     private static Optional<Intent> generateOpenAttachmentInNextcloudFilesIntent(@NonNull Context context,
                                                                                  @NonNull Account account,
@@ -4,8 +4,11 @@ import androidx.annotation.NonNull;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -23,6 +26,17 @@ public class ExecutorServiceProvider {
         }
     };
 
+    /**
+     * Only waits for delays and hands the actual work over to {@link #EXECUTOR}
+     */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final var thread = new Thread(runnable, "deck-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ExponentialBackoff RETRY_BACKOFF = new ExponentialBackoff(100, 5_000);
+
     private ExecutorServiceProvider() {
         // hide Constructor
     }
@@ -31,6 +45,13 @@ public class ExecutorServiceProvider {
         return EXECUTOR;
     }
 
+    /**
+     * Submits the given {@param runnable} to the {@link #getLinkedBlockingQueueExecutor()} after the given delay.
+     */
+    public static void submitDelayed(@NonNull Runnable runnable, long delayMillis) {
+        SCHEDULER.schedule(() -> EXECUTOR.submit(runnable), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
     public static void awaitExecution(@NonNull Runnable runnable) {
         final var latch = new CountDownLatch(1);
         EXECUTOR.submit(() -> {
@@ -69,9 +90,11 @@ public class ExecutorServiceProvider {
                     DeckLog.error("Error executing task, already retried", maxRetries, " times, giving up. Error causing this:", DeckLog.getStacktraceAsString(e));
                     throw e;
                 }
-                DeckLog.error("Error executing task, retrying for", retriesLeft, " more times. Error causing this:", DeckLog.getStacktraceAsString(e));
+                final long delayMillis = RETRY_BACKOFF.getDelayMillis(maxRetries - retriesLeft);
+                DeckLog.error("Error executing task, retrying in", delayMillis, "ms for", retriesLeft, " more times. Error causing this:", DeckLog.getStacktraceAsString(e));
                 retriesLeft--;
-                EXECUTOR.submit(this);
+                // Wrapped in a FutureTask instead of submitting it again, which would wrap it in another RetryableRunnable
+                SCHEDULER.schedule(() -> EXECUTOR.execute(new FutureTask<>(this, null)), delayMillis, TimeUnit.MILLISECONDS);
             }
         }
     }
@@ -0,0 +1,38 @@
+package it.niedermann.nextcloud.deck.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.Random;
+
+/**
+ * Calculates delays which double with each attempt up to a maximum.
+ * Half of each delay is picked randomly, so clients which failed at the same time do not retry at the same time again.
+ */
+public class ExponentialBackoff {
+
+    private final long baseMillis;
+    private final long maxMillis;
+    @NonNull
+    private final Random random;
+
+    public ExponentialBackoff(long baseMillis, long maxMillis) {
+        this(baseMillis, maxMillis, new Random());
+    }
+
+    @VisibleForTesting
+    ExponentialBackoff(long baseMillis, long maxMillis, @NonNull Random random) {
+        this.baseMillis = baseMillis;
+        this.maxMillis = maxMillis;
+        this.random = random;
+    }
+
+    /**
+     * @param attempt <code>0</code> for the delay before the first retry
+     */
+    public long getDelayMillis(int attempt) {
+        final long ceiling = Math.min(maxMillis, baseMillis << Math.min(Math.max(attempt, 0), 30));
+        final long half = ceiling / 2;
+        return half + (long) (random.nextDouble() * (ceiling - half));
+    }
+}
@@ -1,6 +1,7 @@
 package it.niedermann.nextcloud.deck.util;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.net.Uri;
 
 import androidx.annotation.NonNull;
@@ -10,6 +11,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 
 import it.niedermann.nextcloud.deck.DeckLog;
 
@@ -29,18 +31,36 @@ public class FilesUtil {
      */
     @WorkerThread
     public static File copyContentUriToTempFile(@NonNull Context context, @NonNull Uri currentUri, long accountId, Long localCardId) throws IOException, IllegalArgumentException {
-        final File cacheFile;
-        try (var inputStream = context.getContentResolver().openInputStream(currentUri)) {
-            if (inputStream == null) {
-                throw new IOException("Could not open input stream for " + currentUri.getPath());
+        final var cacheFile = getTempCacheFile(context, "attachments/account-" + accountId + "/card-" + (localCardId == null ? "pending-creation" : localCardId) + '/' + UriUtils.getDisplayNameForUri(currentUri, context));
+        try (var descriptor = context.getContentResolver().openAssetFileDescriptor(currentUri, "r")) {
+            if (descriptor == null) {
+                throw new IOException("Could not open file descriptor for " + currentUri.getPath());
             }
-            cacheFile = getTempCacheFile(context, "attachments/account-" + accountId + "/card-" + (localCardId == null ? "pending-creation" : localCardId) + '/' + UriUtils.getDisplayNameForUri(currentUri, context));
-            try (var outputStream = new FileOutputStream(cacheFile)) {
-                byte[] buffer = new byte[4096];
+            try (var inputStream = descriptor.createInputStream();
+                 var outputStream = new FileOutputStream(cacheFile)) {
+                final var source = inputStream.getChannel();
+                final var target = outputStream.getChannel();
+                source.position(descriptor.getStartOffset());
+                if (descriptor.getDeclaredLength() == AssetFileDescriptor.UNKNOWN_LENGTH) {
+                    transfer(source, target);
+                } else {
+                    transfer(source, target, descriptor.getDeclaredLength());
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // Some providers (e. g. pipes or streamed cloud documents) are not seekable, fall back to plain streams
+            DeckLog.verbose("Could not copy", currentUri, "using channels, falling back to streams:", e.getMessage());
+            try (var inputStream = context.getContentResolver().openInputStream(currentUri)) {
+                if (inputStream == null) {
+                    throw new IOException("Could not open input stream for " + currentUri.getPath());
+                }
+                try (var outputStream = new FileOutputStream(cacheFile)) {
+                    byte[] buffer = new byte[8192];
 
-                int count;
-                while ((count = inputStream.read(buffer)) > 0) {
-                    outputStream.write(buffer, 0, count);
+                    int count;
+                    while ((count = inputStream.read(buffer)) > 0) {
+                        outputStream.write(buffer, 0, count);
+                    }
                 }
             }
         }
@@ -48,6 +68,27 @@ public class FilesUtil {
         return cacheFile;
     }
 
+    /**
+     * Copies the remaining content of {@param source} to {@param target} without moving it through the Java heap.
+     */
+    @WorkerThread
+    public static void transfer(@NonNull FileChannel source, @NonNull FileChannel target) throws IOException {
+        transfer(source, target, source.size() - source.position());
+    }
+
+    @WorkerThread
+    private static void transfer(@NonNull FileChannel source, @NonNull FileChannel target, long count) throws IOException {
+        long position = source.position();
+        final long end = position + count;
+        while (position < end) {
+            final long transferred = source.transferTo(position, end - position, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+        }
+    }
+
     /**
      * Creates a temporary cache directory in a synchronized manner, in order to mitigate multi-threaded collisions
      * @param tempDir - Temporal Cache Directory
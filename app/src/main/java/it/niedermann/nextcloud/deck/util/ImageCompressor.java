@@ -0,0 +1,178 @@
+package it.niedermann.nextcloud.deck.util;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Px;
+import androidx.annotation.WorkerThread;
+import androidx.exifinterface.media.ExifInterface;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import it.niedermann.nextcloud.deck.DeckLog;
+
+/**
+ * Compresses images before they get uploaded as attachments.
+ * <p>
+ * Decoding happens with {@link BitmapFactory.Options#inSampleSize} so full resolution camera output never needs to be held in memory,
+ * the EXIF orientation is applied to the pixels because it gets lost on re-encoding.
+ * Compression jobs run on a pool bounded to the number of cores which is independent of any {@link android.app.Activity} lifecycle.
+ */
+public class ImageCompressor {
+
+    private static final int NUMBER_OF_CORES = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(NUMBER_OF_CORES, NUMBER_OF_CORES,
+            30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    /**
+     * Pixel memory of all bitmaps currently held by compression jobs. Since Android 8 pixels are allocated natively and are therefore not part of the Java heap.
+     */
+    private static final AtomicLong BITMAP_BYTES_IN_USE = new AtomicLong();
+    private static final AtomicLong MEMORY_HIGH_WATER_MARK = new AtomicLong();
+
+    static {
+        ((ThreadPoolExecutor) EXECUTOR).allowCoreThreadTimeOut(true);
+    }
+
+    private ImageCompressor() {
+        throw new UnsupportedOperationException("This class must not get instantiated");
+    }
+
+    /**
+     * Downscales the given {@param source} to fit into <code>maxWidth</code> × <code>maxHeight</code> and encodes it as JPEG.
+     * The quality gets reduced step by step until the result is smaller than <code>maxBytes</code>.
+     *
+     * @return a future holding the compressed file which is stored next to the {@param source}
+     */
+    @AnyThread
+    public static CompletableFuture<File> compress(@NonNull File source,
+                                                   @Px int maxWidth,
+                                                   @Px int maxHeight,
+                                                   long maxBytes,
+                                                   @IntRange(from = 10, to = 100) int quality) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return compressDirectly(source, maxWidth, maxHeight, maxBytes, quality);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, EXECUTOR);
+    }
+
+    @WorkerThread
+    private static File compressDirectly(@NonNull File source, @Px int maxWidth, @Px int maxHeight, long maxBytes, int quality) throws IOException {
+        final long start = System.currentTimeMillis();
+        final var bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(source.getAbsolutePath(), bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Could not decode bounds of " + source.getName());
+        }
+
+        final int orientation = new ExifInterface(source.getAbsolutePath()).getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        final boolean swapDimensions = orientation == ExifInterface.ORIENTATION_ROTATE_90 || orientation == ExifInterface.ORIENTATION_ROTATE_270
+                || orientation == ExifInterface.ORIENTATION_TRANSPOSE || orientation == ExifInterface.ORIENTATION_TRANSVERSE;
+        final int targetWidth = swapDimensions ? maxHeight : maxWidth;
+        final int targetHeight = swapDimensions ? maxWidth : maxHeight;
+
+        final var options = new BitmapFactory.Options();
+        options.inSampleSize = calculateInSampleSize(bounds.outWidth, bounds.outHeight, targetWidth, targetHeight);
+        final var sampled = BitmapFactory.decodeFile(source.getAbsolutePath(), options);
+        if (sampled == null) {
+            throw new IOException("Could not decode " + source.getName());
+        }
+        trackAllocation(sampled);
+
+        final float scale = Math.min(1f, Math.min((float) targetWidth / sampled.getWidth(), (float) targetHeight / sampled.getHeight()));
+        final var matrix = getMatrixForOrientation(orientation);
+        matrix.postScale(scale, scale);
+        final var bitmap = matrix.isIdentity()
+                ? sampled
+                : Bitmap.createBitmap(sampled, 0, 0, sampled.getWidth(), sampled.getHeight(), matrix, true);
+        if (bitmap != sampled) {
+            trackAllocation(bitmap);
+            recycle(sampled);
+        }
+
+        final var target = new File(source.getParentFile(), getNameWithoutExtension(source) + "-compressed.jpg");
+        try {
+            int currentQuality = quality;
+            do {
+                try (final var outputStream = new FileOutputStream(target)) {
+                    bitmap.compress(Bitmap.CompressFormat.JPEG, currentQuality, outputStream);
+                }
+                currentQuality -= 10;
+            } while (target.length() > maxBytes && currentQuality >= 10);
+        } catch (IOException e) {
+            if (target.exists() && !target.delete()) {
+                DeckLog.warn("Could not delete incomplete", target.getAbsolutePath());
+            }
+            throw e;
+        } finally {
+            recycle(bitmap);
+        }
+
+        DeckLog.verbose("Compressed", source.getName(), "(" + bounds.outWidth + "×" + bounds.outHeight + ", " + source.length() + " bytes) to",
+                target.length(), "bytes in", System.currentTimeMillis() - start, "ms, bitmap memory high water mark:", MEMORY_HIGH_WATER_MARK.get() / 1024, "KiB");
+        return target;
+    }
+
+    /**
+     * @return the largest power of two which keeps both dimensions larger than or equal to the requested ones
+     */
+    static int calculateInSampleSize(int width, int height, int requestedWidth, int requestedHeight) {
+        int inSampleSize = 1;
+        while ((width / (inSampleSize * 2)) >= requestedWidth && (height / (inSampleSize * 2)) >= requestedHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    @NonNull
+    private static Matrix getMatrixForOrientation(int orientation) {
+        final var matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL -> matrix.setScale(-1, 1);
+            case ExifInterface.ORIENTATION_ROTATE_180 -> matrix.setRotate(180);
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL -> matrix.setScale(1, -1);
+            case ExifInterface.ORIENTATION_TRANSPOSE -> {
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+            }
+            case ExifInterface.ORIENTATION_ROTATE_90 -> matrix.setRotate(90);
+            case ExifInterface.ORIENTATION_TRANSVERSE -> {
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+            }
+            case ExifInterface.ORIENTATION_ROTATE_270 -> matrix.setRotate(-90);
+        }
+        return matrix;
+    }
+
+    private static void trackAllocation(@NonNull Bitmap bitmap) {
+        MEMORY_HIGH_WATER_MARK.accumulateAndGet(BITMAP_BYTES_IN_USE.addAndGet(bitmap.getAllocationByteCount()), Math::max);
+    }
+
+    private static void recycle(@NonNull Bitmap bitmap) {
+        BITMAP_BYTES_IN_USE.addAndGet(-bitmap.getAllocationByteCount());
+        bitmap.recycle();
+    }
+
+    @NonNull
+    private static String getNameWithoutExtension(@NonNull File file) {
+        final var name = file.getName();
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
@@ -1,6 +1,10 @@
 package it.niedermann.nextcloud.deck.database;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static java.lang.reflect.Modifier.isProtected;
 import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createAccount;
@@ -27,6 +31,7 @@ import org.robolectric.RobolectricTestRunner;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -38,9 +43,18 @@ import java.util.concurrent.ExecutorService;
 
 import it.niedermann.nextcloud.deck.TestUtil;
 import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.JoinCardWithUser;
 import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.User;
+import it.niedermann.nextcloud.deck.model.enums.DBStatus;
+import it.niedermann.nextcloud.deck.model.enums.ESyncCheckpointType;
 import it.niedermann.nextcloud.deck.model.full.FullCard;
 import it.niedermann.nextcloud.deck.model.interfaces.IRemoteEntity;
+import it.niedermann.nextcloud.deck.model.widget.filter.EWidgetType;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidget;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetAccount;
+import it.niedermann.nextcloud.deck.model.widget.filter.FilterWidgetBoard;
+import it.niedermann.nextcloud.deck.remote.helpers.providers.CardUserRelationshipProvider;
 
 @RunWith(RobolectricTestRunner.class)
 public class DataBaseAdapterTest {
@@ -150,6 +164,176 @@ public class DataBaseAdapterTest {
         assertTrue(containsCard(result, stack2, card2_1));
     }
 
+    @Test
+    public void testSearchCardsInAllBoards() {
+        final var account1 = createAccount(db.getAccountDao());
+        final var account2 = createAccount(db.getAccountDao());
+        final var board1 = createBoard(db.getBoardDao(), account1, createUser(db.getUserDao(), account1));
+        final var board2 = createBoard(db.getBoardDao(), account2, createUser(db.getUserDao(), account2));
+        final var stack1 = createStack(db.getStackDao(), account1, board1);
+        final var stack2 = createStack(db.getStackDao(), account2, board2);
+
+        createCard(db.getCardDao(), account1, stack1, "Foo", "Hello world");
+        final var card1_2 = createCard(db.getCardDao(), account1, stack1, "Hello", "");
+        createCard(db.getCardDao(), account1, stack1, "Bar", "Hello Bar");
+        final var card2_1 = createCard(db.getCardDao(), account2, stack2, "Hello Qux", "");
+        createCard(db.getCardDao(), account2, stack2, "Lorem", "Ipsum");
+
+        card1_2.setLastModified(Instant.now().minusSeconds(60));
+        db.getCardDao().update(card1_2);
+        card2_1.setLastModified(Instant.now());
+        db.getCardDao().update(card2_1);
+
+        final var result = adapter.searchCardsInAllBoardsDirectly("Hello", 2);
+        assertEquals(2, result.size());
+        // Boards are ranked by their best match, the title match of board 2 has been modified last
+        assertEquals(board2.getLocalId(), result.get(0).fullBoard.getLocalId());
+
+        final var results1 = result.stream().filter(r -> Objects.equals(r.fullBoard.getLocalId(), board1.getLocalId())).findAny().orElseThrow();
+        assertEquals(account1.getId(), results1.account.getId());
+        assertEquals(2, results1.size());
+        assertEquals(3, results1.getMatchCount());
+        assertTrue(results1.isTruncated());
+        // Title matches rank first
+        assertEquals("Hello", results1.result.get(stack1).get(0).getCard().getTitle());
+
+        final var results2 = result.stream().filter(r -> Objects.equals(r.fullBoard.getLocalId(), board2.getLocalId())).findAny().orElseThrow();
+        assertEquals(1, results2.size());
+        assertEquals(card2_1.getLocalId(), results2.result.get(stack2).get(0).getLocalId());
+    }
+
+    @Test
+    public void testFilterRelationsForCards() throws InterruptedException {
+        final var account = createAccount(db.getAccountDao());
+        final var user1 = createUser(db.getUserDao(), account);
+        final var user2 = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, user1);
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var card1 = createCard(db.getCardDao(), account, stack);
+        final var card2 = createCard(db.getCardDao(), account, stack);
+
+        db.getJoinCardWithUserDao().insert(createJoin(card1, user1, DBStatus.UP_TO_DATE));
+        db.getJoinCardWithUserDao().insert(createJoin(card1, user2, DBStatus.LOCAL_DELETED));
+        db.getJoinCardWithUserDao().insert(createJoin(card2, user2, DBStatus.LOCAL_EDITED));
+
+        final var result = TestUtil.getOrAwaitValue(adapter.getFullCardsForStack(account.getId(), stack.getLocalId(), null));
+        assertEquals(2, result.size());
+        final var fullCard1 = result.stream().filter(fullCard -> Objects.equals(fullCard.getLocalId(), card1.getLocalId())).findAny().orElseThrow();
+        final var fullCard2 = result.stream().filter(fullCard -> Objects.equals(fullCard.getLocalId(), card2.getLocalId())).findAny().orElseThrow();
+        assertEquals(1, fullCard1.getAssignedUsers().size());
+        assertEquals(user1.getLocalId(), fullCard1.getAssignedUsers().get(0).getLocalId());
+        assertEquals(1, fullCard2.getAssignedUsers().size());
+        assertEquals(user2.getLocalId(), fullCard2.getAssignedUsers().get(0).getLocalId());
+    }
+
+    @Test
+    public void testApplyDeltaOfAssignedUsers() {
+        final var account = createAccount(db.getAccountDao());
+        final var kept = createUser(db.getUserDao(), account);
+        final var unassigned = createUser(db.getUserDao(), account);
+        final var locallyDeleted = createUser(db.getUserDao(), account);
+        final var assigned = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, kept);
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var card = createCard(db.getCardDao(), account, stack);
+
+        db.getJoinCardWithUserDao().insert(createJoin(card, kept, DBStatus.UP_TO_DATE));
+        db.getJoinCardWithUserDao().insert(createJoin(card, unassigned, DBStatus.UP_TO_DATE));
+        db.getJoinCardWithUserDao().insert(createJoin(card, locallyDeleted, DBStatus.LOCAL_DELETED));
+
+        new CardUserRelationshipProvider(card, List.of(kept, locallyDeleted, assigned)).applyDelta(adapter, account.getId());
+
+        final var joins = adapter.getAllJoinCardWithUsersForCardDirectly(card.getLocalId());
+        assertEquals(3, joins.size());
+        assertEquals(DBStatus.UP_TO_DATE, adapter.getJoinCardWithUser(kept.getLocalId(), card.getLocalId()).getStatusEnum());
+        assertNull(adapter.getJoinCardWithUser(unassigned.getLocalId(), card.getLocalId()));
+        assertEquals(DBStatus.LOCAL_DELETED, adapter.getJoinCardWithUser(locallyDeleted.getLocalId(), card.getLocalId()).getStatusEnum());
+        assertEquals(DBStatus.UP_TO_DATE, adapter.getJoinCardWithUser(assigned.getLocalId(), card.getLocalId()).getStatusEnum());
+    }
+
+    @Test
+    public void testCreateUsersIfNotExistingDirectlyExceedingSqlParameters() {
+        final var account = createAccount(db.getAccountDao());
+        final var existing = createUser(db.getUserDao(), account);
+        final List<User> users = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            final var user = new User();
+            user.setUid("user-" + i);
+            user.setPrimaryKey("user-" + i);
+            user.setDisplayname("User " + i);
+            users.add(user);
+        }
+        users.add(existing);
+
+        assertEquals(2_000, adapter.createUsersIfNotExistingDirectly(account.getId(), users).size());
+        assertTrue(adapter.createUsersIfNotExistingDirectly(account.getId(), users).isEmpty());
+    }
+
+    @Test
+    public void testSyncCheckpoints() {
+        final var account = createAccount(db.getAccountDao());
+        final var otherAccount = createAccount(db.getAccountDao());
+        final var before = Instant.now().minusSeconds(1);
+
+        assertNull(adapter.getSyncCheckpointCompletedAtSince(account.getId(), ESyncCheckpointType.STACK, 1, before));
+
+        adapter.saveSyncCheckpoint(account.getId(), ESyncCheckpointType.STACK, 1);
+        adapter.saveSyncCheckpoint(account.getId(), ESyncCheckpointType.STACK, 1);
+        adapter.saveSyncCheckpoint(otherAccount.getId(), ESyncCheckpointType.STACK, 1);
+
+        assertNotNull(adapter.getSyncCheckpointCompletedAtSince(account.getId(), ESyncCheckpointType.STACK, 1, before));
+        assertNull(adapter.getSyncCheckpointCompletedAtSince(account.getId(), ESyncCheckpointType.BOARD, 1, before));
+        assertNull(adapter.getSyncCheckpointCompletedAtSince(account.getId(), ESyncCheckpointType.STACK, 1, Instant.now().plusSeconds(60)));
+
+        adapter.deleteSyncCheckpoints(account.getId());
+
+        assertNull(adapter.getSyncCheckpointCompletedAtSince(account.getId(), ESyncCheckpointType.STACK, 1, before));
+        assertNotNull(adapter.getSyncCheckpointCompletedAtSince(otherAccount.getId(), ESyncCheckpointType.STACK, 1, before));
+    }
+
+    @Test
+    public void testGetCardsForFilterWidget() {
+        final var account1 = createAccount(db.getAccountDao());
+        final var account2 = createAccount(db.getAccountDao());
+        final var board1 = createBoard(db.getBoardDao(), account1, createUser(db.getUserDao(), account1));
+        final var board2 = createBoard(db.getBoardDao(), account1, createUser(db.getUserDao(), account1));
+        final var board3 = createBoard(db.getBoardDao(), account2, createUser(db.getUserDao(), account2));
+        final var stack1 = createStack(db.getStackDao(), account1, board1);
+        final var stack2 = createStack(db.getStackDao(), account1, board2);
+        final var stack3 = createStack(db.getStackDao(), account2, board3);
+        final var card1 = createCard(db.getCardDao(), account1, stack1);
+        createCard(db.getCardDao(), account1, stack2);
+        createCard(db.getCardDao(), account2, stack3);
+
+        final var widgetAccount = new FilterWidgetAccount(account1.getId(), false);
+        widgetAccount.setBoards(List.of(new FilterWidgetBoard(board1.getLocalId(), Collections.emptyList())));
+        final var widget = new FilterWidget(4711, EWidgetType.STACK_WIDGET);
+        widget.setAccounts(List.of(widgetAccount));
+        adapter.createFilterWidgetDirectly(widget);
+
+        var result = adapter.getCardsForFilterWidget(4711);
+        assertEquals(1, result.size());
+        assertEquals((long) card1.getLocalId(), result.get(0).getLocalId());
+        assertEquals((long) board1.getLocalId(), result.get(0).getBoardId());
+        assertEquals(account1.getId(), Objects.requireNonNull(result.get(0).getAccount()).getId());
+        assertSame("Unchanged snapshot must be reused", result, adapter.getCardsForFilterWidget(4711));
+
+        // Stacks which are added later must be taken into account without recompiling
+        final var stack4 = createStack(db.getStackDao(), account1, board1);
+        final var card4 = createCard(db.getCardDao(), account1, stack4);
+        result = adapter.getCardsForFilterWidget(4711);
+        assertEquals(2, result.size());
+        assertTrue(result.stream().anyMatch(card -> card.getLocalId() == card4.getLocalId()));
+    }
+
+    private JoinCardWithUser createJoin(@NonNull Card card, @NonNull User user, @NonNull DBStatus status) {
+        final var join = new JoinCardWithUser();
+        join.setCardId(card.getLocalId());
+        join.setUserId(user.getLocalId());
+        join.setStatusEnum(status);
+        return join;
+    }
+
     private int countCardsOf(@NonNull Map<Stack, List<FullCard>> map, @NonNull Stack stackToFind) {
         for (final var stack : map.keySet()) {
             if (Objects.equals(stack.getLocalId(), stackToFind.getLocalId())) {
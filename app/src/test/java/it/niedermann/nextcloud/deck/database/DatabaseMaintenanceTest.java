@@ -0,0 +1,91 @@
+package it.niedermann.nextcloud.deck.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createAccount;
+import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createBoard;
+import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createCard;
+import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createStack;
+import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createUser;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.enums.DBStatus;
+
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseMaintenanceTest {
+
+    private DeckDatabase db;
+
+    @Before
+    public void createDb() {
+        db = Room
+                .inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), DeckDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    @After
+    public void closeDb() {
+        db.close();
+    }
+
+    @Test
+    public void testPurgeTombstones() {
+        final var now = Instant.now();
+        final var account = createAccount(db.getAccountDao());
+        final var user = createUser(db.getUserDao(), account);
+        final var board = createBoard(db.getBoardDao(), account, user);
+        final var stack = createStack(db.getStackDao(), account, board);
+
+        final var expired = createDeletedCard(account.getId(), stack.getLocalId(), now.minus(60, ChronoUnit.DAYS), DBStatus.UP_TO_DATE);
+        final var recent = createDeletedCard(account.getId(), stack.getLocalId(), now.minus(1, ChronoUnit.DAYS), DBStatus.UP_TO_DATE);
+        final var pending = createDeletedCard(account.getId(), stack.getLocalId(), now.minus(60, ChronoUnit.DAYS), DBStatus.LOCAL_EDITED);
+        final var alive = createCard(db.getCardDao(), account, stack);
+
+        final var report = new DatabaseMaintenance(db).run(now);
+
+        assertEquals(1, report.getPurgedTombstones());
+        assertEquals(0, report.getRemovedOrphans());
+        assertNull(db.getCardDao().getCardByLocalIdDirectly(account.getId(), expired.getLocalId()));
+        assertNotNull(db.getCardDao().getCardByLocalIdDirectly(account.getId(), recent.getLocalId()));
+        assertNotNull(db.getCardDao().getCardByLocalIdDirectly(account.getId(), pending.getLocalId()));
+        assertNotNull(db.getCardDao().getCardByLocalIdDirectly(account.getId(), alive.getLocalId()));
+    }
+
+    @Test
+    public void testKeepDeletedBoards() {
+        final var now = Instant.now();
+        final var account = createAccount(db.getAccountDao());
+        final var board = createBoard(db.getBoardDao(), account, createUser(db.getUserDao(), account));
+        board.setDeletedAt(now.minus(60, ChronoUnit.DAYS));
+        board.setStatusEnum(DBStatus.UP_TO_DATE);
+        db.getBoardDao().update(board);
+
+        final var report = new DatabaseMaintenance(db).run(now);
+
+        assertEquals(0, report.getPurgedTombstones());
+        assertNotNull(db.getBoardDao().getBoardByLocalIdDirectly(board.getLocalId()));
+    }
+
+    private Card createDeletedCard(long accountId, long stackId, Instant deletedAt, DBStatus status) {
+        final var card = new Card("Deleted", "", stackId);
+        card.setAccountId(accountId);
+        card.setDeletedAt(deletedAt);
+        card.setStatusEnum(status);
+        card.setLocalId(db.getCardDao().insert(card));
+        return card;
+    }
+}
@@ -0,0 +1,227 @@
+package it.niedermann.nextcloud.deck.database;
+
+import static org.junit.Assert.assertEquals;
+import static java.util.stream.Collectors.toList;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Board;
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.JoinCardWithLabel;
+import it.niedermann.nextcloud.deck.model.JoinCardWithUser;
+import it.niedermann.nextcloud.deck.model.Label;
+import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.User;
+
+/**
+ * Migrates a large synthetic database from each older schema version which can be reconstructed to the current version.
+ * <p>
+ * Schemas have never been exported, so older databases are derived from the current schema by reverting the
+ * changes of the respective {@link androidx.room.migration.Migration}s. When adding a new migration, add the statements
+ * which revert it to {@link #DOWNGRADES}. The number of generated cards can be raised with the system property
+ * <code>deck.migrationBenchmark.cards</code>, for example to <code>50000</code>. Duration and peak heap of each migration path are written to
+ * {@link #REPORT_FILE}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class DeckDatabaseMigrationTest {
+
+    private static final String DB_NAME = "migration-test.db";
+    private static final Path REPORT_FILE = Paths.get("build", "reports", "deckDatabaseMigration.txt");
+    private static final int CURRENT_VERSION = 36;
+    private static final int CARDS = Integer.getInteger("deck.migrationBenchmark.cards", 2_000);
+    private static final int CARDS_PER_STACK = 100;
+    private static final int STACKS_PER_BOARD = 5;
+    private static final int LABELS_PER_BOARD = 5;
+
+    /**
+     * Statements which turn a database of the given version into one of the previous version
+     */
+    private static final Map<Integer, String[]> DOWNGRADES = Map.of(
+            36, new String[]{
+                    "DROP TABLE `SyncCheckpoint`",
+            },
+            35, new String[]{
+                    "ALTER TABLE `AccessControl` DROP COLUMN `contentHash`",
+                    "ALTER TABLE `Activity` DROP COLUMN `contentHash`",
+                    "ALTER TABLE `Attachment` DROP COLUMN `contentHash`",
+                    "ALTER TABLE `Board` DROP COLUMN `contentHash`",
+                    "ALTER TABLE `Card` DROP COLUMN `contentHash`",
+                    "ALTER TABLE `DeckComment` DROP COLUMN `contentHash`",
+                    "ALTER TABLE `Label` DROP COLUMN `contentHash`",
+                    "ALTER TABLE `OcsProject` DROP COLUMN `contentHash`",
+                    "ALTER TABLE `OcsProjectResource` DROP COLUMN `contentHash`",
+                    "ALTER TABLE `Stack` DROP COLUMN `contentHash`",
+                    "ALTER TABLE `User` DROP COLUMN `contentHash`",
+            },
+            34, new String[]{
+                    "DROP INDEX `index_Card_stackId_archived_order_createdAt`",
+                    "DROP INDEX `index_Card_dueDate_done`",
+                    "CREATE INDEX `index_Card_stackId` ON `Card` (`stackId`)",
+                    "DROP INDEX `index_JoinCardWithLabel_cardId_status`",
+                    "CREATE INDEX `index_JoinCardWithLabel_cardId` ON `JoinCardWithLabel` (`cardId`)",
+                    "DROP INDEX `index_JoinCardWithUser_cardId_status`",
+                    "CREATE INDEX `index_JoinCardWithUser_cardId` ON `JoinCardWithUser` (`cardId`)",
+                    "DROP INDEX `index_JoinCardWithProject_cardId_status`",
+                    "CREATE INDEX `index_JoinCardWithProject_cardId` ON `JoinCardWithProject` (`cardId`)",
+            },
+            33, new String[]{
+                    "ALTER TABLE `Card` DROP COLUMN `done`",
+            },
+            // Only shared preferences have been migrated
+            32, new String[0]
+    );
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    @After
+    public void deleteDb() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void testMigrateFromAllReconstructableVersions() throws IOException {
+        final int oldestVersion = CURRENT_VERSION - DOWNGRADES.size();
+        final List<String> results = new ArrayList<>();
+        for (int version = CURRENT_VERSION - 1; version >= oldestVersion; version--) {
+            context.deleteDatabase(DB_NAME);
+            createDatabase(version);
+
+            final var heapPools = ManagementFactory.getMemoryPoolMXBeans().stream().filter(pool -> pool.getType() == MemoryType.HEAP).collect(toList());
+            System.gc();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            final long start = System.nanoTime();
+
+            // No destructive fallback, Room throws if a migration is missing or produces an unexpected schema
+            final var db = Room.databaseBuilder(context, DeckDatabase.class, DB_NAME)
+                    .addMigrations(DeckDatabase.getMigrations(context))
+                    .allowMainThreadQueries()
+                    .build();
+            try {
+                final var sqlite = db.getOpenHelper().getWritableDatabase();
+                final long durationMillis = (System.nanoTime() - start) / 1_000_000;
+                final long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+                assertEquals(CURRENT_VERSION, sqlite.getVersion());
+                assertEquals("Data has been lost while migrating from " + version, CARDS, countRows(sqlite, "Card"));
+                assertEquals(CARDS, countRows(sqlite, "JoinCardWithLabel"));
+                assertEquals(CARDS, countRows(sqlite, "JoinCardWithUser"));
+
+                results.add(String.format("%d → %d: %d cards in %d ms, peak heap %d MiB", version, CURRENT_VERSION, CARDS, durationMillis, peakHeapBytes / 1024 / 1024));
+            } finally {
+                db.close();
+            }
+        }
+        assertEquals(String.join("\n", results), DOWNGRADES.size(), results.size());
+        Files.createDirectories(REPORT_FILE.getParent());
+        Files.write(REPORT_FILE, results);
+    }
+
+    /**
+     * Creates a database with the current schema, fills it and reverts it to the given version afterwards.
+     */
+    private void createDatabase(int version) {
+        final var db = Room.databaseBuilder(context, DeckDatabase.class, DB_NAME)
+                .allowMainThreadQueries()
+                .build();
+        try {
+            db.runInTransaction(() -> fill(db));
+        } finally {
+            db.close();
+        }
+
+        try (final var sqlite = SQLiteDatabase.openDatabase(context.getDatabasePath(DB_NAME).getPath(), null, SQLiteDatabase.OPEN_READWRITE)) {
+            for (int current = CURRENT_VERSION; current > version; current--) {
+                for (final var statement : DOWNGRADES.get(current)) {
+                    sqlite.execSQL(statement);
+                }
+            }
+            sqlite.setVersion(version);
+        }
+    }
+
+    private static void fill(@NonNull DeckDatabase db) {
+        final var account = new Account("test@example.com", "test", "https://example.com");
+        account.setId(db.getAccountDao().insert(account));
+
+        final var user = new User();
+        user.setAccountId(account.getId());
+        user.setUid("test");
+        user.setDisplayname("Test");
+        user.setLocalId(db.getUserDao().insert(user));
+
+        final int stacks = (CARDS + CARDS_PER_STACK - 1) / CARDS_PER_STACK;
+        final List<Long> labelIds = new ArrayList<>();
+        long boardId = 0;
+        for (int s = 0, c = 0; s < stacks; s++) {
+            if (s % STACKS_PER_BOARD == 0) {
+                final var board = new Board("Board " + s, 0xFF0082C9);
+                board.setAccountId(account.getId());
+                board.setOwnerId(user.getLocalId());
+                boardId = db.getBoardDao().insert(board);
+                labelIds.clear();
+                for (int l = 0; l < LABELS_PER_BOARD; l++) {
+                    final var label = new Label();
+                    label.setAccountId(account.getId());
+                    label.setBoardId(boardId);
+                    label.setTitle("Label " + l);
+                    label.setColor(0xFF0082C9);
+                    labelIds.add(db.getLabelDao().insert(label));
+                }
+            }
+            final var stack = new Stack("Stack " + s, boardId);
+            stack.setAccountId(account.getId());
+            final long stackId = db.getStackDao().insert(stack);
+
+            for (int i = 0; i < CARDS_PER_STACK && c < CARDS; i++, c++) {
+                final var card = new Card("Card " + c, "Description of card " + c + "\n- [ ] Task\n- [x] Done", stackId);
+                card.setAccountId(account.getId());
+                card.setId((long) c);
+                card.setOrder(i);
+                card.setEtag("etag-" + c);
+                final long cardId = db.getCardDao().insert(card);
+
+                final var joinLabel = new JoinCardWithLabel();
+                joinLabel.setCardId(cardId);
+                joinLabel.setLabelId(labelIds.get(c % labelIds.size()));
+                db.getJoinCardWithLabelDao().insert(joinLabel);
+
+                final var joinUser = new JoinCardWithUser();
+                joinUser.setCardId(cardId);
+                joinUser.setUserId(user.getLocalId());
+                db.getJoinCardWithUserDao().insert(joinUser);
+            }
+        }
+    }
+
+    private static long countRows(@NonNull SupportSQLiteDatabase sqlite, @NonNull String table) {
+        try (final var cursor = sqlite.query("SELECT count(*) FROM `" + table + "`")) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+}
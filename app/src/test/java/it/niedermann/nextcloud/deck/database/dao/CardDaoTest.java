@@ -4,17 +4,26 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import androidx.annotation.NonNull;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import it.niedermann.nextcloud.deck.TestUtil;
 import it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil;
 import it.niedermann.nextcloud.deck.model.Account;
 import it.niedermann.nextcloud.deck.model.Board;
 import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.User;
 import it.niedermann.nextcloud.deck.model.enums.DBStatus;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+import it.niedermann.nextcloud.deck.model.internal.CardPageKey;
 
 @RunWith(RobolectricTestRunner.class)
 public class CardDaoTest extends AbstractDaoTest {
@@ -140,6 +149,50 @@ public class CardDaoTest extends AbstractDaoTest {
         assertEquals(Integer.valueOf(50), db.getCardDao().getHighestOrderInStack(stack.getLocalId()));
     }
 
+    @Test
+    public void testGetFullCardsForStackPage() throws InterruptedException {
+        final var stack = DeckDatabaseTestUtil.createStack(db.getStackDao(), account, board);
+        final var card1 = DeckDatabaseTestUtil.createCard(db.getCardDao(), account, stack);
+        final var card2 = DeckDatabaseTestUtil.createCard(db.getCardDao(), account, stack);
+        final var card3 = DeckDatabaseTestUtil.createCard(db.getCardDao(), account, stack);
+        final var card4 = DeckDatabaseTestUtil.createCard(db.getCardDao(), account, stack);
+        final var card5 = DeckDatabaseTestUtil.createCard(db.getCardDao(), account, stack);
+        card1.setOrder(30);
+        card2.setOrder(10);
+        card3.setOrder(10);
+        card3.setCreatedAt(Instant.ofEpochMilli(1_000));
+        card4.setOrder(20);
+        card5.setOrder(30);
+        db.getCardDao().update(card1, card2, card3, card4, card5);
+
+        // Expected order: card2 (no createdAt sorts first), card3, card4, card1, card5
+        assertEquals(List.of(card2.getLocalId(), card3.getLocalId()), getLocalIdsOfPage(stack.getLocalId(), CardPageKey.FIRST));
+        assertEquals(List.of(card4.getLocalId(), card1.getLocalId()), getLocalIdsOfPage(stack.getLocalId(), CardPageKey.of(card3)));
+        assertEquals(List.of(card5.getLocalId()), getLocalIdsOfPage(stack.getLocalId(), CardPageKey.of(card1)));
+        assertTrue(getLocalIdsOfPage(stack.getLocalId(), CardPageKey.of(card5)).isEmpty());
+        assertEquals(List.of(card2.getLocalId(), card3.getLocalId(), card4.getLocalId()), getLocalIdsUpTo(stack.getLocalId(), CardPageKey.of(card4)));
+
+        // Moving a card to the top adds it to the loaded cards instead of shifting any other card out of them
+        card5.setOrder(0);
+        db.getCardDao().update(card5);
+        assertEquals(List.of(card5.getLocalId(), card2.getLocalId(), card3.getLocalId()), getLocalIdsUpTo(stack.getLocalId(), CardPageKey.of(card3)));
+        assertEquals(List.of(card4.getLocalId(), card1.getLocalId()), getLocalIdsOfPage(stack.getLocalId(), CardPageKey.of(card3)));
+    }
+
+    private List<Long> getLocalIdsOfPage(long localStackId, @NonNull CardPageKey after) throws InterruptedException {
+        return TestUtil.getOrAwaitValue(db.getCardDao().getFullCardsForStackPage(account.getId(), localStackId, after.getOrder(), after.getCreatedAt(), after.getLocalId(), 2))
+                .stream()
+                .map(FullCard::getLocalId)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> getLocalIdsUpTo(long localStackId, @NonNull CardPageKey upTo) throws InterruptedException {
+        return TestUtil.getOrAwaitValue(db.getCardDao().getFullCardsForStackUpTo(account.getId(), localStackId, upTo.getOrder(), upTo.getCreatedAt(), upTo.getLocalId()))
+                .stream()
+                .map(FullCard::getLocalId)
+                .collect(Collectors.toList());
+    }
+
     @Test
     public void testGetLocalStackIdByLocalCardId() {
         final var stack = DeckDatabaseTestUtil.createStack(db.getStackDao(), account, board);
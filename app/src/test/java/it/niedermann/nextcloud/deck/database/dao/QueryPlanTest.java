@@ -0,0 +1,78 @@
+package it.niedermann.nextcloud.deck.database.dao;
+
+import static org.junit.Assert.assertFalse;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Ensures that hot queries are backed by an index and do not fall back to a full table scan.
+ * The queries are shared with the DAOs, their named parameters are bound in the order of their first occurrence.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueryPlanTest extends AbstractDaoTest {
+
+    @Test
+    public void testFullCardsForStack() {
+        assertNoFullScan("card", CardDao.QUERY_FULL_CARDS_FOR_STACK, 1, 1);
+        assertNoFullScan("card", CardDao.QUERY_FULL_CARDS_FOR_STACK_PAGE, 1, 1, 10, 1_000, 1, 100);
+        assertNoFullScan("card", CardDao.QUERY_FULL_CARDS_FOR_STACK_UP_TO, 1, 1, 10, 1_000, 1);
+    }
+
+    @Test
+    public void testFullCardsForStackPageIsSortedByIndex() {
+        assertNoTemporaryBTree(CardDao.QUERY_FULL_CARDS_FOR_STACK_PAGE, 1, 1, 10, 1_000, 1, 100);
+        assertNoTemporaryBTree(CardDao.QUERY_FULL_CARDS_FOR_STACK_UP_TO, 1, 1, 10, 1_000, 1);
+    }
+
+    @Test
+    public void testUpcomingCards() {
+        assertNoFullScan("c", CardDao.QUERY_UPCOMING_CARDS);
+    }
+
+    @Test
+    public void testRelationsOfCard() {
+        assertNoFullScan("joincardwithlabel", JoinCardWithLabelDao.QUERY_NOT_DELETED_JOINS_FOR_CARDS, 1);
+        assertNoFullScan("joincardwithuser", JoinCardWithUserDao.QUERY_NOT_DELETED_JOINS_FOR_CARDS, 1);
+        assertNoFullScan("joincardwithlabel", JoinCardWithLabelDao.QUERY_DELETE_BY_CARD_ID, 1);
+        assertNoFullScan("joincardwithuser", JoinCardWithUserDao.QUERY_DELETE_BY_CARD_ID, 1);
+        assertNoFullScan("j", "SELECT * FROM card c WHERE " + CardDao.CONDITION_NO_ASSIGNED_PROJECT);
+    }
+
+    /**
+     * Fails if <code>EXPLAIN QUERY PLAN</code> reports a <code>SCAN</code> of the given table which is not backed by any index.
+     */
+    private void assertNoFullScan(String table, String sql, Object... args) {
+        final var fullScan = Pattern.compile("^SCAN (TABLE )?" + table + "\\b(?!.*INDEX).*", Pattern.CASE_INSENSITIVE);
+        final var plan = getQueryPlan(sql, args);
+        assertFalse("Full scan of " + table + " in " + plan + " for query: " + sql,
+                plan.stream().anyMatch(detail -> fullScan.matcher(detail).matches()));
+    }
+
+    /**
+     * Fails if <code>EXPLAIN QUERY PLAN</code> reports that the result needs to be sorted in a temporary B-tree instead of being read in index order.
+     */
+    private void assertNoTemporaryBTree(String sql, Object... args) {
+        final var plan = getQueryPlan(sql, args);
+        assertFalse("Temporary B-tree in " + plan + " for query: " + sql,
+                plan.stream().anyMatch(detail -> detail.toUpperCase().contains("USE TEMP B-TREE")));
+    }
+
+    private List<String> getQueryPlan(String sql, Object... args) {
+        final List<String> plan = new ArrayList<>();
+        try (final var cursor = db.getOpenHelper().getReadableDatabase().query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + sql, args))) {
+            final int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detailIndex));
+            }
+        }
+        return plan;
+    }
+}
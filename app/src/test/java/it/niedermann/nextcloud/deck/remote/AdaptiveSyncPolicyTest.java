@@ -0,0 +1,89 @@
+package it.niedermann.nextcloud.deck.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class AdaptiveSyncPolicyTest {
+
+    private static final long BASE_INTERVAL = TimeUnit.MINUTES.toMillis(60);
+
+    private AdaptiveSyncPolicy policy;
+
+    @Before
+    public void setup() {
+        final var preferences = ApplicationProvider.getApplicationContext().getSharedPreferences("test", Context.MODE_PRIVATE);
+        preferences.edit().clear().commit();
+        policy = new AdaptiveSyncPolicy(preferences, BASE_INTERVAL);
+    }
+
+    @Test
+    public void testBackOffWhileIdle() {
+        final long now = 1_000_000_000L;
+        assertTrue(policy.isDue(1L, now));
+
+        policy.recordResult(1L, List.of(), true, now);
+        assertFalse(policy.isDue(1L, now + BASE_INTERVAL));
+        assertTrue(policy.isDue(1L, now + 2 * BASE_INTERVAL));
+
+        for (int i = 0; i < 10; i++) {
+            policy.recordResult(1L, List.of(), true, now);
+        }
+        assertEquals(AdaptiveSyncPolicy.MAX_BACKOFF_FACTOR * BASE_INTERVAL, policy.getInterval(10));
+        assertFalse(policy.isDue(1L, now + 7 * BASE_INTERVAL));
+        assertTrue(policy.isDue(1L, now + AdaptiveSyncPolicy.MAX_BACKOFF_FACTOR * BASE_INTERVAL));
+
+        policy.recordResult(1L, List.of(1L, 2L, 3L), true, now);
+        assertTrue(policy.isDue(1L, now + BASE_INTERVAL));
+        assertTrue(policy.isDue(2L, now));
+    }
+
+    @Test
+    public void testDeferHeavyWork() {
+        final long now = AdaptiveSyncPolicy.MAX_HEAVY_WORK_DEFERRAL_MILLIS * 2;
+        assertFalse("Never did heavy work before", policy.shouldDeferHeavyWork(1L, false, false, now));
+
+        policy.recordResult(1L, List.of(1L), true, now);
+        assertTrue(policy.shouldDeferHeavyWork(1L, false, false, now + 1));
+        assertFalse(policy.shouldDeferHeavyWork(1L, true, false, now + 1));
+        assertFalse(policy.shouldDeferHeavyWork(1L, false, true, now + 1));
+        assertFalse(policy.shouldDeferHeavyWork(1L, false, false, now + AdaptiveSyncPolicy.MAX_HEAVY_WORK_DEFERRAL_MILLIS));
+    }
+
+    @Test
+    public void testActiveBoards() {
+        final long now = 1_000_000_000L;
+        assertTrue(policy.getActiveBoards(1L, now).isEmpty());
+
+        policy.recordResult(1L, List.of(10L, 11L), true, now);
+        policy.recordResult(2L, List.of(20L), true, now);
+        assertEquals(Set.of(10L, 11L), policy.getActiveBoards(1L, now + BASE_INTERVAL));
+        assertEquals(Set.of(20L), policy.getActiveBoards(2L, now + BASE_INTERVAL));
+
+        // Backed off accounts keep synchronizing their active boards, a change makes the account due again
+        policy.recordResult(1L, List.of(), true, now + BASE_INTERVAL);
+        assertFalse(policy.isDue(1L, now + 2 * BASE_INTERVAL));
+        policy.recordBoardResult(1L, 11L, true, now + 2 * BASE_INTERVAL);
+        assertTrue(policy.isDue(1L, now + 2 * BASE_INTERVAL));
+
+        // Boards become inactive after the maximum backoff
+        final long later = now + 2 * BASE_INTERVAL + AdaptiveSyncPolicy.MAX_BACKOFF_FACTOR * BASE_INTERVAL;
+        assertEquals(Set.of(11L), policy.getActiveBoards(1L, later));
+        policy.recordResult(1L, List.of(), true, later + 1);
+        assertTrue(policy.getActiveBoards(1L, later + 1).isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package it.niedermann.nextcloud.deck.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
+
+@RunWith(RobolectricTestRunner.class)
+public class SyncSchedulerTest {
+
+    @Test
+    public void testPriorityAndOrderOfLastSync() throws InterruptedException {
+        final var account1 = new Account(1L);
+        final var account2 = new Account(2L);
+        final var account3 = new Account(3L);
+        final Map<Long, Long> lastSyncs = Map.of(1L, 100L, 2L, 300L, 3L, 200L);
+        final List<Long> startedAccountIds = new ArrayList<>();
+
+        final var scheduler = new SyncScheduler((account, callback) -> {
+            startedAccountIds.add(account.getId());
+            callback.onResponse(account.getId() != 3L, IResponseCallback.EMPTY_HEADERS);
+        }, account -> lastSyncs.get(account.getId()), 1);
+
+        final var results = scheduler.synchronize(List.of(account1, account2, account3), 2L, 1, TimeUnit.SECONDS);
+
+        assertEquals(List.of(2L, 1L, 3L), startedAccountIds);
+        assertTrue(results.get(1L).isSuccess());
+        assertTrue(results.get(2L).isSuccess());
+        assertFalse(results.get(3L).isSuccess());
+    }
+
+    @Test
+    public void testSlowAccountDoesNotBlockOthers() throws InterruptedException {
+        final var slowAccount = new Account(10L);
+        final var fastAccount = new Account(11L);
+
+        final var scheduler = new SyncScheduler((account, callback) -> {
+            if (account.getId() == 11L) {
+                callback.onResponse(true, IResponseCallback.EMPTY_HEADERS);
+            }
+            // The slow account never responds
+        }, account -> 0L, 2);
+
+        final var results = scheduler.synchronize(List.of(slowAccount, fastAccount), null, 200, TimeUnit.MILLISECONDS);
+
+        assertFalse(results.get(10L).isSuccess());
+        assertEquals(-1, results.get(10L).getDurationMillis());
+        assertTrue(results.get(11L).isSuccess());
+        assertFalse(SyncScheduler.isRunning(10L));
+        assertFalse(SyncScheduler.isRunning(11L));
+    }
+
+    @Test
+    public void testTimedOutAccountIsSynchronizedByNextRun() throws InterruptedException {
+        final var account = new Account(20L);
+        final var scheduler = new SyncScheduler((a, callback) -> {
+            // Never responds
+        }, a -> 0L, 1);
+
+        final var firstResults = scheduler.synchronize(List.of(account), null, 100, TimeUnit.MILLISECONDS);
+        assertFalse(firstResults.get(20L).isSuccess());
+
+        final List<Long> startedAccountIds = new ArrayList<>();
+        final var nextResults = new SyncScheduler((a, callback) -> {
+            startedAccountIds.add(a.getId());
+            callback.onResponse(true, IResponseCallback.EMPTY_HEADERS);
+        }, a -> 0L, 1).synchronize(List.of(account), null, 1, TimeUnit.SECONDS);
+
+        assertEquals(List.of(20L), startedAccountIds);
+        assertTrue(nextResults.get(20L).isSuccess());
+        assertFalse(nextResults.get(20L).isSkipped());
+    }
+}
@@ -0,0 +1,56 @@
+package it.niedermann.nextcloud.deck.remote.api;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RunWith(RobolectricTestRunner.class)
+public class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(clock::get);
+
+    @Test
+    public void testOpensAfterConsecutiveTransientFailures() {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onTransientFailure();
+        }
+        circuitBreaker.onServerResponded();
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onTransientFailure();
+            assertTrue(circuitBreaker.allowRequest());
+        }
+        circuitBreaker.onTransientFailure();
+        assertFalse(circuitBreaker.allowRequest());
+        assertTrue(circuitBreaker.isPaused());
+    }
+
+    @Test
+    public void testProbesAfterCoolDown() {
+        for (int i = 0; i < 5; i++) {
+            circuitBreaker.onTransientFailure();
+        }
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(30));
+        assertFalse(circuitBreaker.isPaused());
+        assertTrue(circuitBreaker.allowRequest());
+        assertFalse("Only one probe at a time", circuitBreaker.allowRequest());
+
+        // Probe failed, the cool down doubles
+        circuitBreaker.onTransientFailure();
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(30));
+        assertFalse(circuitBreaker.allowRequest());
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(30));
+        assertTrue(circuitBreaker.allowRequest());
+
+        circuitBreaker.onServerResponded();
+        assertFalse(circuitBreaker.isPaused());
+        assertTrue(circuitBreaker.allowRequest());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+}
@@ -0,0 +1,79 @@
+package it.niedermann.nextcloud.deck.remote.api;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Request;
+
+public class RequestMetricsTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final RequestMetrics metrics = new RequestMetrics(clock::get);
+
+    @Test
+    public void testNormalizeEndpoint() {
+        assertEquals("GET /index.php/apps/deck/api/v1.0/boards/{id}/stacks/{id}", RequestMetrics.normalizeEndpoint(request("GET", "/index.php/apps/deck/api/v1.0/boards/12/stacks/345?details=true")));
+        assertEquals("DELETE /index.php/apps/deck/api/v1.1/boards/{id}/labels", RequestMetrics.normalizeEndpoint(request("DELETE", "/index.php/apps/deck/api/v1.1/boards/7/labels")));
+    }
+
+    @Test
+    public void testRecordRequests() {
+        for (int i = 1; i <= 100; i++) {
+            final var trace = metrics.onEnqueued("alice");
+            clock.addAndGet(5);
+            trace.onDispatched(request("GET", "/boards/" + i));
+            assertEquals(1, metrics.getInFlight());
+            clock.addAndGet(i);
+            trace.onResponse(200, i / 2, 1_000);
+        }
+
+        final var failing = metrics.onEnqueued("bob");
+        failing.onDispatched(request("GET", "/boards/1"));
+        failing.onRetry();
+        clock.addAndGet(1_000);
+        failing.onResponse(500, -1, -1);
+        failing.onFailure(new RuntimeException());
+
+        assertEquals(0, metrics.getInFlight());
+
+        final var endpoints = metrics.getEndpointStats();
+        assertEquals(1, endpoints.size());
+        final var stats = endpoints.get(0);
+        assertEquals("GET /boards/{id}", stats.getEndpoint());
+        assertEquals(101, stats.getCount());
+        assertEquals(1, stats.getErrors());
+        assertEquals(1, stats.getRetries());
+        assertEquals(51, stats.getPercentile(50));
+        assertEquals(96, stats.getPercentile(95));
+        assertEquals(100, stats.getPercentile(99));
+        assertEquals(4, stats.getAverageQueueMillis());
+        assertEquals(100_000, stats.getResponseBytes());
+
+        final var accounts = metrics.getAccountStats();
+        assertEquals("alice", accounts.get(0).getAccountName());
+        assertEquals(5_050, accounts.get(0).getTotalDurationMillis());
+        assertEquals("bob", accounts.get(1).getAccountName());
+
+        final var slowest = metrics.getSlowestRequests();
+        assertEquals(20, slowest.size());
+        assertEquals(1_000, slowest.get(0).getDurationMillis());
+        assertEquals(500, slowest.get(0).getStatusCode());
+        assertEquals(100, slowest.get(1).getDurationMillis());
+
+        clock.addAndGet(2 * 60 * 60 * 1_000);
+        assertEquals(0, metrics.getSlowestRequests().size());
+    }
+
+    @NonNull
+    private static Request request(@NonNull String method, @NonNull String path) {
+        return new Request.Builder()
+                .method(method, null)
+                .url("https://example.com" + path)
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package it.niedermann.nextcloud.deck.remote.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.nextcloud.android.sso.exceptions.NextcloudHttpRequestFailedException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.net.SocketTimeoutException;
+
+import it.niedermann.nextcloud.deck.util.ExponentialBackoff;
+
+@RunWith(RobolectricTestRunner.class)
+public class RetryPolicyTest {
+
+    private final RetryPolicy retryPolicy = new RetryPolicy(3, new ExponentialBackoff(1_000, 30_000));
+
+    @Test
+    public void testShouldRetry() {
+        final var maintenance = httpError(503);
+        assertTrue(retryPolicy.shouldRetry("GET", maintenance, 0));
+        assertTrue(retryPolicy.shouldRetry("GET", maintenance, 2));
+        assertFalse(retryPolicy.shouldRetry("GET", maintenance, 3));
+        assertFalse("Not idempotent", retryPolicy.shouldRetry("POST", maintenance, 0));
+        assertFalse("Not idempotent", retryPolicy.shouldRetry("PUT", maintenance, 0));
+        assertFalse(retryPolicy.shouldRetry("GET", httpError(404), 0));
+        assertTrue(retryPolicy.shouldRetry("GET", new RuntimeException(new SocketTimeoutException()), 0));
+        assertFalse(retryPolicy.shouldRetry("GET", new IllegalArgumentException(), 0));
+    }
+
+    @Test
+    public void testGetDelayMillis() {
+        for (int retries = 0; retries < 10; retries++) {
+            final long ceiling = Math.min(30_000, 1_000L << retries);
+            final long delay = retryPolicy.getDelayMillis(retries, null);
+            assertTrue(delay >= ceiling / 2);
+            assertTrue(delay <= ceiling);
+        }
+        assertEquals(20_000, retryPolicy.getDelayMillis(0, 20_000L));
+        assertEquals("Retry-After is capped", 60_000, retryPolicy.getDelayMillis(0, 3_600_000L));
+    }
+
+    private static NextcloudHttpRequestFailedException httpError(int statusCode) {
+        return new NextcloudHttpRequestFailedException(ApplicationProvider.getApplicationContext(), statusCode, new RuntimeException());
+    }
+}
@@ -0,0 +1,226 @@
+package it.niedermann.nextcloud.deck.remote.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static java.lang.reflect.Modifier.isProtected;
+import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createAccount;
+import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createBoard;
+import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createCard;
+import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createStack;
+import static it.niedermann.nextcloud.deck.database.DeckDatabaseTestUtil.createUser;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import it.niedermann.nextcloud.deck.database.DataBaseAdapter;
+import it.niedermann.nextcloud.deck.database.DeckDatabase;
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.enums.ESyncCheckpointType;
+import it.niedermann.nextcloud.deck.model.full.FullBoard;
+import it.niedermann.nextcloud.deck.model.full.FullStack;
+import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
+import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.remote.helpers.providers.StackDataProvider;
+import okhttp3.Headers;
+
+@RunWith(RobolectricTestRunner.class)
+public class SyncHelperTest {
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private final ServerAdapter serverAdapter = mock(ServerAdapter.class);
+    private DeckDatabase db;
+    private DataBaseAdapter dataBaseAdapter;
+
+    @Before
+    public void createAdapter() throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
+        final var constructor = DataBaseAdapter.class.getDeclaredConstructor(Context.class, DeckDatabase.class, ExecutorService.class, ExecutorService.class);
+        if (isProtected(constructor.getModifiers())) {
+            constructor.setAccessible(true);
+            db = Room
+                    .inMemoryDatabaseBuilder(ApplicationProvider.getApplicationContext(), DeckDatabase.class)
+                    .allowMainThreadQueries()
+                    .build();
+            dataBaseAdapter = constructor.newInstance(ApplicationProvider.getApplicationContext(), db, MoreExecutors.newDirectExecutorService(), MoreExecutors.newDirectExecutorService());
+        } else {
+            throw new RuntimeException("Expected constructor to be protected.");
+        }
+        when(serverAdapter.isEtagsEnabled()).thenReturn(true);
+    }
+
+    @After
+    public void closeDb() {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void testResumedSyncDoesNotStoreETagOfSkippedSubtree() {
+        final var account = createAccount(db.getAccountDao());
+        final var board = createBoard(db.getBoardDao(), account, createUser(db.getUserDao(), account));
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var card = createCard(db.getCardDao(), account, stack);
+        stack.setEtag("before-checkpoint");
+        db.getStackDao().update(stack);
+
+        // The server changed a card after an interrupted synchronization completed this stack
+        doAnswer(invocation -> {
+            final var stackFromServer = new Stack();
+            stackFromServer.setId(stack.getId());
+            stackFromServer.setTitle(stack.getTitle());
+            stackFromServer.setEtag("after-checkpoint");
+            final var cardFromServer = new Card();
+            cardFromServer.setId(card.getId());
+            final var fullStackFromServer = new FullStack();
+            fullStackFromServer.setStack(stackFromServer);
+            fullStackFromServer.setCards(List.of(cardFromServer));
+            invocation.<ResponseCallback<List<FullStack>>>getArgument(1).onResponse(List.of(fullStackFromServer), IResponseCallback.EMPTY_HEADERS);
+            return null;
+        }).when(serverAdapter).getStacks(anyLong(), any());
+
+        dataBaseAdapter.saveSyncCheckpoint(account.getId(), ESyncCheckpointType.STACK, stack.getLocalId());
+
+        // Resuming skips the cards and must therefore keep the old ETag of the stack
+        syncStacks(account, board.getLocalId());
+        verify(serverAdapter, never()).getCard(anyLong(), anyLong(), anyLong(), any());
+        assertEquals("before-checkpoint", db.getStackDao().getStackByLocalIdDirectly(stack.getLocalId()).getEtag());
+
+        // The completed synchronization clears the checkpoints, the next one must descend into the changed cards
+        dataBaseAdapter.deleteSyncCheckpoints(account.getId());
+        syncStacks(account, board.getLocalId());
+        verify(serverAdapter, times(1)).getCard(eq((long) board.getId()), eq((long) stack.getId()), eq((long) card.getId()), any());
+        assertEquals("after-checkpoint", db.getStackDao().getStackByLocalIdDirectly(stack.getLocalId()).getEtag());
+    }
+
+    @Test
+    public void testResumedSyncDoesNotAdvanceLastSyncDateBeyondSkippedCheckpoints() {
+        final var account = createAccount(db.getAccountDao());
+        final var board = createBoard(db.getBoardDao(), account, createUser(db.getUserDao(), account));
+        final var stack = createStack(db.getStackDao(), account, board);
+        stack.setEtag("before-checkpoint");
+        db.getStackDao().update(stack);
+        doAnswer(invocation -> {
+            final var stackFromServer = new Stack();
+            stackFromServer.setId(stack.getId());
+            stackFromServer.setTitle(stack.getTitle());
+            stackFromServer.setEtag("after-checkpoint");
+            final var fullStackFromServer = new FullStack();
+            fullStackFromServer.setStack(stackFromServer);
+            fullStackFromServer.setCards(List.of());
+            invocation.<ResponseCallback<List<FullStack>>>getArgument(1).onResponse(List.of(fullStackFromServer), IResponseCallback.EMPTY_HEADERS);
+            return null;
+        }).when(serverAdapter).getStacks(anyLong(), any());
+
+        final var lastSync = Instant.now().minus(1, ChronoUnit.HOURS);
+        dataBaseAdapter.saveSyncCheckpoint(account.getId(), ESyncCheckpointType.STACK, stack.getLocalId());
+        final var checkpoint = dataBaseAdapter.getSyncCheckpointCompletedAtSince(account.getId(), ESyncCheckpointType.STACK, stack.getLocalId(), lastSync);
+
+        // Changes of the skipped stack after its checkpoint must be requested again by the next synchronization
+        final var completedAt = Instant.now().plusSeconds(60);
+        assertEquals(checkpoint, syncStacks(account, board.getLocalId(), lastSync).getNextLastSyncDate(completedAt));
+
+        // Nothing has been skipped without checkpoints
+        dataBaseAdapter.deleteSyncCheckpoints(account.getId());
+        assertEquals(completedAt, syncStacks(account, board.getLocalId(), lastSync).getNextLastSyncDate(completedAt));
+    }
+
+    @Test
+    public void testUnchangedContentSkipsWritingButDescendsIntoChildren() {
+        final var account = createAccount(db.getAccountDao());
+        final var board = createBoard(db.getBoardDao(), account, createUser(db.getUserDao(), account));
+        final var stack = createStack(db.getStackDao(), account, board);
+        final var titleOnServer = new AtomicReference<>("Foo");
+        doAnswer(invocation -> {
+            // Without ETag, so only the content hash can tell whether the stack changed
+            final var stackFromServer = new Stack();
+            stackFromServer.setId(stack.getId());
+            stackFromServer.setTitle(titleOnServer.get());
+            stackFromServer.setOrder(1);
+            final var fullStackFromServer = new FullStack();
+            fullStackFromServer.setStack(stackFromServer);
+            fullStackFromServer.setCards(List.of());
+            invocation.<ResponseCallback<List<FullStack>>>getArgument(1).onResponse(List.of(fullStackFromServer), IResponseCallback.EMPTY_HEADERS);
+            return null;
+        }).when(serverAdapter).getStacks(anyLong(), any());
+
+        // Stores the content hash
+        syncStacks(account, stackDataProvider(account, board.getLocalId()), null);
+        final var storedStack = db.getStackDao().getStackByLocalIdDirectly(stack.getLocalId());
+        assertEquals("Foo", storedStack.getTitle());
+        assertNotNull(storedStack.getContentHash());
+
+        final var unchanged = stackDataProvider(account, board.getLocalId());
+        syncStacks(account, unchanged, null);
+        verify(unchanged, never()).updateInDB(any(), anyLong(), any(), anyBoolean());
+        verify(unchanged, times(1)).goDeeper(any(), any(), any(), any());
+
+        titleOnServer.set("Bar");
+        final var changed = stackDataProvider(account, board.getLocalId());
+        syncStacks(account, changed, null);
+        verify(changed, times(1)).updateInDB(any(), anyLong(), any(), anyBoolean());
+        verify(changed, times(1)).goDeeper(any(), any(), any(), any());
+        assertEquals("Bar", db.getStackDao().getStackByLocalIdDirectly(stack.getLocalId()).getTitle());
+    }
+
+    private StackDataProvider stackDataProvider(Account account, long localBoardId) {
+        return spy(new StackDataProvider(null, dataBaseAdapter.getFullBoardByLocalIdDirectly(account.getId(), localBoardId)));
+    }
+
+    private SyncHelper syncStacks(Account account, long localBoardId) {
+        return syncStacks(account, localBoardId, null);
+    }
+
+    private SyncHelper syncStacks(Account account, long localBoardId, @Nullable Instant lastSync) {
+        final FullBoard fullBoard = dataBaseAdapter.getFullBoardByLocalIdDirectly(account.getId(), localBoardId);
+        return syncStacks(account, new StackDataProvider(null, fullBoard), lastSync);
+    }
+
+    private SyncHelper syncStacks(Account account, StackDataProvider provider, @Nullable Instant lastSync) {
+        final var syncHelper = new SyncHelper(serverAdapter, dataBaseAdapter, lastSync)
+                .setResponseCallback(new ResponseCallback<>(account) {
+                    @Override
+                    public void onResponse(Boolean response, Headers headers) {
+                        // Nothing to do
+                    }
+                })
+                .setResumable(true);
+        syncHelper.doSyncFor(provider);
+        return syncHelper;
+    }
+}
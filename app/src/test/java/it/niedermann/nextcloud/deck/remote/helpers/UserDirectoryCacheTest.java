@@ -0,0 +1,111 @@
+package it.niedermann.nextcloud.deck.remote.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.ocs.user.OcsUser;
+import it.niedermann.nextcloud.deck.model.ocs.user.OcsUserList;
+import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
+import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
+import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+
+@RunWith(RobolectricTestRunner.class)
+public class UserDirectoryCacheTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDeriveResultsOfLongerTerms() {
+        final var account = new Account(4711L);
+        final var serverAdapter = mock(ServerAdapter.class);
+        final var response = new OcsUserList();
+        response.addUser(new OcsUser("alice", "Alice Doe"));
+        response.addUser(new OcsUser("albert", "Albert Roe"));
+        doAnswer(invocation -> {
+            ((ResponseCallback<OcsUserList>) invocation.getArgument(1)).onResponse(response, IResponseCallback.EMPTY_HEADERS);
+            return null;
+        }).when(serverAdapter).searchUser(eq("al"), any());
+
+        final var cache = UserDirectoryCache.forAccount(account.getId());
+        assertFalse(cache.isCached("al"));
+        assertEquals(2, cache.search(serverAdapter, account, "al").join().size());
+
+        assertTrue(cache.isCached("AL"));
+        assertTrue(cache.isCached("ali"));
+        final List<OcsUser> derived = cache.search(serverAdapter, account, "ali").join();
+        assertEquals(1, derived.size());
+        assertEquals("alice", derived.get(0).getId());
+        assertFalse(cache.isCached("roe"));
+
+        verify(serverAdapter, times(1)).searchUser(eq("al"), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDerivedResultsContainEmailMatches() {
+        final var account = new Account(4713L);
+        final var serverAdapter = mock(ServerAdapter.class);
+        final var carol = new OcsUser("cw", "Carol White");
+        carol.setEmail("carol.white@example.com");
+        final var response = new OcsUserList();
+        response.addUser(carol);
+        response.addUser(new OcsUser("carl", "Carl Black"));
+        doAnswer(invocation -> {
+            ((ResponseCallback<OcsUserList>) invocation.getArgument(1)).onResponse(response, IResponseCallback.EMPTY_HEADERS);
+            return null;
+        }).when(serverAdapter).searchUser(eq("car"), any());
+
+        final var cache = UserDirectoryCache.forAccount(account.getId());
+        assertEquals(2, cache.search(serverAdapter, account, "car").join().size());
+
+        final List<OcsUser> derived = cache.search(serverAdapter, account, "carol.").join();
+        assertEquals(List.of(carol), derived);
+        verify(serverAdapter, times(1)).searchUser(any(), any());
+    }
+
+    @Test
+    public void testRemove() {
+        final var cache = UserDirectoryCache.forAccount(4714L);
+        assertSame(cache, UserDirectoryCache.forAccount(4714L));
+        UserDirectoryCache.remove(4714L);
+        assertNotSame(cache, UserDirectoryCache.forAccount(4714L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCoalesceConcurrentLookups() {
+        final var account = new Account(4712L);
+        final var serverAdapter = mock(ServerAdapter.class);
+        final List<ResponseCallback<OcsUser>> pendingCallbacks = new ArrayList<>();
+        doAnswer(invocation -> {
+            pendingCallbacks.add(invocation.getArgument(1));
+            return null;
+        }).when(serverAdapter).getSingleUserData(eq("bob"), any());
+
+        final var cache = UserDirectoryCache.forAccount(account.getId());
+        final var first = cache.lookup(serverAdapter, account, "bob");
+        final var second = cache.lookup(serverAdapter, account, "bob");
+        assertSame(first, second);
+        assertEquals(1, pendingCallbacks.size());
+
+        final var bob = new OcsUser("bob", "Bob");
+        pendingCallbacks.get(0).onResponse(bob, IResponseCallback.EMPTY_HEADERS);
+        assertSame(bob, second.join());
+    }
+}
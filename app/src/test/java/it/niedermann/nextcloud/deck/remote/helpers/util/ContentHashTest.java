@@ -0,0 +1,40 @@
+package it.niedermann.nextcloud.deck.remote.helpers.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.model.User;
+
+public class ContentHashTest {
+
+    @Test
+    public void testEqualContent() {
+        assertEquals(
+                new ContentHash().add(1L).add("Title").add(Instant.ofEpochSecond(1)).add(true).get(),
+                new ContentHash().add(1L).add("Title").add(Instant.ofEpochSecond(1)).add(true).get());
+        assertEquals(
+                new ContentHash().add(List.of("alice", "bob")).get(),
+                new ContentHash().add(List.of("alice", "bob")).get());
+    }
+
+    @Test
+    public void testDifferentContent() {
+        assertNotEquals(new ContentHash().add("Title").get(), new ContentHash().add("Titel").get());
+        assertNotEquals(new ContentHash().add("ab").add("c").get(), new ContentHash().add("a").add("bc").get());
+        assertNotEquals(new ContentHash().add(null).get(), new ContentHash().add("").get());
+        assertNotEquals(new ContentHash().add(List.of("alice", "bob")).get(), new ContentHash().add(List.of("bob", "alice")).get());
+        assertNotEquals(new ContentHash().add(List.of("a", "b")).add("c").get(), new ContentHash().add(List.of("a")).add("b").add("c").get());
+
+        final var user = new User();
+        user.setUid("alice");
+        user.setDisplayname("Alice");
+        final long before = new ContentHash().addUser(user).get();
+        user.setDisplayname("Alice Doe");
+        assertNotEquals(before, new ContentHash().addUser(user).get());
+    }
+}
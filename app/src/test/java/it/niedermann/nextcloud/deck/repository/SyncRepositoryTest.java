@@ -13,6 +13,7 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -49,7 +50,6 @@ import it.niedermann.nextcloud.deck.model.Board;
 import it.niedermann.nextcloud.deck.model.Card;
 import it.niedermann.nextcloud.deck.model.Stack;
 import it.niedermann.nextcloud.deck.model.full.FullBoard;
-import it.niedermann.nextcloud.deck.model.full.FullStack;
 import it.niedermann.nextcloud.deck.model.interfaces.IRemoteEntity;
 import it.niedermann.nextcloud.deck.model.ocs.Capabilities;
 import it.niedermann.nextcloud.deck.model.ocs.Version;
@@ -57,10 +57,11 @@ import it.niedermann.nextcloud.deck.remote.adapters.ServerAdapter;
 import it.niedermann.nextcloud.deck.remote.api.IResponseCallback;
 import it.niedermann.nextcloud.deck.remote.api.LastSyncUtil;
 import it.niedermann.nextcloud.deck.remote.api.ResponseCallback;
+import it.niedermann.nextcloud.deck.remote.helpers.CapabilitiesCache;
 import it.niedermann.nextcloud.deck.remote.helpers.SyncHelper;
 import it.niedermann.nextcloud.deck.remote.helpers.providers.AbstractSyncDataProvider;
-import it.niedermann.nextcloud.deck.remote.helpers.providers.CardDataProvider;
 import it.niedermann.nextcloud.deck.remote.helpers.providers.StackDataProvider;
+import it.niedermann.nextcloud.deck.remote.helpers.providers.partial.SingleCardDownSyncDataProvider;
 import it.niedermann.nextcloud.deck.remote.helpers.util.ConnectivityUtil;
 import okhttp3.Headers;
 
@@ -172,11 +173,13 @@ public class SyncRepositoryTest {
     @Test
     public void testSynchronizeCard() {
         final var syncHelper = mock(SyncHelper.class);
-        final var fullStack = new FullStack();
-        fullStack.setStack(new Stack("Test", 1L));
+        final var stack = new Stack("Test", 1L);
+        stack.setId(2L);
+        final var board = new Board();
+        board.setId(3L);
 
-        when(dataBaseAdapter.getFullStackByLocalIdDirectly(anyLong())).thenReturn(fullStack);
-        when(dataBaseAdapter.getBoardByLocalIdDirectly(anyLong())).thenReturn(new Board());
+        when(dataBaseAdapter.getStackByLocalIdDirectly(anyLong())).thenReturn(stack);
+        when(dataBaseAdapter.getBoardByLocalIdDirectly(anyLong())).thenReturn(board);
         when(syncHelper.setResponseCallback(any())).thenReturn(syncHelper);
         doNothing().when(syncHelper).doSyncFor(any());
         when(syncHelperFactory.create(any(), any(), any())).thenReturn(syncHelper);
@@ -189,12 +192,14 @@ public class SyncRepositoryTest {
         });
 
         final var card = new Card();
+        card.setId(4L);
         card.setStackId(5000L);
 
         syncRepository.synchronizeCard(responseCallback, card);
 
+        verify(dataBaseAdapter, never()).getFullStackByLocalIdDirectly(anyLong());
         verify(syncHelper, times(1)).setResponseCallback(responseCallback);
-        verify(syncHelper, times(1)).doSyncFor(any(CardDataProvider.class));
+        verify(syncHelper, times(1)).doSyncFor(any(SingleCardDownSyncDataProvider.class));
 
         doThrow(OfflineException.class).when(syncHelper).doSyncFor(any());
 
@@ -453,6 +458,31 @@ public class SyncRepositoryTest {
         verify(finalCallback, times(1)).onError(any());
     }
 
+    @Test
+    public void testSynchronizeWithFreshCapabilities() {
+        final var syncManagerSpy = spy(syncRepository);
+
+        LastSyncUtil.init(ApplicationProvider.getApplicationContext());
+        final var account = new Account(1338L, "Test", "Peter", "example.com");
+        account.setServerDeckVersion(Version.minimumSupported().getOriginalVersion());
+        when(dataBaseAdapter.getAccountByIdDirectly(1338L)).thenReturn(account);
+        when(syncHelperFactory.create(any(), any(), any())).thenReturn(new SyncHelperMock(true));
+        CapabilitiesCache.forAccount(1338L).markValidated();
+
+        final var finalCallback = spy(new ResponseCallback<Boolean>(account) {
+            @Override
+            public void onResponse(Boolean response, Headers headers) {
+            }
+        });
+
+        syncManagerSpy.synchronize(finalCallback);
+
+        verify(syncManagerSpy, never()).refreshCapabilities(any());
+        verify(finalCallback, times(1)).onResponse(any(), any(Headers.class));
+
+        CapabilitiesCache.forAccount(1338L).invalidate();
+    }
+
     /**
      * A simple {@link SyncHelper} implementation which directly responds to sync requests
      */
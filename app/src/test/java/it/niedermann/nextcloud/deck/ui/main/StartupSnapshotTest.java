@@ -0,0 +1,90 @@
+package it.niedermann.nextcloud.deck.ui.main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import it.niedermann.nextcloud.deck.model.Account;
+import it.niedermann.nextcloud.deck.model.Board;
+import it.niedermann.nextcloud.deck.model.Card;
+import it.niedermann.nextcloud.deck.model.Label;
+import it.niedermann.nextcloud.deck.model.Stack;
+import it.niedermann.nextcloud.deck.model.full.FullCard;
+
+@RunWith(RobolectricTestRunner.class)
+public class StartupSnapshotTest {
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    @After
+    public void tearDown() {
+        StartupSnapshot.delete(context);
+    }
+
+    @Test
+    public void testWriteAndRead() {
+        final var account = new Account(1L, "test@example.com", "test", "https://example.com");
+        final var board = new Board("Board", 0xFF0082C9);
+        board.setLocalId(2L);
+        final var stack = new Stack("Stack", 2L);
+        stack.setLocalId(3L);
+
+        final List<FullCard> cards = new ArrayList<>();
+        for (int i = 0; i < StartupSnapshot.MAX_CARDS + 5; i++) {
+            final var card = new Card("Card " + i, "- [x] done", 3L);
+            card.setLocalId((long) i);
+            card.setDueDate(Instant.ofEpochMilli(1_700_000_000_000L));
+            final var label = new Label();
+            label.setTitle("Label");
+            final var fullCard = new FullCard();
+            fullCard.setCard(card);
+            fullCard.setLabels(List.of(label));
+            cards.add(fullCard);
+        }
+
+        StartupSnapshot.write(context, new StartupSnapshot(account, board, List.of(stack), 3L, cards));
+
+        final var snapshot = StartupSnapshot.read(context).orElseThrow();
+        assertEquals(account, snapshot.getAccount());
+        assertEquals("Board", snapshot.getFullBoard().getBoard().getTitle());
+        assertEquals(1, snapshot.getStacks().size());
+        assertEquals(Long.valueOf(3L), snapshot.getStackLocalId());
+        assertEquals(StartupSnapshot.MAX_CARDS, snapshot.getCards().size());
+        assertEquals("Card 0", snapshot.getCards().get(0).getCard().getTitle());
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_000L), snapshot.getCards().get(0).getCard().getDueDate());
+        assertEquals("Label", snapshot.getCards().get(0).getLabels().get(0).getTitle());
+        assertEquals(1, snapshot.getCards().get(0).getCard().getTaskStatus().doneCount);
+
+        assertFalse(StartupSnapshot.getPaintedForStack(1L, 3L).isPresent());
+        StartupSnapshot.setPainted(snapshot);
+        assertTrue(StartupSnapshot.getPaintedForStack(1L, 3L).isPresent());
+        assertFalse(StartupSnapshot.getPaintedForStack(1L, 4L).isPresent());
+        assertFalse(StartupSnapshot.getPaintedForStack(2L, 3L).isPresent());
+    }
+
+    @Test
+    public void testReadCorruptedSnapshot() throws Exception {
+        StartupSnapshot.delete(context);
+        assertFalse(StartupSnapshot.read(context).isPresent());
+
+        try (var writer = new FileWriter(new File(context.getCacheDir(), "startup-snapshot.json"))) {
+            writer.write("{ not json");
+        }
+        assertFalse(StartupSnapshot.read(context).isPresent());
+    }
+}
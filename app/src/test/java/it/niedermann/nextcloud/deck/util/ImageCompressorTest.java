@@ -0,0 +1,94 @@
+package it.niedermann.nextcloud.deck.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.exifinterface.media.ExifInterface;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ImageCompressorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testCalculateInSampleSize() {
+        assertEquals(1, ImageCompressor.calculateInSampleSize(1920, 1080, 1920, 1920));
+        assertEquals(1, ImageCompressor.calculateInSampleSize(800, 600, 1920, 1920));
+        assertEquals(1, ImageCompressor.calculateInSampleSize(3000, 4000, 1920, 1920));
+        assertEquals(2, ImageCompressor.calculateInSampleSize(4000, 6000, 1920, 1920));
+        assertEquals(4, ImageCompressor.calculateInSampleSize(8000, 12000, 1920, 1920));
+        assertEquals(2, ImageCompressor.calculateInSampleSize(6000, 4000, 1920, 1080));
+    }
+
+    @Test
+    public void testCompressAppliesExifOrientation() throws Exception {
+        final var source = createJpeg(400, 200, 100);
+        final var exif = new ExifInterface(source.getAbsolutePath());
+        exif.setAttribute(ExifInterface.TAG_ORIENTATION, String.valueOf(ExifInterface.ORIENTATION_ROTATE_90));
+        exif.saveAttributes();
+
+        final var compressed = ImageCompressor.compress(source, 100, 100, Long.MAX_VALUE, 80).get();
+
+        final var bounds = decodeBounds(compressed);
+        assertEquals(50, bounds.outWidth);
+        assertEquals(100, bounds.outHeight);
+        assertEquals(ExifInterface.ORIENTATION_UNDEFINED, new ExifInterface(compressed.getAbsolutePath()).getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_UNDEFINED));
+    }
+
+    @Test
+    public void testCompressReducesQualityUntilSizeFits() throws Exception {
+        final var source = createJpeg(800, 800, 100);
+        final long sizeWithFullQuality = ImageCompressor.compress(source, 800, 800, Long.MAX_VALUE, 100).get().length();
+
+        final long maxBytes = sizeWithFullQuality / 2;
+        final var compressed = ImageCompressor.compress(source, 800, 800, maxBytes, 100).get();
+
+        assertTrue(compressed.length() <= maxBytes);
+        final var bounds = decodeBounds(compressed);
+        assertEquals(800, bounds.outWidth);
+        assertEquals(800, bounds.outHeight);
+    }
+
+    /**
+     * @return a JPEG with random pixels, so it can not be compressed arbitrarily well
+     */
+    private File createJpeg(int width, int height, int quality) throws IOException {
+        final var random = new Random(42);
+        final int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0xFFFFFF);
+        }
+        final var bitmap = Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+        final var file = temporaryFolder.newFile("source.jpg");
+        try (final var outputStream = new FileOutputStream(file)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, quality, outputStream);
+        } finally {
+            bitmap.recycle();
+        }
+        return file;
+    }
+
+    private static BitmapFactory.Options decodeBounds(File file) {
+        final var bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), bounds);
+        return bounds;
+    }
+}
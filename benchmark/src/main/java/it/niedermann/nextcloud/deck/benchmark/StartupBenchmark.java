@@ -0,0 +1,65 @@
+package it.niedermann.nextcloud.deck.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Measures cold and warm starts until the first cards of the last viewed board are visible.
+ * <p>
+ * The startup snapshot only gets painted after an account has been imported and a board has been opened once,
+ * so the <code>fdroidBenchmark</code> variant of the app needs to be set up manually on the device before running
+ * <code>./gradlew :benchmark:connectedBenchmarkAndroidTest</code>.
+ * Time to full display is reported by <code>MainActivity</code> once the actual board replaced the snapshot.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static final String PACKAGE_NAME = "it.niedermann.nextcloud.deck";
+    private static final int ITERATIONS = 10;
+    private static final long CARDS_TIMEOUT_MILLIS = 5_000;
+
+    @Rule
+    public final MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void coldStart() {
+        measureStartup(StartupMode.COLD);
+    }
+
+    @Test
+    public void warmStart() {
+        measureStartup(StartupMode.WARM);
+    }
+
+    private void measureStartup(@NonNull StartupMode startupMode) {
+        rule.measureRepeated(
+                PACKAGE_NAME,
+                List.of(new StartupTimingMetric()),
+                CompilationMode.DEFAULT,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    scope.getDevice().wait(Until.hasObject(By.res(PACKAGE_NAME, "recycler_view")), CARDS_TIMEOUT_MILLIS);
+                    return Unit.INSTANCE;
+                });
+    }
+}